@@ -144,6 +144,24 @@ public class COWLClassImpl implements HasIRI {
 		return iri;
 	}
 
+	/**
+	 * Objects are identified by their IRIs, so that iteration orders of hash-based
+	 * containers, and hence generated queries, are reproducible across runs.
+	 */
+	@Override
+	public int hashCode() {
+		return iri.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		return iri.equals(((COWLClassImpl) obj).iri);
+	}
+
 	/**
 	 * Get direct super classes of this object.
 	 * 
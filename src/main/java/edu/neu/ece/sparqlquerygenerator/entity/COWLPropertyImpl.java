@@ -72,8 +72,8 @@ public abstract class COWLPropertyImpl implements HasIRI {
 	/**
 	 * Characteristics of the property. For object properties, supported
 	 * characteristics include functional, symmetric property, asymmetric property,
-	 * reflexive and irreflexive property axioms, whereas Function property axioms
-	 * for data properties.
+	 * transitive, reflexive and irreflexive property axioms, whereas Function
+	 * property axioms for data properties.
 	 */
 	protected Set<AxiomType<? extends OWLAxiom>> propertyAttributes = new HashSet<>();
 
@@ -98,6 +98,24 @@ public abstract class COWLPropertyImpl implements HasIRI {
 		return iri;
 	}
 
+	/**
+	 * Objects are identified by their IRIs, so that iteration orders of hash-based
+	 * containers, and hence generated queries, are reproducible across runs.
+	 */
+	@Override
+	public int hashCode() {
+		return iri.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		return iri.equals(((COWLPropertyImpl) obj).iri);
+	}
+
 	/**
 	 * Get visit status of this object.
 	 * 
@@ -211,8 +229,8 @@ public abstract class COWLPropertyImpl implements HasIRI {
 	/**
 	 * Get characteristics of the property. For object properties, supported
 	 * characteristics include functional, symmetric property, asymmetric property,
-	 * reflexive and irreflexive property axioms, whereas Function property axioms
-	 * for data properties.
+	 * transitive, reflexive and irreflexive property axioms, whereas Function
+	 * property axioms for data properties.
 	 * 
 	 * @return Characteristics of the property as property axioms.
 	 */
@@ -0,0 +1,157 @@
+package edu.neu.ece.sparqlquerygenerator.evaluator;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.jena.query.Query;
+import org.semanticweb.owlapi.model.HasIRI;
+import org.semanticweb.owlapi.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.neu.ece.sparqlquerygenerator.generator.CheckpointableListener;
+import edu.neu.ece.sparqlquerygenerator.generator.SPARQLQueryGenerator;
+import edu.neu.ece.sparqlquerygenerator.generator.SignatureWeighting;
+
+/**
+ * This class keeps a live coverage bitmap of the named classes and properties
+ * of the input ontology that the generated queries refer to, and steers the
+ * query generator toward the ones that are not visited yet.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class CoverageTracker implements CheckpointableListener, SignatureWeighting {
+
+	/**
+	 * Logger class, used for generating log file and debugging info on console.
+	 */
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	/**
+	 * Container that maps IRIs of named classes and properties in string to their
+	 * indexes in the coverage bitmap.
+	 */
+	private final Map<String, Integer> signatureIndexes = new HashMap<>();
+
+	/**
+	 * Coverage bitmap, where a bit is set if the signature with the index is
+	 * visited.
+	 */
+	private BitSet visitedSignatures = new BitSet();
+
+	/**
+	 * The additional weight of a choice per unvisited signature it refers to.
+	 */
+	private final double unvisitedSignatureWeight;
+
+	/**
+	 * Constructor
+	 *
+	 * @param generator
+	 *            Query generator.
+	 * @param unvisitedSignatureWeight
+	 *            The additional weight of a choice per unvisited signature it
+	 *            refers to, relative to the weight 1 of every choice.
+	 */
+	public CoverageTracker(SPARQLQueryGenerator generator, double unvisitedSignatureWeight) {
+		this.unvisitedSignatureWeight = unvisitedSignatureWeight;
+		// Sorted so that bit indexes are the same across runs for checkpoints
+		Set<String> signatures = new TreeSet<>();
+		for (HasIRI cls : generator.getClassMap().keySet())
+			signatures.add(cls.getIRI().getIRIString());
+		for (HasIRI prop : generator.getDataPropertyMap().keySet())
+			signatures.add(prop.getIRI().getIRIString());
+		for (HasIRI prop : generator.getObjectPropertyMap().keySet())
+			signatures.add(prop.getIRI().getIRIString());
+		for (String signature : signatures)
+			signatureIndexes.put(signature, signatureIndexes.size());
+	}
+
+	/**
+	 * Mark the named classes and properties of a generated query as visited.
+	 *
+	 * @param queryID
+	 *            Query ID.
+	 * @param query
+	 *            The generated query.
+	 */
+	@Override
+	public void queryGenerated(int queryID, Query query) {
+		QueryProperty queryProperty = new QueryProperty(queryID);
+		queryProperty.processQueryPattern(query.getQueryPattern());
+		queryProperty.processTriplePatterns();
+		int visitedSignatureNumber = visitedSignatures.cardinality();
+		for (String node : queryProperty.classNodes)
+			visit(node);
+		for (String node : queryProperty.propertyNodes)
+			visit(node);
+		if (visitedSignatures.cardinality() > visitedSignatureNumber)
+			logger.debug("Query {} covers {} out of {} signatures.", queryID, visitedSignatures.cardinality(),
+					signatureIndexes.size());
+	}
+
+	/**
+	 * Mark a signature as visited.
+	 *
+	 * @param iriString
+	 *            IRI of the named class or property in string.
+	 */
+	private void visit(String iriString) {
+		Integer index = signatureIndexes.get(iriString);
+		if (index != null)
+			visitedSignatures.set(index);
+	}
+
+	/**
+	 * Get the weight of a choice, which is 1 plus the additional weight per
+	 * unvisited signature it refers to.
+	 *
+	 * @param signature
+	 *            IRIs of the named classes and properties the choice refers to.
+	 * @return The weight of the choice.
+	 */
+	@Override
+	public double getWeight(Set<IRI> signature) {
+		double weight = 1;
+		for (IRI iri : signature) {
+			Integer index = signatureIndexes.get(iri.getIRIString());
+			if (index != null && !visitedSignatures.get(index))
+				weight += unvisitedSignatureWeight;
+		}
+		return weight;
+	}
+
+	/**
+	 * Get the number of visited signatures.
+	 *
+	 * @return The number of visited signatures.
+	 */
+	public int getVisitedSignatureNumber() {
+		return visitedSignatures.cardinality();
+	}
+
+	/**
+	 * Get the number of signatures.
+	 *
+	 * @return The number of signatures.
+	 */
+	public int getSignatureNumber() {
+		return signatureIndexes.size();
+	}
+
+	@Override
+	public Serializable saveState() {
+		return (BitSet) visitedSignatures.clone();
+	}
+
+	@Override
+	public void restoreState(Serializable state) {
+		visitedSignatures = (BitSet) ((BitSet) state).clone();
+	}
+}
@@ -0,0 +1,404 @@
+package edu.neu.ece.sparqlquerygenerator.evaluator;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.jena.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.neu.ece.sparqlquerygenerator.generator.CheckpointableListener;
+import edu.neu.ece.sparqlquerygenerator.generator.SPARQLQueryGenerator;
+
+/**
+ * This class steers the query generator toward target rates of queries that
+ * contain keywords FILTER, OPTIONAL and UNION, a target mean number of triple
+ * patterns per query and target rates of join types. After each generated
+ * query, the probability that controls a target is adjusted by stochastic
+ * approximation: it is raised if the query falls short of the target and
+ * lowered if it exceeds the target, in proportion to the difference, with a
+ * decreasing step size.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class DistributionController implements CheckpointableListener {
+
+	/**
+	 * Keywords whose rates can be targeted.
+	 */
+	public enum Keyword {
+		/**
+		 * Keyword FILTER, controlled by the filter probability.
+		 */
+		FILTER,
+
+		/**
+		 * Keyword OPTIONAL, controlled by the optional graph pattern probability.
+		 */
+		OPTIONAL,
+
+		/**
+		 * Keyword UNION, controlled by the union graph pattern probability.
+		 */
+		UNION
+	}
+
+	/**
+	 * Join types whose rates among all joins can be targeted. The other join
+	 * types of the evaluation results cannot be targeted: generated triple
+	 * patterns never have variable predicates, so Subject-Predicate and
+	 * Predicate-Object joins do not occur, and Object-Object and Subject-Object
+	 * joins are side effects of the choices of object property assertions,
+	 * which already control the number of triple patterns.
+	 */
+	public enum JoinType {
+		/**
+		 * Subject-Subject joins, controlled by the data property assertion
+		 * probability.
+		 */
+		SS(0),
+
+		/**
+		 * Predicate-Predicate joins, mostly between class assertions, controlled by
+		 * the class assertion probability.
+		 */
+		PP(1);
+
+		/**
+		 * Index of the join type in {@link QueryProperty#tripleJointypeCount}.
+		 */
+		private final int index;
+
+		JoinType(int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * The initial step size of probability adjustment.
+	 */
+	private static final double INITIAL_STEP_SIZE = 0.5;
+
+	/**
+	 * The minimum step size of probability adjustment, so that the probabilities
+	 * keep tracking the targets.
+	 */
+	private static final double MINIMUM_STEP_SIZE = 0.01;
+
+	/**
+	 * Logger class, used for generating log file and debugging info on console.
+	 */
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	/**
+	 * Query generator.
+	 */
+	private final SPARQLQueryGenerator generator;
+
+	/**
+	 * Target rates of queries that contain the keywords.
+	 */
+	private final Map<Keyword, Double> targetRates;
+
+	/**
+	 * Target mean number of triple patterns per query, or 0 if not targeted.
+	 */
+	private final double targetTriplePatterns;
+
+	/**
+	 * Target rates of join types among all joins.
+	 */
+	private final Map<JoinType, Double> targetJoinTypeRates;
+
+	/**
+	 * The tolerance of the difference between a target rate and the rate of the
+	 * generated queries, relative to the target for the mean number of triple
+	 * patterns.
+	 */
+	private final double tolerance;
+
+	/**
+	 * The probability of creating a conjunction graph pattern set by the user,
+	 * which is lowered if the optional and union graph pattern probabilities
+	 * exceed the remaining probability.
+	 */
+	private final double conjunctionGraphPatternProbability;
+
+	/**
+	 * The number of generated queries.
+	 */
+	private int queryCount = 0;
+
+	/**
+	 * The numbers of generated queries that contain the keywords.
+	 */
+	private Map<Keyword, Integer> keywordCounts = new EnumMap<>(Keyword.class);
+
+	/**
+	 * The number of triple patterns of the generated queries.
+	 */
+	private long triplePatternCount = 0;
+
+	/**
+	 * The number of joins of the generated queries.
+	 */
+	private long joinCount = 0;
+
+	/**
+	 * The numbers of joins of the generated queries of the join types.
+	 */
+	private Map<JoinType, Long> joinTypeCounts = new EnumMap<>(JoinType.class);
+
+	/**
+	 * Constructor
+	 *
+	 * @param generator
+	 *            Query generator.
+	 * @param targetRates
+	 *            Target rates of queries that contain the keywords.
+	 * @param targetTriplePatterns
+	 *            Target mean number of triple patterns per query, or 0 if not
+	 *            targeted.
+	 * @param targetJoinTypeRates
+	 *            Target rates of join types among all joins.
+	 * @param tolerance
+	 *            The tolerance of the difference between a target rate and the
+	 *            rate of the generated queries, relative to the target for the
+	 *            mean number of triple patterns.
+	 */
+	public DistributionController(SPARQLQueryGenerator generator, Map<Keyword, Double> targetRates,
+			double targetTriplePatterns, Map<JoinType, Double> targetJoinTypeRates, double tolerance) {
+		this.generator = generator;
+		this.targetRates = new EnumMap<>(Keyword.class);
+		this.targetRates.putAll(targetRates);
+		this.targetTriplePatterns = targetTriplePatterns;
+		this.targetJoinTypeRates = new EnumMap<>(JoinType.class);
+		this.targetJoinTypeRates.putAll(targetJoinTypeRates);
+		this.tolerance = tolerance;
+		conjunctionGraphPatternProbability = generator.getConjunctionGraphPatternProbability();
+		for (Keyword keyword : Keyword.values())
+			keywordCounts.put(keyword, 0);
+		for (JoinType joinType : JoinType.values())
+			joinTypeCounts.put(joinType, 0L);
+	}
+
+	/**
+	 * Adjust the probabilities of the query generator after a generated query.
+	 *
+	 * @param queryID
+	 *            Query ID.
+	 * @param query
+	 *            The generated query.
+	 */
+	@Override
+	public void queryGenerated(int queryID, Query query) {
+		QueryProperty queryProperty = new QueryProperty(queryID);
+		queryProperty.processQueryPattern(query.getQueryPattern());
+		queryProperty.processTriplePatterns();
+		queryCount++;
+		double stepSize = Math.max(INITIAL_STEP_SIZE / Math.sqrt(queryCount), MINIMUM_STEP_SIZE);
+		double filter = generator.getFilterProbability();
+		double optional = generator.getOptionalGraphPatternProbability();
+		double union = generator.getUnionGraphPatternProbability();
+		for (Entry<Keyword, Double> target : targetRates.entrySet()) {
+			boolean contained;
+			switch (target.getKey()) {
+			case FILTER:
+				contained = queryProperty.containKeywordFILTER;
+				filter = adjust(filter, target.getValue(), contained, stepSize);
+				break;
+			case OPTIONAL:
+				contained = queryProperty.containKeywordOPTIONAL;
+				optional = adjust(optional, target.getValue(), contained, stepSize);
+				break;
+			default:
+				contained = queryProperty.containKeywordUNION;
+				union = adjust(union, target.getValue(), contained, stepSize);
+				break;
+			}
+			if (contained)
+				keywordCounts.merge(target.getKey(), 1, Integer::sum);
+		}
+		int triplePatterns = queryProperty.triplePatterns.size();
+		triplePatternCount += triplePatterns;
+		double classAssertion = generator.getClassAssertionProbability();
+		double objectPropertyAssertion = generator.getObjectPropertyAssertionProbability();
+		double dataPropertyAssertion = generator.getDataPropertyAssertionProbability();
+		// Each object property assertion links another class with its triple patterns
+		if (targetTriplePatterns > 0)
+			objectPropertyAssertion = clamp(objectPropertyAssertion
+					+ stepSize * (targetTriplePatterns - triplePatterns) / targetTriplePatterns);
+		int joins = 0;
+		for (int count : queryProperty.tripleJointypeCount)
+			joins += count;
+		joinCount += joins;
+		// Scaled by the mean number of joins, the adjustments balance out once the
+		// join type makes up the target rate of all joins
+		double meanJoins = Math.max((double) joinCount / queryCount, 1);
+		for (Entry<JoinType, Double> target : targetJoinTypeRates.entrySet()) {
+			int count = queryProperty.tripleJointypeCount[target.getKey().index];
+			double adjustment = stepSize * (target.getValue() * joins - count) / meanJoins;
+			if (target.getKey() == JoinType.SS)
+				dataPropertyAssertion = clamp(dataPropertyAssertion + adjustment);
+			else
+				classAssertion = clamp(classAssertion + adjustment);
+			joinTypeCounts.merge(target.getKey(), (long) count, Long::sum);
+		}
+		generator.setTriplePatternProbability(classAssertion, objectPropertyAssertion, dataPropertyAssertion);
+		// The graph pattern probabilities must not sum up to more than 1
+		if (optional + union > 1) {
+			double scale = 1 / (optional + union);
+			optional *= scale;
+			union *= scale;
+		}
+		generator.setFilterProbability(filter);
+		generator.setGraphPatternProbability(Math.min(conjunctionGraphPatternProbability, 1 - optional - union),
+				optional, union);
+	}
+
+	/**
+	 * Adjust a probability toward a target rate.
+	 *
+	 * @param probability
+	 *            The probability.
+	 * @param targetRate
+	 *            The target rate.
+	 * @param contained
+	 *            True if the generated query contains the keyword, false
+	 *            otherwise.
+	 * @param stepSize
+	 *            Step size.
+	 * @return The adjusted probability.
+	 */
+	private static double adjust(double probability, double targetRate, boolean contained, double stepSize) {
+		return clamp(probability + stepSize * (targetRate - (contained ? 1 : 0)));
+	}
+
+	/**
+	 * Clamp a probability into [0, 1].
+	 *
+	 * @param probability
+	 *            The probability.
+	 * @return The clamped probability.
+	 */
+	private static double clamp(double probability) {
+		return Math.min(Math.max(probability, 0), 1);
+	}
+
+	/**
+	 * Log the rates of the generated queries that contain the keywords, the mean
+	 * number of triple patterns and the rates of join types against the targets,
+	 * and warn if one is out of the tolerance.
+	 */
+	public void logSummary() {
+		if (queryCount == 0)
+			return;
+		for (Entry<Keyword, Double> target : targetRates.entrySet()) {
+			double rate = (double) keywordCounts.get(target.getKey()) / queryCount;
+			String message = String.format("Rate of queries with keyword %s is %.4f (target %.4f).", target.getKey(),
+					rate, target.getValue());
+			if (Math.abs(rate - target.getValue()) > tolerance)
+				logger.warn(message + " The target is not reached within the tolerance " + tolerance
+						+ "; it may not be reachable with the input ontology and other probabilities.");
+			else
+				logger.info(message);
+		}
+		if (targetTriplePatterns > 0) {
+			double mean = (double) triplePatternCount / queryCount;
+			String message = String.format("Mean number of triple patterns is %.4f (target %.4f).", mean,
+					targetTriplePatterns);
+			if (Math.abs(mean - targetTriplePatterns) > tolerance * targetTriplePatterns)
+				logger.warn(message + " The target is not reached within the relative tolerance " + tolerance
+						+ "; it may not be reachable with the input ontology and other probabilities.");
+			else
+				logger.info(message);
+		}
+		for (Entry<JoinType, Double> target : targetJoinTypeRates.entrySet()) {
+			double rate = joinCount == 0 ? 0 : (double) joinTypeCounts.get(target.getKey()) / joinCount;
+			String message = String.format("Rate of %s joins is %.4f (target %.4f).", target.getKey(), rate,
+					target.getValue());
+			if (Math.abs(rate - target.getValue()) > tolerance)
+				logger.warn(message + " The target is not reached within the tolerance " + tolerance
+						+ "; it may not be reachable with the input ontology and other probabilities.");
+			else
+				logger.info(message);
+		}
+		logger.info(String.format(
+				"Final probabilities: filter = %.4f, conjunction = %.4f, optional = %.4f, union = %.4f, class assertion = %.4f, object property assertion = %.4f, data property assertion = %.4f.",
+				generator.getFilterProbability(), generator.getConjunctionGraphPatternProbability(),
+				generator.getOptionalGraphPatternProbability(), generator.getUnionGraphPatternProbability(),
+				generator.getClassAssertionProbability(), generator.getObjectPropertyAssertionProbability(),
+				generator.getDataPropertyAssertionProbability()));
+	}
+
+	@Override
+	public Serializable saveState() {
+		State state = new State();
+		state.queryCount = queryCount;
+		state.keywordCounts = new EnumMap<>(keywordCounts);
+		state.triplePatternCount = triplePatternCount;
+		state.joinCount = joinCount;
+		state.joinTypeCounts = new EnumMap<>(joinTypeCounts);
+		state.probabilities = new double[] { generator.getFilterProbability(),
+				generator.getConjunctionGraphPatternProbability(), generator.getOptionalGraphPatternProbability(),
+				generator.getUnionGraphPatternProbability(), generator.getClassAssertionProbability(),
+				generator.getObjectPropertyAssertionProbability(), generator.getDataPropertyAssertionProbability() };
+		return state;
+	}
+
+	@Override
+	public void restoreState(Serializable state) {
+		State s = (State) state;
+		queryCount = s.queryCount;
+		keywordCounts = new EnumMap<>(s.keywordCounts);
+		triplePatternCount = s.triplePatternCount;
+		joinCount = s.joinCount;
+		joinTypeCounts = new EnumMap<>(s.joinTypeCounts);
+		generator.setFilterProbability(s.probabilities[0]);
+		generator.setGraphPatternProbability(s.probabilities[1], s.probabilities[2], s.probabilities[3]);
+		generator.setTriplePatternProbability(s.probabilities[4], s.probabilities[5], s.probabilities[6]);
+	}
+
+	/**
+	 * Counts and adjusted probabilities, saved in generation checkpoints.
+	 */
+	private static class State implements Serializable {
+
+		private static final long serialVersionUID = 2L;
+
+		/**
+		 * The number of generated queries.
+		 */
+		int queryCount;
+
+		/**
+		 * The numbers of generated queries that contain the keywords.
+		 */
+		EnumMap<Keyword, Integer> keywordCounts;
+
+		/**
+		 * The number of triple patterns of the generated queries.
+		 */
+		long triplePatternCount;
+
+		/**
+		 * The number of joins of the generated queries.
+		 */
+		long joinCount;
+
+		/**
+		 * The numbers of joins of the generated queries of the join types.
+		 */
+		EnumMap<JoinType, Long> joinTypeCounts;
+
+		/**
+		 * The filter, conjunction, optional and union graph pattern probabilities,
+		 * and the class, object property and data property assertion probabilities.
+		 */
+		double[] probabilities;
+	}
+}
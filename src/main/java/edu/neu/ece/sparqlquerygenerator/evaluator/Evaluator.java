@@ -2,11 +2,15 @@ package edu.neu.ece.sparqlquerygenerator.evaluator;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -15,18 +19,7 @@ import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.jena.graph.Triple;
 import org.apache.jena.query.Query;
-import org.apache.jena.sparql.expr.E_Exists;
-import org.apache.jena.sparql.expr.E_NotExists;
-import org.apache.jena.sparql.expr.Expr;
-import org.apache.jena.sparql.syntax.Element;
-import org.apache.jena.sparql.syntax.ElementFilter;
-import org.apache.jena.sparql.syntax.ElementGroup;
-import org.apache.jena.sparql.syntax.ElementMinus;
-import org.apache.jena.sparql.syntax.ElementOptional;
-import org.apache.jena.sparql.syntax.ElementTriplesBlock;
-import org.apache.jena.sparql.syntax.ElementUnion;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
@@ -42,7 +35,9 @@ import edu.neu.ece.sparqlquerygenerator.entity.COWLClassImpl;
 import edu.neu.ece.sparqlquerygenerator.entity.COWLDataPropertyImpl;
 import edu.neu.ece.sparqlquerygenerator.entity.COWLObjectPropertyImpl;
 import edu.neu.ece.sparqlquerygenerator.entity.COWLPropertyImpl;
+import edu.neu.ece.sparqlquerygenerator.generator.CheckpointableListener;
 import edu.neu.ece.sparqlquerygenerator.generator.SPARQLQueryGenerator;
+import edu.neu.ece.sparqlquerygenerator.statistics.CardinalityEstimator;
 import edu.neu.ece.sparqlquerygenerator.utility.MathUtil;
 import uk.ac.manchester.cs.owl.owlapi.OWLClassImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataAllValuesFromImpl;
@@ -67,13 +62,15 @@ import uk.ac.manchester.cs.owl.owlapi.OWLObjectSomeValuesFromImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLObjectUnionOfImpl;
 
 /**
- * This class is defined exclusively for query evaluation.
+ * This class is defined exclusively for query evaluation. Queries are evaluated
+ * one by one as they are generated, and evaluation results are dumped into file
+ * whenever the number of evaluated queries reaches an evaluation checkpoint.
  * 
  * @author Yanji Chen
  * @version 1.0
  * @since 2019-07-29
  */
-public class Evaluator {
+public class Evaluator implements CheckpointableListener {
 
 	/**
 	 * Logger class, used for generating log file and debugging info on console.
@@ -81,20 +78,194 @@ public class Evaluator {
 	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
 
 	/**
-	 * An array list of queries.
+	 * Query generator.
 	 */
-	private final ArrayList<Query> queries;
+	private final SPARQLQueryGenerator generator;
 
 	/**
 	 * Selected root class in the input ontology as the entry for dataset
 	 * generation.
 	 */
-	private final COWLClassImpl rootClass;
+	private COWLClassImpl rootClass;
 
 	/**
-	 * The number of queries.
+	 * The numbers of evaluated queries at which evaluation results are dumped
+	 * into file.
 	 */
-	private final int queryNumber;
+	private final TreeSet<Integer> evaluationCheckpoints;
+
+	/**
+	 * The number of evaluated queries.
+	 */
+	private int queryCount = 0;
+
+	/**
+	 * The number of evaluated queries when evaluation results were last dumped
+	 * into file.
+	 */
+	private int lastReportedQueryCount = 0;
+
+	/**
+	 * The quantile of the standard normal distribution of the 95% confidence
+	 * level, used for checking convergence of the metrics.
+	 */
+	private static final double CONFIDENCE_Z = 1.96;
+
+	/**
+	 * The tolerance of the metrics, i.e. the maximum half-width of their 95%
+	 * confidence intervals, at which query generation is stopped; 0 if query
+	 * generation is not stopped early.
+	 */
+	private double convergenceTolerance = 0;
+
+	/**
+	 * The number of evaluated queries when the metrics converged; 0 if they have
+	 * not converged.
+	 */
+	private int convergedQueryCount = 0;
+
+	/**
+	 * Estimator of the number of results of the evaluated queries; null if the
+	 * results are not estimated.
+	 */
+	private CardinalityEstimator cardinalityEstimator;
+
+	/**
+	 * The maximum half-width of the confidence intervals of the metrics last
+	 * checked for convergence.
+	 */
+	private double maximumHalfWidth = 1;
+
+	/**
+	 * Name of the metric with the maximum half-width.
+	 */
+	private String widestMetric = "";
+
+	/**
+	 * The number of evaluated queries that visit each target signature, used to
+	 * estimate the probability that a new query visits an unvisited target
+	 * signature.
+	 */
+	private Map<String, Integer> signatureVisitCounts = new HashMap<>();
+
+	/**
+	 * The number of target signatures visited by exactly one evaluated query.
+	 */
+	private int singletonSignatureCount = 0;
+
+	/**
+	 * The size of arrays that count triple patterns and joins per query.
+	 */
+	private static final int ARRAY_SIZE = 100;
+
+	/**
+	 * The number of queries that contain keyword FILTER.
+	 */
+	private int keywordFILTERCount = 0;
+
+	/**
+	 * The number of queries that contain keyword AND.
+	 */
+	private int keywordANDCount = 0;
+
+	/**
+	 * The number of queries that contain keyword UNION.
+	 */
+	private int keywordUNIONCount = 0;
+
+	/**
+	 * The number of queries that contain keyword OPTIONAL.
+	 */
+	private int keywordOPTIONALCount = 0;
+
+	/**
+	 * The number of queries that contain keyword MINUS.
+	 */
+	private int keywordMINUSCount = 0;
+
+	/**
+	 * The number of queries that contain keyword NOT EXISTS.
+	 */
+	private int keywordNOTEXISTSCount = 0;
+
+	/**
+	 * The number of queries that contain keyword EXISTS.
+	 */
+	private int keywordEXISTSCount = 0;
+
+	/**
+	 * The number of queries that contain an aggregate.
+	 */
+	private int keywordAggregateCount = 0;
+
+	/**
+	 * The number of queries that contain keyword GROUP BY.
+	 */
+	private int keywordGROUPBYCount = 0;
+
+	/**
+	 * The number of queries that contain keyword ORDER BY.
+	 */
+	private int keywordORDERBYCount = 0;
+
+	/**
+	 * The number of queries that contain keyword LIMIT.
+	 */
+	private int keywordLIMITCount = 0;
+
+	/**
+	 * The number of queries that contain keyword OFFSET.
+	 */
+	private int keywordOFFSETCount = 0;
+
+	/**
+	 * The number of queries that contain a property path.
+	 */
+	private int keywordPropertyPathCount = 0;
+
+	/**
+	 * The number of queries that contain a subquery.
+	 */
+	private int keywordSubqueryCount = 0;
+
+	/**
+	 * The number of queries that contain keyword VALUES.
+	 */
+	private int keywordVALUESCount = 0;
+
+	/**
+	 * The number of queries that contain each of the six property path
+	 * operators: inverse (^), sequence (/), alternative (|), one or more (+), zero
+	 * or more (*) and zero or one (?).
+	 */
+	private int[] propertyPathOperatorCount = new int[6];
+
+	/**
+	 * The number of queries of each of the 16 subsets of operator set {FILTER,
+	 * AND, OPTIONAL, UNION}.
+	 */
+	private int[] operatorSetCount = new int[16];
+
+	/**
+	 * The number of queries per triple pattern amount.
+	 */
+	private int[] triplePatternCount = new int[ARRAY_SIZE];
+
+	/**
+	 * The number of joins of each of the six join types.
+	 */
+	private long[] joinTypeCount = new long[6];
+
+	/**
+	 * The number of queries per join amount.
+	 */
+	private int[] joinAmountCount = new int[ARRAY_SIZE];
+
+	/**
+	 * The number of queries with estimated results in [0, 1), [1, 10), [10, 100),
+	 * [100, 1000), [1000, 10000) and [10000, +inf), respectively.
+	 */
+	private int[] estimatedResultsCount = new int[6];
 
 	/**
 	 * OWL data factory for creating entities, class expressions and axioms.
@@ -205,6 +376,51 @@ public class Evaluator {
 	 */
 	private double keywordEXISTSCoverage = 0.00;
 
+	/**
+	 * Aggregate coverage metric.
+	 */
+	private double keywordAggregateCoverage = 0.00;
+
+	/**
+	 * Keyword GROUP BY coverage metric.
+	 */
+	private double keywordGROUPBYCoverage = 0.00;
+
+	/**
+	 * Keyword ORDER BY coverage metric.
+	 */
+	private double keywordORDERBYCoverage = 0.00;
+
+	/**
+	 * Keyword LIMIT coverage metric.
+	 */
+	private double keywordLIMITCoverage = 0.00;
+
+	/**
+	 * Keyword OFFSET coverage metric.
+	 */
+	private double keywordOFFSETCoverage = 0.00;
+
+	/**
+	 * Property path coverage metric.
+	 */
+	private double keywordPropertyPathCoverage = 0.00;
+
+	/**
+	 * Subquery coverage metric.
+	 */
+	private double keywordSubqueryCoverage = 0.00;
+
+	/**
+	 * Keyword VALUES coverage metric.
+	 */
+	private double keywordVALUESCoverage = 0.00;
+
+	/**
+	 * Coverage metric of each of the six property path operators.
+	 */
+	private double[] propertyPathOperatorCoverage = new double[6];
+
 	/**
 	 * Proportion of each of the 16 subsets of operator set {FILTER, AND, OPTIONAL,
 	 * UNION}.
@@ -231,18 +447,24 @@ public class Evaluator {
 	 */
 	private double[] tripleJointypeDistribution = { 1.00, 0.00, 0.00, 0.00, 0.00, 0.00 };
 
+	/**
+	 * Proportion of queries with estimated results in [0, 1), [1, 10), [10, 100),
+	 * [100, 1000), [1000, 10000) and [10000, +inf), respectively.
+	 */
+	private double[] estimatedResultsDistribution = new double[6];
+
 	/**
 	 * Constructor
 	 * 
-	 * @param queries
-	 *            An array list of queries.
 	 * @param generator
 	 *            Query generator.
+	 * @param evaluationCheckpoints
+	 *            The numbers of evaluated queries at which evaluation results are
+	 *            dumped into file, in addition to the end of the evaluation.
 	 */
-	public Evaluator(ArrayList<Query> queries, SPARQLQueryGenerator generator) {
-		this.queries = queries;
-		rootClass = generator.getRootClass();
-		queryNumber = generator.getQueryNumber();
+	public Evaluator(SPARQLQueryGenerator generator, Collection<Integer> evaluationCheckpoints) {
+		this.generator = generator;
+		this.evaluationCheckpoints = new TreeSet<>(evaluationCheckpoints);
 		factory = generator.getFactory();
 		classMap = generator.getClassMap();
 		dataPropertyMap = generator.getDataPropertyMap();
@@ -250,457 +472,683 @@ public class Evaluator {
 	}
 
 	/**
-	 * This function defines the whole control flow of the evaluation process.
+	 * Set the tolerance of the metrics. Once the half-width of the 95% confidence
+	 * interval of every keyword coverage and distribution metric, and the
+	 * estimated probability that a new query visits an unvisited target
+	 * signature, are within the tolerance, query generation is stopped.
+	 * 
+	 * @param convergenceTolerance
+	 *            The tolerance; 0 if query generation is not stopped early.
+	 */
+	public void setConvergenceTolerance(double convergenceTolerance) {
+		this.convergenceTolerance = convergenceTolerance;
+	}
+
+	/**
+	 * Set the estimator of the number of results of the evaluated queries. The
+	 * estimate of each query is logged, and their distribution is dumped with the
+	 * other metrics.
+	 * 
+	 * @param cardinalityEstimator
+	 *            The estimator; null if the results are not estimated.
+	 */
+	public void setCardinalityEstimator(CardinalityEstimator cardinalityEstimator) {
+		this.cardinalityEstimator = cardinalityEstimator;
+	}
+
+	/**
+	 * Get the number of evaluated queries when the metrics converged.
+	 * 
+	 * @return The number of queries; 0 if the metrics have not converged.
+	 */
+	public int getConvergedQueryCount() {
+		return convergedQueryCount;
+	}
+
+	/**
+	 * Evaluate a generated query, and dump evaluation results into file if the
+	 * number of evaluated queries reaches an evaluation checkpoint.
 	 * 
+	 * @param queryID
+	 *            Query ID.
+	 * @param query
+	 *            The generated query.
 	 * @throws Exception
 	 *             If there exists invalid input arguments.
 	 */
-	public void evaluate() throws Exception {
+	@Override
+	public void queryGenerated(int queryID, Query query) throws Exception {
+		initTargetSignatures();
+		QueryProperty queryProperty = new QueryProperty(queryID);
+		queryProperty.processQueryPattern(query.getQueryPattern());
+		queryProperty.processTriplePatterns();
+		queryProperty.processSolutionModifiers(query);
+		if (cardinalityEstimator != null) {
+			queryProperty.estimatedResults = cardinalityEstimator.estimate(query);
+			logger.info("SPARQL query with query ID {} is estimated to return {} results.", queryID,
+					Math.round(queryProperty.estimatedResults));
+		}
+		// System.out.println(queryProperty.toString());
+		collectMetrics(queryProperty);
+		queryCount++;
+		if (convergenceTolerance > 0 && convergedQueryCount == 0 && checkConvergence()) {
+			convergedQueryCount = queryCount;
+			logger.info("Metrics have converged within tolerance {} after {} queries.", convergenceTolerance,
+					queryCount);
+			generator.stopGeneration();
+		}
+		if (evaluationCheckpoints.contains(queryCount)) {
+			calculateMetrics();
+			printToFile();
+		}
+	}
+
+	/**
+	 * Find out target signatures of the root class when the first query is
+	 * evaluated, since the root class is found by the query generator.
+	 */
+	private void initTargetSignatures() {
+		if (rootClass != null)
+			return;
 		logger.info("Begin evaluating the generated queries...");
+		rootClass = generator.getRootClass();
 		findTargetSignatures(factory.getOWLClass(rootClass.getIRI()));
-		ArrayList<QueryProperty> queryProperties = generateQueryProperties();
-		// for(int i = 0; i < queryProperties.size(); i++)
-		// System.out.println(queryProperties.get(i).toString());
-		collectMetrics(queryProperties);
-		printToFile();
 	}
 
 	/**
-	 * This function utilizes DFS algorithm to find target signatures in which
-	 * concepts are reachable from the root class.
+	 * Get the metrics collected from the evaluated queries.
 	 * 
-	 * @param <T>
-	 *            The class of the node.
-	 * @param node
-	 *            Node of generic type T.
+	 * @return The state of the evaluator.
+	 */
+	@Override
+	public Serializable saveState() {
+		State state = new State();
+		state.queryCount = queryCount;
+		state.lastReportedQueryCount = lastReportedQueryCount;
+		state.keywordCounts = new int[] { keywordFILTERCount, keywordANDCount, keywordUNIONCount,
+				keywordOPTIONALCount, keywordMINUSCount, keywordNOTEXISTSCount, keywordEXISTSCount,
+				keywordAggregateCount, keywordGROUPBYCount, keywordORDERBYCount, keywordLIMITCount,
+				keywordOFFSETCount, keywordPropertyPathCount, keywordSubqueryCount, keywordVALUESCount };
+		state.propertyPathOperatorCount = propertyPathOperatorCount.clone();
+		state.operatorSetCount = operatorSetCount.clone();
+		state.triplePatternCount = triplePatternCount.clone();
+		state.joinTypeCount = joinTypeCount.clone();
+		state.joinAmountCount = joinAmountCount.clone();
+		state.estimatedResultsCount = estimatedResultsCount.clone();
+		state.convergedQueryCount = convergedQueryCount;
+		state.signatureVisitCounts = new HashMap<>(signatureVisitCounts);
+		state.visitedSignatures = new TreeSet<>();
+		for (Map<String, Boolean> visitStatus : Arrays.asList(targetClassAndVisitStatus,
+				targetDataPropertyAndVisitStatus, targetObjectPropertyAndVisitStatus))
+			for (Entry<String, Boolean> entry : visitStatus.entrySet())
+				if (entry.getValue())
+					state.visitedSignatures.add(entry.getKey());
+		return state;
+	}
+
+	/**
+	 * Restore the metrics collected from the queries evaluated before a generation
+	 * checkpoint.
+	 * 
+	 * @param state
+	 *            The state of the evaluator.
 	 */
-	private <T> void findTargetSignatures(T node) {
-		if (node == null)
+	@Override
+	public void restoreState(Serializable state) {
+		State s = (State) state;
+		initTargetSignatures();
+		queryCount = s.queryCount;
+		lastReportedQueryCount = s.lastReportedQueryCount;
+		keywordFILTERCount = s.keywordCounts[0];
+		keywordANDCount = s.keywordCounts[1];
+		keywordUNIONCount = s.keywordCounts[2];
+		keywordOPTIONALCount = s.keywordCounts[3];
+		keywordMINUSCount = s.keywordCounts[4];
+		keywordNOTEXISTSCount = s.keywordCounts[5];
+		keywordEXISTSCount = s.keywordCounts[6];
+		// Checkpoints saved before solution modifiers were counted have 7 counts
+		if (s.keywordCounts.length > 7) {
+			keywordAggregateCount = s.keywordCounts[7];
+			keywordGROUPBYCount = s.keywordCounts[8];
+			keywordORDERBYCount = s.keywordCounts[9];
+			keywordLIMITCount = s.keywordCounts[10];
+			keywordOFFSETCount = s.keywordCounts[11];
+		}
+		// Checkpoints saved before property paths were counted have 12 counts
+		if (s.keywordCounts.length > 12) {
+			keywordPropertyPathCount = s.keywordCounts[12];
+			propertyPathOperatorCount = s.propertyPathOperatorCount.clone();
+		}
+		// Checkpoints saved before subqueries and VALUES were counted have 13 counts
+		if (s.keywordCounts.length > 13) {
+			keywordSubqueryCount = s.keywordCounts[13];
+			keywordVALUESCount = s.keywordCounts[14];
+		}
+		operatorSetCount = s.operatorSetCount.clone();
+		triplePatternCount = s.triplePatternCount.clone();
+		joinTypeCount = s.joinTypeCount.clone();
+		joinAmountCount = s.joinAmountCount.clone();
+		// Checkpoints saved before results were estimated have no counts
+		if (s.estimatedResultsCount != null)
+			estimatedResultsCount = s.estimatedResultsCount.clone();
+		for (String signature : s.visitedSignatures) {
+			targetClassAndVisitStatus.replace(signature, Boolean.TRUE);
+			targetDataPropertyAndVisitStatus.replace(signature, Boolean.TRUE);
+			targetObjectPropertyAndVisitStatus.replace(signature, Boolean.TRUE);
+		}
+		signatureVisitCounts = new HashMap<>(s.signatureVisitCounts);
+		singletonSignatureCount = 0;
+		for (int count : signatureVisitCounts.values())
+			if (count == 1)
+				singletonSignatureCount++;
+		convergedQueryCount = s.convergedQueryCount;
+		// A run stopped early is not continued once resumed
+		if (convergenceTolerance > 0 && convergedQueryCount > 0)
+			generator.stopGeneration();
+	}
+
+	/**
+	 * This function finishes the evaluation process, and dumps evaluation results
+	 * of all the evaluated queries into file unless they have been dumped at an
+	 * evaluation checkpoint.
+	 * 
+	 * @throws Exception
+	 *             If there exists invalid input arguments.
+	 */
+	public void evaluate() throws Exception {
+		if (queryCount == 0) {
+			logger.warn("No query is evaluated.");
 			return;
-		visitedNodes.add(node);
-
-		if (node instanceof OWLClassImpl) {
-			OWLClassImpl clsImpl = (OWLClassImpl) node;
-			if (clsImpl.isOWLThing() || clsImpl.isOWLNothing())
-				return;
-			targetClassAndVisitStatus.put(clsImpl.getIRI().getIRIString(), Boolean.FALSE);
-			COWLClassImpl owlClsImpl = classMap.get(clsImpl);
-			for (COWLClassImpl sub : owlClsImpl.getSubClasses()) {
-				OWLClass cls = factory.getOWLClass(sub.getIRI());
-				if (!visitedNodes.contains(cls))
-					findTargetSignatures(cls);
-			}
-			for (COWLClassImpl sup : owlClsImpl.getSuperClasses()) {
-				OWLClass cls = factory.getOWLClass(sup.getIRI());
-				if (!visitedNodes.contains(cls))
-					findTargetSignatures(cls);
-			}
-			for (OWLClassExpression exp : owlClsImpl.getEquivalentClasses())
+		}
+		if (queryCount != lastReportedQueryCount) {
+			calculateMetrics();
+			printToFile();
+		}
+		logger.info("Done!");
+	}
+
+	/**
+	 * This function utilizes DFS algorithm to find target signatures in which
+	 * concepts are reachable from the root class. Nodes to visit are kept on an
+	 * explicit stack, so long chains of classes cannot overflow the call stack.
+	 * 
+	 * @param root
+	 *            The node that the search starts from.
+	 */
+	private void findTargetSignatures(Object root) {
+		// Nodes may be null, which ArrayDeque does not allow
+		Deque<Object> pending = new LinkedList<>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			Object node = pending.pop();
+			if (node == null || !visitedNodes.add(node))
+				continue;
+
+			if (node instanceof OWLClassImpl) {
+				OWLClassImpl clsImpl = (OWLClassImpl) node;
+				if (clsImpl.isOWLThing() || clsImpl.isOWLNothing())
+					continue;
+				targetClassAndVisitStatus.put(clsImpl.getIRI().getIRIString(), Boolean.FALSE);
+				COWLClassImpl owlClsImpl = classMap.get(clsImpl);
+				for (COWLClassImpl sub : owlClsImpl.getSubClasses()) {
+					OWLClass cls = factory.getOWLClass(sub.getIRI());
+					if (!visitedNodes.contains(cls))
+						pending.push(cls);
+				}
+				for (COWLClassImpl sup : owlClsImpl.getSuperClasses()) {
+					OWLClass cls = factory.getOWLClass(sup.getIRI());
+					if (!visitedNodes.contains(cls))
+						pending.push(cls);
+				}
+				for (OWLClassExpression exp : owlClsImpl.getEquivalentClasses())
+					if (!visitedNodes.contains(exp))
+						pending.push(exp);
+				for (OWLClassExpression exp : owlClsImpl.getDisjointClasses())
+					if (!visitedNodes.contains(exp))
+						pending.push(exp);
+				for (OWLClassExpression exp : owlClsImpl.getAnonymousSuperClasses())
+					if (!visitedNodes.contains(exp))
+						pending.push(exp);
+				for (Entry<OWLObjectProperty, OWLClassExpression> entry : owlClsImpl.getObjectPropertyRangesPairs()
+						.entrySet())
+					if (!visitedNodes.contains(entry))
+						pending.push(entry);
+				for (Entry<OWLDataProperty, OWLDataRange> entry : owlClsImpl.getDataPropertyRangesPairs().entrySet())
+					if (!visitedNodes.contains(entry))
+						pending.push(entry);
+			} else if (node instanceof OWLObjectIntersectionOfImpl) {
+				for (OWLClassExpression exp : ((OWLObjectIntersectionOfImpl) node).operands().collect(Collectors.toSet()))
+					if (!visitedNodes.contains(exp))
+						pending.push(exp);
+			} else if (node instanceof OWLObjectUnionOfImpl) {
+				for (OWLClassExpression exp : ((OWLObjectUnionOfImpl) node).operands().collect(Collectors.toSet()))
+					if (!visitedNodes.contains(exp))
+						pending.push(exp);
+			} else if (node instanceof OWLObjectComplementOfImpl) {
+				OWLClassExpression exp = ((OWLObjectComplementOfImpl) node).getOperand();
 				if (!visitedNodes.contains(exp))
-					findTargetSignatures(exp);
-			for (OWLClassExpression exp : owlClsImpl.getDisjointClasses())
+					pending.push(exp);
+			} else if (node instanceof OWLObjectOneOfImpl) {
+				continue;
+			} else if (node instanceof OWLObjectSomeValuesFromImpl) {
+				OWLObjectSomeValuesFromImpl res = (OWLObjectSomeValuesFromImpl) node;
+				OWLClassExpression exp = res.getFiller();
 				if (!visitedNodes.contains(exp))
-					findTargetSignatures(exp);
-			for (OWLClassExpression exp : owlClsImpl.getAnonymousSuperClasses())
+					pending.push(exp);
+				OWLObjectPropertyExpression prop = res.getProperty();
+				if (!visitedNodes.contains(prop))
+					pending.push(prop);
+			} else if (node instanceof OWLObjectAllValuesFromImpl) {
+				OWLObjectAllValuesFromImpl res = (OWLObjectAllValuesFromImpl) node;
+				OWLClassExpression exp = res.getFiller();
 				if (!visitedNodes.contains(exp))
-					findTargetSignatures(exp);
-			for (Entry<OWLObjectProperty, OWLClassExpression> entry : owlClsImpl.getObjectPropertyRangesPairs()
-					.entrySet())
-				if (!visitedNodes.contains(entry))
-					findTargetSignatures(entry);
-			for (Entry<OWLDataProperty, OWLDataRange> entry : owlClsImpl.getDataPropertyRangesPairs().entrySet())
-				if (!visitedNodes.contains(entry))
-					findTargetSignatures(entry);
-		} else if (node instanceof OWLObjectIntersectionOfImpl) {
-			for (OWLClassExpression exp : ((OWLObjectIntersectionOfImpl) node).operands().collect(Collectors.toSet()))
+					pending.push(exp);
+				OWLObjectPropertyExpression prop = res.getProperty();
+				if (!visitedNodes.contains(prop))
+					pending.push(prop);
+			} else if (node instanceof OWLObjectHasValueImpl) {
+				OWLObjectHasValueImpl res = (OWLObjectHasValueImpl) node;
+				OWLObjectPropertyExpression prop = res.getProperty();
+				if (!visitedNodes.contains(prop))
+					pending.push(prop);
+			} else if (node instanceof OWLObjectHasSelfImpl) {
+				OWLObjectHasSelfImpl res = (OWLObjectHasSelfImpl) node;
+				OWLObjectPropertyExpression prop = res.getProperty();
+				if (!visitedNodes.contains(prop))
+					pending.push(prop);
+			} else if (node instanceof OWLObjectMinCardinalityImpl) {
+				OWLObjectMinCardinalityImpl res = (OWLObjectMinCardinalityImpl) node;
+				OWLClassExpression exp = res.getFiller();
 				if (!visitedNodes.contains(exp))
-					findTargetSignatures(exp);
-		} else if (node instanceof OWLObjectUnionOfImpl) {
-			for (OWLClassExpression exp : ((OWLObjectUnionOfImpl) node).operands().collect(Collectors.toSet()))
+					pending.push(exp);
+				OWLObjectPropertyExpression prop = res.getProperty();
+				if (!visitedNodes.contains(prop))
+					pending.push(prop);
+			} else if (node instanceof OWLObjectMaxCardinalityImpl) {
+				OWLObjectMaxCardinalityImpl res = (OWLObjectMaxCardinalityImpl) node;
+				OWLClassExpression exp = res.getFiller();
 				if (!visitedNodes.contains(exp))
-					findTargetSignatures(exp);
-		} else if (node instanceof OWLObjectComplementOfImpl) {
-			OWLClassExpression exp = ((OWLObjectComplementOfImpl) node).getOperand();
-			if (!visitedNodes.contains(exp))
-				findTargetSignatures(exp);
-		} else if (node instanceof OWLObjectOneOfImpl) {
-			return;
-		} else if (node instanceof OWLObjectSomeValuesFromImpl) {
-			OWLObjectSomeValuesFromImpl res = (OWLObjectSomeValuesFromImpl) node;
-			OWLClassExpression exp = res.getFiller();
-			if (!visitedNodes.contains(exp))
-				findTargetSignatures(exp);
-			OWLObjectPropertyExpression prop = res.getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLObjectAllValuesFromImpl) {
-			OWLObjectAllValuesFromImpl res = (OWLObjectAllValuesFromImpl) node;
-			OWLClassExpression exp = res.getFiller();
-			if (!visitedNodes.contains(exp))
-				findTargetSignatures(exp);
-			OWLObjectPropertyExpression prop = res.getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLObjectHasValueImpl) {
-			OWLObjectHasValueImpl res = (OWLObjectHasValueImpl) node;
-			OWLObjectPropertyExpression prop = res.getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLObjectHasSelfImpl) {
-			OWLObjectHasSelfImpl res = (OWLObjectHasSelfImpl) node;
-			OWLObjectPropertyExpression prop = res.getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLObjectMinCardinalityImpl) {
-			OWLObjectMinCardinalityImpl res = (OWLObjectMinCardinalityImpl) node;
-			OWLClassExpression exp = res.getFiller();
-			if (!visitedNodes.contains(exp))
-				findTargetSignatures(exp);
-			OWLObjectPropertyExpression prop = res.getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLObjectMaxCardinalityImpl) {
-			OWLObjectMaxCardinalityImpl res = (OWLObjectMaxCardinalityImpl) node;
-			OWLClassExpression exp = res.getFiller();
-			if (!visitedNodes.contains(exp))
-				findTargetSignatures(exp);
-			OWLObjectPropertyExpression prop = res.getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLObjectExactCardinalityImpl) {
-			OWLObjectExactCardinalityImpl res = (OWLObjectExactCardinalityImpl) node;
-			OWLClassExpression exp = res.getFiller();
-			if (!visitedNodes.contains(exp))
-				findTargetSignatures(exp);
-			OWLObjectPropertyExpression prop = res.getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLDataSomeValuesFromImpl) {
-			OWLDataPropertyExpression prop = ((OWLDataSomeValuesFromImpl) node).getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLDataAllValuesFromImpl) {
-			OWLDataPropertyExpression prop = ((OWLDataAllValuesFromImpl) node).getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLDataHasValueImpl) {
-			OWLDataPropertyExpression prop = ((OWLDataHasValueImpl) node).getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLDataMinCardinalityImpl) {
-			OWLDataPropertyExpression prop = ((OWLDataMinCardinalityImpl) node).getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLDataMaxCardinalityImpl) {
-			OWLDataPropertyExpression prop = ((OWLDataMaxCardinalityImpl) node).getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLDataExactCardinalityImpl) {
-			OWLDataPropertyExpression prop = ((OWLDataExactCardinalityImpl) node).getProperty();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLObjectInverseOfImpl) {
-			OWLObjectProperty prop = ((OWLObjectInverseOfImpl) node).getInverse();
-			if (!visitedNodes.contains(prop))
-				findTargetSignatures(prop);
-		} else if (node instanceof OWLObjectPropertyImpl) {
-			OWLObjectPropertyImpl propImpl = (OWLObjectPropertyImpl) node;
-			if (propImpl.isOWLTopObjectProperty() || propImpl.isOWLBottomObjectProperty())
-				return;
-			targetObjectPropertyAndVisitStatus.put(propImpl.getIRI().getIRIString(), Boolean.FALSE);
-			COWLObjectPropertyImpl owlPropImpl = objectPropertyMap.get(propImpl);
-
-			for (COWLPropertyImpl sub : owlPropImpl.getSubOWLProperties()) {
-				OWLObjectProperty prop = factory.getOWLObjectProperty(sub.getIRI());
+					pending.push(exp);
+				OWLObjectPropertyExpression prop = res.getProperty();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
-			}
-			for (COWLPropertyImpl sup : owlPropImpl.getSuperOWLProperties()) {
-				OWLObjectProperty prop = factory.getOWLObjectProperty(sup.getIRI());
+					pending.push(prop);
+			} else if (node instanceof OWLObjectExactCardinalityImpl) {
+				OWLObjectExactCardinalityImpl res = (OWLObjectExactCardinalityImpl) node;
+				OWLClassExpression exp = res.getFiller();
+				if (!visitedNodes.contains(exp))
+					pending.push(exp);
+				OWLObjectPropertyExpression prop = res.getProperty();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
-			}
-			for (COWLPropertyImpl eq : owlPropImpl.getEquivalentProperties()) {
-				OWLObjectProperty prop = factory.getOWLObjectProperty(eq.getIRI());
+					pending.push(prop);
+			} else if (node instanceof OWLDataSomeValuesFromImpl) {
+				OWLDataPropertyExpression prop = ((OWLDataSomeValuesFromImpl) node).getProperty();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
-			}
-			for (COWLPropertyImpl dis : owlPropImpl.getDisjointProperties()) {
-				OWLObjectProperty prop = factory.getOWLObjectProperty(dis.getIRI());
+					pending.push(prop);
+			} else if (node instanceof OWLDataAllValuesFromImpl) {
+				OWLDataPropertyExpression prop = ((OWLDataAllValuesFromImpl) node).getProperty();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
-			}
-			for (COWLPropertyImpl inv : owlPropImpl.getInverseProperties()) {
-				OWLObjectProperty prop = factory.getOWLObjectProperty(inv.getIRI());
+					pending.push(prop);
+			} else if (node instanceof OWLDataHasValueImpl) {
+				OWLDataPropertyExpression prop = ((OWLDataHasValueImpl) node).getProperty();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
-			}
-		} else if (node instanceof OWLDataPropertyImpl) {
-			OWLDataPropertyImpl propImpl = (OWLDataPropertyImpl) node;
-			if (propImpl.isOWLTopDataProperty() || propImpl.isOWLBottomDataProperty())
-				return;
-			targetDataPropertyAndVisitStatus.put(propImpl.getIRI().getIRIString(), Boolean.FALSE);
-			COWLDataPropertyImpl owlPropImpl = dataPropertyMap.get(propImpl);
-			for (COWLPropertyImpl sub : owlPropImpl.getSubOWLProperties()) {
-				OWLDataProperty prop = factory.getOWLDataProperty(sub.getIRI());
+					pending.push(prop);
+			} else if (node instanceof OWLDataMinCardinalityImpl) {
+				OWLDataPropertyExpression prop = ((OWLDataMinCardinalityImpl) node).getProperty();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
-			}
-			for (COWLPropertyImpl sup : owlPropImpl.getSuperOWLProperties()) {
-				OWLDataProperty prop = factory.getOWLDataProperty(sup.getIRI());
+					pending.push(prop);
+			} else if (node instanceof OWLDataMaxCardinalityImpl) {
+				OWLDataPropertyExpression prop = ((OWLDataMaxCardinalityImpl) node).getProperty();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
-			}
-			for (COWLPropertyImpl eq : owlPropImpl.getEquivalentProperties()) {
-				OWLDataProperty prop = factory.getOWLDataProperty(eq.getIRI());
+					pending.push(prop);
+			} else if (node instanceof OWLDataExactCardinalityImpl) {
+				OWLDataPropertyExpression prop = ((OWLDataExactCardinalityImpl) node).getProperty();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
-			}
-			for (COWLPropertyImpl dis : owlPropImpl.getDisjointProperties()) {
-				OWLDataProperty prop = factory.getOWLDataProperty(dis.getIRI());
+					pending.push(prop);
+			} else if (node instanceof OWLObjectInverseOfImpl) {
+				OWLObjectProperty prop = ((OWLObjectInverseOfImpl) node).getInverse();
 				if (!visitedNodes.contains(prop))
-					findTargetSignatures(prop);
+					pending.push(prop);
+			} else if (node instanceof OWLObjectPropertyImpl) {
+				OWLObjectPropertyImpl propImpl = (OWLObjectPropertyImpl) node;
+				if (propImpl.isOWLTopObjectProperty() || propImpl.isOWLBottomObjectProperty())
+					continue;
+				targetObjectPropertyAndVisitStatus.put(propImpl.getIRI().getIRIString(), Boolean.FALSE);
+				COWLObjectPropertyImpl owlPropImpl = objectPropertyMap.get(propImpl);
+
+				for (COWLPropertyImpl sub : owlPropImpl.getSubOWLProperties()) {
+					OWLObjectProperty prop = factory.getOWLObjectProperty(sub.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+				for (COWLPropertyImpl sup : owlPropImpl.getSuperOWLProperties()) {
+					OWLObjectProperty prop = factory.getOWLObjectProperty(sup.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+				for (COWLPropertyImpl eq : owlPropImpl.getEquivalentProperties()) {
+					OWLObjectProperty prop = factory.getOWLObjectProperty(eq.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+				for (COWLPropertyImpl dis : owlPropImpl.getDisjointProperties()) {
+					OWLObjectProperty prop = factory.getOWLObjectProperty(dis.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+				for (COWLPropertyImpl inv : owlPropImpl.getInverseProperties()) {
+					OWLObjectProperty prop = factory.getOWLObjectProperty(inv.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+			} else if (node instanceof OWLDataPropertyImpl) {
+				OWLDataPropertyImpl propImpl = (OWLDataPropertyImpl) node;
+				if (propImpl.isOWLTopDataProperty() || propImpl.isOWLBottomDataProperty())
+					continue;
+				targetDataPropertyAndVisitStatus.put(propImpl.getIRI().getIRIString(), Boolean.FALSE);
+				COWLDataPropertyImpl owlPropImpl = dataPropertyMap.get(propImpl);
+				for (COWLPropertyImpl sub : owlPropImpl.getSubOWLProperties()) {
+					OWLDataProperty prop = factory.getOWLDataProperty(sub.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+				for (COWLPropertyImpl sup : owlPropImpl.getSuperOWLProperties()) {
+					OWLDataProperty prop = factory.getOWLDataProperty(sup.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+				for (COWLPropertyImpl eq : owlPropImpl.getEquivalentProperties()) {
+					OWLDataProperty prop = factory.getOWLDataProperty(eq.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+				for (COWLPropertyImpl dis : owlPropImpl.getDisjointProperties()) {
+					OWLDataProperty prop = factory.getOWLDataProperty(dis.getIRI());
+					if (!visitedNodes.contains(prop))
+						pending.push(prop);
+				}
+			} else if (node instanceof Entry<?, ?>) {
+				Entry<?, ?> entry = (Entry<?, ?>) node;
+				Object key = entry.getKey();
+				if (!visitedNodes.contains(key))
+					pending.push(key);
+				Object value = entry.getValue();
+				if (!visitedNodes.contains(value))
+					pending.push(value);
+			} else if (node instanceof OWLDataRange)
+				continue;
+			else {
+				logger.error("Node of type " + node.getClass().getName()
+						+ " is ignored in the process of finding target signatures!");
 			}
-		} else if (node instanceof Entry<?, ?>) {
-			Entry<?, ?> entry = (Entry<?, ?>) node;
-			Object key = entry.getKey();
-			if (!visitedNodes.contains(key))
-				findTargetSignatures(key);
-			Object value = entry.getValue();
-			if (!visitedNodes.contains(value))
-				findTargetSignatures(value);
-		} else if (node instanceof OWLDataRange)
-			return;
-		else {
-			logger.error("Node of type " + node.getClass().getName()
-					+ " is ignored in the process of finding target signatures!");
 		}
 	}
 
 	/**
-	 * Generate QueryProperty objects that record properties of the queries.
+	 * Collect query evaluation metrics of a query.
 	 * 
-	 * @return An array list of QueryProperty objects.
-	 */
-	private ArrayList<QueryProperty> generateQueryProperties() {
-		ArrayList<QueryProperty> queryProperties = new ArrayList<>(queryNumber);
-		QueryProperty queryProperty;
-		for (int i = 0; i < queryNumber; i++) {
-			queryProperty = new QueryProperty(i);
-			processQueryPattern(queries.get(i).getQueryPattern(), queryProperty);
-			queryProperty.processTriplePatterns();
-			queryProperties.add(queryProperty);
-		}
-		return queryProperties;
-	}
-
-	/**
-	 * Generate a QueryProperty object that record properties of the specified
-	 * query.
-	 * 
-	 * @param element
-	 *            A pattern element of the specified query.
-	 * @param queryProperty
-	 *            QueryProperty object.
+	 * @param qp
+	 *            QueryProperty object of the query.
+	 * @throws Exception
+	 *             If there exists invalid input arguments.
 	 */
-	private void processQueryPattern(Element element, QueryProperty queryProperty) {
-		if (element == null || queryProperty == null)
-			return;
+	private void collectMetrics(QueryProperty qp) throws Exception {
+		if (qp == null)
+			throw new NullPointerException("null arguments.");
 
-		if (element instanceof ElementGroup) {
-			List<Element> elements = ((ElementGroup) element).getElements();
-			for (int i = 0; i < elements.size() - 1; i++)
-				if ((elements.get(i).getClass() == ElementGroup.class
-						|| elements.get(i).getClass() == ElementTriplesBlock.class)
-						&& (elements.get(i + 1).getClass() == ElementGroup.class
-								|| elements.get(i + 1).getClass() == ElementTriplesBlock.class))
-					queryProperty.containKeywordAND = true;
-			for (Element el : elements)
-				processQueryPattern(el, queryProperty);
-		} else if (element instanceof ElementTriplesBlock) {
-			List<Triple> triples = ((ElementTriplesBlock) element).getPattern().getList();
-			if (triples.size() > 1)
-				queryProperty.containKeywordAND = true;
-			queryProperty.triplePatterns.addAll(triples);
-		} else if (element instanceof ElementUnion) {
-			queryProperty.containKeywordUNION = true;
-			List<Element> elements = ((ElementUnion) element).getElements();
-			for (Element el : elements)
-				processQueryPattern(el, queryProperty);
-		} else if (element instanceof ElementOptional) {
-			queryProperty.containKeywordOPTIONAL = true;
-			Element el = ((ElementOptional) element).getOptionalElement();
-			processQueryPattern(el, queryProperty);
-		} else if (element instanceof ElementMinus) {
-			queryProperty.containKeywordMINUS = true;
-			Element el = ((ElementMinus) element).getMinusElement();
-			processQueryPattern(el, queryProperty);
+		for (String node : qp.classNodes) {
+			if (targetClassAndVisitStatus.containsKey(node)) {
+				targetClassAndVisitStatus.replace(node, Boolean.TRUE);
+				countSignatureVisit(node);
+			} else
+				nonTargetClasses.add(node);
 		}
-		/*
-		 * else if (element instanceof ElementNotExists) {
-		 * queryProperty.containKeywordNOTEXISTS = true; Element el =
-		 * ((ElementNotExists) element).getElement(); processQueryPattern(el,
-		 * queryProperty); } else if (element instanceof ElementExists) {
-		 * queryProperty.containKeywordEXISTS = true; Element el = ((ElementExists)
-		 * element).getElement(); processQueryPattern(el, queryProperty); }
-		 */
-		else if (element instanceof ElementFilter) {
-			Expr expr = ((ElementFilter) element).getExpr();
-			if (expr instanceof E_Exists) {
-				queryProperty.containKeywordEXISTS = true;
-				Element el = ((E_Exists) expr).getElement();
-				processQueryPattern(el, queryProperty);
-			} else if (expr instanceof E_NotExists) {
-				queryProperty.containKeywordNOTEXISTS = true;
-				Element el = ((E_NotExists) expr).getElement();
-				processQueryPattern(el, queryProperty);
+		for (String node : qp.propertyNodes) {
+			if (targetDataPropertyAndVisitStatus.containsKey(node)) {
+				targetDataPropertyAndVisitStatus.replace(node, Boolean.TRUE);
+				countSignatureVisit(node);
+			} else if (targetObjectPropertyAndVisitStatus.containsKey(node)) {
+				targetObjectPropertyAndVisitStatus.replace(node, Boolean.TRUE);
+				countSignatureVisit(node);
 			} else
-				queryProperty.containKeywordFILTER = true;
-		} else {
-			logger.error("Element of type " + element.getClass().getName()
-					+ " is ignored in the process of traversing query patterns!");
+				nonTargetProperties.add(node);
+		}
+
+		if (qp.containKeywordFILTER)
+			keywordFILTERCount++;
+		if (qp.containKeywordAND)
+			keywordANDCount++;
+		if (qp.containKeywordUNION)
+			keywordUNIONCount++;
+		if (qp.containKeywordOPTIONAL)
+			keywordOPTIONALCount++;
+		if (qp.containKeywordMINUS)
+			keywordMINUSCount++;
+		if (qp.containKeywordNOTEXISTS)
+			keywordNOTEXISTSCount++;
+		if (qp.containKeywordEXISTS)
+			keywordEXISTSCount++;
+		if (qp.containKeywordAggregate)
+			keywordAggregateCount++;
+		if (qp.containKeywordGROUPBY)
+			keywordGROUPBYCount++;
+		if (qp.containKeywordORDERBY)
+			keywordORDERBYCount++;
+		if (qp.containKeywordLIMIT)
+			keywordLIMITCount++;
+		if (qp.containKeywordOFFSET)
+			keywordOFFSETCount++;
+		if (!qp.propertyPaths.isEmpty())
+			keywordPropertyPathCount++;
+		if (qp.containSubquery)
+			keywordSubqueryCount++;
+		if (qp.containKeywordVALUES)
+			keywordVALUESCount++;
+		for (int i = 0; i < propertyPathOperatorCount.length; i++)
+			if (qp.propertyPathOperatorCount[i] > 0)
+				propertyPathOperatorCount[i]++;
+
+		if (!qp.containKeywordFILTER && !qp.containKeywordAND && !qp.containKeywordUNION
+				&& !qp.containKeywordOPTIONAL)
+			operatorSetCount[0] += 1;
+		else if (!qp.containKeywordFILTER && !qp.containKeywordAND && !qp.containKeywordUNION
+				&& qp.containKeywordOPTIONAL)
+			operatorSetCount[1] += 1;
+		else if (!qp.containKeywordFILTER && !qp.containKeywordAND && qp.containKeywordUNION
+				&& !qp.containKeywordOPTIONAL)
+			operatorSetCount[2] += 1;
+		else if (!qp.containKeywordFILTER && !qp.containKeywordAND && qp.containKeywordUNION
+				&& qp.containKeywordOPTIONAL)
+			operatorSetCount[3] += 1;
+		else if (!qp.containKeywordFILTER && qp.containKeywordAND && !qp.containKeywordUNION
+				&& !qp.containKeywordOPTIONAL)
+			operatorSetCount[4] += 1;
+		else if (!qp.containKeywordFILTER && qp.containKeywordAND && !qp.containKeywordUNION
+				&& qp.containKeywordOPTIONAL)
+			operatorSetCount[5] += 1;
+		else if (!qp.containKeywordFILTER && qp.containKeywordAND && qp.containKeywordUNION
+				&& !qp.containKeywordOPTIONAL)
+			operatorSetCount[6] += 1;
+		else if (!qp.containKeywordFILTER && qp.containKeywordAND && qp.containKeywordUNION
+				&& qp.containKeywordOPTIONAL)
+			operatorSetCount[7] += 1;
+		else if (qp.containKeywordFILTER && !qp.containKeywordAND && !qp.containKeywordUNION
+				&& !qp.containKeywordOPTIONAL)
+			operatorSetCount[8] += 1;
+		else if (qp.containKeywordFILTER && !qp.containKeywordAND && !qp.containKeywordUNION
+				&& qp.containKeywordOPTIONAL)
+			operatorSetCount[9] += 1;
+		else if (qp.containKeywordFILTER && !qp.containKeywordAND && qp.containKeywordUNION
+				&& !qp.containKeywordOPTIONAL)
+			operatorSetCount[10] += 1;
+		else if (qp.containKeywordFILTER && !qp.containKeywordAND && qp.containKeywordUNION
+				&& qp.containKeywordOPTIONAL)
+			operatorSetCount[11] += 1;
+		else if (qp.containKeywordFILTER && qp.containKeywordAND && !qp.containKeywordUNION
+				&& !qp.containKeywordOPTIONAL)
+			operatorSetCount[12] += 1;
+		else if (qp.containKeywordFILTER && qp.containKeywordAND && !qp.containKeywordUNION
+				&& qp.containKeywordOPTIONAL)
+			operatorSetCount[13] += 1;
+		else if (qp.containKeywordFILTER && qp.containKeywordAND && qp.containKeywordUNION
+				&& !qp.containKeywordOPTIONAL)
+			operatorSetCount[14] += 1;
+		else if (qp.containKeywordFILTER && qp.containKeywordAND && qp.containKeywordUNION
+				&& qp.containKeywordOPTIONAL)
+			operatorSetCount[15] += 1;
+
+		if (qp.triplePatterns.size() < ARRAY_SIZE)
+			triplePatternCount[qp.triplePatterns.size()] += 1;
+		else
+			triplePatternCount[ARRAY_SIZE - 1] += 1;
+
+		int total = 0;
+		for (int i = 0; i < 6; i++) {
+			joinTypeCount[i] += qp.tripleJointypeCount[i];
+			total += qp.tripleJointypeCount[i];
+		}
+		if (total < ARRAY_SIZE)
+			joinAmountCount[total] += 1;
+		else
+			joinAmountCount[ARRAY_SIZE - 1] += 1;
+
+		if (qp.estimatedResults >= 0) {
+			int magnitude = 0;
+			for (double bound = 1; magnitude < 5 && qp.estimatedResults >= bound; bound *= 10)
+				magnitude++;
+			estimatedResultsCount[magnitude] += 1;
 		}
 	}
 
 	/**
-	 * Collect query evaluation metrics.
+	 * Count a visit of a target signature by an evaluated query.
 	 * 
-	 * @param queryProperties
-	 *            An array list of QueryProperty objects.
-	 * @throws Exception
-	 *             If there exists invalid input arguments.
+	 * @param node
+	 *            IRI of the target signature in string.
 	 */
-	private void collectMetrics(ArrayList<QueryProperty> queryProperties) throws Exception {
-		if (queryProperties == null)
-			throw new NullPointerException("null arguments.");
-
-		int keywordFILTERCount = 0, keywordANDCount = 0, keywordUNIONCount = 0, keywordOPTIONALCount = 0,
-				keywordMINUSCount = 0, keywordNOTEXISTSCount = 0, keywordEXISTSCount = 0;
-
-		int[] operatorSetCount = new int[16];
+	private void countSignatureVisit(String node) {
+		int count = signatureVisitCounts.merge(node, 1, Integer::sum);
+		if (count == 1)
+			singletonSignatureCount++;
+		else if (count == 2)
+			singletonSignatureCount--;
+	}
 
-		final int Array_Size = 100;
-		int[] triplePatternCount = new int[Array_Size];
+	/**
+	 * Check whether the metrics collected so far have converged within the
+	 * tolerance. Keyword coverage and distribution metrics are proportions, whose
+	 * 95% Wilson confidence intervals must be within the tolerance. Signature
+	 * coverage is not sampled, so instead the Good-Turing estimate of the
+	 * probability that a new query visits an unvisited target signature, i.e. the
+	 * ratio of target signatures visited by exactly one query, must be within the
+	 * tolerance.
+	 * 
+	 * @return True if the metrics have converged, false otherwise.
+	 */
+	private boolean checkConvergence() {
+		maximumHalfWidth = (double) singletonSignatureCount / queryCount;
+		widestMetric = "signature discovery probability";
+		int[] keywordCounts = { keywordFILTERCount, keywordANDCount, keywordUNIONCount, keywordOPTIONALCount,
+				keywordMINUSCount, keywordNOTEXISTSCount, keywordEXISTSCount, keywordAggregateCount,
+				keywordGROUPBYCount, keywordORDERBYCount, keywordLIMITCount, keywordOFFSETCount,
+				keywordPropertyPathCount, keywordSubqueryCount, keywordVALUESCount };
+		for (int count : keywordCounts)
+			checkHalfWidth(count, queryCount, "keyword coverage");
+		for (int count : propertyPathOperatorCount)
+			checkHalfWidth(count, queryCount, "property path operator coverage");
+		for (int count : operatorSetCount)
+			checkHalfWidth(count, queryCount, "operator set distribution");
+		checkDistributionHalfWidth(triplePatternCount, new int[] { 1, 4, 7, 10, 13, 16 },
+				"triple pattern amount distribution");
+		checkDistributionHalfWidth(joinAmountCount, new int[] { 0, 5, 10, 15, 20, 25 }, "join amount distribution");
+		long joinTotal = 0;
+		for (long count : joinTypeCount)
+			joinTotal += count;
+		// The join type distribution is undefined if no query has joins
+		if (joinTotal > 0)
+			for (long count : joinTypeCount)
+				checkHalfWidth(count, joinTotal, "join type distribution");
+		return maximumHalfWidth <= convergenceTolerance;
+	}
 
-		int[] joinTypeCount = new int[6];
-		int[] joinAmountCount = new int[Array_Size];
+	/**
+	 * Check the confidence intervals of a distribution over ranges of amounts.
+	 * 
+	 * @param amountCount
+	 *            The number of queries per amount.
+	 * @param lowerBounds
+	 *            Lower bounds (inclusive) of the ranges, each range ending before
+	 *            the next lower bound and the last one at the end of the array.
+	 * @param metric
+	 *            Name of the distribution.
+	 */
+	private void checkDistributionHalfWidth(int[] amountCount, int[] lowerBounds, String metric) {
+		int[] rangeCount = new int[lowerBounds.length];
 		int total = 0;
+		for (int i = 0; i < lowerBounds.length; i++) {
+			int upperBound = i + 1 < lowerBounds.length ? lowerBounds[i + 1] : amountCount.length;
+			for (int j = lowerBounds[i]; j < upperBound; j++)
+				rangeCount[i] += amountCount[j];
+			total += rangeCount[i];
+		}
+		for (int count : rangeCount)
+			checkHalfWidth(count, total, metric);
+	}
 
-		for (QueryProperty qp : queryProperties) {
-			for (String node : qp.classNodes) {
-				if (targetClassAndVisitStatus.containsKey(node))
-					targetClassAndVisitStatus.replace(node, Boolean.TRUE);
-				else
-					nonTargetClasses.add(node);
-			}
-			for (String node : qp.propertyNodes) {
-				if (targetDataPropertyAndVisitStatus.containsKey(node))
-					targetDataPropertyAndVisitStatus.replace(node, Boolean.TRUE);
-				else if (targetObjectPropertyAndVisitStatus.containsKey(node))
-					targetObjectPropertyAndVisitStatus.replace(node, Boolean.TRUE);
-				else
-					nonTargetProperties.add(node);
-			}
-
-			if (qp.containKeywordFILTER)
-				keywordFILTERCount++;
-			if (qp.containKeywordAND)
-				keywordANDCount++;
-			if (qp.containKeywordUNION)
-				keywordUNIONCount++;
-			if (qp.containKeywordOPTIONAL)
-				keywordOPTIONALCount++;
-			if (qp.containKeywordMINUS)
-				keywordMINUSCount++;
-			if (qp.containKeywordNOTEXISTS)
-				keywordNOTEXISTSCount++;
-			if (qp.containKeywordEXISTS)
-				keywordEXISTSCount++;
-
-			if (!qp.containKeywordFILTER && !qp.containKeywordAND && !qp.containKeywordUNION
-					&& !qp.containKeywordOPTIONAL)
-				operatorSetCount[0] += 1;
-			else if (!qp.containKeywordFILTER && !qp.containKeywordAND && !qp.containKeywordUNION
-					&& qp.containKeywordOPTIONAL)
-				operatorSetCount[1] += 1;
-			else if (!qp.containKeywordFILTER && !qp.containKeywordAND && qp.containKeywordUNION
-					&& !qp.containKeywordOPTIONAL)
-				operatorSetCount[2] += 1;
-			else if (!qp.containKeywordFILTER && !qp.containKeywordAND && qp.containKeywordUNION
-					&& qp.containKeywordOPTIONAL)
-				operatorSetCount[3] += 1;
-			else if (!qp.containKeywordFILTER && qp.containKeywordAND && !qp.containKeywordUNION
-					&& !qp.containKeywordOPTIONAL)
-				operatorSetCount[4] += 1;
-			else if (!qp.containKeywordFILTER && qp.containKeywordAND && !qp.containKeywordUNION
-					&& qp.containKeywordOPTIONAL)
-				operatorSetCount[5] += 1;
-			else if (!qp.containKeywordFILTER && qp.containKeywordAND && qp.containKeywordUNION
-					&& !qp.containKeywordOPTIONAL)
-				operatorSetCount[6] += 1;
-			else if (!qp.containKeywordFILTER && qp.containKeywordAND && qp.containKeywordUNION
-					&& qp.containKeywordOPTIONAL)
-				operatorSetCount[7] += 1;
-			else if (qp.containKeywordFILTER && !qp.containKeywordAND && !qp.containKeywordUNION
-					&& !qp.containKeywordOPTIONAL)
-				operatorSetCount[8] += 1;
-			else if (qp.containKeywordFILTER && !qp.containKeywordAND && !qp.containKeywordUNION
-					&& qp.containKeywordOPTIONAL)
-				operatorSetCount[9] += 1;
-			else if (qp.containKeywordFILTER && !qp.containKeywordAND && qp.containKeywordUNION
-					&& !qp.containKeywordOPTIONAL)
-				operatorSetCount[10] += 1;
-			else if (qp.containKeywordFILTER && !qp.containKeywordAND && qp.containKeywordUNION
-					&& qp.containKeywordOPTIONAL)
-				operatorSetCount[11] += 1;
-			else if (qp.containKeywordFILTER && qp.containKeywordAND && !qp.containKeywordUNION
-					&& !qp.containKeywordOPTIONAL)
-				operatorSetCount[12] += 1;
-			else if (qp.containKeywordFILTER && qp.containKeywordAND && !qp.containKeywordUNION
-					&& qp.containKeywordOPTIONAL)
-				operatorSetCount[13] += 1;
-			else if (qp.containKeywordFILTER && qp.containKeywordAND && qp.containKeywordUNION
-					&& !qp.containKeywordOPTIONAL)
-				operatorSetCount[14] += 1;
-			else if (qp.containKeywordFILTER && qp.containKeywordAND && qp.containKeywordUNION
-					&& qp.containKeywordOPTIONAL)
-				operatorSetCount[15] += 1;
-
-			if (qp.triplePatterns.size() < Array_Size)
-				triplePatternCount[qp.triplePatterns.size()] += 1;
-			else
-				triplePatternCount[Array_Size - 1] += 1;
-
-			total = 0;
-			for (int i = 0; i < 6; i++) {
-				joinTypeCount[i] += qp.tripleJointypeCount[i];
-				total += qp.tripleJointypeCount[i];
-			}
-			if (total < Array_Size)
-				joinAmountCount[total] += 1;
-			else
-				joinAmountCount[Array_Size - 1] += 1;
+	/**
+	 * Update the maximum half-width with the confidence interval of a proportion.
+	 * 
+	 * @param successes
+	 *            The number of successes.
+	 * @param trials
+	 *            The number of trials.
+	 * @param metric
+	 *            Name of the metric.
+	 */
+	private void checkHalfWidth(long successes, long trials, String metric) {
+		double halfWidth = MathUtil.calculateWilsonHalfWidth(successes, trials, CONFIDENCE_Z);
+		if (halfWidth > maximumHalfWidth) {
+			maximumHalfWidth = halfWidth;
+			widestMetric = metric;
 		}
+	}
 
+	/**
+	 * Calculate query evaluation metrics from the metrics collected so far.
+	 * 
+	 * @throws Exception
+	 *             If there exists invalid input arguments.
+	 */
+	private void calculateMetrics() throws Exception {
 		// Calculate space coverage metrics
 		classCoverage = MathUtil.calculateSpaceCoverage(targetClassAndVisitStatus.values());
 		dataPropertyCoverage = MathUtil.calculateSpaceCoverage(targetDataPropertyAndVisitStatus.values());
 		objectPropertyCoverage = MathUtil.calculateSpaceCoverage(targetObjectPropertyAndVisitStatus.values());
 
 		// Calculate keyword coverage metrics
-		keywordFILTERCoverage = (double) keywordFILTERCount / queryNumber;
-		keywordANDCoverage = (double) keywordANDCount / queryNumber;
-		keywordUNIONCoverage = (double) keywordUNIONCount / queryNumber;
-		keywordOPTIONALCoverage = (double) keywordOPTIONALCount / queryNumber;
-		keywordMINUSCoverage = (double) keywordMINUSCount / queryNumber;
-		keywordNOTEXISTSCoverage = (double) keywordNOTEXISTSCount / queryNumber;
-		keywordEXISTSCoverage = (double) keywordEXISTSCount / queryNumber;
+		keywordFILTERCoverage = (double) keywordFILTERCount / queryCount;
+		keywordANDCoverage = (double) keywordANDCount / queryCount;
+		keywordUNIONCoverage = (double) keywordUNIONCount / queryCount;
+		keywordOPTIONALCoverage = (double) keywordOPTIONALCount / queryCount;
+		keywordMINUSCoverage = (double) keywordMINUSCount / queryCount;
+		keywordNOTEXISTSCoverage = (double) keywordNOTEXISTSCount / queryCount;
+		keywordEXISTSCoverage = (double) keywordEXISTSCount / queryCount;
+		keywordAggregateCoverage = (double) keywordAggregateCount / queryCount;
+		keywordGROUPBYCoverage = (double) keywordGROUPBYCount / queryCount;
+		keywordORDERBYCoverage = (double) keywordORDERBYCount / queryCount;
+		keywordLIMITCoverage = (double) keywordLIMITCount / queryCount;
+		keywordOFFSETCoverage = (double) keywordOFFSETCount / queryCount;
+		keywordPropertyPathCoverage = (double) keywordPropertyPathCount / queryCount;
+		keywordSubqueryCoverage = (double) keywordSubqueryCount / queryCount;
+		keywordVALUESCoverage = (double) keywordVALUESCount / queryCount;
+		for (int i = 0; i < propertyPathOperatorCount.length; i++)
+			propertyPathOperatorCoverage[i] = (double) propertyPathOperatorCount[i] / queryCount;
 
 		// Calculate operator set distribution metrics
 		for (int i = 0; i < operatorSetCount.length; i++)
-			targetOperatorSetDistribution[i] = (double) operatorSetCount[i] / queryNumber;
+			targetOperatorSetDistribution[i] = (double) operatorSetCount[i] / queryCount;
 
 		// Calculate triple pattern amount metric
+		int total;
 		int subTotal1 = 0, subTotal2 = 0, subTotal3 = 0, subTotal4 = 0, subTotal5 = 0, subTotal6 = 0;
 		for (int i = 1; i <= 3; i++)
 			subTotal1 += triplePatternCount[i];
@@ -712,7 +1160,7 @@ public class Evaluator {
 			subTotal4 += triplePatternCount[i];
 		for (int i = 13; i <= 15; i++)
 			subTotal5 += triplePatternCount[i];
-		for (int i = 16; i < Array_Size; i++)
+		for (int i = 16; i < ARRAY_SIZE; i++)
 			subTotal6 += triplePatternCount[i];
 		total = subTotal1 + subTotal2 + subTotal3 + subTotal4 + subTotal5 + subTotal6;
 		triplePatternAmountDistribution[0] = (double) subTotal1 / total;
@@ -739,7 +1187,7 @@ public class Evaluator {
 			subTotal4 += joinAmountCount[i];
 		for (int i = 20; i <= 24; i++)
 			subTotal5 += joinAmountCount[i];
-		for (int i = 25; i < Array_Size; i++)
+		for (int i = 25; i < ARRAY_SIZE; i++)
 			subTotal6 += joinAmountCount[i];
 		total = subTotal1 + subTotal2 + subTotal3 + subTotal4 + subTotal5 + subTotal6;
 		joinAmountDistribution[0] = (double) subTotal1 / total;
@@ -750,11 +1198,15 @@ public class Evaluator {
 		joinAmountDistribution[5] = (double) subTotal6 / total;
 
 		// Calculate join type distribution metrics
-		total = 0;
+		long joinTotal = 0;
 		for (int i = 0; i < 6; i++)
-			total += joinTypeCount[i];
+			joinTotal += joinTypeCount[i];
 		for (int i = 0; i < 6; i++)
-			tripleJointypeDistribution[i] = (double) joinTypeCount[i] / total;
+			tripleJointypeDistribution[i] = (double) joinTypeCount[i] / joinTotal;
+
+		// Calculate estimated results distribution metrics
+		for (int i = 0; i < estimatedResultsCount.length; i++)
+			estimatedResultsDistribution[i] = (double) estimatedResultsCount[i] / queryCount;
 	}
 
 	/**
@@ -808,6 +1260,22 @@ public class Evaluator {
 		outputs.append("MINUS coverage = " + df.format(keywordMINUSCoverage) + "\n");
 		outputs.append("NOT EXISTS coverage = " + df.format(keywordNOTEXISTSCoverage) + "\n");
 		outputs.append("EXISTS coverage = " + df.format(keywordEXISTSCoverage) + "\n");
+		outputs.append("Aggregate coverage = " + df.format(keywordAggregateCoverage) + "\n");
+		outputs.append("GROUP BY coverage = " + df.format(keywordGROUPBYCoverage) + "\n");
+		outputs.append("ORDER BY coverage = " + df.format(keywordORDERBYCoverage) + "\n");
+		outputs.append("LIMIT coverage = " + df.format(keywordLIMITCoverage) + "\n");
+		outputs.append("OFFSET coverage = " + df.format(keywordOFFSETCoverage) + "\n");
+		outputs.append("Property path coverage = " + df.format(keywordPropertyPathCoverage) + "\n");
+		outputs.append("Subquery coverage = " + df.format(keywordSubqueryCoverage) + "\n");
+		outputs.append("VALUES coverage = " + df.format(keywordVALUESCoverage) + "\n");
+
+		outputs.append("\n\nProperty path operator coverage of the queries is summarized below:\n");
+		outputs.append("Inverse (^) coverage = " + df.format(propertyPathOperatorCoverage[0]) + "\n");
+		outputs.append("Sequence (/) coverage = " + df.format(propertyPathOperatorCoverage[1]) + "\n");
+		outputs.append("Alternative (|) coverage = " + df.format(propertyPathOperatorCoverage[2]) + "\n");
+		outputs.append("One or more (+) coverage = " + df.format(propertyPathOperatorCoverage[3]) + "\n");
+		outputs.append("Zero or more (*) coverage = " + df.format(propertyPathOperatorCoverage[4]) + "\n");
+		outputs.append("Zero or one (?) coverage = " + df.format(propertyPathOperatorCoverage[5]) + "\n");
 
 		outputs.append("\n\nOperator set distribution is summarized below:\n");
 		outputs.append("{} = " + df.format(targetOperatorSetDistribution[0]) + "\n");
@@ -868,7 +1336,32 @@ public class Evaluator {
 		outputs.append("Subject-Object (SO) = " + df.format(tripleJointypeDistribution[4]) + "\n");
 		outputs.append("Predicate-Object (PO) = " + df.format(tripleJointypeDistribution[5]) + "\n");
 
-		String evaluationFilePath = "evaluationresults" + File.separator + "QueryEvaluationResults_" + queryNumber
+		if (cardinalityEstimator != null) {
+			outputs.append("\n\nEstimated results distribution is summarized below:\n");
+			outputs.append("{<1} = " + df.format(estimatedResultsDistribution[0]) + "\n");
+			outputs.append("{1~9} = " + df.format(estimatedResultsDistribution[1]) + "\n");
+			outputs.append("{10~99} = " + df.format(estimatedResultsDistribution[2]) + "\n");
+			outputs.append("{100~999} = " + df.format(estimatedResultsDistribution[3]) + "\n");
+			outputs.append("{1000~9999} = " + df.format(estimatedResultsDistribution[4]) + "\n");
+			outputs.append("{10000+} = " + df.format(estimatedResultsDistribution[5]) + "\n");
+		}
+
+		if (convergenceTolerance > 0) {
+			if (convergedQueryCount == 0)
+				checkConvergence();
+			DecimalFormat cf = new DecimalFormat("0.0000");
+			outputs.append("\n\nConvergence of the metrics is summarized below:\n");
+			outputs.append("Tolerance = " + cf.format(convergenceTolerance) + "\n");
+			outputs.append("Maximum 95% confidence interval half-width = " + cf.format(maximumHalfWidth) + " ("
+					+ widestMetric + ")\n");
+			if (convergedQueryCount > 0)
+				outputs.append("Query generation stopped after " + convergedQueryCount
+						+ " queries since the metrics converged.\n");
+			else
+				outputs.append("The metrics have not converged after " + queryCount + " queries.\n");
+		}
+
+		String evaluationFilePath = "evaluationresults" + File.separator + "QueryEvaluationResults_" + queryCount
 				+ "Queries" + ".txt";
 		File outputFile = new File(evaluationFilePath);
 		try {
@@ -877,6 +1370,80 @@ public class Evaluator {
 			logger.error("There was an error while dumping into evaluation results file.", e);
 		}
 		logger.info("Evaluation results are dumped into local file: " + outputFile.getAbsolutePath());
-		logger.info("Done!");
+		lastReportedQueryCount = queryCount;
+	}
+
+	/**
+	 * Metrics collected from the evaluated queries, saved in generation
+	 * checkpoints.
+	 */
+	private static class State implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The number of evaluated queries.
+		 */
+		int queryCount;
+
+		/**
+		 * The number of evaluated queries when evaluation results were last dumped
+		 * into file.
+		 */
+		int lastReportedQueryCount;
+
+		/**
+		 * The numbers of queries that contain keyword FILTER, AND, UNION, OPTIONAL,
+		 * MINUS, NOT EXISTS, EXISTS, an aggregate, GROUP BY, ORDER BY, LIMIT,
+		 * OFFSET, a property path, a subquery and VALUES respectively.
+		 */
+		int[] keywordCounts;
+
+		/**
+		 * The number of queries that contain each of the six property path
+		 * operators.
+		 */
+		int[] propertyPathOperatorCount;
+
+		/**
+		 * The number of queries of each of the 16 subsets of operator set.
+		 */
+		int[] operatorSetCount;
+
+		/**
+		 * The number of queries per triple pattern amount.
+		 */
+		int[] triplePatternCount;
+
+		/**
+		 * The number of joins of each of the six join types.
+		 */
+		long[] joinTypeCount;
+
+		/**
+		 * The number of queries per join amount.
+		 */
+		int[] joinAmountCount;
+
+		/**
+		 * The number of queries per magnitude of estimated results.
+		 */
+		int[] estimatedResultsCount;
+
+		/**
+		 * IRIs of the visited target classes and properties.
+		 */
+		Set<String> visitedSignatures;
+
+		/**
+		 * The number of evaluated queries that visit each target signature.
+		 */
+		Map<String, Integer> signatureVisitCounts;
+
+		/**
+		 * The number of evaluated queries when the metrics converged; 0 if they have
+		 * not converged.
+		 */
+		int convergedQueryCount;
 	}
 }
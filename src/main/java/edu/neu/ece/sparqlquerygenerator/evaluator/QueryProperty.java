@@ -3,12 +3,43 @@ package edu.neu.ece.sparqlquerygenerator.evaluator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Node_URI;
 import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.sparql.core.TriplePath;
+import org.apache.jena.sparql.expr.E_Exists;
+import org.apache.jena.sparql.expr.E_NotExists;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.path.P_Alt;
+import org.apache.jena.sparql.path.P_Inverse;
+import org.apache.jena.sparql.path.P_Link;
+import org.apache.jena.sparql.path.P_OneOrMore1;
+import org.apache.jena.sparql.path.P_OneOrMoreN;
+import org.apache.jena.sparql.path.P_Path1;
+import org.apache.jena.sparql.path.P_Path2;
+import org.apache.jena.sparql.path.P_ReverseLink;
+import org.apache.jena.sparql.path.P_Seq;
+import org.apache.jena.sparql.path.P_ZeroOrMore1;
+import org.apache.jena.sparql.path.P_ZeroOrMoreN;
+import org.apache.jena.sparql.path.P_ZeroOrOne;
+import org.apache.jena.sparql.path.Path;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementData;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementMinus;
+import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementSubQuery;
+import org.apache.jena.sparql.syntax.ElementTriplesBlock;
+import org.apache.jena.sparql.syntax.ElementUnion;
 import org.apache.jena.vocabulary.RDF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class models property structure of a SPARQL query.
@@ -19,6 +50,11 @@ import org.apache.jena.vocabulary.RDF;
  */
 public class QueryProperty {
 
+	/**
+	 * Logger class, used for generating log file and debugging info on console.
+	 */
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
 	/**
 	 * Query ID.
 	 */
@@ -88,6 +124,66 @@ public class QueryProperty {
 	 */
 	public boolean containKeywordEXISTS = false;
 
+	/**
+	 * A boolean value that measures whether a SPAPRQL query contains an aggregate
+	 * (COUNT, SUM, AVG, MIN, MAX, ...). True if contains, false otherwise.
+	 */
+	public boolean containKeywordAggregate = false;
+
+	/**
+	 * A boolean value that measures whether a SPAPRQL query contains keyword GROUP
+	 * BY. True if contains, false otherwise.
+	 */
+	public boolean containKeywordGROUPBY = false;
+
+	/**
+	 * A boolean value that measures whether a SPAPRQL query contains keyword ORDER
+	 * BY. True if contains, false otherwise.
+	 */
+	public boolean containKeywordORDERBY = false;
+
+	/**
+	 * A boolean value that measures whether a SPAPRQL query contains keyword
+	 * LIMIT. True if contains, false otherwise.
+	 */
+	public boolean containKeywordLIMIT = false;
+
+	/**
+	 * A boolean value that measures whether a SPAPRQL query contains keyword
+	 * OFFSET. True if contains, false otherwise.
+	 */
+	public boolean containKeywordOFFSET = false;
+
+	/**
+	 * A boolean value that measures whether a SPAPRQL query contains a subquery.
+	 * True if contains, false otherwise.
+	 */
+	public boolean containSubquery = false;
+
+	/**
+	 * A boolean value that measures whether a SPAPRQL query contains keyword
+	 * VALUES. True if contains, false otherwise.
+	 */
+	public boolean containKeywordVALUES = false;
+
+	/**
+	 * Property paths in a SPARQL query, other than single properties.
+	 */
+	public LinkedList<TriplePath> propertyPaths = new LinkedList<>();
+
+	/**
+	 * The number of each of the six property path operators in a SPARQL query:
+	 * inverse (^), sequence (/), alternative (|), one or more (+), zero or more
+	 * (*) and zero or one (?).
+	 */
+	public int[] propertyPathOperatorCount = new int[6];
+
+	/**
+	 * The estimated number of results of a SPARQL query over the dataset; -1 if it
+	 * is not estimated.
+	 */
+	public double estimatedResults = -1;
+
 	/**
 	 * Constructor.
 	 * 
@@ -98,6 +194,138 @@ public class QueryProperty {
 		this.queryID = queryID;
 	}
 
+	/**
+	 * Record properties related to the aggregates and solution modifiers of a
+	 * SPARQL query.
+	 * 
+	 * @param query
+	 *            The SPARQL query.
+	 */
+	public void processSolutionModifiers(Query query) {
+		containKeywordAggregate = query.hasAggregators();
+		containKeywordGROUPBY = query.hasGroupBy();
+		containKeywordORDERBY = query.hasOrderBy();
+		containKeywordLIMIT = query.hasLimit();
+		containKeywordOFFSET = query.hasOffset();
+	}
+
+	/**
+	 * Record properties related to a pattern element of a SPARQL query, and
+	 * collect its triple patterns.
+	 * 
+	 * @param element
+	 *            A pattern element of the SPARQL query.
+	 */
+	public void processQueryPattern(Element element) {
+		if (element == null)
+			return;
+
+		if (element instanceof ElementGroup) {
+			List<Element> elements = ((ElementGroup) element).getElements();
+			for (int i = 0; i < elements.size() - 1; i++)
+				if ((elements.get(i).getClass() == ElementGroup.class
+						|| elements.get(i).getClass() == ElementTriplesBlock.class
+						|| elements.get(i).getClass() == ElementPathBlock.class)
+						&& (elements.get(i + 1).getClass() == ElementGroup.class
+								|| elements.get(i + 1).getClass() == ElementTriplesBlock.class
+								|| elements.get(i + 1).getClass() == ElementPathBlock.class))
+					containKeywordAND = true;
+			for (Element el : elements)
+				processQueryPattern(el);
+		} else if (element instanceof ElementTriplesBlock) {
+			List<Triple> triples = ((ElementTriplesBlock) element).getPattern().getList();
+			if (triples.size() > 1)
+				containKeywordAND = true;
+			triplePatterns.addAll(triples);
+		} else if (element instanceof ElementPathBlock) {
+			// Triple patterns of parsed queries are held by path blocks
+			List<TriplePath> triplePaths = ((ElementPathBlock) element).getPattern().getList();
+			if (triplePaths.size() > 1)
+				containKeywordAND = true;
+			for (TriplePath triplePath : triplePaths)
+				if (triplePath.isTriple())
+					triplePatterns.add(triplePath.asTriple());
+				else {
+					propertyPaths.add(triplePath);
+					processPropertyPath(triplePath.getPath());
+				}
+		} else if (element instanceof ElementUnion) {
+			containKeywordUNION = true;
+			List<Element> elements = ((ElementUnion) element).getElements();
+			for (Element el : elements)
+				processQueryPattern(el);
+		} else if (element instanceof ElementOptional) {
+			containKeywordOPTIONAL = true;
+			Element el = ((ElementOptional) element).getOptionalElement();
+			processQueryPattern(el);
+		} else if (element instanceof ElementMinus) {
+			containKeywordMINUS = true;
+			Element el = ((ElementMinus) element).getMinusElement();
+			processQueryPattern(el);
+		} else if (element instanceof ElementSubQuery) {
+			// Triple patterns of a subquery are collected with those of the query
+			containSubquery = true;
+			processQueryPattern(((ElementSubQuery) element).getQuery().getQueryPattern());
+		} else if (element instanceof ElementData) {
+			containKeywordVALUES = true;
+		}
+		/*
+		 * else if (element instanceof ElementNotExists) { containKeywordNOTEXISTS =
+		 * true; Element el = ((ElementNotExists) element).getElement();
+		 * processQueryPattern(el); } else if (element instanceof ElementExists) {
+		 * containKeywordEXISTS = true; Element el = ((ElementExists)
+		 * element).getElement(); processQueryPattern(el); }
+		 */
+		else if (element instanceof ElementFilter) {
+			Expr expr = ((ElementFilter) element).getExpr();
+			if (expr instanceof E_Exists) {
+				containKeywordEXISTS = true;
+				Element el = ((E_Exists) expr).getElement();
+				processQueryPattern(el);
+			} else if (expr instanceof E_NotExists) {
+				containKeywordNOTEXISTS = true;
+				Element el = ((E_NotExists) expr).getElement();
+				processQueryPattern(el);
+			} else
+				containKeywordFILTER = true;
+		} else {
+			logger.error("Element of type " + element.getClass().getName()
+					+ " is ignored in the process of traversing query patterns!");
+		}
+	}
+
+	/**
+	 * Record the operators of a property path, and the properties that it links.
+	 * 
+	 * @param path
+	 *            A property path of the SPARQL query.
+	 */
+	private void processPropertyPath(Path path) {
+		if (path instanceof P_Link)
+			propertyNodes.add(((P_Link) path).getNode().getURI());
+		else if (path instanceof P_ReverseLink) {
+			propertyPathOperatorCount[0] += 1;
+			propertyNodes.add(((P_ReverseLink) path).getNode().getURI());
+		} else if (path instanceof P_Path1) {
+			if (path instanceof P_Inverse)
+				propertyPathOperatorCount[0] += 1;
+			else if (path instanceof P_OneOrMore1 || path instanceof P_OneOrMoreN)
+				propertyPathOperatorCount[3] += 1;
+			else if (path instanceof P_ZeroOrMore1 || path instanceof P_ZeroOrMoreN)
+				propertyPathOperatorCount[4] += 1;
+			else if (path instanceof P_ZeroOrOne)
+				propertyPathOperatorCount[5] += 1;
+			processPropertyPath(((P_Path1) path).getSubPath());
+		} else if (path instanceof P_Path2) {
+			if (path instanceof P_Seq)
+				propertyPathOperatorCount[1] += 1;
+			else if (path instanceof P_Alt)
+				propertyPathOperatorCount[2] += 1;
+			processPropertyPath(((P_Path2) path).getLeft());
+			processPropertyPath(((P_Path2) path).getRight());
+		}
+	}
+
 	/**
 	 * Record properties related to triple patterns of a SPARQL query.
 	 */
@@ -154,6 +382,20 @@ public class QueryProperty {
 		sb.append("\tcontainKeywordMINUS = " + containKeywordMINUS + "\n");
 		sb.append("\tcontainKeywordNOTEXISTS = " + containKeywordNOTEXISTS + "\n");
 		sb.append("\tcontainKeywordEXISTS = " + containKeywordEXISTS + "\n");
+		sb.append("\tcontainKeywordAggregate = " + containKeywordAggregate + "\n");
+		sb.append("\tcontainKeywordGROUPBY = " + containKeywordGROUPBY + "\n");
+		sb.append("\tcontainKeywordORDERBY = " + containKeywordORDERBY + "\n");
+		sb.append("\tcontainKeywordLIMIT = " + containKeywordLIMIT + "\n");
+		sb.append("\tcontainKeywordOFFSET = " + containKeywordOFFSET + "\n");
+		sb.append("\tcontainSubquery = " + containSubquery + "\n");
+		sb.append("\tcontainKeywordVALUES = " + containKeywordVALUES + "\n");
+		if (estimatedResults >= 0)
+			sb.append("\testimatedResults = " + estimatedResults + "\n");
+		sb.append("\tThe number of each of the six property path operators is shown below:\n");
+		sb.append("\t\tInverse(^) = " + propertyPathOperatorCount[0] + "; Sequence(/) = " + propertyPathOperatorCount[1]
+				+ "; Alternative(|) = " + propertyPathOperatorCount[2] + "; OneOrMore(+) = "
+				+ propertyPathOperatorCount[3] + "; ZeroOrMore(*) = " + propertyPathOperatorCount[4]
+				+ "; ZeroOrOne(?) = " + propertyPathOperatorCount[5] + "\n");
 		sb.append("\tThe number of each of the six join types is shown below:\n");
 		sb.append("\t\tSubject-Subject(SS) = " + tripleJointypeCount[0] + "; Predicate-Predicate(PP) = "
 				+ tripleJointypeCount[1] + "; Object-Object(OO) = " + tripleJointypeCount[2]
@@ -162,6 +404,9 @@ public class QueryProperty {
 		sb.append("\tTriple patterns are shown below:\n");
 		for (Triple t : triplePatterns)
 			sb.append("\t\t" + t.toString() + "\n");
+		sb.append("\tProperty paths are shown below:\n");
+		for (TriplePath tp : propertyPaths)
+			sb.append("\t\t" + tp.toString() + "\n");
 		sb.append("\tClass signatures are shown below:\n");
 		Iterator<String> iterator = classNodes.iterator();
 		boolean flag = true;
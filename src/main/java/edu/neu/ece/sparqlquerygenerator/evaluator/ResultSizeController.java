@@ -0,0 +1,353 @@
+package edu.neu.ece.sparqlquerygenerator.evaluator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.text.DecimalFormat;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.semanticweb.owlapi.formats.NTriplesDocumentFormat;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.neu.ece.sparqlquerygenerator.generator.CandidateFilter;
+import edu.neu.ece.sparqlquerygenerator.generator.CheckpointableListener;
+import edu.neu.ece.sparqlquerygenerator.generator.SignatureWeighting;
+
+/**
+ * This class executes the candidate queries of the query generator against an
+ * in-process Jena copy of the dataset with a timeout, and accepts a candidate
+ * only if its number of results is within a band. The outcomes are fed back
+ * into the choices of classes, properties and class restrictions: each named
+ * class and property keeps the rate at which the candidates that refer to it
+ * are accepted, shrunk toward the overall rate, and a choice is weighted by the
+ * ratio of the rates of its signature to the overall rate, so generation drifts
+ * toward the productive regions of the ontology and the acceptance rate climbs
+ * over the run. Candidates that time out are rejected and never kept as the
+ * closest candidate, and at most a fixed number of candidates are executed per
+ * query.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class ResultSizeController implements CandidateFilter, SignatureWeighting, CheckpointableListener {
+
+	/**
+	 * The number of executed candidates per window of the acceptance rate.
+	 */
+	private static final int WINDOW_SIZE = 100;
+
+	/**
+	 * The number of candidates that the overall acceptance rate counts for in the
+	 * rate of a signature, so that rarely executed signatures stay near the
+	 * overall rate.
+	 */
+	private static final double PRIOR_STRENGTH = 10;
+
+	/**
+	 * The minimum weight of a choice, so that unproductive regions are still
+	 * explored.
+	 */
+	private static final double MIN_WEIGHT = 0.2;
+
+	/**
+	 * The maximum weight of a choice.
+	 */
+	private static final double MAX_WEIGHT = 5;
+
+	/**
+	 * Logger class, used for generating log file and debugging info on console.
+	 */
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	/**
+	 * In-process copy of the dataset.
+	 */
+	private final Model model;
+
+	/**
+	 * The minimum number of results of an accepted candidate.
+	 */
+	private final long minResults;
+
+	/**
+	 * The maximum number of results of an accepted candidate.
+	 */
+	private final long maxResults;
+
+	/**
+	 * The timeout of the execution of a candidate in milliseconds.
+	 */
+	private final long timeout;
+
+	/**
+	 * The maximum number of executed candidates per query.
+	 */
+	private final int maxExecutions;
+
+	/**
+	 * The number of executed candidates of the current query.
+	 */
+	private int queryExecutionCount = 0;
+
+	/**
+	 * The state of the controller, saved in generation checkpoints.
+	 */
+	private State state = new State();
+
+	/**
+	 * Constructor
+	 *
+	 * @param ont
+	 *            The input ontology, whose axioms with imports are copied into the
+	 *            in-process dataset.
+	 * @param minResults
+	 *            The minimum number of results of an accepted candidate.
+	 * @param maxResults
+	 *            The maximum number of results of an accepted candidate, at least
+	 *            minResults.
+	 * @param timeout
+	 *            The timeout of the execution of a candidate in milliseconds.
+	 * @param maxExecutions
+	 *            The maximum number of executed candidates per query.
+	 * @throws OWLOntologyStorageException
+	 *             If the ontology cannot be copied.
+	 */
+	public ResultSizeController(OWLOntology ont, long minResults, long maxResults, long timeout,
+			int maxExecutions) throws OWLOntologyStorageException {
+		this.minResults = minResults;
+		this.maxResults = maxResults;
+		this.timeout = timeout;
+		this.maxExecutions = maxExecutions;
+		model = ModelFactory.createDefaultModel();
+		for (OWLOntology o : (Iterable<OWLOntology>) ont.importsClosure()::iterator) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			o.getOWLOntologyManager().saveOntology(o, new NTriplesDocumentFormat(), out);
+			RDFDataMgr.read(model, new ByteArrayInputStream(out.toByteArray()), Lang.NTRIPLES);
+		}
+		logger.info("The dataset has been copied into an in-process model of {} triples.", model.size());
+	}
+
+	/**
+	 * Execute a candidate query and measure how far its number of results is from
+	 * the band. The outcome is recorded for the signature of the candidate.
+	 *
+	 * @param candidate
+	 *            The candidate query, which is not modified.
+	 * @return 0 if the candidate is accepted; the logarithm of the ratio of its
+	 *         number of results to the nearest bound, each plus one, if it is
+	 *         rejected; positive infinity if its execution times out.
+	 */
+	@Override
+	public double getDistance(Query candidate) {
+		queryExecutionCount++;
+		long results = execute(candidate);
+		double distance = results < 0 ? Double.POSITIVE_INFINITY
+				: CandidateFilter.distanceToBand(results, minResults, maxResults);
+		record(candidate, distance == 0, results < 0);
+		return distance;
+	}
+
+	@Override
+	public void beginQuery() {
+		queryExecutionCount = 0;
+	}
+
+	@Override
+	public boolean hasBudget() {
+		return queryExecutionCount < maxExecutions;
+	}
+
+	/**
+	 * Execute a query against the in-process dataset. Results are only counted up
+	 * to one more than the maximum.
+	 *
+	 * @param query
+	 *            The query, which is not modified.
+	 * @return The number of results; -1 if the execution times out.
+	 */
+	private long execute(Query query) {
+		long results = 0;
+		try (QueryExecution execution = QueryExecutionFactory.create(query.cloneQuery(), model)) {
+			execution.setTimeout(timeout, TimeUnit.MILLISECONDS);
+			ResultSet resultSet = execution.execSelect();
+			while (results <= maxResults && resultSet.hasNext()) {
+				resultSet.next();
+				results++;
+			}
+		} catch (QueryCancelledException e) {
+			return -1;
+		}
+		return results;
+	}
+
+	/**
+	 * Record the outcome of a candidate for the named classes and properties it
+	 * refers to, and log the acceptance rate at the end of each window.
+	 *
+	 * @param candidate
+	 *            The candidate query.
+	 * @param accepted
+	 *            True if the candidate is accepted, false otherwise.
+	 * @param timedOut
+	 *            True if the execution of the candidate timed out, false otherwise.
+	 */
+	private void record(Query candidate, boolean accepted, boolean timedOut) {
+		QueryProperty queryProperty = new QueryProperty(-1);
+		queryProperty.processQueryPattern(candidate.getQueryPattern());
+		queryProperty.processTriplePatterns();
+		Set<String> signature = new HashSet<>(queryProperty.classNodes);
+		signature.addAll(queryProperty.propertyNodes);
+		int outcome = accepted ? 1 : 0;
+		for (String node : signature) {
+			int[] counts = state.signatureCounts.computeIfAbsent(node, n -> new int[2]);
+			counts[0]++;
+			counts[1] += outcome;
+		}
+		state.executedCount++;
+		state.acceptedCount += outcome;
+		state.windowAcceptedCount += outcome;
+		if (timedOut)
+			state.timeoutCount++;
+		if (state.executedCount % WINDOW_SIZE == 0) {
+			double rate = (double) state.windowAcceptedCount / WINDOW_SIZE;
+			if (state.firstWindowRate < 0)
+				state.firstWindowRate = rate;
+			state.lastWindowRate = rate;
+			state.windowAcceptedCount = 0;
+			logger.info("{} out of the last {} executed candidates are accepted ({} executed in total).",
+					new DecimalFormat("#,##0.00%").format(rate), WINDOW_SIZE, state.executedCount);
+		}
+	}
+
+	/**
+	 * Get the weight of a choice, which is the product of the ratios of the
+	 * acceptance rates of the named classes and properties it refers to to the
+	 * overall acceptance rate, capped to a fixed range.
+	 *
+	 * @param signature
+	 *            IRIs of the named classes and properties the choice refers to.
+	 * @return The weight of the choice.
+	 */
+	@Override
+	public double getWeight(Set<IRI> signature) {
+		if (state.executedCount == 0)
+			return 1;
+		double overallRate = (state.acceptedCount + 1.0) / (state.executedCount + 2.0);
+		double weight = 1;
+		for (IRI iri : signature) {
+			int[] counts = state.signatureCounts.get(iri.getIRIString());
+			if (counts != null)
+				weight *= (counts[1] + PRIOR_STRENGTH * overallRate) / (counts[0] + PRIOR_STRENGTH) / overallRate;
+		}
+		return Math.min(Math.max(weight, MIN_WEIGHT), MAX_WEIGHT);
+	}
+
+	/**
+	 * Candidates are recorded as they are executed, so generated queries are not
+	 * recorded again.
+	 *
+	 * @param queryID
+	 *            Query ID.
+	 * @param query
+	 *            The generated query.
+	 */
+	@Override
+	public void queryGenerated(int queryID, Query query) {
+	}
+
+	/**
+	 * Log the acceptance rate of the executed candidates.
+	 */
+	public void logSummary() {
+		if (state.executedCount == 0)
+			return;
+		DecimalFormat df = new DecimalFormat("#,##0.00%");
+		logger.info("{} out of {} executed candidates returned between {} and {} results ({}); {} timed out.",
+				state.acceptedCount, state.executedCount, minResults, maxResults,
+				df.format((double) state.acceptedCount / state.executedCount), state.timeoutCount);
+		if (state.firstWindowRate >= 0)
+			logger.info("The acceptance rate went from {} in the first {} candidates to {} in the last full window.",
+					df.format(state.firstWindowRate), WINDOW_SIZE, df.format(state.lastWindowRate));
+	}
+
+	@Override
+	public Serializable saveState() {
+		State copy = new State();
+		copy.executedCount = state.executedCount;
+		copy.acceptedCount = state.acceptedCount;
+		copy.timeoutCount = state.timeoutCount;
+		copy.windowAcceptedCount = state.windowAcceptedCount;
+		copy.firstWindowRate = state.firstWindowRate;
+		copy.lastWindowRate = state.lastWindowRate;
+		for (Map.Entry<String, int[]> entry : state.signatureCounts.entrySet())
+			copy.signatureCounts.put(entry.getKey(), entry.getValue().clone());
+		return copy;
+	}
+
+	@Override
+	public void restoreState(Serializable state) {
+		this.state = (State) state;
+	}
+
+	/**
+	 * Outcomes of the executed candidates, saved in generation checkpoints.
+	 */
+	private static class State implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The number of executed candidates.
+		 */
+		int executedCount;
+
+		/**
+		 * The number of accepted candidates.
+		 */
+		int acceptedCount;
+
+		/**
+		 * The number of candidates whose execution timed out.
+		 */
+		int timeoutCount;
+
+		/**
+		 * The number of accepted candidates in the current window.
+		 */
+		int windowAcceptedCount;
+
+		/**
+		 * The acceptance rate of the first window; -1 if it is not full.
+		 */
+		double firstWindowRate = -1;
+
+		/**
+		 * The acceptance rate of the last full window.
+		 */
+		double lastWindowRate;
+
+		/**
+		 * Container that maps IRIs of named classes and properties in string to the
+		 * numbers of executed and accepted candidates that refer to them.
+		 */
+		Map<String, int[]> signatureCounts = new HashMap<>();
+	}
+}
@@ -0,0 +1,70 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import org.apache.jena.query.Query;
+
+/**
+ * This interface defines a filter of the candidate queries of the SPARQL query
+ * generator, e.g. by their estimated or executed numbers of results. Candidates
+ * of a query are regenerated from derived random streams until every filter
+ * accepts one, so a filter measures how far a rejected candidate is from being
+ * accepted, and the closest candidate can be kept if none is accepted. A
+ * filter may measure a limited number of candidates per query, e.g. because
+ * it executes them.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public interface CandidateFilter {
+
+	/**
+	 * Measure how far a candidate query is from being accepted.
+	 *
+	 * @param candidate
+	 *            The candidate query, which must not be modified.
+	 * @return 0 if the candidate is accepted, a positive distance otherwise;
+	 *         positive infinity if the candidate is rejected without a distance,
+	 *         e.g. because its execution timed out, so that it is never kept as
+	 *         the closest candidate.
+	 * @throws Exception
+	 *             If the candidate cannot be measured.
+	 */
+	double getDistance(Query candidate) throws Exception;
+
+	/**
+	 * Begin measuring the candidates of a new query.
+	 */
+	default void beginQuery() {
+	}
+
+	/**
+	 * Check whether the filter can measure more candidates of the current query.
+	 * Once it cannot, the closest candidate is kept, or, if no candidate has a
+	 * finite distance, the filter is skipped for the rest of the query.
+	 *
+	 * @return True if the filter can measure more candidates, false otherwise.
+	 */
+	default boolean hasBudget() {
+		return true;
+	}
+
+	/**
+	 * Measure how far a number of results is from a band, as the logarithm of the
+	 * ratio to the nearest bound, each plus one.
+	 *
+	 * @param results
+	 *            The number of results.
+	 * @param minResults
+	 *            The minimum number of results of the band.
+	 * @param maxResults
+	 *            The maximum number of results of the band.
+	 * @return The distance; 0 if the number is within the band.
+	 */
+	static double distanceToBand(double results, double minResults, double maxResults) {
+		if (results < minResults)
+			return Math.log((minResults + 1) / (results + 1));
+		if (results > maxResults)
+			return Math.log((results + 1) / (maxResults + 1));
+		return 0;
+	}
+}
@@ -0,0 +1,32 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.io.Serializable;
+
+/**
+ * This interface defines a query generation listener whose state is saved in
+ * generation checkpoints, so that it can be restored when an interrupted query
+ * generation process is resumed.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public interface CheckpointableListener extends QueryGenerationListener {
+
+	/**
+	 * Get the state of the listener after all the queries notified so far.
+	 *
+	 * @return The state of the listener.
+	 */
+	Serializable saveState();
+
+	/**
+	 * Restore the state of the listener from a generation checkpoint.
+	 *
+	 * @param state
+	 *            The state saved by {@link #saveState()}.
+	 * @throws Exception
+	 *             If the state cannot be restored.
+	 */
+	void restoreState(Serializable state) throws Exception;
+}
@@ -0,0 +1,159 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.neu.ece.sparqlquerygenerator.utility.MathUtil;
+import edu.neu.ece.sparqlquerygenerator.utility.SplitMix64RandomSource;
+
+/**
+ * This class walks the tree of generation choices of the query generator in
+ * depth-first order, so that each candidate query follows a different sequence
+ * of choices. A candidate replays the choices of the previous one up to the
+ * deepest choice that has an untried alternative, takes that alternative, and
+ * takes the first alternative of every new choice after it. The alternatives of
+ * a choice are optionally shuffled by a permutation seeded by the base seed and
+ * the choices before it.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class ChoiceEnumerator {
+
+	/**
+	 * Base random seed of the permutations.
+	 */
+	private final long seed;
+
+	/**
+	 * True if the alternatives of each choice are shuffled, false if they are
+	 * taken in order.
+	 */
+	private final boolean shuffle;
+
+	/**
+	 * Positions of the taken alternatives in the order the alternatives are
+	 * tried, per choice of the current candidate.
+	 */
+	private final List<Integer> positions = new ArrayList<>();
+
+	/**
+	 * The numbers of alternatives per choice of the current candidate.
+	 */
+	private final List<Integer> bounds = new ArrayList<>();
+
+	/**
+	 * Seeds of the permutations per choice of the current candidate, derived from
+	 * the choices before it.
+	 */
+	private final List<Long> prefixSeeds = new ArrayList<>();
+
+	/**
+	 * The number of choices made by the current candidate so far.
+	 */
+	private int depth = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param seed
+	 *            Base random seed of the permutations.
+	 * @param shuffle
+	 *            True if the alternatives of each choice are shuffled, false if
+	 *            they are taken in order.
+	 */
+	ChoiceEnumerator(long seed, boolean shuffle) {
+		this.seed = seed;
+		this.shuffle = shuffle;
+	}
+
+	/**
+	 * Begin generating a candidate.
+	 */
+	void beginCandidate() {
+		depth = 0;
+	}
+
+	/**
+	 * Make the next choice of the current candidate.
+	 *
+	 * @param bound
+	 *            The number of alternatives, which must be positive.
+	 * @return The index of the taken alternative.
+	 * @throws Exception
+	 *             If the choice differs from the one made at the same point by
+	 *             the previous candidate, i.e. the generation choices are not
+	 *             deterministic.
+	 */
+	int choose(int bound) throws Exception {
+		if (bound == 1)
+			return 0;
+		if (depth < positions.size()) {
+			if (bounds.get(depth) != bound)
+				throw new Exception("Generation choices are not deterministic; enumeration cannot continue.");
+		} else {
+			positions.add(0);
+			bounds.add(bound);
+			prefixSeeds.add(depth == 0 ? seed : MathUtil.deriveSeed(prefixSeeds.get(depth - 1), getAlternative(depth - 1)));
+		}
+		return getAlternative(depth++);
+	}
+
+	/**
+	 * Move on to the next candidate, i.e. the next untried alternative of the
+	 * deepest choice that has one.
+	 *
+	 * @return True if there is a next candidate, false if the tree of choices is
+	 *         exhausted.
+	 */
+	boolean nextCandidate() {
+		while (positions.size() > depth)
+			removeLastChoice();
+		while (!positions.isEmpty()) {
+			int last = positions.size() - 1;
+			if (positions.get(last) + 1 < bounds.get(last)) {
+				positions.set(last, positions.get(last) + 1);
+				return true;
+			}
+			removeLastChoice();
+		}
+		return false;
+	}
+
+	/**
+	 * Remove the last choice of the current candidate.
+	 */
+	private void removeLastChoice() {
+		int last = positions.size() - 1;
+		positions.remove(last);
+		bounds.remove(last);
+		prefixSeeds.remove(last);
+	}
+
+	/**
+	 * Get the index of the alternative taken by a choice.
+	 *
+	 * @param choice
+	 *            The index of the choice in the current candidate.
+	 * @return The index of the alternative.
+	 */
+	private int getAlternative(int choice) {
+		int position = positions.get(choice);
+		if (!shuffle)
+			return position;
+		// Fisher-Yates shuffle of the alternatives
+		int bound = bounds.get(choice);
+		int[] permutation = new int[bound];
+		for (int i = 0; i < bound; i++)
+			permutation[i] = i;
+		SplitMix64RandomSource random = new SplitMix64RandomSource(prefixSeeds.get(choice));
+		for (int i = bound - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = temp;
+		}
+		return permutation[position];
+	}
+}
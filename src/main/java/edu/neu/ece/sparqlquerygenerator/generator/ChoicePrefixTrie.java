@@ -0,0 +1,145 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.neu.ece.sparqlquerygenerator.utility.MathUtil;
+
+/**
+ * This class records the prefixes of generation choices whose completions have
+ * all been generated in distinct mode. Prefixes are identified by a rolling
+ * hash of the choices made so far, and a prefix node records which alternatives
+ * of the next choice lead to exhausted prefixes. A candidate that takes such an
+ * alternative is bound to be a duplicate, so it is aborted right away instead of
+ * being built, serialized and rejected. Only candidates without random data
+ * values are determined by their choices, so only they exhaust prefixes.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class ChoicePrefixTrie {
+
+	/**
+	 * The maximum number of prefix nodes, beyond which no more prefixes are
+	 * recorded as exhausted to bound the memory use.
+	 */
+	private static final int MAX_NODE_NUMBER = 1 << 20;
+
+	/**
+	 * Hash of the empty prefix.
+	 */
+	private static final long ROOT_KEY = 0;
+
+	/**
+	 * Container that maps hashes of prefixes to the exhausted alternatives of the
+	 * choice after them.
+	 */
+	private final Map<Long, BitSet> exhaustedAlternatives = new HashMap<>();
+
+	/**
+	 * Hashes of the prefixes before each choice of the current candidate.
+	 */
+	private final List<Long> pathKeys = new ArrayList<>();
+
+	/**
+	 * Taken alternatives per choice of the current candidate.
+	 */
+	private final List<Integer> pathAlternatives = new ArrayList<>();
+
+	/**
+	 * The numbers of alternatives per choice of the current candidate.
+	 */
+	private final List<Integer> pathBounds = new ArrayList<>();
+
+	/**
+	 * Hash of the choices of the current candidate so far.
+	 */
+	private long key = ROOT_KEY;
+
+	/**
+	 * True if the current candidate draws random data values.
+	 */
+	private boolean dataValueDrawn = false;
+
+	/**
+	 * True if all the choices have been exhausted.
+	 */
+	private boolean exhausted = false;
+
+	/**
+	 * Begin generating a candidate.
+	 */
+	void beginCandidate() {
+		pathKeys.clear();
+		pathAlternatives.clear();
+		pathBounds.clear();
+		key = ROOT_KEY;
+		dataValueDrawn = false;
+	}
+
+	/**
+	 * Record a choice of the current candidate.
+	 *
+	 * @param alternative
+	 *            The index of the taken alternative.
+	 * @param bound
+	 *            The number of alternatives.
+	 * @throws ExhaustedPrefixException
+	 *             If the taken alternative leads to an exhausted prefix.
+	 */
+	void choose(int alternative, int bound) throws ExhaustedPrefixException {
+		BitSet exhaustedSet = exhaustedAlternatives.get(key);
+		if (exhaustedSet != null && exhaustedSet.get(alternative))
+			throw new ExhaustedPrefixException();
+		pathKeys.add(key);
+		pathAlternatives.add(alternative);
+		pathBounds.add(bound);
+		key = MathUtil.deriveSeed(key, ((long) bound << 32) | alternative);
+	}
+
+	/**
+	 * Record that the current candidate draws random data values or other random
+	 * outcomes that are not recorded as choices, e.g. a random order of triple
+	 * patterns, so that it is not determined by its choices.
+	 */
+	void drawDataValue() {
+		dataValueDrawn = true;
+	}
+
+	/**
+	 * Finish the current candidate, which has been generated, and mark its
+	 * choices as exhausted, along with every prefix of it whose alternatives are
+	 * all exhausted.
+	 */
+	void endCandidate() {
+		if (dataValueDrawn)
+			return;
+		for (int i = pathKeys.size() - 1; i >= 0; i--) {
+			BitSet exhaustedSet = exhaustedAlternatives.get(pathKeys.get(i));
+			if (exhaustedSet == null) {
+				if (exhaustedAlternatives.size() >= MAX_NODE_NUMBER)
+					return;
+				exhaustedSet = new BitSet(pathBounds.get(i));
+				exhaustedAlternatives.put(pathKeys.get(i), exhaustedSet);
+			}
+			exhaustedSet.set(pathAlternatives.get(i));
+			if (exhaustedSet.cardinality() < pathBounds.get(i))
+				return;
+		}
+		exhausted = true;
+	}
+
+	/**
+	 * Check whether all the choices have been exhausted, i.e. every distinct query
+	 * has been generated.
+	 *
+	 * @return True if all the choices have been exhausted, false otherwise.
+	 */
+	boolean isExhausted() {
+		return exhausted;
+	}
+}
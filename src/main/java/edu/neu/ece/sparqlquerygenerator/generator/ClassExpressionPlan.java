@@ -0,0 +1,248 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectHasSelf;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLQuantifiedDataRestriction;
+import org.semanticweb.owlapi.model.OWLQuantifiedObjectRestriction;
+
+import edu.neu.ece.sparqlquerygenerator.entity.COWLClassImpl;
+import edu.neu.ece.sparqlquerygenerator.utility.CollectionUtil;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataHasValueImpl;
+import uk.ac.manchester.cs.owl.owlapi.OWLNaryBooleanClassExpressionImpl;
+import uk.ac.manchester.cs.owl.owlapi.OWLObjectComplementOfImpl;
+import uk.ac.manchester.cs.owl.owlapi.OWLObjectHasSelfImpl;
+import uk.ac.manchester.cs.owl.owlapi.OWLObjectHasValueImpl;
+
+/**
+ * This class defines the generation plan of an OWL class expression, compiled
+ * once from the expression so that graph patterns are generated from it
+ * without type checks of the expression, streams of its operands or resolution
+ * of its properties. Plans of operands and fillers are compiled into a tree,
+ * and the subsets of the operands of an intersection or union are enumerated
+ * once at compile time.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class ClassExpressionPlan {
+
+	/**
+	 * Kinds of class expressions that graph patterns are generated from.
+	 */
+	enum Kind {
+		/**
+		 * owl:Thing or owl:Nothing, from which no graph pattern is generated.
+		 */
+		EMPTY,
+
+		/**
+		 * Named class.
+		 */
+		NAMED_CLASS,
+
+		/**
+		 * Intersection or union of class expressions.
+		 */
+		NARY_BOOLEAN,
+
+		/**
+		 * Complement of a class expression.
+		 */
+		COMPLEMENT,
+
+		/**
+		 * Object property restriction to an individual.
+		 */
+		OBJECT_HAS_VALUE,
+
+		/**
+		 * Object property restriction to the individual itself.
+		 */
+		OBJECT_HAS_SELF,
+
+		/**
+		 * Quantified or cardinality object property restriction.
+		 */
+		OBJECT_QUANTIFIED,
+
+		/**
+		 * Data property restriction to a data value.
+		 */
+		DATA_HAS_VALUE,
+
+		/**
+		 * Quantified or cardinality data property restriction.
+		 */
+		DATA_QUANTIFIED,
+
+		/**
+		 * Class expression that is ignored during query generation.
+		 */
+		UNSUPPORTED
+	}
+
+	/**
+	 * Kind of the class expression.
+	 */
+	final Kind kind;
+
+	/**
+	 * The class expression.
+	 */
+	final OWLClassExpression expression;
+
+	/**
+	 * The named class, if the kind is {@link Kind#NAMED_CLASS}.
+	 */
+	COWLClassImpl namedClass;
+
+	/**
+	 * Plans of all the subsets of the operands, if the kind is
+	 * {@link Kind#NARY_BOOLEAN}.
+	 */
+	List<List<ClassExpressionPlan>> operandSubsets;
+
+	/**
+	 * Plan of the operand of a complement or the filler of a quantified object
+	 * property restriction.
+	 */
+	ClassExpressionPlan operand;
+
+	/**
+	 * The object property of an object property restriction.
+	 */
+	OWLObjectProperty objectProperty;
+
+	/**
+	 * The named individual of an object property restriction to an individual;
+	 * null if the individual is anonymous.
+	 */
+	OWLNamedIndividual individual;
+
+	/**
+	 * The data property of a data property restriction.
+	 */
+	OWLDataProperty dataProperty;
+
+	/**
+	 * The data range of a quantified data property restriction.
+	 */
+	OWLDataRange dataRange;
+
+	/**
+	 * Constructor
+	 *
+	 * @param kind
+	 *            Kind of the class expression.
+	 * @param expression
+	 *            The class expression.
+	 */
+	private ClassExpressionPlan(Kind kind, OWLClassExpression expression) {
+		this.kind = kind;
+		this.expression = expression;
+	}
+
+	/**
+	 * Get the plan of a class expression, which is compiled on first use and
+	 * shared by all the occurrences of the expression.
+	 *
+	 * @param clsExp
+	 *            OWL class expression.
+	 * @param classMap
+	 *            A map that maps OWL classes to their customized classes.
+	 * @param plans
+	 *            A map that maps class expressions to their compiled plans.
+	 * @return The plan.
+	 * @throws Exception
+	 *             If input arguments are invalid.
+	 */
+	static ClassExpressionPlan compile(OWLClassExpression clsExp, Map<OWLClass, COWLClassImpl> classMap,
+			Map<OWLClassExpression, ClassExpressionPlan> plans) throws Exception {
+		ClassExpressionPlan plan = plans.get(clsExp);
+		if (plan != null)
+			return plan;
+		if (clsExp.isOWLThing() || clsExp.isOWLNothing())
+			plan = new ClassExpressionPlan(Kind.EMPTY, clsExp);
+		else if (!clsExp.isAnonymous()) {
+			plan = new ClassExpressionPlan(Kind.NAMED_CLASS, clsExp);
+			plan.namedClass = classMap.get(clsExp.asOWLClass());
+		} else if (clsExp instanceof OWLNaryBooleanClassExpressionImpl) {
+			plan = new ClassExpressionPlan(Kind.NARY_BOOLEAN, clsExp);
+			Set<OWLClassExpression> operands = ((OWLNaryBooleanClassExpressionImpl) clsExp).operands()
+					.collect(Collectors.toSet());
+			List<Set<OWLClassExpression>> subsets = CollectionUtil.getAllSubSetsOfASet(operands);
+			plan.operandSubsets = new ArrayList<>(subsets.size());
+			for (Set<OWLClassExpression> subset : subsets) {
+				List<ClassExpressionPlan> operandPlans = new ArrayList<>(subset.size());
+				for (OWLClassExpression exp : subset)
+					operandPlans.add(compile(exp, classMap, plans));
+				plan.operandSubsets.add(operandPlans);
+			}
+		} else if (clsExp instanceof OWLObjectComplementOfImpl) {
+			plan = new ClassExpressionPlan(Kind.COMPLEMENT, clsExp);
+			plan.operand = compile(((OWLObjectComplementOfImpl) clsExp).getOperand(), classMap, plans);
+		} else if (clsExp instanceof OWLObjectHasValueImpl) {
+			plan = new ClassExpressionPlan(Kind.OBJECT_HAS_VALUE, clsExp);
+			plan.objectProperty = processObjectPropertyExpression(((OWLObjectHasValueImpl) clsExp).getProperty());
+			OWLIndividual individual = ((OWLObjectHasValueImpl) clsExp).getFiller();
+			if (!individual.isAnonymous())
+				plan.individual = individual.asOWLNamedIndividual();
+		} else if (clsExp instanceof OWLObjectHasSelfImpl) {
+			plan = new ClassExpressionPlan(Kind.OBJECT_HAS_SELF, clsExp);
+			plan.objectProperty = processObjectPropertyExpression(((OWLObjectHasSelf) clsExp).getProperty());
+		} else if (clsExp instanceof OWLQuantifiedObjectRestriction) {
+			plan = new ClassExpressionPlan(Kind.OBJECT_QUANTIFIED, clsExp);
+			plan.objectProperty = processObjectPropertyExpression(
+					((OWLQuantifiedObjectRestriction) clsExp).getProperty());
+			plan.operand = compile(((OWLQuantifiedObjectRestriction) clsExp).getFiller(), classMap, plans);
+		} else if (clsExp instanceof OWLDataHasValueImpl) {
+			plan = new ClassExpressionPlan(Kind.DATA_HAS_VALUE, clsExp);
+			plan.dataProperty = ((OWLDataHasValueImpl) clsExp).getProperty().asOWLDataProperty();
+		} else if (clsExp instanceof OWLQuantifiedDataRestriction) {
+			plan = new ClassExpressionPlan(Kind.DATA_QUANTIFIED, clsExp);
+			plan.dataProperty = ((OWLQuantifiedDataRestriction) clsExp).getProperty().asOWLDataProperty();
+			plan.dataRange = ((OWLQuantifiedDataRestriction) clsExp).getFiller();
+		} else
+			plan = new ClassExpressionPlan(Kind.UNSUPPORTED, clsExp);
+		plans.put(clsExp, plan);
+		return plan;
+	}
+
+	/**
+	 * This function processes the given OWL object property expression so as to get
+	 * its semantically equivalent OWL object property.
+	 *
+	 * @param objectPropertyExp
+	 *            OWL object property expression.
+	 * @return OWL Object property.
+	 */
+	private static OWLObjectProperty processObjectPropertyExpression(OWLObjectPropertyExpression objectPropertyExp) {
+		if (objectPropertyExp == null)
+			return null;
+		OWLObjectProperty objectProperty;
+		if (!objectPropertyExp.isAnonymous())
+			objectProperty = objectPropertyExp.asOWLObjectProperty();
+		else {
+			OWLObjectPropertyExpression simplified = objectPropertyExp.getSimplified();
+			if (simplified.isAnonymous())
+				objectProperty = simplified.getInverseProperty().asOWLObjectProperty();
+			else
+				objectProperty = simplified.asOWLObjectProperty();
+		}
+		return objectProperty;
+	}
+}
@@ -0,0 +1,108 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class estimates the distinct query space in distinct mode from the
+ * duplicate candidates, in the style of capture-recapture: the numbers of
+ * distinct queries drawn exactly once (f1) and exactly twice (f2) give the
+ * Chao1 lower bound of the number of distinct queries, and the Good-Turing
+ * estimate f1 / n of the probability that the next candidate is a new distinct
+ * query. Queries generated before this run, i.e. reused or resumed ones, are
+ * counted as drawn once.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class DistinctQuerySpaceEstimator {
+
+	/**
+	 * The number of candidates, including the queries generated before this run.
+	 */
+	private long candidateCount;
+
+	/**
+	 * The number of distinct queries.
+	 */
+	private long distinctCount;
+
+	/**
+	 * Container that maps fingerprints of queries drawn more than once to the
+	 * numbers of times they are drawn.
+	 */
+	private final Map<Long, Integer> duplicateCounts = new HashMap<>();
+
+	/**
+	 * The number of distinct queries drawn exactly twice.
+	 */
+	private long doubletonCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param existingQueryCount
+	 *            The number of distinct queries generated before this run.
+	 */
+	DistinctQuerySpaceEstimator(int existingQueryCount) {
+		candidateCount = existingQueryCount;
+		distinctCount = existingQueryCount;
+	}
+
+	/**
+	 * Record a candidate.
+	 *
+	 * @param fingerprint
+	 *            Fingerprint of the candidate.
+	 * @param distinct
+	 *            True if the candidate is a new distinct query, false if it is a
+	 *            duplicate.
+	 */
+	void addCandidate(long fingerprint, boolean distinct) {
+		candidateCount++;
+		if (distinct) {
+			distinctCount++;
+			return;
+		}
+		int count = duplicateCounts.merge(fingerprint, 2, (c, one) -> c + 1);
+		if (count == 2)
+			doubletonCount++;
+		else if (count == 3)
+			doubletonCount--;
+	}
+
+	/**
+	 * Record a candidate that is aborted as a duplicate before it is generated, so
+	 * its fingerprint is not known. It only counts against the probability that
+	 * the next candidate is a new distinct query.
+	 */
+	void addAbortedCandidate() {
+		candidateCount++;
+	}
+
+	/**
+	 * Get the Good-Turing estimate of the probability that the next candidate is
+	 * a new distinct query.
+	 *
+	 * @return The probability.
+	 */
+	double getNewQueryProbability() {
+		if (candidateCount == 0)
+			return 1;
+		return (double) (distinctCount - duplicateCounts.size()) / candidateCount;
+	}
+
+	/**
+	 * Get the Chao1 estimate of the number of distinct queries, which is a lower
+	 * bound since some queries are far more likely than others.
+	 *
+	 * @return The estimated number of distinct queries.
+	 */
+	double getEstimatedSpaceSize() {
+		long singletonCount = distinctCount - duplicateCounts.size();
+		if (doubletonCount > 0)
+			return distinctCount + (double) singletonCount * singletonCount / (2.0 * doubletonCount);
+		return distinctCount + singletonCount * (singletonCount - 1) / 2.0;
+	}
+}
@@ -0,0 +1,23 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+/**
+ * This exception aborts a candidate query in distinct mode as soon as its
+ * generation choices follow a prefix whose completions have all been
+ * generated, since the candidate is bound to be a duplicate.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class ExhaustedPrefixException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor, without stack trace since the exception is thrown as part of
+	 * the normal control flow.
+	 */
+	ExhaustedPrefixException() {
+		super("Generation choices follow an exhausted prefix", null, false, false);
+	}
+}
@@ -0,0 +1,187 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprFunctionOp;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementMinus;
+import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.syntax.ElementUnion;
+
+/**
+ * This class bounds the size of each generated query: the depth of navigation
+ * through named classes along object properties and class restrictions, the
+ * numbers of triple patterns and filters, and the nesting of UNION, OPTIONAL
+ * and negation graph patterns. Once a budget is spent, the choices that would
+ * spend more of it are not taken, so query size, generation time and recursion
+ * depth are bounded regardless of the input ontology. A limit of 0 means
+ * unlimited.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class GenerationBudget {
+
+	/**
+	 * The maximum depth of navigation through named classes.
+	 */
+	private final int maxDepth;
+
+	/**
+	 * The maximum number of triple patterns.
+	 */
+	private final int maxTriplePatterns;
+
+	/**
+	 * The maximum number of filters.
+	 */
+	private final int maxFilters;
+
+	/**
+	 * The maximum nesting of UNION, OPTIONAL and negation graph patterns.
+	 */
+	private final int maxNesting;
+
+	/**
+	 * The current depth of navigation.
+	 */
+	private int depth;
+
+	/**
+	 * The number of triple patterns of the current query.
+	 */
+	private int triplePatternCount;
+
+	/**
+	 * The number of filters of the current query.
+	 */
+	private int filterCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxDepth
+	 *            The maximum depth of navigation through named classes; 0 if
+	 *            unlimited.
+	 * @param maxTriplePatterns
+	 *            The maximum number of triple patterns; 0 if unlimited.
+	 * @param maxFilters
+	 *            The maximum number of filters; 0 if unlimited.
+	 * @param maxNesting
+	 *            The maximum nesting of UNION, OPTIONAL and negation graph
+	 *            patterns; 0 if unlimited.
+	 */
+	GenerationBudget(int maxDepth, int maxTriplePatterns, int maxFilters, int maxNesting) {
+		this.maxDepth = maxDepth;
+		this.maxTriplePatterns = maxTriplePatterns;
+		this.maxFilters = maxFilters;
+		this.maxNesting = maxNesting;
+	}
+
+	/**
+	 * Begin generating a query with the whole budget.
+	 */
+	void reset() {
+		depth = 0;
+		triplePatternCount = 0;
+		filterCount = 0;
+	}
+
+	/**
+	 * Navigate one level deeper if the depth budget allows, in which case
+	 * {@link #exit()} must be called when the level is done.
+	 *
+	 * @return True if the navigation is allowed, false otherwise.
+	 */
+	boolean enter() {
+		if (maxDepth > 0 && depth >= maxDepth)
+			return false;
+		depth++;
+		return true;
+	}
+
+	/**
+	 * Navigate back one level.
+	 */
+	void exit() {
+		depth--;
+	}
+
+	/**
+	 * Check whether another triple pattern is allowed.
+	 *
+	 * @return True if it is allowed, false otherwise.
+	 */
+	boolean allowsTriplePattern() {
+		return maxTriplePatterns == 0 || triplePatternCount < maxTriplePatterns;
+	}
+
+	/**
+	 * Spend the budget of a triple pattern.
+	 */
+	void addTriplePattern() {
+		triplePatternCount++;
+	}
+
+	/**
+	 * Check whether another filter is allowed.
+	 *
+	 * @return True if it is allowed, false otherwise.
+	 */
+	boolean allowsFilter() {
+		return maxFilters == 0 || filterCount < maxFilters;
+	}
+
+	/**
+	 * Spend the budget of a filter.
+	 */
+	void addFilter() {
+		filterCount++;
+	}
+
+	/**
+	 * Check whether two graph patterns may be joined with UNION, OPTIONAL or
+	 * negation.
+	 *
+	 * @param left
+	 *            Left graph pattern.
+	 * @param right
+	 *            Right graph pattern.
+	 * @return True if the nesting budget allows, false otherwise.
+	 */
+	boolean allowsNesting(ElementGroup left, ElementGroup right) {
+		return maxNesting == 0 || Math.max(getNesting(left), getNesting(right)) < maxNesting;
+	}
+
+	/**
+	 * Get the nesting of UNION, OPTIONAL and negation graph patterns in a graph
+	 * pattern.
+	 *
+	 * @param element
+	 *            Graph pattern.
+	 * @return The nesting.
+	 */
+	static int getNesting(Element element) {
+		int nesting = 0;
+		if (element instanceof ElementGroup) {
+			for (Element sub : ((ElementGroup) element).getElements())
+				nesting = Math.max(nesting, getNesting(sub));
+		} else if (element instanceof ElementUnion) {
+			for (Element sub : ((ElementUnion) element).getElements())
+				nesting = Math.max(nesting, getNesting(sub));
+			nesting++;
+		} else if (element instanceof ElementOptional)
+			nesting = getNesting(((ElementOptional) element).getOptionalElement()) + 1;
+		else if (element instanceof ElementMinus)
+			nesting = getNesting(((ElementMinus) element).getMinusElement()) + 1;
+		else if (element instanceof ElementFilter) {
+			// FILTER EXISTS and FILTER NOT EXISTS
+			Expr expr = ((ElementFilter) element).getExpr();
+			if (expr instanceof ExprFunctionOp)
+				nesting = getNesting(((ExprFunctionOp) expr).getElement()) + 1;
+		}
+		return nesting;
+	}
+}
@@ -0,0 +1,153 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * This class records the state of the query generation process after a number
+ * of queries, from which an interrupted query generation process can be
+ * resumed. The random stream of each query only depends on the base seed and
+ * the query ID, so the number of generated queries is the whole random state.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class GenerationCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = 2L;
+
+	/**
+	 * Ontology root class IRI as string.
+	 */
+	final String rootIRIString;
+
+	/**
+	 * Base random seed for query generation.
+	 */
+	final long seed;
+
+	/**
+	 * Name of the type of the random source.
+	 */
+	final String randomSourceType;
+
+	/**
+	 * Generate distinct queries.
+	 */
+	final boolean distinct;
+
+	/**
+	 * Fingerprint of the description of the settings that the generated queries
+	 * depend on.
+	 */
+	final long settingsFingerprint;
+
+	/**
+	 * The number of generated queries.
+	 */
+	final int queryCount;
+
+	/**
+	 * The number of generated candidate queries, including the rejected ones.
+	 */
+	final int attempt;
+
+	/**
+	 * Fingerprints of the generated distinct queries; null if distinct queries are
+	 * not supported.
+	 */
+	final long[] queryFingerprints;
+
+	/**
+	 * States of the checkpointable listeners, in the order the listeners are
+	 * added.
+	 */
+	final List<Serializable> listenerStates;
+
+	/**
+	 * Constructor
+	 *
+	 * @param rootIRIString
+	 *            Ontology root class IRI as string.
+	 * @param seed
+	 *            Base random seed for query generation.
+	 * @param randomSourceType
+	 *            Name of the type of the random source.
+	 * @param distinct
+	 *            Generate distinct queries.
+	 * @param settingsFingerprint
+	 *            Fingerprint of the description of the generation settings.
+	 * @param queryCount
+	 *            The number of generated queries.
+	 * @param attempt
+	 *            The number of generated candidate queries.
+	 * @param queryFingerprints
+	 *            Fingerprints of the generated distinct queries.
+	 * @param listenerStates
+	 *            States of the checkpointable listeners.
+	 */
+	GenerationCheckpoint(String rootIRIString, long seed, String randomSourceType, boolean distinct,
+			long settingsFingerprint, int queryCount, int attempt, long[] queryFingerprints,
+			List<Serializable> listenerStates) {
+		this.rootIRIString = rootIRIString;
+		this.seed = seed;
+		this.randomSourceType = randomSourceType;
+		this.distinct = distinct;
+		this.settingsFingerprint = settingsFingerprint;
+		this.queryCount = queryCount;
+		this.attempt = attempt;
+		this.queryFingerprints = queryFingerprints;
+		this.listenerStates = listenerStates;
+	}
+
+	/**
+	 * Durably save the checkpoint into file. The checkpoint is written into a
+	 * temporary file that replaces the checkpoint file once it is synced to disk,
+	 * so the checkpoint file always holds a complete checkpoint.
+	 *
+	 * @param checkpointFile
+	 *            Checkpoint file.
+	 * @throws IOException
+	 *             If I/O exceptions occur.
+	 */
+	void save(File checkpointFile) throws IOException {
+		File tempFile = new File(checkpointFile.getPath() + ".tmp");
+		try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+			ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(fos));
+			oos.writeObject(this);
+			oos.flush();
+			fos.getFD().sync();
+		}
+		Files.move(tempFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Load a checkpoint from file.
+	 *
+	 * @param checkpointFile
+	 *            Checkpoint file.
+	 * @return The checkpoint.
+	 * @throws IOException
+	 *             If I/O exceptions occur.
+	 * @throws ClassNotFoundException
+	 *             If the checkpoint file is invalid.
+	 */
+	static GenerationCheckpoint load(File checkpointFile) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream ois = new ObjectInputStream(
+				new BufferedInputStream(new FileInputStream(checkpointFile)))) {
+			return (GenerationCheckpoint) ois.readObject();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import edu.neu.ece.sparqlquerygenerator.entity.COWLClassImpl;
+import edu.neu.ece.sparqlquerygenerator.entity.COWLObjectPropertyImpl;
+
+/**
+ * This class indexes the schema-valid edges of join graphs: for each named
+ * class, the object properties whose domain is the class and whose range is a
+ * named class, and the object properties whose range is the class, followed
+ * backward to their domains. Shape-directed query generation fills a planned
+ * join graph by following these steps from the selected class, so every object
+ * property assertion triple pattern links variables of its domain and range.
+ * Sequence paths follow a step from the range of their first property.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class JoinGraphIndex {
+
+	/**
+	 * A step from a named class to a neighbor class along an object property.
+	 */
+	static final class Step {
+
+		/**
+		 * The object property.
+		 */
+		final COWLObjectPropertyImpl property;
+
+		/**
+		 * The neighbor class.
+		 */
+		final COWLClassImpl neighbor;
+
+		/**
+		 * True if the class is the domain and the neighbor the range of the
+		 * property, false if the other way around.
+		 */
+		final boolean forward;
+
+		/**
+		 * Constructor
+		 *
+		 * @param property
+		 *            The object property.
+		 * @param neighbor
+		 *            The neighbor class.
+		 * @param forward
+		 *            True if the class is the domain and the neighbor the range of
+		 *            the property, false if the other way around.
+		 */
+		Step(COWLObjectPropertyImpl property, COWLClassImpl neighbor, boolean forward) {
+			this.property = property;
+			this.neighbor = neighbor;
+			this.forward = forward;
+		}
+	}
+
+	/**
+	 * Container that maps named classes to their steps.
+	 */
+	private final Map<COWLClassImpl, List<Step>> steps = new HashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param classMap
+	 *            A map that maps OWL classes to their customized classes.
+	 * @param objectPropertyMap
+	 *            A map that maps OWL object properties to their customized
+	 *            properties.
+	 */
+	JoinGraphIndex(Map<OWLClass, COWLClassImpl> classMap,
+			Map<OWLObjectProperty, COWLObjectPropertyImpl> objectPropertyMap) {
+		List<COWLClassImpl> classes = new ArrayList<>(classMap.values());
+		// Steps are ordered so that generation does not depend on hash orders
+		classes.sort((c1, c2) -> c1.getIRI().compareTo(c2.getIRI()));
+		for (COWLClassImpl domain : classes) {
+			List<Entry<OWLObjectProperty, OWLClassExpression>> pairs = new ArrayList<>(
+					domain.getObjectPropertyRangesPairs().entrySet());
+			pairs.sort((p1, p2) -> p1.getKey().compareTo(p2.getKey()));
+			for (Entry<OWLObjectProperty, OWLClassExpression> pair : pairs) {
+				OWLClassExpression range = pair.getValue();
+				if (range.isAnonymous() || range.isOWLThing() || range.isOWLNothing())
+					continue;
+				COWLClassImpl rangeImpl = classMap.get(range.asOWLClass());
+				COWLObjectPropertyImpl property = objectPropertyMap.get(pair.getKey());
+				if (rangeImpl == null || property == null)
+					continue;
+				steps.computeIfAbsent(domain, c -> new ArrayList<>()).add(new Step(property, rangeImpl, true));
+				steps.computeIfAbsent(rangeImpl, c -> new ArrayList<>()).add(new Step(property, domain, false));
+			}
+		}
+	}
+
+	/**
+	 * Get the steps from a named class.
+	 *
+	 * @param cls
+	 *            Named class.
+	 * @return The steps, which must not be modified.
+	 */
+	List<Step> getSteps(COWLClassImpl cls) {
+		return steps.getOrDefault(cls, Collections.emptyList());
+	}
+}
@@ -0,0 +1,121 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+/**
+ * Shapes of the join graph of object property assertion triple patterns that
+ * shape-directed query generation plans before filling the graph with classes
+ * and properties. Vertices of the join graph are variables, numbered from 0 for
+ * the selected variable, and each edge is a triple pattern that links two
+ * variables.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public enum JoinShape {
+
+	/**
+	 * All the edges link the selected variable to a new variable.
+	 */
+	STAR("star") {
+		@Override
+		int[][] planEdges(int size) {
+			int[][] edges = new int[size][];
+			for (int i = 0; i < size; i++)
+				edges[i] = new int[] { 0, i + 1 };
+			return edges;
+		}
+	},
+
+	/**
+	 * Each edge links the last variable to a new variable.
+	 */
+	CHAIN("chain") {
+		@Override
+		int[][] planEdges(int size) {
+			int[][] edges = new int[size][];
+			for (int i = 0; i < size; i++)
+				edges[i] = new int[] { i, i + 1 };
+			return edges;
+		}
+	},
+
+	/**
+	 * A star of stars: the selected variable links to about the square root of
+	 * the size of hub variables, and the remaining edges link the hubs to new
+	 * variables in turn.
+	 */
+	SNOWFLAKE("snowflake") {
+		@Override
+		int[][] planEdges(int size) {
+			int hubNumber = Math.max(1, (int) Math.sqrt(size));
+			int[][] edges = new int[size][];
+			for (int i = 0; i < size; i++)
+				edges[i] = new int[] { i < hubNumber ? 0 : (i - hubNumber) % hubNumber + 1, i + 1 };
+			return edges;
+		}
+	},
+
+	/**
+	 * A chain whose last edge links back to the selected variable.
+	 */
+	CYCLE("cycle") {
+		@Override
+		int[][] planEdges(int size) {
+			int[][] edges = new int[size][];
+			for (int i = 0; i < size; i++)
+				edges[i] = new int[] { i, (i + 1) % size };
+			return edges;
+		}
+	};
+
+	/**
+	 * Name of the join shape on console.
+	 */
+	private final String name;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name
+	 *            Name of the join shape on console.
+	 */
+	JoinShape(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get name of the join shape on console.
+	 *
+	 * @return Name of the join shape.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Plan the edges of a join graph of this shape. The first vertex of each edge
+	 * is already reached by the edges before it, and the second vertex is either
+	 * a new vertex, numbered in order, or a vertex already reached.
+	 *
+	 * @param size
+	 *            The number of edges, which must be positive.
+	 * @return The edges as pairs of vertices.
+	 */
+	abstract int[][] planEdges(int size);
+
+	/**
+	 * Get the join shape with the specified name.
+	 *
+	 * @param name
+	 *            Name of the join shape on console.
+	 * @return The join shape.
+	 * @throws IllegalArgumentException
+	 *             If there is no join shape with the name.
+	 */
+	public static JoinShape fromName(String name) {
+		for (JoinShape shape : values())
+			if (shape.name.equalsIgnoreCase(name))
+				return shape;
+		throw new IllegalArgumentException("Unknown join shape: " + name);
+	}
+}
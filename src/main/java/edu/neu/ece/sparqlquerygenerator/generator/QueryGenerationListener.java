@@ -0,0 +1,26 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import org.apache.jena.query.Query;
+
+/**
+ * This interface defines a listener that is notified of each query accepted by
+ * the SPARQL query generator, in the order of query IDs.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public interface QueryGenerationListener {
+
+	/**
+	 * Notify the listener of a generated query.
+	 *
+	 * @param queryID
+	 *            Query ID.
+	 * @param query
+	 *            The generated query.
+	 * @throws Exception
+	 *             If the listener fails to process the query.
+	 */
+	void queryGenerated(int queryID, Query query) throws Exception;
+}
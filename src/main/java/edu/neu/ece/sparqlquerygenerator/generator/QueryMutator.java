@@ -0,0 +1,744 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.shared.impl.PrefixMappingImpl;
+import org.apache.jena.sparql.core.TriplePath;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.E_Exists;
+import org.apache.jena.sparql.expr.E_NotExists;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprFunction;
+import org.apache.jena.sparql.expr.ExprFunctionOp;
+import org.apache.jena.sparql.expr.ExprTransformCopy;
+import org.apache.jena.sparql.expr.ExprTransformer;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementMinus;
+import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementTriplesBlock;
+import org.apache.jena.sparql.syntax.ElementUnion;
+import org.apache.jena.sparql.syntax.syntaxtransform.QueryTransformOps;
+import org.apache.jena.vocabulary.RDF;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import edu.neu.ece.sparqlquerygenerator.entity.COWLClassImpl;
+import edu.neu.ece.sparqlquerygenerator.entity.COWLDataPropertyImpl;
+import edu.neu.ece.sparqlquerygenerator.entity.COWLObjectPropertyImpl;
+import edu.neu.ece.sparqlquerygenerator.entity.COWLPropertyImpl;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSource;
+
+/**
+ * This class derives new queries from a corpus of existing ones by small
+ * mutations instead of walking the ontology from scratch: a class of a class
+ * assertion is swapped with a relevant named class, a property is swapped with
+ * a relevant property, a data value of a filter is perturbed, a join operator
+ * is flipped, or a graph pattern of another query is grafted onto a variable
+ * of the same class. Mutants share the unchanged parts of the query they are
+ * derived from, which must therefore not be modified, and are validated against
+ * the schema model: every class assertion refers to a named class, every other
+ * triple pattern to an object or data property whose object is an individual
+ * or a data value respectively.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class QueryMutator {
+
+	/**
+	 * Mutation operators.
+	 */
+	enum Operator {
+		/**
+		 * Swap the class of a class assertion with a relevant named class.
+		 */
+		CLASS,
+
+		/**
+		 * Swap the property of a property assertion with a relevant property.
+		 */
+		PROPERTY,
+
+		/**
+		 * Perturb a data value of a filter.
+		 */
+		FILTER,
+
+		/**
+		 * Flip the operator that joins a graph pattern.
+		 */
+		JOIN,
+
+		/**
+		 * Graft a graph pattern of another query onto a variable.
+		 */
+		GRAFT
+	}
+
+	/**
+	 * A part of a graph pattern that a mutation operator applies to.
+	 */
+	private static final class Site {
+
+		/**
+		 * The element that contains the part.
+		 */
+		final Element element;
+
+		/**
+		 * The triple pattern, which is a triple or a triple path, or the data value;
+		 * null if the part is the element itself.
+		 */
+		final Object part;
+
+		/**
+		 * Constructor
+		 *
+		 * @param element
+		 *            The element that contains the part.
+		 * @param part
+		 *            The triple pattern, which is a triple or a triple path, or the
+		 *            data value; null if the part is the element itself.
+		 */
+		Site(Element element, Object part) {
+			this.element = element;
+			this.part = part;
+		}
+	}
+
+	/**
+	 * Container that maps IRIs to named classes.
+	 */
+	private final Map<String, COWLClassImpl> classes = new HashMap<>();
+
+	/**
+	 * Container that maps IRIs to object properties.
+	 */
+	private final Map<String, COWLObjectPropertyImpl> objectProperties = new HashMap<>();
+
+	/**
+	 * Container that maps IRIs to data properties.
+	 */
+	private final Map<String, COWLDataPropertyImpl> dataProperties = new HashMap<>();
+
+	/**
+	 * A map that maps OWL classes to their customized classes.
+	 */
+	private final Map<OWLClass, COWLClassImpl> classMap;
+
+	/**
+	 * The corpus that mutants are derived from, including the mutants.
+	 */
+	private final List<Query> corpus = new ArrayList<>();
+
+	/**
+	 * The numbers of mutants per mutation operator.
+	 */
+	private final int[] mutantCounts = new int[Operator.values().length];
+
+	/**
+	 * Constructor
+	 *
+	 * @param classMap
+	 *            A map that maps OWL classes to their customized classes.
+	 * @param objectPropertyMap
+	 *            A map that maps OWL object properties to their customized
+	 *            properties.
+	 * @param dataPropertyMap
+	 *            A map that maps OWL data properties to their customized
+	 *            properties.
+	 */
+	QueryMutator(Map<OWLClass, COWLClassImpl> classMap,
+			Map<OWLObjectProperty, COWLObjectPropertyImpl> objectPropertyMap,
+			Map<OWLDataProperty, COWLDataPropertyImpl> dataPropertyMap) {
+		this.classMap = classMap;
+		for (COWLClassImpl cls : classMap.values())
+			classes.put(cls.getIRI().toString(), cls);
+		for (COWLObjectPropertyImpl property : objectPropertyMap.values())
+			objectProperties.put(property.getIRI().toString(), property);
+		for (COWLDataPropertyImpl property : dataPropertyMap.values())
+			dataProperties.put(property.getIRI().toString(), property);
+	}
+
+	/**
+	 * Add a query to the corpus.
+	 *
+	 * @param query
+	 *            The query, which must not be modified afterwards.
+	 */
+	void addQuery(Query query) {
+		corpus.add(query);
+	}
+
+	/**
+	 * Get the number of queries in the corpus.
+	 *
+	 * @return The corpus size.
+	 */
+	int getCorpusSize() {
+		return corpus.size();
+	}
+
+	/**
+	 * Get the number of mutants derived by a mutation operator.
+	 *
+	 * @param operator
+	 *            Mutation operator.
+	 * @return The number of mutants.
+	 */
+	int getMutantCount(Operator operator) {
+		return mutantCounts[operator.ordinal()];
+	}
+
+	/**
+	 * Derive a mutant from a random query of the corpus with a random mutation
+	 * operator.
+	 *
+	 * @param ran
+	 *            Random source of the mutant.
+	 * @param queryID
+	 *            Query ID of the mutant, which renames the variables of grafted
+	 *            graph patterns.
+	 * @return The mutant; null if the operator does not apply to the query or the
+	 *         mutant is not valid.
+	 */
+	Query mutate(RandomSource ran, int queryID) {
+		if (corpus.isEmpty())
+			return null;
+		Query parent = corpus.get(ran.nextInt(corpus.size()));
+		Operator operator = Operator.values()[ran.nextInt(Operator.values().length)];
+		Element pattern = parent.getQueryPattern();
+		// The prefixes of the query are shared unless a donor adds to them
+		PrefixMapping pmap = parent.getPrefixMapping();
+		Element mutant;
+		switch (operator) {
+		case CLASS:
+			mutant = swapClass(pattern, ran);
+			break;
+		case PROPERTY:
+			mutant = swapProperty(pattern, ran);
+			break;
+		case FILTER:
+			mutant = perturbFilter(pattern, ran);
+			break;
+		case JOIN:
+			mutant = flipJoin(pattern, ran);
+			break;
+		default:
+			Query donor = corpus.get(ran.nextInt(corpus.size()));
+			mutant = graft(pattern, donor, ran, queryID);
+			pmap = new PrefixMappingImpl();
+			pmap.setNsPrefixes(parent.getPrefixMapping());
+			pmap.setNsPrefixes(donor.getPrefixMapping());
+			break;
+		}
+		if (mutant == null || !isValid(mutant))
+			return null;
+		mutantCounts[operator.ordinal()]++;
+		// The projection, aggregates and solution modifiers of the parent are kept
+		Query query = QueryTransformOps.shallowCopy(parent);
+		query.setQueryPattern(mutant);
+		query.setPrefixMapping(pmap);
+		return query;
+	}
+
+	/**
+	 * Swap the class of a random class assertion with another relevant named
+	 * class.
+	 *
+	 * @param pattern
+	 *            Graph pattern.
+	 * @param ran
+	 *            Random source.
+	 * @return The mutated graph pattern; null if no class assertion has another
+	 *         relevant named class.
+	 */
+	private Element swapClass(Element pattern, RandomSource ran) {
+		List<Site> sites = new ArrayList<>();
+		collectTriplePatterns(pattern, sites, triple -> {
+			COWLClassImpl cls = getAssertedClass(triple);
+			return cls != null && cls.getRelevantNamedClasses(classMap).size() > 1;
+		});
+		if (sites.isEmpty())
+			return null;
+		Site site = sites.get(ran.nextInt(sites.size()));
+		Triple triple = asTriple(site);
+		COWLClassImpl cls = getAssertedClass(triple);
+		List<COWLClassImpl> alternatives = new ArrayList<>(cls.getRelevantNamedClasses(classMap));
+		alternatives.remove(cls);
+		alternatives.sort((c1, c2) -> c1.getIRI().compareTo(c2.getIRI()));
+		Node object = alternatives.get(ran.nextInt(alternatives.size())).getNode();
+		return replaceTriplePattern(pattern, site, Triple.create(triple.getSubject(), triple.getPredicate(), object));
+	}
+
+	/**
+	 * Swap the property of a random property assertion with another relevant
+	 * property of the same kind.
+	 *
+	 * @param pattern
+	 *            Graph pattern.
+	 * @param ran
+	 *            Random source.
+	 * @return The mutated graph pattern; null if no property assertion has
+	 *         another relevant property.
+	 */
+	private Element swapProperty(Element pattern, RandomSource ran) {
+		List<Site> sites = new ArrayList<>();
+		collectTriplePatterns(pattern, sites, triple -> getRelevantProperties(triple).size() > 1);
+		if (sites.isEmpty())
+			return null;
+		Site site = sites.get(ran.nextInt(sites.size()));
+		Triple triple = asTriple(site);
+		List<COWLPropertyImpl> alternatives = getRelevantProperties(triple);
+		alternatives.removeIf(property -> property.getIRI().toString().equals(triple.getPredicate().getURI()));
+		Node predicate = alternatives.get(ran.nextInt(alternatives.size())).getNode();
+		return replaceTriplePattern(pattern, site, Triple.create(triple.getSubject(), predicate, triple.getObject()));
+	}
+
+	/**
+	 * Perturb a random numeric or boolean data value of a filter: numbers are
+	 * moved by up to a tenth of their magnitude, at least by up to 1, and booleans
+	 * are negated.
+	 *
+	 * @param pattern
+	 *            Graph pattern.
+	 * @param ran
+	 *            Random source.
+	 * @return The mutated graph pattern; null if no filter has such a data value.
+	 */
+	private static Element perturbFilter(Element pattern, RandomSource ran) {
+		List<Site> sites = new ArrayList<>();
+		walk(pattern, element -> {
+			if (element instanceof ElementFilter && !(((ElementFilter) element).getExpr() instanceof ExprFunctionOp))
+				collectDataValues(((ElementFilter) element).getExpr(), element, sites);
+		});
+		if (sites.isEmpty())
+			return null;
+		Site site = sites.get(ran.nextInt(sites.size()));
+		NodeValue value = (NodeValue) site.part;
+		NodeValue perturbed = perturb(value, ran);
+		Expr expr = ExprTransformer.transform(new ExprTransformCopy() {
+			@Override
+			public Expr transform(NodeValue nv) {
+				return nv == value ? perturbed : nv;
+			}
+		}, ((ElementFilter) site.element).getExpr());
+		return rewrite(pattern, element -> element == site.element ? new ElementFilter(expr) : element);
+	}
+
+	/**
+	 * Flip the operator of a random OPTIONAL, FILTER EXISTS, FILTER NOT EXISTS or
+	 * MINUS graph pattern to another of them or to conjunction, or a random UNION
+	 * graph pattern to conjunction.
+	 *
+	 * @param pattern
+	 *            Graph pattern.
+	 * @param ran
+	 *            Random source.
+	 * @return The mutated graph pattern; null if it has no such graph pattern.
+	 */
+	private static Element flipJoin(Element pattern, RandomSource ran) {
+		List<Site> sites = new ArrayList<>();
+		walk(pattern, element -> {
+			if (element instanceof ElementOptional || element instanceof ElementMinus
+					|| element instanceof ElementUnion || element instanceof ElementFilter
+							&& ((ElementFilter) element).getExpr() instanceof ExprFunctionOp)
+				sites.add(new Site(element, null));
+		});
+		if (sites.isEmpty())
+			return null;
+		Site site = sites.get(ran.nextInt(sites.size()));
+		Element flipped;
+		if (site.element instanceof ElementUnion) {
+			ElementGroup group = new ElementGroup();
+			for (Element sub : ((ElementUnion) site.element).getElements())
+				group.addElement(sub);
+			flipped = group;
+		} else {
+			Element operand = getOperand(site.element);
+			// Conjunction, OPTIONAL, FILTER EXISTS, FILTER NOT EXISTS and MINUS
+			int joinType = ran.nextInt(4);
+			if (joinType >= getJoinType(site.element))
+				joinType++;
+			switch (joinType) {
+			case 0:
+				flipped = operand;
+				break;
+			case 1:
+				flipped = new ElementOptional(operand);
+				break;
+			case 2:
+				flipped = new ElementFilter(new E_Exists(operand));
+				break;
+			case 3:
+				flipped = new ElementFilter(new E_NotExists(operand));
+				break;
+			default:
+				flipped = new ElementMinus(operand);
+				break;
+			}
+		}
+		return rewrite(pattern, element -> element == site.element ? flipped : element);
+	}
+
+	/**
+	 * Graft the graph pattern of a donor query onto a random variable asserted to
+	 * be of the class of the selected variable of the donor, with the other
+	 * variables of the donor renamed. The grafted graph pattern is joined with
+	 * the whole graph pattern by conjunction.
+	 *
+	 * @param pattern
+	 *            Graph pattern.
+	 * @param donor
+	 *            Donor query.
+	 * @param ran
+	 *            Random source.
+	 * @param suffix
+	 *            Suffix of the renamed variables.
+	 * @return The mutated graph pattern; null if the donor cannot be grafted.
+	 */
+	private Element graft(Element pattern, Query donor, RandomSource ran, int suffix) {
+		Var root = getSelectedVariable(donor);
+		if (!(pattern instanceof ElementGroup) || !(donor.getQueryPattern() instanceof ElementGroup) || root == null)
+			return null;
+		List<Site> roots = new ArrayList<>();
+		collectTriplePatterns(donor.getQueryPattern(), roots,
+				triple -> triple.getSubject().equals(root) && getAssertedClass(triple) != null);
+		if (roots.isEmpty())
+			return null;
+		Node cls = asTriple(roots.get(0)).getObject();
+		List<Site> sites = new ArrayList<>();
+		collectTriplePatterns(pattern, sites, triple -> triple.getSubject().isVariable()
+				&& triple.getObject().equals(cls) && getAssertedClass(triple) != null);
+		if (sites.isEmpty())
+			return null;
+		Var var = Var.alloc(asTriple(sites.get(ran.nextInt(sites.size()))).getSubject());
+		SubPatternPool.Entry entry = new SubPatternPool.Entry((ElementGroup) donor.getQueryPattern(), root,
+				new HashMap<>());
+		ElementGroup group = new ElementGroup();
+		for (Element sub : ((ElementGroup) pattern).getElements())
+			group.addElement(sub);
+		group.addElement(SubPatternPool.rebind(entry, var, suffix));
+		return group;
+	}
+
+	/**
+	 * Get the selected variable of a query: the variable that a grouped aggregate
+	 * query is grouped by, or the only result variable of other queries.
+	 *
+	 * @param query
+	 *            The query.
+	 * @return The selected variable; null if the query is an aggregate query
+	 *         that is not grouped, or has several result variables.
+	 */
+	private static Var getSelectedVariable(Query query) {
+		if (query.hasGroupBy())
+			return query.getGroupBy().getVars().get(0);
+		if (query.hasAggregators() || query.getProjectVars().size() != 1)
+			return null;
+		return query.getProjectVars().get(0);
+	}
+
+	/**
+	 * Check whether a graph pattern is valid against the schema model.
+	 *
+	 * @param pattern
+	 *            Graph pattern.
+	 * @return True if every class assertion refers to a named class, and every
+	 *         other triple pattern to an object property whose object is not a
+	 *         data value or a data property whose object is not an individual.
+	 */
+	private boolean isValid(Element pattern) {
+		List<Site> invalid = new ArrayList<>();
+		collectTriplePatterns(pattern, invalid, triple -> {
+			Node predicate = triple.getPredicate();
+			Node object = triple.getObject();
+			if (predicate.equals(RDF.type.asNode()))
+				return getAssertedClass(triple) == null;
+			if (!predicate.isURI())
+				return true;
+			if (objectProperties.containsKey(predicate.getURI()))
+				return object.isLiteral();
+			if (dataProperties.containsKey(predicate.getURI()))
+				return object.isURI();
+			return true;
+		});
+		return invalid.isEmpty();
+	}
+
+	/**
+	 * Get the named class of a class assertion.
+	 *
+	 * @param triple
+	 *            Triple pattern.
+	 * @return The named class; null if the triple pattern is not a class
+	 *         assertion of a named class.
+	 */
+	private COWLClassImpl getAssertedClass(Triple triple) {
+		if (!triple.getPredicate().equals(RDF.type.asNode()) || !triple.getObject().isURI())
+			return null;
+		return classes.get(triple.getObject().getURI());
+	}
+
+	/**
+	 * Get the relevant properties of the property of a property assertion that
+	 * are of the same kind, ordered by IRI.
+	 *
+	 * @param triple
+	 *            Triple pattern.
+	 * @return The relevant properties; empty if the triple pattern is not a
+	 *         property assertion.
+	 */
+	private List<COWLPropertyImpl> getRelevantProperties(Triple triple) {
+		List<COWLPropertyImpl> relevantProperties = new ArrayList<>();
+		if (!triple.getPredicate().isURI())
+			return relevantProperties;
+		String iri = triple.getPredicate().getURI();
+		COWLPropertyImpl property = objectProperties.get(iri);
+		if (property == null)
+			property = dataProperties.get(iri);
+		if (property == null)
+			return relevantProperties;
+		for (COWLPropertyImpl relevant : property.getRelevantProperties())
+			if (relevant.getClass() == property.getClass())
+				relevantProperties.add(relevant);
+		relevantProperties.sort((p1, p2) -> p1.getIRI().compareTo(p2.getIRI()));
+		return relevantProperties;
+	}
+
+	/**
+	 * Collect the triple patterns of a graph pattern that satisfy a condition.
+	 *
+	 * @param pattern
+	 *            Graph pattern.
+	 * @param sites
+	 *            List that the triple patterns are added to.
+	 * @param condition
+	 *            The condition.
+	 */
+	private static void collectTriplePatterns(Element pattern, List<Site> sites,
+			Predicate<Triple> condition) {
+		walk(pattern, element -> {
+			if (element instanceof ElementTriplesBlock) {
+				for (Triple triple : ((ElementTriplesBlock) element).getPattern())
+					if (condition.test(triple))
+						sites.add(new Site(element, triple));
+			} else if (element instanceof ElementPathBlock)
+				for (TriplePath triplePath : ((ElementPathBlock) element).getPattern())
+					if (triplePath.isTriple() && condition.test(triplePath.asTriple()))
+						sites.add(new Site(element, triplePath));
+		});
+	}
+
+	/**
+	 * Get the triple of a triple pattern site.
+	 *
+	 * @param site
+	 *            The triple pattern and the element that contains it.
+	 * @return The triple.
+	 */
+	private static Triple asTriple(Site site) {
+		if (site.part instanceof TriplePath)
+			return ((TriplePath) site.part).asTriple();
+		return (Triple) site.part;
+	}
+
+	/**
+	 * Collect the numeric and boolean data values of a filter expression.
+	 *
+	 * @param expr
+	 *            Filter expression.
+	 * @param filter
+	 *            The filter.
+	 * @param sites
+	 *            List that the data values are added to.
+	 */
+	private static void collectDataValues(Expr expr, Element filter, List<Site> sites) {
+		if (expr instanceof NodeValue) {
+			NodeValue value = (NodeValue) expr;
+			if (value.isInteger() || value.isDecimal() || value.isDouble() || value.isFloat() || value.isBoolean())
+				sites.add(new Site(filter, value));
+		} else if (expr instanceof ExprFunction && !(expr instanceof ExprFunctionOp))
+			for (Expr arg : ((ExprFunction) expr).getArgs())
+				collectDataValues(arg, filter, sites);
+	}
+
+	/**
+	 * Perturb a numeric or boolean data value.
+	 *
+	 * @param value
+	 *            The data value.
+	 * @param ran
+	 *            Random source.
+	 * @return The perturbed data value of the same datatype.
+	 */
+	private static NodeValue perturb(NodeValue value, RandomSource ran) {
+		if (value.isBoolean())
+			return NodeValue.makeNodeBoolean(String.valueOf(!value.getBoolean()));
+		double shift = 2 * ran.nextDouble() - 1;
+		if (value.isInteger()) {
+			BigInteger integer = value.getInteger();
+			double scale = Math.max(integer.abs().doubleValue() / 10, 1);
+			long delta = Math.round(shift * scale);
+			return NodeValue.makeNodeInteger(integer.add(BigInteger.valueOf(delta == 0 ? 1 : delta)).toString());
+		}
+		if (value.isDecimal()) {
+			BigDecimal decimal = value.getDecimal();
+			double scale = Math.max(decimal.abs().doubleValue() / 10, 1);
+			BigDecimal delta = BigDecimal.valueOf(shift * scale).setScale(Math.max(decimal.scale(), 1),
+					RoundingMode.HALF_UP);
+			if (delta.signum() == 0)
+				delta = BigDecimal.ONE;
+			return NodeValue.makeNodeDecimal(decimal.add(delta).toPlainString());
+		}
+		if (value.isFloat()) {
+			float f = value.getFloat();
+			return NodeValue.makeNodeFloat(String.valueOf(f + (float) (shift * Math.max(Math.abs(f) / 10, 1))));
+		}
+		double d = value.getDouble();
+		return NodeValue.makeNodeDouble(String.valueOf(d + shift * Math.max(Math.abs(d) / 10, 1)));
+	}
+
+	/**
+	 * Get the graph pattern of an OPTIONAL, FILTER EXISTS, FILTER NOT EXISTS or
+	 * MINUS graph pattern.
+	 *
+	 * @param element
+	 *            The graph pattern.
+	 * @return Its operand.
+	 */
+	private static Element getOperand(Element element) {
+		if (element instanceof ElementOptional)
+			return ((ElementOptional) element).getOptionalElement();
+		if (element instanceof ElementMinus)
+			return ((ElementMinus) element).getMinusElement();
+		return ((ExprFunctionOp) ((ElementFilter) element).getExpr()).getElement();
+	}
+
+	/**
+	 * Get the join type of an OPTIONAL, FILTER EXISTS, FILTER NOT EXISTS or MINUS
+	 * graph pattern.
+	 *
+	 * @param element
+	 *            The graph pattern.
+	 * @return 1 for OPTIONAL, 2 for FILTER EXISTS, 3 for FILTER NOT EXISTS and 4
+	 *         for MINUS.
+	 */
+	private static int getJoinType(Element element) {
+		if (element instanceof ElementOptional)
+			return 1;
+		if (element instanceof ElementMinus)
+			return 4;
+		return ((ElementFilter) element).getExpr() instanceof E_Exists ? 2 : 3;
+	}
+
+	/**
+	 * Replace a triple pattern of a graph pattern.
+	 *
+	 * @param pattern
+	 *            Graph pattern.
+	 * @param site
+	 *            The triple pattern and the element that contains it.
+	 * @param replacement
+	 *            The replacing triple pattern.
+	 * @return The mutated graph pattern.
+	 */
+	private static Element replaceTriplePattern(Element pattern, Site site, Triple replacement) {
+		Element block;
+		if (site.element instanceof ElementTriplesBlock) {
+			ElementTriplesBlock triplesBlock = new ElementTriplesBlock();
+			for (Triple triple : ((ElementTriplesBlock) site.element).getPattern())
+				triplesBlock.addTriple(triple == site.part ? replacement : triple);
+			block = triplesBlock;
+		} else {
+			ElementPathBlock pathBlock = new ElementPathBlock();
+			for (TriplePath triplePath : ((ElementPathBlock) site.element).getPattern())
+				pathBlock.addTriplePath(triplePath == site.part ? new TriplePath(replacement) : triplePath);
+			block = pathBlock;
+		}
+		return rewrite(pattern, element -> element == site.element ? block : element);
+	}
+
+	/**
+	 * Visit all the elements of a graph pattern, including the graph patterns of
+	 * FILTER EXISTS and FILTER NOT EXISTS.
+	 *
+	 * @param element
+	 *            Graph pattern.
+	 * @param visitor
+	 *            The visitor.
+	 */
+	private static void walk(Element element, Consumer<Element> visitor) {
+		visitor.accept(element);
+		if (element instanceof ElementGroup) {
+			for (Element sub : ((ElementGroup) element).getElements())
+				walk(sub, visitor);
+		} else if (element instanceof ElementUnion) {
+			for (Element sub : ((ElementUnion) element).getElements())
+				walk(sub, visitor);
+		} else if (element instanceof ElementOptional)
+			walk(((ElementOptional) element).getOptionalElement(), visitor);
+		else if (element instanceof ElementMinus)
+			walk(((ElementMinus) element).getMinusElement(), visitor);
+		else if (element instanceof ElementFilter && ((ElementFilter) element).getExpr() instanceof ExprFunctionOp)
+			walk(((ExprFunctionOp) ((ElementFilter) element).getExpr()).getElement(), visitor);
+	}
+
+	/**
+	 * Copy the containers of a graph pattern with its elements replaced by a
+	 * replacer, which returns the element itself if it is not replaced. The
+	 * elements that are not containers are shared with the graph pattern.
+	 *
+	 * @param element
+	 *            Graph pattern.
+	 * @param replacer
+	 *            The replacer.
+	 * @return The copied graph pattern.
+	 */
+	private static Element rewrite(Element element, UnaryOperator<Element> replacer) {
+		Element replaced = replacer.apply(element);
+		if (replaced != element)
+			return replaced;
+		if (element instanceof ElementGroup) {
+			ElementGroup group = new ElementGroup();
+			for (Element sub : ((ElementGroup) element).getElements())
+				group.addElement(rewrite(sub, replacer));
+			return group;
+		} else if (element instanceof ElementUnion) {
+			ElementUnion union = new ElementUnion();
+			for (Element sub : ((ElementUnion) element).getElements())
+				union.addElement(rewrite(sub, replacer));
+			return union;
+		} else if (element instanceof ElementOptional)
+			return new ElementOptional(rewrite(((ElementOptional) element).getOptionalElement(), replacer));
+		else if (element instanceof ElementMinus)
+			return new ElementMinus(rewrite(((ElementMinus) element).getMinusElement(), replacer));
+		else if (element instanceof ElementFilter) {
+			Expr expr = ((ElementFilter) element).getExpr();
+			if (expr instanceof E_Exists)
+				return new ElementFilter(new E_Exists(rewrite(((E_Exists) expr).getElement(), replacer)));
+			if (expr instanceof E_NotExists)
+				return new ElementFilter(new E_NotExists(rewrite(((E_NotExists) expr).getElement(), replacer)));
+		}
+		return element;
+	}
+}
@@ -2,19 +2,29 @@ package edu.neu.ece.sparqlquerygenerator.generator;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
-import java.util.Random;
 import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.query.Query;
@@ -22,11 +32,15 @@ import org.apache.jena.query.QueryFactory;
 import org.apache.jena.query.Syntax;
 import org.apache.jena.shared.PrefixMapping;
 import org.apache.jena.shared.impl.PrefixMappingImpl;
+import org.apache.jena.sparql.core.TriplePath;
 import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
 import org.apache.jena.sparql.expr.E_Equals;
 import org.apache.jena.sparql.expr.E_Exists;
 import org.apache.jena.sparql.expr.E_GreaterThan;
 import org.apache.jena.sparql.expr.E_GreaterThanOrEqual;
+import org.apache.jena.sparql.expr.E_Lang;
+import org.apache.jena.sparql.expr.E_LangMatches;
 import org.apache.jena.sparql.expr.E_LessThan;
 import org.apache.jena.sparql.expr.E_LessThanOrEqual;
 import org.apache.jena.sparql.expr.E_LogicalAnd;
@@ -34,18 +48,38 @@ import org.apache.jena.sparql.expr.E_LogicalNot;
 import org.apache.jena.sparql.expr.E_LogicalOr;
 import org.apache.jena.sparql.expr.E_NotEquals;
 import org.apache.jena.sparql.expr.E_NotExists;
+import org.apache.jena.sparql.expr.E_Regex;
+import org.apache.jena.sparql.expr.E_Str;
+import org.apache.jena.sparql.expr.E_StrContains;
+import org.apache.jena.sparql.expr.E_StrStartsWith;
 import org.apache.jena.sparql.expr.Expr;
 import org.apache.jena.sparql.expr.ExprVar;
 import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.expr.aggregate.Aggregator;
+import org.apache.jena.sparql.expr.aggregate.AggregatorFactory;
+import org.apache.jena.sparql.path.P_Inverse;
+import org.apache.jena.sparql.path.P_Link;
+import org.apache.jena.sparql.path.P_Path1;
+import org.apache.jena.sparql.path.P_Path2;
+import org.apache.jena.sparql.path.Path;
+import org.apache.jena.sparql.path.PathFactory;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementData;
 import org.apache.jena.sparql.syntax.ElementFilter;
 import org.apache.jena.sparql.syntax.ElementGroup;
 import org.apache.jena.sparql.syntax.ElementMinus;
 import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementSubQuery;
+import org.apache.jena.sparql.syntax.ElementTriplesBlock;
 import org.apache.jena.sparql.syntax.ElementUnion;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.XSD;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.HasIRI;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnonymousClassExpression;
+import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
@@ -54,13 +88,10 @@ import org.semanticweb.owlapi.model.OWLDataRange;
 import org.semanticweb.owlapi.model.OWLDatatype;
 import org.semanticweb.owlapi.model.OWLDatatypeRestriction;
 import org.semanticweb.owlapi.model.OWLFacetRestriction;
-import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
-import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
-import org.semanticweb.owlapi.model.OWLQuantifiedDataRestriction;
-import org.semanticweb.owlapi.model.OWLQuantifiedObjectRestriction;
 import org.semanticweb.owlapi.vocab.OWL2Datatype;
 import org.semanticweb.owlapi.vocab.OWLFacet;
 import org.slf4j.Logger;
@@ -69,17 +100,18 @@ import org.slf4j.LoggerFactory;
 import edu.neu.ece.sparqlquerygenerator.entity.COWLClassImpl;
 import edu.neu.ece.sparqlquerygenerator.entity.COWLDataPropertyImpl;
 import edu.neu.ece.sparqlquerygenerator.entity.COWLObjectPropertyImpl;
+import edu.neu.ece.sparqlquerygenerator.entity.COWLPropertyImpl;
 import edu.neu.ece.sparqlquerygenerator.main.OntologyExtractor;
+import edu.neu.ece.sparqlquerygenerator.statistics.CardinalityEstimator;
+import edu.neu.ece.sparqlquerygenerator.statistics.DatasetStatistics;
 import edu.neu.ece.sparqlquerygenerator.utility.CollectionUtil;
+import edu.neu.ece.sparqlquerygenerator.utility.FileUtil;
 import edu.neu.ece.sparqlquerygenerator.utility.MathUtil;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSource;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSourceType;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataComplementOfImpl;
-import uk.ac.manchester.cs.owl.owlapi.OWLDataHasValueImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLDatatypeRestrictionImpl;
-import uk.ac.manchester.cs.owl.owlapi.OWLNaryBooleanClassExpressionImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLNaryDataRangeImpl;
-import uk.ac.manchester.cs.owl.owlapi.OWLObjectComplementOfImpl;
-import uk.ac.manchester.cs.owl.owlapi.OWLObjectHasSelfImpl;
-import uk.ac.manchester.cs.owl.owlapi.OWLObjectHasValueImpl;
 
 /**
  * This class defines SPQRQL query generator, which includes core algorithms for
@@ -112,10 +144,331 @@ public class SPARQLQueryGenerator {
 	 */
 	private final int queryNumber;
 
+	/**
+	 * Base random seed for query generation. The random stream of each query is
+	 * derived from the base seed and the query ID.
+	 */
+	private final long seed;
+
+	/**
+	 * Type of the random source; java.util.Random by default.
+	 */
+	private RandomSourceType randomSourceType = RandomSourceType.JDK;
+
 	/**
 	 * Used to generate a stream of pesudorandom numbers.
 	 */
-	private final Random ran;
+	private RandomSource ran;
+
+	/**
+	 * Weighting of the choices of classes, properties and class restrictions by
+	 * their signatures; null if choices are uniformly random.
+	 */
+	private SignatureWeighting signatureWeighting = null;
+
+	/**
+	 * Reuse queries that already exist in the output directory as the prefix of
+	 * the generated queries; false by default.
+	 */
+	private boolean extendExistingQueries = false;
+
+	/**
+	 * Resume query generation from the generation checkpoint in the output
+	 * directory; false by default.
+	 */
+	private boolean resume = false;
+
+	/**
+	 * The number of queries between two generation checkpoints; 0 if no
+	 * checkpoint is saved.
+	 */
+	private int checkpointInterval = 0;
+
+	/**
+	 * Description of the settings that the generated queries depend on, whose
+	 * fingerprint is recorded by the generation checkpoints; empty by default.
+	 */
+	private String generationSettings = "";
+
+	/**
+	 * Query files written since the last generation checkpoint, which are synced
+	 * to disk before the next checkpoint is saved.
+	 */
+	private final List<File> unsyncedQueryFiles = new ArrayList<>();
+
+	/**
+	 * Name of the generation checkpoint file in the output directory.
+	 */
+	public static final String CHECKPOINT_FILE_NAME = "generation.checkpoint";
+
+	/**
+	 * Listeners that are notified of each generated query.
+	 */
+	private final List<QueryGenerationListener> listeners = new ArrayList<>();
+
+	/**
+	 * The maximum number of consecutive duplicate candidates of a query in
+	 * distinct mode, after which the distinct query space is considered exhausted
+	 * and query generation is stopped.
+	 */
+	private int maxRetries = 10000;
+
+	/**
+	 * The default maximum depth of navigation through named classes, which bounds
+	 * the recursion of query generation so that it cannot overflow the stack. A
+	 * class is navigated at most once per query, so the depth only reaches it on
+	 * ontologies with very long chains of classes.
+	 */
+	public static final int DEFAULT_MAX_DEPTH = 64;
+
+	/**
+	 * Budgets of the size of each query, unlimited except the depth by default.
+	 */
+	private GenerationBudget budget = new GenerationBudget(DEFAULT_MAX_DEPTH, 0, 0, 0);
+
+	/**
+	 * Generation plans of the class expressions, compiled on first use.
+	 */
+	private final Map<OWLClassExpression, ClassExpressionPlan> classExpressionPlans = new HashMap<>();
+
+	/**
+	 * The maximum number of pooled graph patterns joined in a query in pool mode.
+	 */
+	private static final int MAX_POOLED_PATTERNS_PER_QUERY = 3;
+
+	/**
+	 * Pool of pre-generated graph patterns that queries are composed from in pool
+	 * mode; null otherwise.
+	 */
+	private SubPatternPool patternPool;
+
+	/**
+	 * The maximum number of attempts to derive a valid mutant, after which the
+	 * query is generated from scratch instead.
+	 */
+	private static final int MAX_MUTATION_ATTEMPTS = 10;
+
+	/**
+	 * Mutation engine that derives queries from the queries before them in
+	 * mutation mode; null otherwise.
+	 */
+	private QueryMutator mutator;
+
+	/**
+	 * The number of seed queries in mutation mode, which are generated from
+	 * scratch.
+	 */
+	private int mutationSeedNumber = 0;
+
+	/**
+	 * The number of queries in mutation mode that are generated from scratch
+	 * because no valid mutant is derived.
+	 */
+	private int mutationFallbackCount = 0;
+
+	/**
+	 * The maximum number of attempts to fill the join graph of a shape, after
+	 * which the attempt that fills the most edges is taken.
+	 */
+	private static final int MAX_SHAPE_ATTEMPTS = 100;
+
+	/**
+	 * Shape of the join graph in shape-directed generation mode; null if graph
+	 * patterns are generated by recursion through the model.
+	 */
+	private JoinShape joinShape;
+
+	/**
+	 * The number of object property assertion triple patterns per query in
+	 * shape-directed generation mode.
+	 */
+	private int joinShapeSize;
+
+	/**
+	 * Index of the schema-valid edges of join graphs in shape-directed generation
+	 * mode.
+	 */
+	private JoinGraphIndex joinGraphIndex;
+
+	/**
+	 * Classes that queries are generated from in shape-directed generation mode.
+	 */
+	private Set<COWLClassImpl> joinShapeRootClasses;
+
+	/**
+	 * The number of queries in shape-directed generation mode whose join graph
+	 * could not be filled completely.
+	 */
+	private int joinShapeShortfallCount = 0;
+
+	/**
+	 * Order of the triple patterns inside each basic graph pattern; as generated
+	 * by default.
+	 */
+	private TriplePatternOrder triplePatternOrder = TriplePatternOrder.GENERATED;
+
+	/**
+	 * Statistics of the dataset that the selectivity of triple patterns is
+	 * estimated from; null if they are not collected.
+	 */
+	private DatasetStatistics datasetStatistics;
+
+	/**
+	 * The probability of turning a query into an aggregate query; 0 by default.
+	 */
+	private double aggregateProbability = 0;
+
+	/**
+	 * The probability that an aggregate query groups its solutions by the
+	 * selected variable; 0 by default.
+	 */
+	private double groupByProbability = 0;
+
+	/**
+	 * The probability of ordering the solutions of a query by a bound data value
+	 * or, for a grouped aggregate query, by the aggregate; 0 by default.
+	 */
+	private double orderByProbability = 0;
+
+	/**
+	 * The probability of limiting the number of solutions of a query; 0 by
+	 * default.
+	 */
+	private double limitProbability = 0;
+
+	/**
+	 * The probability that a query with a limit pages through its solutions with
+	 * an offset; 0 by default.
+	 */
+	private double offsetProbability = 0;
+
+	/**
+	 * Limits of the number of solutions that queries are generated with, e.g. for
+	 * top-k queries.
+	 */
+	private static final long[] SOLUTION_LIMITS = { 1, 5, 10, 20, 50, 100 };
+
+	/**
+	 * The maximum number of the page of solutions that the offset of a query
+	 * skips to.
+	 */
+	private static final int MAX_OFFSET_PAGES = 10;
+
+	/**
+	 * The probability of generating an object property assertion as a property
+	 * path instead of a single triple pattern; 0 by default.
+	 */
+	private double propertyPathProbability = 0;
+
+	/**
+	 * Index of the object properties linked to the ranges of object properties,
+	 * along which sequence paths are chained; null unless property paths are
+	 * generated.
+	 */
+	private JoinGraphIndex rangeChainIndex;
+
+	/**
+	 * The probability of wrapping the graph pattern generated from the range of an
+	 * object property into a subquery; 0 by default.
+	 */
+	private double subqueryProbability = 0;
+
+	/**
+	 * The probability of binding the variable of a named class, or a data value
+	 * bound next to it, to a VALUES block; 0 by default.
+	 */
+	private double valuesProbability = 0;
+
+	/**
+	 * The number of rows of a VALUES block; 10 by default.
+	 */
+	private int valuesBatchSize = 10;
+
+	/**
+	 * Built-in datatypes that filter expressions are generated for.
+	 */
+	private static final Set<OWL2Datatype> FILTER_DATATYPES = EnumSet.of(OWL2Datatype.XSD_BOOLEAN,
+			OWL2Datatype.XSD_DECIMAL, OWL2Datatype.XSD_DOUBLE, OWL2Datatype.XSD_FLOAT, OWL2Datatype.XSD_INT,
+			OWL2Datatype.XSD_INTEGER, OWL2Datatype.XSD_NON_NEGATIVE_INTEGER, OWL2Datatype.XSD_POSITIVE_INTEGER);
+
+	/**
+	 * Built-in datatypes that text and date-time filter expressions are generated
+	 * for if enabled, with constants sampled from the values in the dataset.
+	 */
+	private static final Set<OWL2Datatype> TEXT_FILTER_DATATYPES = EnumSet.of(OWL2Datatype.XSD_STRING,
+			OWL2Datatype.RDF_LANG_STRING, OWL2Datatype.RDF_PLAIN_LITERAL, OWL2Datatype.XSD_DATE_TIME,
+			OWL2Datatype.XSD_DATE_TIME_STAMP, OWL2Datatype.XSD_ANY_URI);
+
+	/**
+	 * The maximum length of the tokens and prefixes of text filters.
+	 */
+	private static final int MAX_TOKEN_LENGTH = 8;
+
+	/**
+	 * True if text and date-time filter expressions are generated, false by
+	 * default.
+	 */
+	private boolean textFilters = false;
+
+	/**
+	 * The band of selectivities, as {minimum, maximum}, that numeric filter
+	 * constants are drawn to hit; null if they are drawn uniformly from fixed
+	 * ranges.
+	 */
+	private double[] filterSelectivityBand;
+
+	/**
+	 * Filters of the candidate queries, applied in order; empty if every candidate
+	 * is accepted.
+	 */
+	private final List<CandidateFilter> candidateFilters = new ArrayList<>();
+
+	/**
+	 * The number of candidate queries rejected by a candidate filter.
+	 */
+	private int candidateRejectionCount = 0;
+
+	/**
+	 * The number of queries kept as the candidate closest to being accepted, since
+	 * no candidate is accepted by the candidate filters.
+	 */
+	private int candidateMissCount = 0;
+
+	/**
+	 * The number of attempts between two estimations of the distinct query space
+	 * in distinct mode, counting the candidates rejected by the candidate filters
+	 * so that each estimation is logged once.
+	 */
+	private static final int SPACE_ESTIMATION_INTERVAL = 1000;
+
+	/**
+	 * True if queries are generated by systematic enumeration of the generation
+	 * choices instead of random choices; false by default.
+	 */
+	private boolean enumeration = false;
+
+	/**
+	 * True if the alternatives of each generation choice are enumerated in a
+	 * seeded random order, false if in order.
+	 */
+	private boolean shuffleEnumeration = false;
+
+	/**
+	 * Enumerator of the generation choices during enumeration; null otherwise.
+	 */
+	private ChoiceEnumerator enumerator;
+
+	/**
+	 * Prefixes of generation choices whose completions have all been generated,
+	 * used to abort duplicate candidates early in distinct mode; null otherwise.
+	 */
+	private ChoicePrefixTrie prefixTrie;
+
+	/**
+	 * True if query generation is requested to stop before the number of queries
+	 * is reached.
+	 */
+	private boolean stopRequested = false;
 
 	/**
 	 * Support distinct queries.
@@ -138,19 +491,19 @@ public class SPARQLQueryGenerator {
 	 * The probability of generating class assertion axioms for each named
 	 * individual; 1.0 by default.
 	 */
-	private final double classAssertionProbability;
+	private double classAssertionProbability;
 
 	/**
 	 * The probability of creating an object property assertion triple pattern; 0.5
 	 * by default.
 	 */
-	private final double objectPropertyAssertionProbability;
+	private double objectPropertyAssertionProbability;
 
 	/**
 	 * The probability of creating a data property assertion triple pattern; 0.5 by
 	 * default.
 	 */
-	private final double dataPropertyAssertionProbability;
+	private double dataPropertyAssertionProbability;
 
 	/**
 	 * The probability of selecting an inverse property (direct or inferred) of an
@@ -173,22 +526,22 @@ public class SPARQLQueryGenerator {
 	 * The probability of creating a filter that restricts the solutions of a graph
 	 * pattern; 0.5 by default.
 	 */
-	private final double filterProbability;
+	private double filterProbability;
 
 	/**
 	 * The probability of creating a conjunction graph pattern; 0.8 by default.
 	 */
-	private final double conjunctionGraphPatternProbability;
+	private double conjunctionGraphPatternProbability;
 
 	/**
 	 * The probability of creating an optional graph pattern; 0 by default.
 	 */
-	private final double optionalGraphPatternProbability;
+	private double optionalGraphPatternProbability;
 
 	/**
 	 * The probability of creating an union graph pattern; 0.15 by default.
 	 */
-	private final double unionGraphPatternProbability;
+	private double unionGraphPatternProbability;
 
 	/**
 	 * An OWL data factory object used to create entities, class expressions and
@@ -281,7 +634,8 @@ public class SPARQLQueryGenerator {
 			OntologyExtractor extractor, Map<String, String> prefixName2PrefixMap) {
 		this.rootIRIString = rootIRIString;
 		this.queryNumber = queryNumber;
-		ran = new Random(seed);
+		this.seed = seed;
+		ran = randomSourceType.create(seed);
 		this.distinct = distinct;
 		this.outputDirectory = outputDirectory;
 		this.classConstraintSelectionProbability = classConstraintSelectionProbability;
@@ -323,227 +677,1759 @@ public class SPARQLQueryGenerator {
 	}
 
 	/**
-	 * Get ontology data factory used for creating entities, class expressions and
-	 * axioms.
+	 * Set whether queries that already exist in the output directory are reused as
+	 * the prefix of the generated queries.
 	 * 
-	 * @return Ontology data factory.
+	 * @param extendExistingQueries
+	 *            True if existing queries are reused, false otherwise.
 	 */
-	public OWLDataFactory getFactory() {
-		return factory;
+	public void setExtendExistingQueries(boolean extendExistingQueries) {
+		this.extendExistingQueries = extendExistingQueries;
 	}
 
 	/**
-	 * Get the container that stores key-value pairs, where OWL API interface
-	 * OWLClass is the key and the customized class COWLClassImpl is the value.
+	 * Set the type of the random source used to generate pseudorandom numbers.
+	 * Queries generated with different types of random sources are different.
 	 * 
-	 * @return The container.
+	 * @param randomSourceType
+	 *            Type of the random source.
 	 */
-	public Map<OWLClass, COWLClassImpl> getClassMap() {
-		return classMap;
+	public void setRandomSourceType(RandomSourceType randomSourceType) {
+		this.randomSourceType = randomSourceType;
+		ran = randomSourceType.create(seed);
 	}
 
 	/**
-	 * Get the container that stores key-value pairs, where OWL API interface
-	 * OWLDataProperty is the key and the customized class COWLDataPropertyImpl is
-	 * the value.
+	 * Set the weighting of the choices of classes, properties and class
+	 * restrictions by their signatures, instead of choosing them uniformly at
+	 * random.
 	 * 
-	 * @return The container.
+	 * @param signatureWeighting
+	 *            Signature weighting; null if choices are uniformly random.
 	 */
-	public Map<OWLDataProperty, COWLDataPropertyImpl> getDataPropertyMap() {
-		return dataPropertyMap;
+	public void setSignatureWeighting(SignatureWeighting signatureWeighting) {
+		this.signatureWeighting = signatureWeighting;
 	}
 
 	/**
-	 * Get the container that stores key-value pairs, where OWL API interface
-	 * OWLObjectProperty is the key and the customized class COWLObjectPropertyImpl
-	 * is the value.
+	 * Get the probability of creating a filter that restricts the solutions of a
+	 * graph pattern.
 	 * 
-	 * @return The container.
+	 * @return The probability.
 	 */
-	public Map<OWLObjectProperty, COWLObjectPropertyImpl> getObjectPropertyMap() {
-		return objectPropertyMap;
+	public double getFilterProbability() {
+		return filterProbability;
 	}
 
 	/**
-	 * This function defines control flow of the SPARQL query generation process
-	 * based on the constructed Java model.
+	 * Set the probability of creating a filter that restricts the solutions of a
+	 * graph pattern, e.g. to steer query generation toward a target distribution.
 	 * 
-	 * @throws Exception
-	 *             If query generation fails.
-	 * @return A list of queries.
+	 * @param filterProbability
+	 *            The probability.
 	 */
-	public ArrayList<Query> generateRandomSPARQLQueries() throws Exception {
-		logger.info("Begin generating SPARQL queries...");
-		if (distinct)
-			return generateDistinctSPARQLQueries();
-		ArrayList<Query> queries = new ArrayList<>(queryNumber);
-		for (OWLClass oc : classMap.keySet())
-			if (oc.getIRI().getIRIString().equals(rootIRIString)) {
-				logger.info("Find out root class with IRI: " + rootIRIString);
-				rootClass = classMap.get(oc);
-				Query query;
-				ElementGroup elg;
-				Map<String, String> queryNsPrefixes;
-				COWLClassImpl selectedClass;
-				Var var;
-				PrefixMapping pmap;
-				// Op op;
-				for (int i = 0; i < queryNumber; i++) {
-					logger.info("Begin generating SPARQL query with query ID {}...", i);
-					query = QueryFactory.make();
-					query.setQuerySelectType();
-					queryNsPrefixes = new HashMap<>();
-					queryNsPrefixes.put("ObjectDescription", prefixName2PrefixMap.get(":"));
-
-					selectedClass = CollectionUtil.getARandomElementFromSet(rootClass.getSubClassesAndItself(), ran);
-					var = VariableGenerator.generateVariable(selectedClass);
-					elg = generateRecursiveGraphPatternsFromNamedClass(var, factory.getOWLClass(selectedClass.getIRI()),
-							queryNsPrefixes, true);
-					query.setQueryPattern(elg);
-					query.setDistinct(true);
-					query.addResultVar(var);
-
-					// op = Algebra.compile(query);
-					// op = Algebra.optimize(op);
-					// query = OpAsQuery.asQuery(op);
-
-					pmap = new PrefixMappingImpl();
-					pmap.setNsPrefixes(queryNsPrefixes);
-					query.setPrefixMapping(pmap);
-					queries.add(query);
-					// logger.info("Generated query script is shown below:");
-					// query.serialize(new IndentedWriter(System.out, false),
-					// Syntax.syntaxSPARQL_11);
-					// System.out.print("\n\n");
-					dumpIntoFile(query, outputDirectory, i);
-					resetStatus(classMap.values());
-				}
-				break;
-			}
-		return queries;
+	public void setFilterProbability(double filterProbability) {
+		this.filterProbability = filterProbability;
+		invalidatePrefixTrie();
 	}
 
 	/**
-	 * This function defines control flow of distinct SPARQL query generation
-	 * process based on the constructed Java model.
+	 * Get the probability of creating a conjunction graph pattern.
 	 * 
-	 * @throws Exception
-	 *             If query generation fails.
-	 * @return A list of distinct queries.
+	 * @return The probability.
 	 */
-	private ArrayList<Query> generateDistinctSPARQLQueries() throws Exception {
-		HashSet<Query> distinctQueries = new HashSet<>(queryNumber);
-		for (OWLClass oc : classMap.keySet())
-			if (oc.getIRI().getIRIString().equals(rootIRIString)) {
-				logger.info("Find out root class with IRI: " + rootIRIString);
-				rootClass = classMap.get(oc);
-				Query query;
-				ElementGroup elg;
-				Map<String, String> queryNsPrefixes;
-				COWLClassImpl selectedClass;
-				Var var;
-				PrefixMapping pmap;
-				// Op op;
-				int count = 0, attempt = 0;
-				boolean flag = true;
-				while (count < queryNumber) {
-					if (flag) {
-						logger.info("Begin generating SPARQL query with query ID {}...", count);
-						flag = false;
-					}
-					query = QueryFactory.make();
-					query.setQuerySelectType();
-					queryNsPrefixes = new HashMap<>();
-					queryNsPrefixes.put("ObjectDescription", prefixName2PrefixMap.get(":"));
-
-					selectedClass = CollectionUtil.getARandomElementFromSet(rootClass.getSubClassesAndItself(), ran);
-					var = VariableGenerator.generateVariable(selectedClass);
-					elg = generateRecursiveGraphPatternsFromNamedClass(var, factory.getOWLClass(selectedClass.getIRI()),
-							queryNsPrefixes, true);
-					query.setQueryPattern(elg);
-					query.setDistinct(true);
-					query.addResultVar(var);
-
-					// op = Algebra.compile(query);
-					// op = Algebra.optimize(op);
-					// query = OpAsQuery.asQuery(op);
-
-					pmap = new PrefixMappingImpl();
-					pmap.setNsPrefixes(queryNsPrefixes);
-					query.setPrefixMapping(pmap);
-					if (!distinctQueries.contains(query)) {
-						distinctQueries.add(query);
-						dumpIntoFile(query, outputDirectory, count);
-						count++;
-						flag = true;
-						// logger.info("Generated query script is shown below:");
-						// query.serialize(new IndentedWriter(System.out, false),
-						// Syntax.syntaxSPARQL_11);
-						// System.out.print("\n\n");
-					}
-					resetStatus(classMap.values());
-					attempt++;
-				}
-				logger.info("{} SPARQL queries have been generated with {} attempts.", count, attempt);
-				break;
-			}
-		ArrayList<Query> queries = new ArrayList<>(distinctQueries);
-		return queries;
+	public double getConjunctionGraphPatternProbability() {
+		return conjunctionGraphPatternProbability;
 	}
 
 	/**
-	 * This function recursively generates graph patterns by navigating through the
-	 * model from the specified OWL class.
+	 * Get the probability of creating an optional graph pattern.
 	 * 
-	 * @param var1
-	 *            Variable.
-	 * @param oc
-	 *            OWL class.
-	 * @param queryNsPrefixes
-	 *            A map that maps prefix names to prefixes used by the query.
-	 * @param isFirstRecursion
-	 *            Detect whether this function is invoked for the first time. True
-	 *            if it is, false otherwise.
-	 * @return Graph pattern.
-	 * @throws Exception
-	 *             If input arguments are invalid or there exists sub-functions
-	 *             throwing exceptions.
+	 * @return The probability.
 	 */
-	public ElementGroup generateRecursiveGraphPatternsFromNamedClass(Var var1, OWLClass oc,
-			Map<String, String> queryNsPrefixes, boolean isFirstRecursion) throws Exception {
-		if (var1 == null || oc == null || queryNsPrefixes == null)
-			throw new NullPointerException("null arguments.");
-		ElementGroup elg1 = new ElementGroup();
-		if (oc.isOWLThing() || oc.isOWLNothing())
-			return elg1;
-		COWLClassImpl ocImpl1 = classMap.get(oc);
-		logger.info("Selected OWL class IRI is: " + ocImpl1.getIRI().getIRIString());
-		ocImpl1.setVisited(true);
-		ocImpl1.getVariables().add(var1);
-		Triple triple;
-		if (ran.nextDouble() < classAssertionProbability || isFirstRecursion == true) {
-			triple = generateClassAssertionTriplePattern(var1, oc, queryNsPrefixes);
-			if (triple != null)
-				elg1.addTriplePattern(triple);
-		}
+	public double getOptionalGraphPatternProbability() {
+		return optionalGraphPatternProbability;
+	}
 
-		LinkedList<ElementGroup> elgList = new LinkedList<>();
-		ElementGroup elg2 = new ElementGroup();
-		if (ran.nextDouble() < classConstraintSelectionProbability) {
-			OWLAnonymousClassExpression clsExp = CollectionUtil
-					.getARandomElementFromSet(ocImpl1.getAnonymousClassRestrictions(), ran);
-			if (clsExp != null) {
-				logger.info("Selected OWL class constraint is: " + clsExp.toString());
-				elg2 = generateRecursiveGraphPatternsFromAnonymousClass(var1, clsExp, queryNsPrefixes);
-				if (!elg2.isEmpty())
-					elgList.offer(elg2);
-			}
-		}
-		Var var2;
-		if (ran.nextDouble() < dataPropertyAssertionProbability) {
-			Entry<OWLDataProperty, OWLDataRange> entry = CollectionUtil
-					.getARandomElementFromSet(ocImpl1.getDataPropertyRangesPairs().entrySet(), ran);
-			if (entry != null) {
+	/**
+	 * Get the probability of creating an union graph pattern.
+	 * 
+	 * @return The probability.
+	 */
+	public double getUnionGraphPatternProbability() {
+		return unionGraphPatternProbability;
+	}
+
+	/**
+	 * Set graph pattern probabilities, e.g. to steer query generation toward a
+	 * target distribution. The probability of creating a negation graph pattern is
+	 * the remaining probability.
+	 * 
+	 * @param conjunctionGraphPatternProbability
+	 *            The probability of creating a conjunction graph pattern.
+	 * @param optionalGraphPatternProbability
+	 *            The probability of creating an optional graph pattern.
+	 * @param unionGraphPatternProbability
+	 *            The probability of creating an union graph pattern.
+	 */
+	public void setGraphPatternProbability(double conjunctionGraphPatternProbability,
+			double optionalGraphPatternProbability, double unionGraphPatternProbability) {
+		this.conjunctionGraphPatternProbability = conjunctionGraphPatternProbability;
+		this.optionalGraphPatternProbability = optionalGraphPatternProbability;
+		this.unionGraphPatternProbability = unionGraphPatternProbability;
+		invalidatePrefixTrie();
+	}
+
+	/**
+	 * Get the probability of generating class assertion axioms.
+	 * 
+	 * @return The probability.
+	 */
+	public double getClassAssertionProbability() {
+		return classAssertionProbability;
+	}
+
+	/**
+	 * Get the probability of creating an object property assertion triple
+	 * pattern.
+	 * 
+	 * @return The probability.
+	 */
+	public double getObjectPropertyAssertionProbability() {
+		return objectPropertyAssertionProbability;
+	}
+
+	/**
+	 * Get the probability of creating a data property assertion triple pattern.
+	 * 
+	 * @return The probability.
+	 */
+	public double getDataPropertyAssertionProbability() {
+		return dataPropertyAssertionProbability;
+	}
+
+	/**
+	 * Set triple pattern probabilities, e.g. to steer query generation toward a
+	 * target distribution.
+	 * 
+	 * @param classAssertionProbability
+	 *            The probability of generating class assertion axioms.
+	 * @param objectPropertyAssertionProbability
+	 *            The probability of creating an object property assertion triple
+	 *            pattern.
+	 * @param dataPropertyAssertionProbability
+	 *            The probability of creating a data property assertion triple
+	 *            pattern.
+	 */
+	public void setTriplePatternProbability(double classAssertionProbability,
+			double objectPropertyAssertionProbability, double dataPropertyAssertionProbability) {
+		this.classAssertionProbability = classAssertionProbability;
+		this.objectPropertyAssertionProbability = objectPropertyAssertionProbability;
+		this.dataPropertyAssertionProbability = dataPropertyAssertionProbability;
+		invalidatePrefixTrie();
+	}
+
+	/**
+	 * Forget the exhausted prefixes of generation choices after the probabilities
+	 * are changed during distinct query generation, since a probability that
+	 * becomes 0 or 1 changes the alternatives of the choices.
+	 */
+	private void invalidatePrefixTrie() {
+		if (prefixTrie != null)
+			prefixTrie = new ChoicePrefixTrie();
+	}
+
+	/**
+	 * Set whether query generation is resumed from the generation checkpoint in
+	 * the output directory. Queries recorded by the checkpoint are neither
+	 * regenerated nor passed to the listeners again.
+	 * 
+	 * @param resume
+	 *            True if query generation is resumed, false otherwise.
+	 */
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+	/**
+	 * Set the number of queries between two generation checkpoints.
+	 * 
+	 * @param checkpointInterval
+	 *            The number of queries; 0 if no checkpoint is saved.
+	 */
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Set the description of the settings that the generated queries depend on.
+	 * Query generation is only resumed from a generation checkpoint saved with
+	 * the same settings.
+	 * 
+	 * @param generationSettings
+	 *            Description of the settings.
+	 */
+	public void setGenerationSettings(String generationSettings) {
+		this.generationSettings = generationSettings;
+	}
+
+	/**
+	 * Add a listener that is notified of each generated query.
+	 * 
+	 * @param listener
+	 *            Query generation listener.
+	 */
+	public void addQueryGenerationListener(QueryGenerationListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Set the maximum number of consecutive duplicate candidates of a query in
+	 * distinct mode, after which query generation is stopped with the distinct
+	 * queries achieved so far.
+	 * 
+	 * @param maxRetries
+	 *            The maximum number of consecutive duplicate candidates.
+	 */
+	public void setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
+	/**
+	 * Set budgets of the size of each query. Once a budget is spent, the choices
+	 * that would spend more of it are not taken, so that query size and generation
+	 * time are bounded regardless of the input ontology.
+	 * 
+	 * @param maxDepth
+	 *            The maximum depth of navigation through named classes along
+	 *            object properties and class restrictions; 0 if unlimited, in
+	 *            which case deeply nested ontologies may overflow the stack.
+	 * @param maxTriplePatterns
+	 *            The maximum number of triple patterns; 0 if unlimited.
+	 * @param maxFilters
+	 *            The maximum number of filters; 0 if unlimited.
+	 * @param maxNesting
+	 *            The maximum nesting of UNION, OPTIONAL and negation graph
+	 *            patterns; 0 if unlimited.
+	 */
+	public void setBudgets(int maxDepth, int maxTriplePatterns, int maxFilters, int maxNesting) {
+		budget = new GenerationBudget(maxDepth, maxTriplePatterns, maxFilters, maxNesting);
+	}
+
+	/**
+	 * Set pool mode, where queries are composed by joining graph patterns sampled
+	 * from a pool of pre-generated graph patterns of the selected class, with
+	 * their variables re-bound, instead of being generated from scratch. A query
+	 * then depends on the queries before it, which refresh the pool. The budgets
+	 * apply to each pooled graph pattern.
+	 * 
+	 * @param poolSize
+	 *            The number of graph patterns per named class; 0 if pool mode is
+	 *            disabled.
+	 * @param refreshRate
+	 *            The probability that a used graph pattern is replaced with a
+	 *            freshly generated one.
+	 */
+	public void setPatternPool(int poolSize, double refreshRate) {
+		patternPool = poolSize > 0 ? new SubPatternPool(poolSize, refreshRate) : null;
+	}
+
+	/**
+	 * Set mutation mode, where the queries after the seed queries are derived by
+	 * mutating random queries before them instead of being generated from
+	 * scratch. A query then depends on the queries before it.
+	 * 
+	 * @param mutationSeedNumber
+	 *            The number of seed queries, which are generated from scratch or
+	 *            reused; 0 if mutation mode is disabled.
+	 */
+	public void setMutation(int mutationSeedNumber) {
+		this.mutationSeedNumber = mutationSeedNumber;
+		mutator = mutationSeedNumber > 0 ? new QueryMutator(classMap, objectPropertyMap, dataPropertyMap) : null;
+	}
+
+	/**
+	 * Set shape-directed generation mode, where the join graph of object property
+	 * assertion triple patterns of each query is planned in the given shape
+	 * first, and then filled with schema-valid object properties and the classes
+	 * of their domains and ranges. Variables get class assertions with the class
+	 * assertion probability, the selected variable always. No filters or other
+	 * graph patterns are generated, and the budgets do not apply.
+	 * 
+	 * @param joinShape
+	 *            Shape of the join graph; null if shape-directed generation mode is
+	 *            disabled.
+	 * @param joinShapeSize
+	 *            The number of object property assertion triple patterns per
+	 *            query.
+	 */
+	public void setJoinShape(JoinShape joinShape, int joinShapeSize) {
+		this.joinShape = joinShape;
+		this.joinShapeSize = joinShapeSize;
+		joinGraphIndex = joinShape == null ? null : new JoinGraphIndex(classMap, objectPropertyMap);
+		joinShapeRootClasses = null;
+	}
+
+	/**
+	 * Set the probabilities of generating aggregates and solution modifiers.
+	 * 
+	 * @param aggregateProbability
+	 *            The probability of turning a query into an aggregate query.
+	 * @param groupByProbability
+	 *            The probability that an aggregate query groups its solutions by
+	 *            the selected variable.
+	 * @param orderByProbability
+	 *            The probability of ordering the solutions of a query.
+	 * @param limitProbability
+	 *            The probability of limiting the number of solutions of a query.
+	 * @param offsetProbability
+	 *            The probability that a query with a limit pages through its
+	 *            solutions with an offset.
+	 */
+	public void setSolutionModifierProbability(double aggregateProbability, double groupByProbability,
+			double orderByProbability, double limitProbability, double offsetProbability) {
+		this.aggregateProbability = aggregateProbability;
+		this.groupByProbability = groupByProbability;
+		this.orderByProbability = orderByProbability;
+		this.limitProbability = limitProbability;
+		this.offsetProbability = offsetProbability;
+	}
+
+	/**
+	 * Set the probability of generating object property assertions as property
+	 * paths. Depending on the ontology, a property path follows a second object
+	 * property linked to the range of the property (p1/p2 or p1/^p2), repeats a
+	 * transitive property (p+ or p*), takes the inverse of a symmetric property
+	 * (^p) or of an inverse property (^q), or alternates between the property and
+	 * its direct subproperties (p|p1|p2).
+	 * 
+	 * @param propertyPathProbability
+	 *            The probability of generating an object property assertion as a
+	 *            property path.
+	 */
+	public void setPropertyPathProbability(double propertyPathProbability) {
+		this.propertyPathProbability = propertyPathProbability;
+		rangeChainIndex = propertyPathProbability > 0 ? new JoinGraphIndex(classMap, objectPropertyMap) : null;
+	}
+
+	/**
+	 * Set the probability of wrapping the graph pattern generated from the range
+	 * of an object property into a subquery. A subquery selects the variable of
+	 * the range, so it joins the enclosing graph pattern on that variable only,
+	 * with DISTINCT half of the time, and a LIMIT with the limit probability.
+	 * 
+	 * @param subqueryProbability
+	 *            The probability of generating a subquery.
+	 */
+	public void setSubqueryProbability(double subqueryProbability) {
+		this.subqueryProbability = subqueryProbability;
+	}
+
+	/**
+	 * Set the probability and the batch size of VALUES blocks. A VALUES block binds
+	 * the variable of a named class to a batch of its named individuals sampled
+	 * without replacement, or a data value bound next to it to a batch of the
+	 * values of its data property in the dataset, also sampled without
+	 * replacement. Without dataset statistics, or for a data property without
+	 * values, the data values are random values of its datatype, drawn like the
+	 * constants of filters.
+	 * 
+	 * @param valuesProbability
+	 *            The probability of generating a VALUES block.
+	 * @param valuesBatchSize
+	 *            The maximum number of rows of a VALUES block.
+	 * @param datasetStatistics
+	 *            Statistics of the dataset that the data values are sampled from;
+	 *            null if they are random.
+	 */
+	public void setValuesProbability(double valuesProbability, int valuesBatchSize,
+			DatasetStatistics datasetStatistics) {
+		this.valuesProbability = valuesProbability;
+		this.valuesBatchSize = valuesBatchSize;
+		if (datasetStatistics != null)
+			this.datasetStatistics = datasetStatistics;
+	}
+
+	/**
+	 * Enable filter expressions on text and date-time data values: CONTAINS,
+	 * STRSTARTS and REGEX over tokens and prefixes of string values, LANGMATCHES
+	 * over their language tags, STRSTARTS over the prefixes of URI values, and
+	 * comparisons and ranges over date-time values. Tokens, prefixes, tags and
+	 * bounds are sampled from the values of the data property in the dataset, and
+	 * no filter is generated on a data property without values.
+	 * 
+	 * @param textFilters
+	 *            True if text and date-time filter expressions are generated, false
+	 *            otherwise.
+	 * @param datasetStatistics
+	 *            Statistics of the dataset that the values are sampled from, which
+	 *            must not be null if text filters are enabled.
+	 */
+	public void setTextFilters(boolean textFilters, DatasetStatistics datasetStatistics) {
+		this.textFilters = textFilters;
+		if (datasetStatistics != null)
+			this.datasetStatistics = datasetStatistics;
+		invalidatePrefixTrie();
+	}
+
+	/**
+	 * Draw the constants of numeric filters from the value distribution of their
+	 * data property in the dataset, so that the estimated fraction of the values
+	 * that a filter keeps is within a band. A target selectivity is drawn
+	 * uniformly from the band, and the constant of a range comparison is the
+	 * value that the target fraction of the values lie below or above. Equality
+	 * and inequality to a value of the property are only generated if the
+	 * selectivity estimated from the distinct values is within the band. Filters
+	 * on data properties without numeric values fall back to uniform constants.
+	 * 
+	 * @param minSelectivity
+	 *            The minimum selectivity, in [0, 1].
+	 * @param maxSelectivity
+	 *            The maximum selectivity, in [minSelectivity, 1].
+	 * @param datasetStatistics
+	 *            Statistics of the dataset that the value distributions are
+	 *            estimated from, which must not be null.
+	 */
+	public void setFilterSelectivity(double minSelectivity, double maxSelectivity,
+			DatasetStatistics datasetStatistics) {
+		filterSelectivityBand = new double[] { minSelectivity, maxSelectivity };
+		this.datasetStatistics = datasetStatistics;
+	}
+
+	/**
+	 * Keep the generated queries within a band of estimated numbers of results, so
+	 * that queries likely to return nothing or the whole dataset are discarded
+	 * without being executed. Candidates of a query are generated from random
+	 * streams derived from its seed and the number of rejected candidates, as in
+	 * distinct mode, and the first candidate within the band is kept. If none of
+	 * maxRetries candidates is within the band, the candidate closest to the band
+	 * on a logarithmic scale is kept instead. The band is a candidate filter, see
+	 * {@link #addCandidateFilter}.
+	 * 
+	 * @param minEstimatedResults
+	 *            The minimum estimated number of results.
+	 * @param maxEstimatedResults
+	 *            The maximum estimated number of results, at least
+	 *            minEstimatedResults.
+	 * @param cardinalityEstimator
+	 *            Estimator of the number of results of the candidates, which must
+	 *            not be null.
+	 */
+	public void setEstimatedResultsBand(double minEstimatedResults, double maxEstimatedResults,
+			CardinalityEstimator cardinalityEstimator) {
+		addCandidateFilter(candidate -> CandidateFilter.distanceToBand(cardinalityEstimator.estimate(candidate),
+				minEstimatedResults, maxEstimatedResults));
+	}
+
+	/**
+	 * Add a filter of the candidate queries. Candidates of a query are generated
+	 * from random streams derived from its seed and the number of rejected
+	 * candidates, as in distinct mode, and the first candidate accepted by every
+	 * filter is kept. Filters are applied in the order in which they are added,
+	 * and a candidate rejected by a filter is not passed to the filters after it,
+	 * so cheap filters should come first. If none of maxRetries candidates is
+	 * accepted, the candidate closest to being accepted is kept instead. In
+	 * distinct mode, duplicates are rejected before the filters are applied, and
+	 * the closest distinct candidate is kept. The filters are
+	 * ignored in enumeration mode, whose depth-first walk would exhaust whole
+	 * subtrees of rejected choices.
+	 * 
+	 * @param candidateFilter
+	 *            Filter of the candidate queries.
+	 */
+	public void addCandidateFilter(CandidateFilter candidateFilter) {
+		candidateFilters.add(candidateFilter);
+	}
+
+	/**
+	 * Set the order of the triple patterns inside each basic graph pattern of the
+	 * generated queries.
+	 * 
+	 * @param triplePatternOrder
+	 *            Order of the triple patterns.
+	 * @param datasetStatistics
+	 *            Statistics of the dataset that the selectivity of triple patterns
+	 *            is estimated from, which must not be null if the order requires
+	 *            them.
+	 */
+	public void setTriplePatternOrder(TriplePatternOrder triplePatternOrder, DatasetStatistics datasetStatistics) {
+		this.triplePatternOrder = triplePatternOrder;
+		this.datasetStatistics = datasetStatistics;
+	}
+
+	/**
+	 * Set whether queries are generated by systematic enumeration of the
+	 * generation choices. Every candidate follows a different sequence of choices
+	 * of classes, class restrictions, properties, individuals and graph pattern
+	 * operators in depth-first order, so distinct queries are generated without
+	 * random duplicates; data values in filters are still random.
+	 * 
+	 * @param enumeration
+	 *            True if queries are enumerated, false otherwise.
+	 * @param shuffleEnumeration
+	 *            True if the alternatives of each choice are enumerated in a
+	 *            random order seeded by the base seed, false if in order.
+	 */
+	public void setEnumeration(boolean enumeration, boolean shuffleEnumeration) {
+		this.enumeration = enumeration;
+		this.shuffleEnumeration = shuffleEnumeration;
+	}
+
+	/**
+	 * Request the query generation process to stop after the current query, e.g.
+	 * by a listener once enough queries are generated. The queries generated so
+	 * far are kept, and a generation checkpoint is saved if checkpoints are
+	 * enabled.
+	 */
+	public void stopGeneration() {
+		stopRequested = true;
+	}
+
+	/**
+	 * Get ontology data factory used for creating entities, class expressions and
+	 * axioms.
+	 * 
+	 * @return Ontology data factory.
+	 */
+	public OWLDataFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Get the container that stores key-value pairs, where OWL API interface
+	 * OWLClass is the key and the customized class COWLClassImpl is the value.
+	 * 
+	 * @return The container.
+	 */
+	public Map<OWLClass, COWLClassImpl> getClassMap() {
+		return classMap;
+	}
+
+	/**
+	 * Get the container that stores key-value pairs, where OWL API interface
+	 * OWLDataProperty is the key and the customized class COWLDataPropertyImpl is
+	 * the value.
+	 * 
+	 * @return The container.
+	 */
+	public Map<OWLDataProperty, COWLDataPropertyImpl> getDataPropertyMap() {
+		return dataPropertyMap;
+	}
+
+	/**
+	 * Get the container that stores key-value pairs, where OWL API interface
+	 * OWLObjectProperty is the key and the customized class COWLObjectPropertyImpl
+	 * is the value.
+	 * 
+	 * @return The container.
+	 */
+	public Map<OWLObjectProperty, COWLObjectPropertyImpl> getObjectPropertyMap() {
+		return objectPropertyMap;
+	}
+
+	/**
+	 * This function defines control flow of the SPARQL query generation process
+	 * based on the constructed Java model. The query with query ID i only depends
+	 * on the base seed and i, so that a larger set of queries extends a smaller
+	 * one generated with the same base seed. Queries are passed to the listeners
+	 * as they are generated instead of being kept in memory.
+	 * 
+	 * @throws Exception
+	 *             If query generation fails.
+	 * @return The number of generated queries.
+	 */
+	public int generateRandomSPARQLQueries() throws Exception {
+		logger.info("Begin generating SPARQL queries...");
+		if (!findRootClass())
+			return 0;
+		if (enumeration)
+			return enumerateSPARQLQueries();
+		if (distinct)
+			return generateDistinctSPARQLQueries();
+		int count = 0;
+		if (resume)
+			count = resumeFromCheckpoint(null).queryCount;
+		else if (extendExistingQueries)
+			count = loadExistingQueries(null);
+		Query query;
+		for (; count < queryNumber && !stopRequested; count++) {
+			logger.info("Begin generating SPARQL query with query ID {}...", count);
+			if (!candidateFilters.isEmpty())
+				query = generateAcceptedSPARQLQuery(count);
+			else if (mutator != null && count >= mutationSeedNumber)
+				query = mutateSPARQLQuery(count, MathUtil.deriveSeed(seed, count));
+			else
+				query = generateSPARQLQuery(count);
+			// logger.info("Generated query script is shown below:");
+			// query.serialize(new IndentedWriter(System.out, false),
+			// Syntax.syntaxSPARQL_11);
+			// System.out.print("\n\n");
+			dumpIntoFile(query, outputDirectory, count);
+			notifyListeners(count, query);
+			if (mutator != null)
+				mutator.addQuery(query);
+			if (checkpointInterval > 0 && (count + 1) % checkpointInterval == 0)
+				saveCheckpoint(count + 1, count + 1, null);
+		}
+		if (stopRequested) {
+			logger.info("Query generation is stopped after {} SPARQL queries.", count);
+			if (checkpointInterval > 0 && count % checkpointInterval != 0)
+				saveCheckpoint(count, count, null);
+		}
+		logGenerationModeSummary();
+		return count;
+	}
+
+	/**
+	 * This function defines control flow of distinct SPARQL query generation
+	 * process based on the constructed Java model. Candidates of the query with
+	 * query ID i are generated from random streams derived from the base seed, i
+	 * and the number of rejected candidates, so the first candidate equals the
+	 * query generated by the non-distinct mode. The size of the distinct query
+	 * space is estimated from the duplicate rate, and query generation is stopped
+	 * once a query is rejected as a duplicate too many times in a row. Distinct
+	 * candidates rejected by the candidate filters are not duplicates: if no
+	 * candidate is accepted in maxRetries attempts, the distinct candidate closest
+	 * to being accepted is kept, as in non-distinct mode. Candidates are aborted
+	 * as soon as their generation choices follow a prefix whose completions have
+	 * all been generated, and query generation is stopped once all the choices
+	 * are exhausted.
+	 * 
+	 * @throws Exception
+	 *             If query generation fails.
+	 * @return The number of generated distinct queries.
+	 */
+	private int generateDistinctSPARQLQueries() throws Exception {
+		HashSet<Long> distinctQueries = new HashSet<>(queryNumber);
+		int count = 0, attempt = 0, retry = 0;
+		if (resume) {
+			GenerationCheckpoint checkpoint = resumeFromCheckpoint(distinctQueries);
+			count = checkpoint.queryCount;
+			attempt = checkpoint.attempt;
+		} else if (extendExistingQueries)
+			count = loadExistingQueries(distinctQueries);
+		DistinctQuerySpaceEstimator estimator = new DistinctQuerySpaceEstimator(count);
+		boolean spaceWarned = false, choicesExhausted = false;
+		int abortion = 0;
+		Query query;
+		String queryString = null;
+		long fingerprint = 0;
+		// The distinct candidate closest to being accepted by the candidate filters
+		Query closest = null;
+		String closestString = null;
+		long closestFingerprint = 0;
+		double closestDistance = Double.POSITIVE_INFINITY;
+		long querySeed = MathUtil.deriveSeed(seed, count);
+		// Prefixes of the queries generated before this run are not known, and
+		// queries composed from the pool or mutated are not determined by their
+		// choices
+		prefixTrie = patternPool == null && mutator == null ? new ChoicePrefixTrie() : null;
+		try {
+			while (count < queryNumber && !stopRequested) {
+				if (retry == 0) {
+					logger.info("Begin generating SPARQL query with query ID {}...", count);
+					for (CandidateFilter candidateFilter : candidateFilters)
+						candidateFilter.beginQuery();
+				}
+				boolean budgeted = filtersHaveBudget();
+				if (prefixTrie != null)
+					prefixTrie.beginCandidate();
+				attempt++;
+				try {
+					long candidateSeed = retry == 0 ? querySeed : MathUtil.deriveSeed(querySeed, retry);
+					if (mutator != null && count >= mutationSeedNumber)
+						query = mutateSPARQLQuery(count, candidateSeed);
+					else
+						query = generateSPARQLQueryFromSeed(candidateSeed);
+				} catch (ExhaustedPrefixException e) {
+					query = null;
+					abortion++;
+					estimator.addAbortedCandidate();
+				}
+				boolean accepted = false;
+				if (query != null && prefixTrie != null)
+					prefixTrie.endCandidate();
+				if (query != null) {
+					queryString = query.serialize(Syntax.syntaxSPARQL_11);
+					fingerprint = MathUtil.fingerprint(queryString);
+					boolean isDistinct = !distinctQueries.contains(fingerprint);
+					// Duplicates are rejected before the filters, which may be costly
+					double distance = isDistinct ? measureRejection(query) : 0;
+					if (distance > 0) {
+						candidateRejectionCount++;
+						if (distance < closestDistance) {
+							closest = query;
+							closestString = queryString;
+							closestFingerprint = fingerprint;
+							closestDistance = distance;
+						}
+					} else {
+						estimator.addCandidate(fingerprint, isDistinct);
+						accepted = isDistinct;
+						if (accepted && !budgeted)
+							logSkippedFilters(count);
+					}
+				}
+				boolean exhausted = prefixTrie != null && prefixTrie.isExhausted();
+				if (!accepted && closest != null && (exhausted || retry + 1 >= maxRetries || !filtersHaveBudget())) {
+					candidateMissCount++;
+					if (exhausted)
+						logger.warn("No distinct candidate of SPARQL query with query ID {} is accepted by the candidate filters before the generation choices are exhausted; the closest candidate is kept.",
+								count);
+					else
+						logger.warn("No distinct candidate of SPARQL query with query ID {} is accepted by the candidate filters in {} attempts; the closest candidate is kept.",
+								count, retry + 1);
+					query = closest;
+					queryString = closestString;
+					fingerprint = closestFingerprint;
+					estimator.addCandidate(fingerprint, true);
+					accepted = true;
+				}
+				if (accepted) {
+					distinctQueries.add(fingerprint);
+					dumpIntoFile(queryString, outputDirectory, count);
+					notifyListeners(count, query);
+					if (mutator != null)
+						mutator.addQuery(query);
+					count++;
+					retry = 0;
+					closest = null;
+					closestDistance = Double.POSITIVE_INFINITY;
+					querySeed = MathUtil.deriveSeed(seed, count);
+					if (checkpointInterval > 0 && count % checkpointInterval == 0)
+						saveCheckpoint(count, attempt, distinctQueries);
+				}
+				// Listeners that change the probabilities forget the exhausted prefixes
+				if (prefixTrie != null && prefixTrie.isExhausted()) {
+					choicesExhausted = true;
+					logger.info("The generation choices are exhausted; no other distinct SPARQL query can be generated.");
+					stopGeneration();
+				} else if (!accepted && ++retry >= maxRetries) {
+					// Had any candidate been distinct, the closest one would be kept
+					logger.warn(
+							"The candidates of SPARQL query with query ID {} are rejected as duplicates {} times in a row; the distinct query space is exhausted.",
+							count, retry);
+					stopGeneration();
+				}
+				if (attempt % SPACE_ESTIMATION_INTERVAL == 0) {
+					double probability = estimator.getNewQueryProbability();
+					logger.info(
+							"{} distinct SPARQL queries out of at least about {}; a new candidate is distinct with probability about {}.",
+							count, Math.round(estimator.getEstimatedSpaceSize()), String.format("%.4f", probability));
+					// Likely to be rejected maxRetries times in a row before the last query
+					if (!spaceWarned && probability * maxRetries < Math.log(queryNumber - count + 1)) {
+						logger.warn(
+								"The distinct query space is nearly exhausted; query generation may stop before {} queries.",
+								queryNumber);
+						spaceWarned = true;
+					}
+				}
+			}
+		} finally {
+			prefixTrie = null;
+		}
+		if (stopRequested) {
+			logger.info("Query generation is stopped after {} SPARQL queries.", count);
+			if (checkpointInterval > 0 && count % checkpointInterval != 0)
+				saveCheckpoint(count, attempt, distinctQueries);
+		}
+		logger.info("{} SPARQL queries have been generated with {} attempts, {} of which are aborted early as duplicates.",
+				count, attempt, abortion);
+		if (count < queryNumber && !choicesExhausted)
+			logger.info("{} distinct SPARQL queries were achievable; the distinct query space is estimated at least about {}.",
+					count, Math.round(estimator.getEstimatedSpaceSize()));
+		logGenerationModeSummary();
+		return count;
+	}
+
+	/**
+	 * This function enumerates distinct SPARQL queries by walking the tree of
+	 * generation choices in depth-first order, until the number of queries is
+	 * reached or the tree is exhausted. Data values are not enumerated; every
+	 * candidate draws them from the same random stream derived from the base seed,
+	 * so candidates only differ in their choices. Some different sequences of
+	 * choices lead to the same query, e.g. the inverse of a property that links a
+	 * variable to itself, or a filter over an unsupported datatype, so duplicates
+	 * are still rejected.
+	 * 
+	 * @throws Exception
+	 *             If query generation fails.
+	 * @return The number of enumerated queries.
+	 */
+	private int enumerateSPARQLQueries() throws Exception {
+		HashSet<Long> distinctQueries = new HashSet<>(queryNumber);
+		// Rejected candidates would make the depth-first walk exhaust whole subtrees
+		if (!candidateFilters.isEmpty())
+			logger.warn("Candidate filters are ignored in enumeration mode.");
+		enumerator = new ChoiceEnumerator(seed, shuffleEnumeration);
+		int count = 0, attempt = 0;
+		Query query;
+		String queryString;
+		try {
+			do {
+				logger.info("Begin enumerating SPARQL query with query ID {}...", count);
+				enumerator.beginCandidate();
+				query = generateSPARQLQueryFromSeed(MathUtil.deriveSeed(seed, 0));
+				queryString = query.serialize(Syntax.syntaxSPARQL_11);
+				attempt++;
+				if (distinctQueries.add(MathUtil.fingerprint(queryString))) {
+					dumpIntoFile(queryString, outputDirectory, count);
+					notifyListeners(count, query);
+					count++;
+				}
+			} while (count < queryNumber && !stopRequested && enumerator.nextCandidate());
+		} finally {
+			enumerator = null;
+		}
+		if (count < queryNumber && !stopRequested)
+			logger.info("The generation choices are exhausted; {} distinct SPARQL queries exist.", count);
+		logger.info("{} SPARQL queries have been enumerated with {} attempts.", count, attempt);
+		return count;
+	}
+
+	/**
+	 * Generate the SPARQL query with the specified query ID. The query only depends
+	 * on the base seed and the query ID, so it can be regenerated without
+	 * generating the queries before it.
+	 * 
+	 * @param queryID
+	 *            Query ID.
+	 * @return The SPARQL query.
+	 * @throws Exception
+	 *             If query generation fails.
+	 */
+	public Query generateSPARQLQuery(int queryID) throws Exception {
+		if (rootClass == null && !findRootClass())
+			throw new Exception("Root class with IRI " + rootIRIString + " is not found!");
+		if (!candidateFilters.isEmpty())
+			return generateAcceptedSPARQLQuery(queryID);
+		return generateSPARQLQueryFromSeed(MathUtil.deriveSeed(seed, queryID));
+	}
+
+	/**
+	 * Generate the SPARQL query with the specified query ID that is accepted by
+	 * the candidate filters, or the candidate closest to being accepted if none of
+	 * maxRetries candidates is accepted or a filter cannot measure more
+	 * candidates. Candidates without a finite distance are never kept; if there
+	 * is no other candidate, the filters that cannot measure more candidates are
+	 * skipped.
+	 * 
+	 * @param queryID
+	 *            Query ID.
+	 * @return The SPARQL query.
+	 * @throws Exception
+	 *             If query generation fails.
+	 */
+	private Query generateAcceptedSPARQLQuery(int queryID) throws Exception {
+		long querySeed = MathUtil.deriveSeed(seed, queryID);
+		Query closest = null;
+		double closestDistance = Double.POSITIVE_INFINITY;
+		for (CandidateFilter candidateFilter : candidateFilters)
+			candidateFilter.beginQuery();
+		for (int retry = 0;; retry++) {
+			boolean budgeted = filtersHaveBudget();
+			long candidateSeed = retry == 0 ? querySeed : MathUtil.deriveSeed(querySeed, retry);
+			Query query = mutator != null && queryID >= mutationSeedNumber ? mutateSPARQLQuery(queryID, candidateSeed)
+					: generateSPARQLQueryFromSeed(candidateSeed);
+			double distance = measureRejection(query);
+			if (distance == 0) {
+				if (!budgeted)
+					logSkippedFilters(queryID);
+				return query;
+			}
+			candidateRejectionCount++;
+			if (distance < closestDistance) {
+				closest = query;
+				closestDistance = distance;
+			}
+			if (closest != null && (retry + 1 >= maxRetries || !filtersHaveBudget())) {
+				candidateMissCount++;
+				logger.warn("No candidate of SPARQL query with query ID {} is accepted by the candidate filters in {} attempts; the closest candidate is kept.",
+						queryID, retry + 1);
+				return closest;
+			}
+		}
+	}
+
+	/**
+	 * Check whether every candidate filter can measure more candidates of the
+	 * current query.
+	 * 
+	 * @return True if every filter can measure more candidates, false otherwise.
+	 */
+	private boolean filtersHaveBudget() {
+		for (CandidateFilter candidateFilter : candidateFilters)
+			if (!candidateFilter.hasBudget())
+				return false;
+		return true;
+	}
+
+	/**
+	 * Warn that a query is kept without the candidate filters that cannot measure
+	 * more candidates, since none of the candidates they measured has a finite
+	 * distance, e.g. every execution timed out.
+	 * 
+	 * @param queryID
+	 *            Query ID.
+	 */
+	private void logSkippedFilters(int queryID) {
+		logger.warn("No candidate of SPARQL query with query ID {} has a finite distance within the budgets of the candidate filters; the query is kept without the spent filters.",
+				queryID);
+	}
+
+	/**
+	 * Measure how far a candidate query is from being accepted by the candidate
+	 * filters, as the distance of the first filter that rejects it. Filters that
+	 * cannot measure more candidates of the current query are skipped.
+	 * 
+	 * @param query
+	 *            The candidate query.
+	 * @return The distance; 0 if every filter accepts the candidate.
+	 * @throws Exception
+	 *             If a filter fails.
+	 */
+	private double measureRejection(Query query) throws Exception {
+		for (CandidateFilter candidateFilter : candidateFilters) {
+			if (!candidateFilter.hasBudget())
+				continue;
+			double distance = candidateFilter.getDistance(query);
+			if (distance > 0)
+				return distance;
+		}
+		return 0;
+	}
+
+	/**
+	 * Generate a SPARQL query from a random stream with the specified seed.
+	 * 
+	 * @param querySeed
+	 *            Seed of the random stream of the query.
+	 * @return The SPARQL query.
+	 * @throws Exception
+	 *             If query generation fails.
+	 */
+	private Query generateSPARQLQueryFromSeed(long querySeed) throws Exception {
+		ran.setSeed(querySeed);
+		Query query = QueryFactory.make();
+		query.setQuerySelectType();
+		Map<String, String> queryNsPrefixes = new HashMap<>();
+		queryNsPrefixes.put("ObjectDescription", prefixName2PrefixMap.get(":"));
+		budget.reset();
+
+		// Status is reset even if the candidate is aborted as a duplicate
+		try {
+			COWLClassImpl selectedClass = getARandomElementFromSet(
+					joinShape == null ? rootClass.getSubClassesAndItself() : getJoinShapeRootClasses());
+			Var var = VariableGenerator.generateVariable(selectedClass);
+			ElementGroup elg;
+			if (joinShape != null)
+				elg = generateShapedGraphPatterns(var, selectedClass, queryNsPrefixes);
+			else if (patternPool != null && enumerator == null)
+				elg = composeGraphPatternsFromPool(var, selectedClass, queryNsPrefixes);
+			else
+				elg = generateRecursiveGraphPatternsFromNamedClass(var, factory.getOWLClass(selectedClass.getIRI()),
+						queryNsPrefixes, true);
+			query.setQueryPattern(elg);
+			generateSolutionModifiers(query, var, elg);
+		} finally {
+			resetStatus(classMap.values());
+		}
+		orderTriplePatterns(query);
+
+		// op = Algebra.compile(query);
+		// op = Algebra.optimize(op);
+		// query = OpAsQuery.asQuery(op);
+
+		PrefixMapping pmap = new PrefixMappingImpl();
+		pmap.setNsPrefixes(queryNsPrefixes);
+		query.setPrefixMapping(pmap);
+		return query;
+	}
+
+	/**
+	 * Derive a SPARQL query by mutating a random query before it. If no valid
+	 * mutant is derived within a few attempts, e.g. because the mutation
+	 * operators do not apply to the selected queries, the query is generated from
+	 * scratch instead.
+	 * 
+	 * @param queryID
+	 *            Query ID.
+	 * @param querySeed
+	 *            Seed of the random stream of the query.
+	 * @return The SPARQL query.
+	 * @throws Exception
+	 *             If query generation fails.
+	 */
+	private Query mutateSPARQLQuery(int queryID, long querySeed) throws Exception {
+		ran.setSeed(querySeed);
+		for (int i = 0; i < MAX_MUTATION_ATTEMPTS; i++) {
+			Query query = mutator.mutate(ran, queryID);
+			if (query != null) {
+				orderTriplePatterns(query);
+				return query;
+			}
+		}
+		mutationFallbackCount++;
+		return generateSPARQLQueryFromSeed(querySeed);
+	}
+
+	/**
+	 * Generate the projection and the solution modifiers of a query. With the
+	 * aggregate probability, the query is turned into an aggregate query: COUNT,
+	 * MIN or MAX over a random data value bound by the graph pattern, or SUM or
+	 * AVG if the data value is numeric, and COUNT over the selected variable if no
+	 * data value is bound. An aggregate query is grouped by the selected variable
+	 * with the group-by probability, and returns a single solution otherwise.
+	 * Other queries select the distinct bindings of the selected variable as
+	 * before. Solutions are then ordered by a random bound data value, or by the
+	 * aggregate of a grouped aggregate query, and limited to one of a few sizes,
+	 * paged with an offset of a few limits.
+	 * 
+	 * @param query
+	 *            The SPARQL query.
+	 * @param var
+	 *            The selected variable.
+	 * @param elg
+	 *            Graph pattern of the query.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private void generateSolutionModifiers(Query query, Var var, ElementGroup elg) throws Exception {
+		if (aggregateProbability <= 0 && orderByProbability <= 0 && limitProbability <= 0) {
+			query.setDistinct(true);
+			query.addResultVar(var);
+			return;
+		}
+		Map<Var, Boolean> dataValues = new LinkedHashMap<>();
+		collectBoundDataValueVariables(elg, dataValues);
+		List<Var> sortKeys;
+		boolean singleSolution = false;
+		if (randomBoolean(aggregateProbability)) {
+			boolean grouped = randomBoolean(groupByProbability);
+			Aggregator aggregator;
+			String name;
+			if (dataValues.isEmpty()) {
+				aggregator = grouped ? AggregatorFactory.createCount(false)
+						: AggregatorFactory.createCountExpr(true, new ExprVar(var));
+				name = "count";
+			} else {
+				Var dataValue = getARandomElementFromList(new ArrayList<>(dataValues.keySet()));
+				ExprVar expr = new ExprVar(dataValue);
+				// SUM and AVG only apply to numeric data values
+				switch (randomIndex(dataValues.get(dataValue) ? 5 : 3)) {
+				case 0:
+					aggregator = AggregatorFactory.createCountExpr(false, expr);
+					name = "count";
+					break;
+				case 1:
+					aggregator = AggregatorFactory.createMin(false, expr);
+					name = "min";
+					break;
+				case 2:
+					aggregator = AggregatorFactory.createMax(false, expr);
+					name = "max";
+					break;
+				case 3:
+					aggregator = AggregatorFactory.createSum(false, expr);
+					name = "sum";
+					break;
+				default:
+					aggregator = AggregatorFactory.createAvg(false, expr);
+					name = "avg";
+					break;
+				}
+			}
+			if (grouped) {
+				query.addGroupBy(var);
+				query.addResultVar(var);
+			}
+			Var aggregateVar = Var.alloc(name);
+			query.addResultVar(aggregateVar, query.allocAggregate(aggregator));
+			sortKeys = grouped ? Collections.singletonList(aggregateVar) : Collections.emptyList();
+			singleSolution = !grouped;
+		} else {
+			query.setDistinct(true);
+			query.addResultVar(var);
+			sortKeys = new ArrayList<>(dataValues.keySet());
+		}
+		if (randomBoolean(sortKeys.isEmpty() ? 0 : orderByProbability))
+			query.addOrderBy(getARandomElementFromList(sortKeys),
+					randomBoolean() ? Query.ORDER_ASCENDING : Query.ORDER_DESCENDING);
+		if (randomBoolean(singleSolution ? 0 : limitProbability)) {
+			long limit = SOLUTION_LIMITS[randomIndex(SOLUTION_LIMITS.length)];
+			query.setLimit(limit);
+			if (randomBoolean(offsetProbability))
+				query.setOffset(limit * (randomIndex(MAX_OFFSET_PAGES) + 1));
+		}
+	}
+
+	/**
+	 * Collect the data values bound by every solution of a graph pattern, i.e. the
+	 * objects of data property assertion triple patterns outside of UNION,
+	 * OPTIONAL, MINUS and FILTER EXISTS/NOT EXISTS.
+	 * 
+	 * @param element
+	 *            Graph pattern.
+	 * @param dataValues
+	 *            A map that the variables of the data values are added to, mapped
+	 *            to true if the range of their data property is numeric.
+	 */
+	private void collectBoundDataValueVariables(Element element, Map<Var, Boolean> dataValues) {
+		List<Triple> triples;
+		if (element instanceof ElementGroup) {
+			for (Element sub : ((ElementGroup) element).getElements())
+				collectBoundDataValueVariables(sub, dataValues);
+			return;
+		} else if (element instanceof ElementTriplesBlock)
+			triples = ((ElementTriplesBlock) element).getPattern().getList();
+		else if (element instanceof ElementPathBlock) {
+			triples = new ArrayList<>();
+			for (TriplePath triplePath : ((ElementPathBlock) element).getPattern())
+				if (triplePath.isTriple())
+					triples.add(triplePath.asTriple());
+		} else
+			return;
+		for (Triple triple : triples) {
+			if (!triple.getObject().isVariable() || !triple.getPredicate().isURI())
+				continue;
+			COWLDataPropertyImpl dataProperty = dataPropertyMap
+					.get(factory.getOWLDataProperty(IRI.create(triple.getPredicate().getURI())));
+			if (dataProperty == null)
+				continue;
+			OWLDataRange range = dataProperty.getOWLDataRange();
+			boolean numeric = range != null && range.isOWLDatatype() && range.asOWLDatatype().isBuiltIn()
+					&& range.asOWLDatatype().getBuiltInDatatype().isNumeric();
+			dataValues.putIfAbsent(Var.alloc(triple.getObject()), numeric);
+		}
+	}
+
+	/**
+	 * Reorder the triple patterns inside each basic graph pattern of a query
+	 * unless they are kept in the order in which they are generated. Random
+	 * orders are drawn from the random stream of the query after its generation
+	 * choices, so the choices are not affected. In distinct mode, a query whose
+	 * order is drawn at random is not determined by its choices, so its choices
+	 * are not marked as exhausted.
+	 * 
+	 * @param query
+	 *            The SPARQL query.
+	 */
+	private void orderTriplePatterns(Query query) {
+		if (triplePatternOrder == TriplePatternOrder.GENERATED)
+			return;
+		TriplePatternReorderer reorderer = new TriplePatternReorderer(triplePatternOrder, datasetStatistics, ran);
+		query.setQueryPattern(reorderer.reorder(query.getQueryPattern()));
+		if (prefixTrie != null && reorderer.isRandomOrderDrawn())
+			prefixTrie.drawDataValue();
+	}
+
+	/**
+	 * Get the classes that queries are generated from in shape-directed
+	 * generation mode: the root class and its subclasses that are the domain or
+	 * range of an object property, or all of them if none is.
+	 * 
+	 * @return The classes.
+	 */
+	private Set<COWLClassImpl> getJoinShapeRootClasses() {
+		if (joinShapeRootClasses == null) {
+			joinShapeRootClasses = rootClass.getSubClassesAndItself().stream()
+					.filter(cls -> !joinGraphIndex.getSteps(cls).isEmpty()).collect(Collectors.toSet());
+			if (joinShapeRootClasses.isEmpty()) {
+				logger.warn("No class under the root class is the domain or range of an object property; join graphs cannot be filled.");
+				joinShapeRootClasses = rootClass.getSubClassesAndItself();
+			}
+		}
+		return joinShapeRootClasses;
+	}
+
+	/**
+	 * Generate graph patterns whose join graph of object property assertion
+	 * triple patterns has the join shape, from the specified named class. The
+	 * edges of the planned join graph are filled in order by random steps along
+	 * object properties from the classes reached so far; an edge back to a
+	 * variable already reached, e.g. the last edge of a cycle, only takes steps to
+	 * its class that do not repeat a triple pattern. If no attempt fills all the
+	 * edges, the attempt that fills the most of them is taken.
+	 * 
+	 * @param var
+	 *            Variable that binds to individuals of the named class.
+	 * @param cls
+	 *            Named class.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return Graph pattern.
+	 * @throws Exception
+	 *             If there exists sub-functions throwing such exceptions.
+	 */
+	private ElementGroup generateShapedGraphPatterns(Var var, COWLClassImpl cls, Map<String, String> queryNsPrefixes)
+			throws Exception {
+		int[][] edges = joinShape.planEdges(joinShapeSize);
+		COWLClassImpl[] bestClasses = null;
+		JoinGraphIndex.Step[] bestSteps = null;
+		int bestStepNumber = -1;
+		for (int attempt = 0; attempt < MAX_SHAPE_ATTEMPTS && bestStepNumber < edges.length; attempt++) {
+			COWLClassImpl[] classes = new COWLClassImpl[joinShapeSize + 1];
+			JoinGraphIndex.Step[] steps = new JoinGraphIndex.Step[edges.length];
+			Set<String> triplePatterns = new HashSet<>();
+			classes[0] = cls;
+			int stepNumber = 0;
+			for (; stepNumber < edges.length; stepNumber++) {
+				int[] edge = edges[stepNumber];
+				List<JoinGraphIndex.Step> candidates = new ArrayList<>();
+				for (JoinGraphIndex.Step step : joinGraphIndex.getSteps(classes[edge[0]]))
+					if (classes[edge[1]] == null || step.neighbor.equals(classes[edge[1]])
+							&& !triplePatterns.contains(getTriplePatternKey(edge, step)))
+						candidates.add(step);
+				if (candidates.isEmpty())
+					break;
+				JoinGraphIndex.Step step = getARandomElementFromList(candidates);
+				if (classes[edge[1]] == null)
+					classes[edge[1]] = step.neighbor;
+				triplePatterns.add(getTriplePatternKey(edge, step));
+				steps[stepNumber] = step;
+			}
+			if (stepNumber > bestStepNumber) {
+				bestClasses = classes;
+				bestSteps = steps;
+				bestStepNumber = stepNumber;
+			}
+		}
+		if (bestStepNumber < edges.length)
+			joinShapeShortfallCount++;
+
+		ElementGroup elg = new ElementGroup();
+		Var[] vars = new Var[joinShapeSize + 1];
+		vars[0] = var;
+		elg.addTriplePattern(generateClassAssertionTriplePattern(var, factory.getOWLClass(cls.getIRI()), queryNsPrefixes));
+		for (int i = 0; i < bestStepNumber; i++) {
+			int[] edge = edges[i];
+			JoinGraphIndex.Step step = bestSteps[i];
+			boolean newVariable = vars[edge[1]] == null;
+			if (newVariable)
+				vars[edge[1]] = VariableGenerator.generateVariable(bestClasses[edge[1]]);
+			prefixCheck(prefixName2PrefixMap, queryNsPrefixes, step.property.getIRI());
+			elg.addTriplePattern(step.forward ? new Triple(vars[edge[0]], step.property.getNode(), vars[edge[1]])
+					: new Triple(vars[edge[1]], step.property.getNode(), vars[edge[0]]));
+			if (newVariable && randomBoolean(classAssertionProbability)) {
+				Triple triple = generateClassAssertionTriplePattern(vars[edge[1]],
+						factory.getOWLClass(bestClasses[edge[1]].getIRI()), queryNsPrefixes);
+				if (triple != null)
+					elg.addTriplePattern(triple);
+			}
+		}
+		return elg;
+	}
+
+	/**
+	 * Get a key that identifies the triple pattern of an edge of a join graph
+	 * filled by a step.
+	 * 
+	 * @param edge
+	 *            The edge as a pair of vertices.
+	 * @param step
+	 *            The step.
+	 * @return The key.
+	 */
+	private static String getTriplePatternKey(int[] edge, JoinGraphIndex.Step step) {
+		return step.forward ? edge[0] + " " + step.property.getIRI() + " " + edge[1]
+				: edge[1] + " " + step.property.getIRI() + " " + edge[0];
+	}
+
+	/**
+	 * Log the numbers of queries derived by each mutation operator in mutation
+	 * mode, the number of queries whose join graph falls short of the join shape
+	 * in shape-directed generation mode, and the number of candidates rejected by
+	 * the candidate filters.
+	 */
+	private void logGenerationModeSummary() {
+		if (joinShapeShortfallCount > 0)
+			logger.warn("The join graphs of {} SPARQL queries could not be filled to {} {} object property assertions; the input ontology lacks matching object property domains and ranges.",
+					joinShapeShortfallCount, joinShape.getName(), joinShapeSize);
+		if (!candidateFilters.isEmpty())
+			logger.info("{} candidate SPARQL queries are rejected by the candidate filters; {} queries are kept closest to being accepted instead.",
+					candidateRejectionCount, candidateMissCount);
+		if (mutator == null)
+			return;
+		StringBuilder sb = new StringBuilder();
+		for (QueryMutator.Operator operator : QueryMutator.Operator.values())
+			sb.append(sb.length() == 0 ? "" : ", ").append(operator.name().toLowerCase()).append(": ")
+					.append(mutator.getMutantCount(operator));
+		logger.info("SPARQL queries derived by mutation per operator are {}; {} queries are generated from scratch instead.",
+				sb, mutationFallbackCount);
+	}
+
+	/**
+	 * Compose graph patterns from the pool of the specified named class, which is
+	 * filled on first use: a random number of pooled graph patterns are sampled,
+	 * re-bound to the variable and joined with random key words, and each used
+	 * graph pattern is replaced with a freshly generated one with the refresh
+	 * rate.
+	 * 
+	 * @param var
+	 *            Variable that binds to individuals of the named class.
+	 * @param cls
+	 *            Named class.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return Graph pattern.
+	 * @throws Exception
+	 *             If there exists sub-functions throwing such exceptions.
+	 */
+	private ElementGroup composeGraphPatternsFromPool(Var var, COWLClassImpl cls, Map<String, String> queryNsPrefixes)
+			throws Exception {
+		List<SubPatternPool.Entry> entries = patternPool.getEntries(cls);
+		if (entries == null) {
+			entries = new ArrayList<>(patternPool.getPoolSize());
+			for (int i = 0; i < patternPool.getPoolSize(); i++)
+				entries.add(generatePooledGraphPatterns(cls));
+			patternPool.putEntries(cls, entries);
+		}
+		int patternNumber = randomIndex(MAX_POOLED_PATTERNS_PER_QUERY) + 1;
+		LinkedList<ElementGroup> elgList = new LinkedList<>();
+		for (int i = 0; i < patternNumber; i++) {
+			int index = randomIndex(entries.size());
+			SubPatternPool.Entry entry = entries.get(index);
+			elgList.offer(SubPatternPool.rebind(entry, var, i));
+			queryNsPrefixes.putAll(entry.queryNsPrefixes);
+			if (randomBoolean(patternPool.getRefreshRate()))
+				entries.set(index, generatePooledGraphPatterns(cls));
+		}
+		return joinGraphPatterns(elgList, false);
+	}
+
+	/**
+	 * Generate graph patterns from the specified named class for the pool, from
+	 * scratch with their own variables and budgets.
+	 * 
+	 * @param cls
+	 *            Named class.
+	 * @return The pooled graph patterns.
+	 * @throws Exception
+	 *             If there exists sub-functions throwing such exceptions.
+	 */
+	private SubPatternPool.Entry generatePooledGraphPatterns(COWLClassImpl cls) throws Exception {
+		resetStatus(classMap.values());
+		budget.reset();
+		Var var = VariableGenerator.generateVariable(cls);
+		Map<String, String> queryNsPrefixes = new HashMap<>();
+		ElementGroup elg = generateRecursiveGraphPatternsFromNamedClass(var, factory.getOWLClass(cls.getIRI()),
+				queryNsPrefixes, true);
+		resetStatus(classMap.values());
+		return new SubPatternPool.Entry(elg, var, queryNsPrefixes);
+	}
+
+	/**
+	 * Get a random element from a set of classes, properties or class
+	 * restrictions. Elements are weighted by their signatures if a signature
+	 * weighting is set, and uniformly random otherwise.
+	 * 
+	 * @param <T>
+	 *            The class of the objects in the set.
+	 * @param typeSet
+	 *            Set of elements of T type.
+	 * @return Element of T type.
+	 * @throws Exception
+	 *             If input arguments are invalid.
+	 */
+	private <T> T getARandomElementFromSet(Set<T> typeSet) throws Exception {
+		if (typeSet == null)
+			throw new Exception("Invalid input arguments!");
+		if (typeSet.isEmpty())
+			return null;
+		@SuppressWarnings("unchecked")
+		T[] elements = (T[]) typeSet.toArray();
+		// Enumeration takes every element in turn regardless of the weights
+		if (signatureWeighting == null || enumerator != null)
+			return elements[randomIndex(elements.length)];
+		double[] weights = new double[elements.length];
+		Set<IRI> signature = new HashSet<>();
+		for (int i = 0; i < elements.length; i++) {
+			signature.clear();
+			collectSignature(elements[i], signature);
+			weights[i] = signatureWeighting.getWeight(signature);
+		}
+		int index = ran.nextWeightedIndex(weights);
+		recordChoice(index, elements.length);
+		return elements[index];
+	}
+
+	/**
+	 * Get a random element from a list.
+	 * 
+	 * @param <T>
+	 *            The class of the objects in the list.
+	 * @param typeList
+	 *            List of elements of T type.
+	 * @return Element of T type; null if the list is empty.
+	 * @throws Exception
+	 *             If input arguments are invalid.
+	 */
+	private <T> T getARandomElementFromList(List<T> typeList) throws Exception {
+		if (typeList == null)
+			throw new Exception("Invalid input arguments!");
+		if (typeList.isEmpty())
+			return null;
+		return typeList.get(randomIndex(typeList.size()));
+	}
+
+	/**
+	 * Make a random choice that is true with the given probability. In
+	 * enumeration mode, both outcomes are enumerated unless the probability is 0
+	 * or 1.
+	 * 
+	 * @param probability
+	 *            The probability of true.
+	 * @return The outcome of the choice.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private boolean randomBoolean(double probability) throws Exception {
+		if (enumerator == null) {
+			boolean outcome = ran.nextDouble() < probability;
+			if (probability > 0 && probability < 1)
+				recordChoice(outcome ? 0 : 1, 2);
+			return outcome;
+		}
+		if (probability <= 0)
+			return false;
+		if (probability >= 1)
+			return true;
+		return enumerator.choose(2) == 0;
+	}
+
+	/**
+	 * Make a random choice that is true or false with equal probability.
+	 * 
+	 * @return The outcome of the choice.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private boolean randomBoolean() throws Exception {
+		if (enumerator == null) {
+			boolean outcome = ran.nextBoolean();
+			recordChoice(outcome ? 0 : 1, 2);
+			return outcome;
+		}
+		return enumerator.choose(2) == 0;
+	}
+
+	/**
+	 * Make a uniformly random choice among a number of alternatives.
+	 * 
+	 * @param bound
+	 *            The number of alternatives, which must be positive.
+	 * @return The index of the chosen alternative.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private int randomIndex(int bound) throws Exception {
+		if (enumerator == null) {
+			int index = ran.nextInt(bound);
+			recordChoice(index, bound);
+			return index;
+		}
+		return enumerator.choose(bound);
+	}
+
+	/**
+	 * Make a random choice among alternatives with the given probabilities, and an
+	 * extra alternative with the remaining probability. In enumeration mode,
+	 * alternatives with probability 0 are skipped.
+	 * 
+	 * @param probabilities
+	 *            The probabilities of the alternatives except the last one.
+	 * @return The index of the chosen alternative.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private int randomIndex(double... probabilities) throws Exception {
+		double cumulative = 0;
+		if (enumerator == null && prefixTrie == null) {
+			double ranDouble = ran.nextDouble();
+			for (int i = 0; i < probabilities.length; i++) {
+				cumulative += probabilities[i];
+				if (ranDouble < cumulative)
+					return i;
+			}
+			return probabilities.length;
+		}
+		int[] alternatives = new int[probabilities.length + 1];
+		int size = 0;
+		for (int i = 0; i < probabilities.length; i++) {
+			cumulative += probabilities[i];
+			if (probabilities[i] > 0)
+				alternatives[size++] = i;
+		}
+		if (cumulative < 1)
+			alternatives[size++] = probabilities.length;
+		if (enumerator != null)
+			return alternatives[enumerator.choose(size)];
+		// The same outcome as above, recorded by its position among the possible
+		// alternatives
+		double ranDouble = ran.nextDouble();
+		cumulative = 0;
+		for (int i = 0; i < size; i++) {
+			if (alternatives[i] == probabilities.length)
+				break;
+			cumulative += probabilities[alternatives[i]];
+			if (ranDouble < cumulative) {
+				recordChoice(i, size);
+				return alternatives[i];
+			}
+		}
+		recordChoice(size - 1, size);
+		return alternatives[size - 1];
+	}
+
+	/**
+	 * Record a random choice in distinct mode, so that the candidate is aborted
+	 * as soon as its choices follow an exhausted prefix.
+	 * 
+	 * @param alternative
+	 *            The index of the chosen alternative.
+	 * @param bound
+	 *            The number of alternatives.
+	 * @throws ExhaustedPrefixException
+	 *             If the chosen alternative leads to an exhausted prefix.
+	 */
+	private void recordChoice(int alternative, int bound) throws ExhaustedPrefixException {
+		if (prefixTrie != null && bound > 1)
+			prefixTrie.choose(alternative, bound);
+	}
+
+	/**
+	 * Collect IRIs of the named classes and properties that a class, property,
+	 * class restriction or property-range pair refers to.
+	 * 
+	 * @param element
+	 *            Class, property, class restriction or property-range pair.
+	 * @param signature
+	 *            A set that the IRIs are added to.
+	 */
+	private static void collectSignature(Object element, Set<IRI> signature) {
+		if (element instanceof HasIRI)
+			signature.add(((HasIRI) element).getIRI());
+		else if (element instanceof OWLObject)
+			((OWLObject) element).signature().forEach(entity -> signature.add(entity.getIRI()));
+		else if (element instanceof Entry<?, ?>) {
+			collectSignature(((Entry<?, ?>) element).getKey(), signature);
+			collectSignature(((Entry<?, ?>) element).getValue(), signature);
+		}
+	}
+
+	/**
+	 * Find out the root class with the root class IRI.
+	 * 
+	 * @return True if the root class is found, false otherwise.
+	 */
+	private boolean findRootClass() {
+		for (OWLClass oc : classMap.keySet())
+			if (oc.getIRI().getIRIString().equals(rootIRIString)) {
+				logger.info("Find out root class with IRI: " + rootIRIString);
+				rootClass = classMap.get(oc);
+				return true;
+			}
+		logger.error("Root class with IRI " + rootIRIString + " is not found!");
+		return false;
+	}
+
+	/**
+	 * Load consecutive queries (query0.rq, query1.rq, ...) that already exist in
+	 * the output directory, up to the number of queries, and pass them to the
+	 * listeners.
+	 * 
+	 * @param queryFingerprints
+	 *            A set that fingerprints of the loaded query strings are added to;
+	 *            null if not needed.
+	 * @return The number of loaded queries.
+	 * @throws Exception
+	 *             If I/O exceptions occur or a listener fails.
+	 */
+	private int loadExistingQueries(Set<Long> queryFingerprints) throws Exception {
+		File sparqlQueryFile;
+		String queryString;
+		int count = 0;
+		for (; count < queryNumber; count++) {
+			sparqlQueryFile = new File(outputDirectory, "query" + count + ".rq");
+			if (!sparqlQueryFile.isFile())
+				break;
+			queryString = FileUtils.readFileToString(sparqlQueryFile, StandardCharsets.UTF_8);
+			Query query = QueryFactory.create(queryString, Syntax.syntaxSPARQL_11);
+			notifyListeners(count, query);
+			if (mutator != null)
+				mutator.addQuery(query);
+			if (queryFingerprints != null)
+				queryFingerprints.add(MathUtil.fingerprint(queryString));
+		}
+		logger.info("{} existing SPARQL queries are reused from {}", count, outputDirectory.getAbsolutePath());
+		return count;
+	}
+
+	/**
+	 * Durably save a generation checkpoint into the output directory, including
+	 * the states of the checkpointable listeners. The query files written since
+	 * the last checkpoint are synced to disk first.
+	 * 
+	 * @param queryCount
+	 *            The number of generated queries.
+	 * @param attempt
+	 *            The number of generated candidate queries.
+	 * @param queryFingerprints
+	 *            Fingerprints of the generated distinct queries; null if distinct
+	 *            queries are not supported.
+	 * @throws IOException
+	 *             If I/O exceptions occur.
+	 */
+	private void saveCheckpoint(int queryCount, int attempt, Set<Long> queryFingerprints) throws IOException {
+		long[] fingerprints = null;
+		if (queryFingerprints != null) {
+			fingerprints = new long[queryFingerprints.size()];
+			int i = 0;
+			for (long fingerprint : queryFingerprints)
+				fingerprints[i++] = fingerprint;
+		}
+		List<Serializable> listenerStates = new ArrayList<>();
+		for (QueryGenerationListener listener : listeners)
+			if (listener instanceof CheckpointableListener)
+				listenerStates.add(((CheckpointableListener) listener).saveState());
+		// The checkpoint must not vouch for queries that are not on disk yet
+		for (File queryFile : unsyncedQueryFiles)
+			FileUtil.sync(queryFile.toPath());
+		unsyncedQueryFiles.clear();
+		FileUtil.syncDirectory(outputDirectory.toPath());
+		new GenerationCheckpoint(rootIRIString, seed, randomSourceType.getName(), distinct,
+				MathUtil.fingerprint(generationSettings), queryCount, attempt, fingerprints, listenerStates)
+						.save(new File(outputDirectory, CHECKPOINT_FILE_NAME));
+		logger.info("Generation checkpoint is saved after {} queries.", queryCount);
+	}
+
+	/**
+	 * Restore the state of the query generation process and the checkpointable
+	 * listeners from the generation checkpoint in the output directory.
+	 * 
+	 * @param queryFingerprints
+	 *            A set that fingerprints of the generated distinct queries are
+	 *            added to; null if not needed.
+	 * @return The generation checkpoint.
+	 * @throws Exception
+	 *             If the checkpoint is missing or does not match the current
+	 *             settings.
+	 */
+	private GenerationCheckpoint resumeFromCheckpoint(Set<Long> queryFingerprints) throws Exception {
+		File checkpointFile = new File(outputDirectory, CHECKPOINT_FILE_NAME);
+		if (!checkpointFile.isFile())
+			throw new Exception("No generation checkpoint is found in " + outputDirectory.getAbsolutePath());
+		GenerationCheckpoint checkpoint = GenerationCheckpoint.load(checkpointFile);
+		if (!checkpoint.rootIRIString.equals(rootIRIString) || checkpoint.seed != seed
+				|| !checkpoint.randomSourceType.equals(randomSourceType.getName()) || checkpoint.distinct != distinct)
+			throw new Exception(
+					"Generation checkpoint was saved with a different root class, seed, random source or distinct setting.");
+		if (checkpoint.settingsFingerprint != MathUtil.fingerprint(generationSettings))
+			throw new Exception(
+					"Generation checkpoint was saved with different generation settings, e.g. probabilities, budgets or filters.");
+		if (checkpoint.queryCount > queryNumber)
+			throw new Exception("Generation checkpoint records " + checkpoint.queryCount
+					+ " queries, more than the number of queries.");
+		for (int queryID = 0; queryID < checkpoint.queryCount; queryID++) {
+			File queryFile = new File(outputDirectory, "query" + queryID + ".rq");
+			if (!queryFile.isFile() || queryFile.length() == 0)
+				throw new Exception("Query " + queryID + " recorded by the generation checkpoint is missing or empty in "
+						+ outputDirectory.getAbsolutePath());
+		}
+		if (queryFingerprints != null && checkpoint.queryFingerprints != null)
+			for (long fingerprint : checkpoint.queryFingerprints)
+				queryFingerprints.add(fingerprint);
+		int i = 0;
+		for (QueryGenerationListener listener : listeners)
+			if (listener instanceof CheckpointableListener) {
+				if (i >= checkpoint.listenerStates.size())
+					throw new Exception("Generation checkpoint has no state of listener " + listener.getClass().getName());
+				((CheckpointableListener) listener).restoreState(checkpoint.listenerStates.get(i++));
+			}
+		// Mutants depend on the queries before them
+		if (mutator != null)
+			for (int queryID = 0; queryID < checkpoint.queryCount; queryID++)
+				mutator.addQuery(QueryFactory.create(FileUtils.readFileToString(
+						new File(outputDirectory, "query" + queryID + ".rq"), StandardCharsets.UTF_8),
+						Syntax.syntaxSPARQL_11));
+		logger.info("Resume generating SPARQL queries from the generation checkpoint with {} queries.",
+				checkpoint.queryCount);
+		return checkpoint;
+	}
+
+	/**
+	 * Notify the listeners of a generated query.
+	 * 
+	 * @param queryID
+	 *            Query ID.
+	 * @param query
+	 *            The generated query.
+	 * @throws Exception
+	 *             If a listener fails to process the query.
+	 */
+	private void notifyListeners(int queryID, Query query) throws Exception {
+		for (QueryGenerationListener listener : listeners)
+			listener.queryGenerated(queryID, query);
+	}
+
+	/**
+	 * This function recursively generates graph patterns by navigating through the
+	 * model from the specified OWL class.
+	 * 
+	 * @param var1
+	 *            Variable.
+	 * @param oc
+	 *            OWL class.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @param isFirstRecursion
+	 *            Detect whether this function is invoked for the first time. True
+	 *            if it is, false otherwise.
+	 * @return Graph pattern.
+	 * @throws Exception
+	 *             If input arguments are invalid or there exists sub-functions
+	 *             throwing exceptions.
+	 */
+	public ElementGroup generateRecursiveGraphPatternsFromNamedClass(Var var1, OWLClass oc,
+			Map<String, String> queryNsPrefixes, boolean isFirstRecursion) throws Exception {
+		if (var1 == null || oc == null || queryNsPrefixes == null)
+			throw new NullPointerException("null arguments.");
+		ElementGroup elg1 = new ElementGroup();
+		if (oc.isOWLThing() || oc.isOWLNothing() || !budget.enter())
+			return elg1;
+		COWLClassImpl ocImpl1 = classMap.get(oc);
+		logger.info("Selected OWL class IRI is: " + ocImpl1.getIRI().getIRIString());
+		ocImpl1.setVisited(true);
+		ocImpl1.getVariables().add(var1);
+		Triple triple;
+		if (chooseTriplePattern(isFirstRecursion ? 1 : classAssertionProbability)) {
+			triple = generateClassAssertionTriplePattern(var1, oc, queryNsPrefixes);
+			if (triple != null)
+				elg1.addTriplePattern(triple);
+		}
+
+		LinkedList<ElementGroup> elgList = new LinkedList<>();
+		ElementGroup elg2 = new ElementGroup();
+		// Choices that have nothing to choose from are skipped
+		if (randomBoolean(
+				ocImpl1.getAnonymousClassRestrictions().isEmpty() ? 0 : classConstraintSelectionProbability)) {
+			OWLAnonymousClassExpression clsExp = getARandomElementFromSet(ocImpl1.getAnonymousClassRestrictions());
+			if (clsExp != null) {
+				logger.info("Selected OWL class constraint is: " + clsExp.toString());
+				elg2 = generateRecursiveGraphPatternsFromAnonymousClass(var1, clsExp, queryNsPrefixes);
+				if (!elg2.isEmpty())
+					elgList.offer(elg2);
+			}
+		}
+		Var var2;
+		Var dataValue = null;
+		OWLDataProperty dataValueProperty = null;
+		OWLDataRange dataValueRange = null;
+		if (chooseTriplePattern(
+				ocImpl1.getDataPropertyRangesPairs().isEmpty() ? 0 : dataPropertyAssertionProbability)) {
+			Entry<OWLDataProperty, OWLDataRange> entry = getARandomElementFromSet(
+					ocImpl1.getDataPropertyRangesPairs().entrySet());
+			if (entry != null) {
 				OWLDataProperty dataProperty = entry.getKey();
 				OWLDataRange range = entry.getValue();
 				logger.info("Selected data property <key-value> pair is key = " + dataProperty.getIRI().getShortForm()
@@ -551,61 +2437,89 @@ public class SPARQLQueryGenerator {
 				var2 = VariableGenerator.generateBindToDataValueVariable();
 				triple = generateDataPropertyAssertionTriplePattern(var1, dataProperty, var2, queryNsPrefixes);
 				elg1.addTriplePattern(triple);
-				if (ran.nextDouble() < filterProbability) {
-					Expr expr = generateRecursiveFilterExpressionFromDataRange(var2, range, queryNsPrefixes);
+				dataValue = var2;
+				dataValueProperty = dataProperty;
+				dataValueRange = range;
+				if (chooseFilter(range)) {
+					Expr expr = generateRecursiveFilterExpressionFromDataRange(var2, dataProperty, range,
+							queryNsPrefixes);
 					if (expr != null)
 						elg1.addElementFilter(new ElementFilter(expr));
 				}
 			}
 		}
 		ElementGroup elg3 = new ElementGroup();
-		if (ran.nextDouble() < objectPropertyAssertionProbability) {
-			Entry<OWLObjectProperty, OWLClassExpression> entry = CollectionUtil
-					.getARandomElementFromSet(ocImpl1.getObjectPropertyRangesPairs().entrySet(), ran);
+		if (chooseTriplePattern(
+				ocImpl1.getObjectPropertyRangesPairs().isEmpty() ? 0 : objectPropertyAssertionProbability)) {
+			Entry<OWLObjectProperty, OWLClassExpression> entry = getARandomElementFromSet(
+					ocImpl1.getObjectPropertyRangesPairs().entrySet());
 			if (entry != null) {
 				OWLObjectProperty objectProperty = entry.getKey();
 				OWLClassExpression classExp = entry.getValue();
 				logger.info("Selected object property <key-value> pair is key = "
 						+ objectProperty.getIRI().getShortForm() + ", value = " + classExp.toString());
-				triple = null;
+				TriplePath triplePath = null;
 				if (!classExp.isAnonymous()) {
 					OWLClass oc2 = classExp.asOWLClass();
 					if (!oc2.isOWLThing() && !oc2.isOWLNothing()) {
 						COWLClassImpl ocImpl2 = classMap.get(oc2);
 						LinkedList<OWLNamedIndividual> individuals = ocImpl2.getNamedIndividuals();
-						if (ran.nextDouble() < linkToIndividualProbability && individuals.isEmpty() == false) {
-							OWLNamedIndividual ind = CollectionUtil.getARandomElementFromList(individuals, ran);
-							triple = generateObjectPropertyAssertionTriplePattern(var1, objectProperty, ind,
+						if (randomBoolean(individuals.isEmpty() ? 0 : linkToIndividualProbability)) {
+							OWLNamedIndividual ind = getARandomElementFromList(individuals);
+							triplePath = generateObjectPropertyAssertionTriplePattern(var1, objectProperty, ind,
 									queryNsPrefixes);
 						} else {
-							ocImpl2 = CollectionUtil.getARandomElementFromSet(ocImpl2.getRelevantNamedClasses(classMap),
-									ran);
+							ocImpl2 = getARandomElementFromSet(ocImpl2.getRelevantNamedClasses(classMap));
+							// A sequence path links the variable to a class linked to the range instead
+							JoinGraphIndex.Step chainStep = null;
+							if (choosePropertyPath(
+									rangeChainIndex != null && !rangeChainIndex.getSteps(ocImpl2).isEmpty())) {
+								chainStep = getARandomElementFromList(rangeChainIndex.getSteps(ocImpl2));
+								ocImpl2 = chainStep.neighbor;
+							}
 							if (!ocImpl2.isVisited()) {
 								var2 = VariableGenerator.generateVariable(ocImpl2);
 								elg3 = generateRecursiveGraphPatternsFromNamedClass(var2,
 										factory.getOWLClass(ocImpl2.getIRI()), queryNsPrefixes, false);
-							} else if (ran.nextDouble() < newVariableProbability) {
+								if (subqueryProbability > 0 && !elg3.isEmpty() && randomBoolean(subqueryProbability))
+									elg3 = generateSubquery(var2, elg3);
+							} else if (randomBoolean(newVariableProbability)) {
 								var2 = VariableGenerator.generateVariable(ocImpl2);
 								ocImpl2.getVariables().add(var2);
 							} else
-								var2 = CollectionUtil.getARandomElementFromList(ocImpl2.getVariables(), ran);
-							triple = generateObjectPropertyAssertionTriplePattern(var1, objectProperty, var2,
-									queryNsPrefixes);
+								var2 = getARandomElementFromList(ocImpl2.getVariables());
+							triplePath = generateObjectPropertyAssertionTriplePattern(var1, objectProperty,
+									chainStep, var2, queryNsPrefixes);
 						}
 					}
 				} else {
 					var2 = VariableGenerator.generateVariable();
 					elg3 = generateRecursiveGraphPatternsFromAnonymousClass(var2, classExp, queryNsPrefixes);
-					triple = generateObjectPropertyAssertionTriplePattern(var1, objectProperty, var2, queryNsPrefixes);
+					triplePath = generateObjectPropertyAssertionTriplePattern(var1, objectProperty, var2,
+							queryNsPrefixes);
 				}
-				if (triple != null)
-					elg1.addTriplePattern(triple);
+				if (triplePath != null)
+					addTriplePattern(elg1, triplePath);
 				if (!elg3.isEmpty())
 					elgList.offer(elg3);
 			}
 		}
+		LinkedList<OWLNamedIndividual> individuals = ocImpl1.getNamedIndividuals();
+		boolean dataValuesApplicable = dataValueRange != null && dataValueRange.isOWLDatatype()
+				&& dataValueRange.asOWLDatatype().isBuiltIn()
+				&& FILTER_DATATYPES.contains(dataValueRange.asOWLDatatype().getBuiltInDatatype());
+		if (valuesProbability > 0 && (!individuals.isEmpty() || dataValuesApplicable)
+				&& randomBoolean(valuesProbability)) {
+			// The variable of the class and the data value take turns if both apply
+			if (!individuals.isEmpty() && (!dataValuesApplicable || randomBoolean()))
+				elg1.addElement(generateValuesBlock(var1, individuals));
+			else
+				elg1.addElement(generateValuesBlock(dataValue, dataValueProperty,
+						dataValueRange.asOWLDatatype().getBuiltInDatatype(), queryNsPrefixes));
+		}
 		if (!elg1.isEmpty())
 			elgList.offerFirst(elg1);
+		budget.exit();
 		return joinGraphPatterns(elgList, !isFirstRecursion);
 	}
 
@@ -628,138 +2542,164 @@ public class SPARQLQueryGenerator {
 			Map<String, String> queryNsPrefixes) throws Exception {
 		if (var == null || clsExp == null || queryNsPrefixes == null)
 			throw new NullPointerException("null arguments.");
+		return generateRecursiveGraphPatternsFromPlan(var,
+				ClassExpressionPlan.compile(clsExp, classMap, classExpressionPlans), queryNsPrefixes);
+	}
+
+	/**
+	 * This function recursively generates graph patterns by navigating through the
+	 * generation plan of an anonymous class expression.
+	 * 
+	 * @param var
+	 *            Variable
+	 * @param plan
+	 *            Generation plan of the anonymous class expression.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return Graph pattern.
+	 * @throws Exception
+	 *             If there exists sub-functions throwing such exceptions.
+	 */
+	private ElementGroup generateRecursiveGraphPatternsFromPlan(Var var, ClassExpressionPlan plan,
+			Map<String, String> queryNsPrefixes) throws Exception {
 		Triple triple;
+		TriplePath triplePath;
 		ElementGroup elg = new ElementGroup();
-		if (clsExp.isOWLThing() || clsExp.isOWLNothing())
-			return elg;
-		if (clsExp instanceof OWLNaryBooleanClassExpressionImpl) {
-			Set<OWLClassExpression> operands = ((OWLNaryBooleanClassExpressionImpl) clsExp).operands()
-					.collect(Collectors.toSet());
-			Set<OWLClassExpression> selectedOperands = CollectionUtil
-					.getARandomElementFromList(CollectionUtil.getAllSubSetsOfASet(operands), ran);
-			ElementGroup subElg;
+		switch (plan.kind) {
+		case EMPTY:
+			break;
+		case NARY_BOOLEAN: {
+			List<ClassExpressionPlan> selectedOperands = getARandomElementFromList(plan.operandSubsets);
 			LinkedList<ElementGroup> elgList = new LinkedList<>();
-			for (OWLClassExpression exp : selectedOperands) {
-				if (exp.isOWLThing() || exp.isOWLNothing())
-					continue;
-				subElg = new ElementGroup();
-				if (!exp.isAnonymous()) {
-					COWLClassImpl ocImpl = classMap.get(exp.asOWLClass());
-					ocImpl = CollectionUtil.getARandomElementFromSet(ocImpl.getRelevantNamedClasses(classMap), ran);
-					if (!ocImpl.isVisited())
-						subElg = generateRecursiveGraphPatternsFromNamedClass(var, factory.getOWLClass(ocImpl.getIRI()),
-								queryNsPrefixes, false);
-				} else
-					subElg = generateRecursiveGraphPatternsFromAnonymousClass(var, exp, queryNsPrefixes);
+			for (ClassExpressionPlan operand : selectedOperands) {
+				ElementGroup subElg = generateGraphPatternsFromOperand(var, operand, queryNsPrefixes);
 				if (!subElg.isEmpty())
 					elgList.offer(subElg);
 			}
 			return joinGraphPatterns(elgList, true);
-		} else if (clsExp instanceof OWLObjectComplementOfImpl) {
-			OWLClassExpression exp = ((OWLObjectComplementOfImpl) clsExp).getOperand();
-			if (exp.isOWLThing() || exp.isOWLNothing())
-				return elg;
-			if (!exp.isAnonymous()) {
-				COWLClassImpl ocImpl = classMap.get(exp.asOWLClass());
-				ocImpl = CollectionUtil.getARandomElementFromSet(ocImpl.getRelevantNamedClasses(classMap), ran);
-				if (!ocImpl.isVisited())
-					elg = generateRecursiveGraphPatternsFromNamedClass(var, factory.getOWLClass(ocImpl.getIRI()),
-							queryNsPrefixes, false);
-			} else
-				elg = generateRecursiveGraphPatternsFromAnonymousClass(var, exp, queryNsPrefixes);
-		} else if (clsExp instanceof OWLObjectHasValueImpl) {
-			if (ran.nextDouble() < objectPropertyAssertionProbability) {
-				OWLObjectProperty objectProperty = processObjectPropertyExpression(
-						((OWLObjectHasValueImpl) clsExp).getProperty());
-				if (ran.nextDouble() < linkToIndividualProbability) {
-					OWLIndividual individual = ((OWLObjectHasValueImpl) clsExp).getFiller();
-					if (!individual.isAnonymous()) {
-						triple = generateObjectPropertyAssertionTriplePattern(var, objectProperty,
-								individual.asOWLNamedIndividual(), queryNsPrefixes);
-						elg.addTriplePattern(triple);
+		}
+		case COMPLEMENT:
+			return generateGraphPatternsFromOperand(var, plan.operand, queryNsPrefixes);
+		case OBJECT_HAS_VALUE:
+			if (chooseTriplePattern(objectPropertyAssertionProbability)) {
+				if (randomBoolean(linkToIndividualProbability)) {
+					if (plan.individual != null) {
+						triplePath = generateObjectPropertyAssertionTriplePattern(var, plan.objectProperty,
+								plan.individual, queryNsPrefixes);
+						addTriplePattern(elg, triplePath);
 					} else
-						logger.warn("Anonymous individual from OWLObjectHasValue " + clsExp + "will be ignored");
+						logger.warn("Anonymous individual from OWLObjectHasValue " + plan.expression
+								+ "will be ignored");
 				} else {
 					Var var2 = VariableGenerator.generateVariable();
-					triple = generateObjectPropertyAssertionTriplePattern(var, objectProperty, var2, queryNsPrefixes);
-					elg.addTriplePattern(triple);
+					triplePath = generateObjectPropertyAssertionTriplePattern(var, plan.objectProperty, var2,
+							queryNsPrefixes);
+					addTriplePattern(elg, triplePath);
 				}
 			}
-		} else if (clsExp instanceof OWLObjectHasSelfImpl) {
-			if (ran.nextDouble() < objectPropertyAssertionProbability) {
-				OWLObjectProperty objectProperty = processObjectPropertyExpression(
-						((OWLObjectHasValueImpl) clsExp).getProperty());
-				triple = generateObjectPropertyAssertionTriplePattern(var, objectProperty, var, queryNsPrefixes);
-				elg.addTriplePattern(triple);
+			break;
+		case OBJECT_HAS_SELF:
+			if (chooseTriplePattern(objectPropertyAssertionProbability)) {
+				triplePath = generateObjectPropertyAssertionTriplePattern(var, plan.objectProperty, var,
+						queryNsPrefixes);
+				addTriplePattern(elg, triplePath);
 			}
-		} else if (clsExp instanceof OWLQuantifiedObjectRestriction) {
-			if (ran.nextDouble() < objectPropertyAssertionProbability) {
-				OWLObjectProperty objectProperty = processObjectPropertyExpression(
-						((OWLQuantifiedObjectRestriction) clsExp).getProperty());
-				OWLClassExpression classExp = ((OWLQuantifiedObjectRestriction) clsExp).getFiller();
-				if (classExp.isOWLThing() || classExp.isOWLNothing())
+			break;
+		case OBJECT_QUANTIFIED:
+			if (chooseTriplePattern(objectPropertyAssertionProbability)) {
+				ClassExpressionPlan filler = plan.operand;
+				if (filler.kind == ClassExpressionPlan.Kind.EMPTY)
 					return elg;
 				ElementGroup subElg = new ElementGroup();
 				Var var2;
-				if (!classExp.isAnonymous()) {
-					OWLClass oc2 = classExp.asOWLClass();
-					LinkedList<OWLNamedIndividual> individuals = classMap.get(oc2).getNamedIndividuals();
-					if (ran.nextDouble() < linkToIndividualProbability && individuals.isEmpty() == false) {
-						OWLNamedIndividual ind = CollectionUtil.getARandomElementFromList(individuals, ran);
-						triple = generateObjectPropertyAssertionTriplePattern(var, objectProperty, ind,
+				if (filler.kind == ClassExpressionPlan.Kind.NAMED_CLASS) {
+					LinkedList<OWLNamedIndividual> individuals = filler.namedClass.getNamedIndividuals();
+					if (randomBoolean(individuals.isEmpty() ? 0 : linkToIndividualProbability)) {
+						OWLNamedIndividual ind = getARandomElementFromList(individuals);
+						triplePath = generateObjectPropertyAssertionTriplePattern(var, plan.objectProperty, ind,
 								queryNsPrefixes);
 					} else {
-						COWLClassImpl ocImpl2 = classMap.get(oc2);
-						ocImpl2 = CollectionUtil.getARandomElementFromSet(ocImpl2.getRelevantNamedClasses(classMap),
-								ran);
+						COWLClassImpl ocImpl2 = getARandomElementFromSet(
+								filler.namedClass.getRelevantNamedClasses(classMap));
 						if (!ocImpl2.isVisited()) {
 							var2 = VariableGenerator.generateVariable(ocImpl2);
 							subElg = generateRecursiveGraphPatternsFromNamedClass(var2,
 									factory.getOWLClass(ocImpl2.getIRI()), queryNsPrefixes, false);
-						} else if (ran.nextDouble() < newVariableProbability) {
+						} else if (randomBoolean(newVariableProbability)) {
 							var2 = VariableGenerator.generateVariable(ocImpl2);
 							ocImpl2.getVariables().add(var2);
 						} else
-							var2 = CollectionUtil.getARandomElementFromList(ocImpl2.getVariables(), ran);
-						triple = generateObjectPropertyAssertionTriplePattern(var, objectProperty, var2,
+							var2 = getARandomElementFromList(ocImpl2.getVariables());
+						triplePath = generateObjectPropertyAssertionTriplePattern(var, plan.objectProperty, var2,
 								queryNsPrefixes);
 					}
 				} else {
 					var2 = VariableGenerator.generateVariable();
-					subElg = generateRecursiveGraphPatternsFromAnonymousClass(var2, classExp, queryNsPrefixes);
-					triple = generateObjectPropertyAssertionTriplePattern(var, objectProperty, var2, queryNsPrefixes);
+					subElg = generateRecursiveGraphPatternsFromPlan(var2, filler, queryNsPrefixes);
+					triplePath = generateObjectPropertyAssertionTriplePattern(var, plan.objectProperty, var2,
+							queryNsPrefixes);
 				}
-				elg.addTriplePattern(triple);
+				addTriplePattern(elg, triplePath);
 				if (!subElg.isEmpty())
 					elg.addElement(subElg);
 			}
-		} else if (clsExp instanceof OWLDataHasValueImpl) {
-			if (ran.nextDouble() < dataPropertyAssertionProbability) {
-				OWLDataProperty dataProperty = ((OWLDataHasValueImpl) clsExp).getProperty().asOWLDataProperty();
+			break;
+		case DATA_HAS_VALUE:
+			if (chooseTriplePattern(dataPropertyAssertionProbability)) {
 				Var var2 = VariableGenerator.generateBindToDataValueVariable();
-				triple = generateDataPropertyAssertionTriplePattern(var, dataProperty, var2, queryNsPrefixes);
+				triple = generateDataPropertyAssertionTriplePattern(var, plan.dataProperty, var2, queryNsPrefixes);
 				elg.addTriplePattern(triple);
 			}
-		} else if (clsExp instanceof OWLQuantifiedDataRestriction) {
-			if (ran.nextDouble() < dataPropertyAssertionProbability) {
-				OWLDataProperty dataProperty = ((OWLQuantifiedDataRestriction) clsExp).getProperty()
-						.asOWLDataProperty();
-				OWLDataRange range = ((OWLQuantifiedDataRestriction) clsExp).getFiller();
+			break;
+		case DATA_QUANTIFIED:
+			if (chooseTriplePattern(dataPropertyAssertionProbability)) {
 				Var var2 = VariableGenerator.generateBindToDataValueVariable();
-				triple = generateDataPropertyAssertionTriplePattern(var, dataProperty, var2, queryNsPrefixes);
+				triple = generateDataPropertyAssertionTriplePattern(var, plan.dataProperty, var2, queryNsPrefixes);
 				elg.addTriplePattern(triple);
-				if (ran.nextDouble() < filterProbability) {
-					Expr expr = generateRecursiveFilterExpressionFromDataRange(var2, range, queryNsPrefixes);
+				if (chooseFilter(plan.dataRange)) {
+					Expr expr = generateRecursiveFilterExpressionFromDataRange(var2, plan.dataProperty, plan.dataRange,
+							queryNsPrefixes);
 					if (expr != null)
 						elg.addElementFilter(new ElementFilter(expr));
 				}
 			}
-		} else {
-			logger.warn("OWL class expression {} is ignored during query generation: " + clsExp);
+			break;
+		default:
+			logger.warn("OWL class expression {} is ignored during query generation: " + plan.expression);
+			break;
 		}
 		return elg;
 	}
 
+	/**
+	 * This function generates graph patterns from the generation plan of an
+	 * operand of an intersection, union or complement. A named class is replaced
+	 * by a random relevant named class, from which graph patterns are only
+	 * generated if it is not visited yet.
+	 * 
+	 * @param var
+	 *            Variable
+	 * @param operand
+	 *            Generation plan of the operand.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return Graph pattern.
+	 * @throws Exception
+	 *             If there exists sub-functions throwing such exceptions.
+	 */
+	private ElementGroup generateGraphPatternsFromOperand(Var var, ClassExpressionPlan operand,
+			Map<String, String> queryNsPrefixes) throws Exception {
+		if (operand.kind == ClassExpressionPlan.Kind.EMPTY)
+			return new ElementGroup();
+		if (operand.kind != ClassExpressionPlan.Kind.NAMED_CLASS)
+			return generateRecursiveGraphPatternsFromPlan(var, operand, queryNsPrefixes);
+		COWLClassImpl ocImpl = getARandomElementFromSet(operand.namedClass.getRelevantNamedClasses(classMap));
+		if (ocImpl.isVisited())
+			return new ElementGroup();
+		return generateRecursiveGraphPatternsFromNamedClass(var, factory.getOWLClass(ocImpl.getIRI()),
+				queryNsPrefixes, false);
+	}
+
 	/**
 	 * This function generates a filter that restricts the specified variable based
 	 * on the given OWL data range.
@@ -775,21 +2715,20 @@ public class SPARQLQueryGenerator {
 	 *             If input arguments are invalid or there exists sub-functions
 	 *             throwing such exceptions.
 	 */
-	private Expr generateRecursiveFilterExpressionFromDataRange(Var var, OWLDataRange range,
-			Map<String, String> queryNsPrefixes) throws Exception {
+	private Expr generateRecursiveFilterExpressionFromDataRange(Var var, OWLDataProperty dataProperty,
+			OWLDataRange range, Map<String, String> queryNsPrefixes) throws Exception {
 		if (var == null || range == null || queryNsPrefixes == null)
 			throw new NullPointerException("null arguments.");
 		if (range instanceof OWLDataComplementOfImpl) {
-			return generateRecursiveFilterExpressionFromDataRange(var, ((OWLDataComplementOfImpl) range).getDataRange(),
-					queryNsPrefixes);
+			return generateRecursiveFilterExpressionFromDataRange(var, dataProperty,
+					((OWLDataComplementOfImpl) range).getDataRange(), queryNsPrefixes);
 		} else if (range instanceof OWLDatatype) {
-			return generateFilterExpressionFromDatatype(var, (OWLDatatype) range, queryNsPrefixes);
+			return generateFilterExpressionFromDatatype(var, dataProperty, (OWLDatatype) range, queryNsPrefixes);
 		} else if (range instanceof OWLDatatypeRestrictionImpl) {
 			OWLDatatype dt = ((OWLDatatypeRestriction) range).getDatatype();
 			Set<OWLFacetRestriction> facetRestrictions = ((OWLDatatypeRestrictionImpl) range).facetRestrictions()
 					.collect(Collectors.toSet());
-			Set<OWLFacetRestriction> selectedFacetRestrictions = CollectionUtil
-					.getARandomElementFromList(CollectionUtil.getAllSubSetsOfASet(facetRestrictions), ran);
+			Set<OWLFacetRestriction> selectedFacetRestrictions = getARandomElementFromList(CollectionUtil.getAllSubSetsOfASet(facetRestrictions));
 			Expr current = null;
 			Expr temp = null;
 			boolean ranBoolean;
@@ -797,35 +2736,35 @@ public class SPARQLQueryGenerator {
 				temp = generateFilterExpressionFromDatatype(var, dt, restriction, queryNsPrefixes);
 				if (temp != null) {
 					if (current != null) {
-						ranBoolean = ran.nextBoolean();
+						ranBoolean = randomBoolean();
 						if (ranBoolean)
 							temp = new E_LogicalAnd(current, temp);
 						else
 							temp = new E_LogicalOr(current, temp);
 					}
-					if (ran.nextBoolean())
+					if (randomBoolean())
 						temp = new E_LogicalNot(temp);
 					current = temp;
 				}
 			}
 			return current;
 		} else if (range instanceof OWLNaryDataRangeImpl) {
-			Set<OWLDataRange> rangeSet = CollectionUtil.getARandomElementFromList(CollectionUtil
-					.getAllSubSetsOfASet(((OWLNaryDataRangeImpl) range).operands().collect(Collectors.toSet())), ran);
+			Set<OWLDataRange> rangeSet = getARandomElementFromList(CollectionUtil
+					.getAllSubSetsOfASet(((OWLNaryDataRangeImpl) range).operands().collect(Collectors.toSet())));
 			Expr current = null;
 			Expr temp = null;
 			boolean ranBoolean;
 			for (OWLDataRange sub : rangeSet) {
-				temp = generateRecursiveFilterExpressionFromDataRange(var, sub, queryNsPrefixes);
+				temp = generateRecursiveFilterExpressionFromDataRange(var, dataProperty, sub, queryNsPrefixes);
 				if (temp != null) {
 					if (current != null) {
-						ranBoolean = ran.nextBoolean();
+						ranBoolean = randomBoolean();
 						if (ranBoolean)
 							temp = new E_LogicalAnd(current, temp);
 						else
 							temp = new E_LogicalOr(current, temp);
 					}
-					if (ran.nextBoolean())
+					if (randomBoolean())
 						temp = new E_LogicalNot(temp);
 					current = temp;
 				}
@@ -837,11 +2776,64 @@ public class SPARQLQueryGenerator {
 		}
 	}
 
+	/**
+	 * Make a random choice of a triple pattern with the given probability, which
+	 * is not taken once the triple pattern budget is spent.
+	 * 
+	 * @param probability
+	 *            The probability of the triple pattern.
+	 * @return True if the triple pattern is chosen, false otherwise.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private boolean chooseTriplePattern(double probability) throws Exception {
+		if (!randomBoolean(budget.allowsTriplePattern() ? probability : 0))
+			return false;
+		budget.addTriplePattern();
+		return true;
+	}
+
+	/**
+	 * Make a random choice of a filter on a data range, which is not taken once
+	 * the filter budget is spent.
+	 * 
+	 * @param range
+	 *            OWL data range.
+	 * @return True if the filter is chosen, false otherwise.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private boolean chooseFilter(OWLDataRange range) throws Exception {
+		if (!randomBoolean(budget.allowsFilter() ? getFilterProbability(range) : 0))
+			return false;
+		budget.addFilter();
+		return true;
+	}
+
+	/**
+	 * Get the probability of a filter on a data range. In enumeration mode, a
+	 * filter on a datatype that no filter expression is generated for is skipped,
+	 * so that the choices after it are not enumerated twice.
+	 * 
+	 * @param range
+	 *            OWL data range.
+	 * @return The probability of the filter.
+	 */
+	private double getFilterProbability(OWLDataRange range) {
+		if (enumerator != null && range instanceof OWLDatatype && !(((OWLDatatype) range).isBuiltIn()
+				&& (FILTER_DATATYPES.contains(((OWLDatatype) range).getBuiltInDatatype()) || textFilters
+						&& TEXT_FILTER_DATATYPES.contains(((OWLDatatype) range).getBuiltInDatatype()))))
+			return 0;
+		return filterProbability;
+	}
+
 	/**
 	 * This function generates a filter expression based on the given OWL datatype.
 	 * 
 	 * @param var
 	 *            Variable.
+	 * @param dataProperty
+	 *            Data property that binds the variable.
 	 * @param dt
 	 *            OWL datatype.
 	 * @param queryNsPrefixes
@@ -850,16 +2842,246 @@ public class SPARQLQueryGenerator {
 	 * @throws Exception
 	 *             If input arguments are invalid.
 	 */
-	private Expr generateFilterExpressionFromDatatype(Var var, OWLDatatype dt, Map<String, String> queryNsPrefixes)
-			throws Exception {
+	private Expr generateFilterExpressionFromDatatype(Var var, OWLDataProperty dataProperty, OWLDatatype dt,
+			Map<String, String> queryNsPrefixes) throws Exception {
 		if (var == null || dt == null || queryNsPrefixes == null)
 			throw new NullPointerException("null arguments.");
 		if (!dt.isBuiltIn()) {
 			logger.warn("None built-in datatype " + dt + " is not supported.");
 			return null;
 		}
-		OWL2Datatype d2t = dt.getBuiltInDatatype();
+		if (textFilters && TEXT_FILTER_DATATYPES.contains(dt.getBuiltInDatatype()))
+			return generateTextFilterExpression(var, dataProperty, dt.getBuiltInDatatype(), queryNsPrefixes);
+		if (filterSelectivityBand != null && dataProperty != null && dt.getBuiltInDatatype().isNumeric()
+				&& datasetStatistics.hasNumericValues(dataProperty.getIRI().getIRIString()))
+			return generateSelectiveFilterExpression(var, dataProperty, dt.getBuiltInDatatype(), queryNsPrefixes);
+		NodeValue value = generateDataValue(dt.getBuiltInDatatype(), queryNsPrefixes);
+		if (value == null)
+			return null;
+		return generateFilterExpression(new ExprVar(var), value);
+	}
+
+	/**
+	 * This function generates a text or date-time filter expression from a value
+	 * of a data property sampled from the dataset: CONTAINS, STRSTARTS, REGEX or
+	 * LANGMATCHES over a string value, STRSTARTS or equality over a URI value,
+	 * and a comparison or a range over date-time values.
+	 * 
+	 * @param var
+	 *            Variable.
+	 * @param dataProperty
+	 *            Data property that binds the variable.
+	 * @param d2t
+	 *            OWL 2 built-in datatype, one of the text filter datatypes.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return Filter expression; null if the data property has no value in the
+	 *         dataset.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private Expr generateTextFilterExpression(Var var, OWLDataProperty dataProperty, OWL2Datatype d2t,
+			Map<String, String> queryNsPrefixes) throws Exception {
+		List<OWLLiteral> values = dataProperty == null ? Collections.emptyList()
+				: datasetStatistics.getDistinctValues(dataProperty.getIRI().getIRIString());
+		if (values.isEmpty()) {
+			logger.warn("Data property " + dataProperty + " has no value to sample a filter from.");
+			return null;
+		}
+		ExprVar exprVar = new ExprVar(var);
+		OWLLiteral literal = getARandomElementFromList(values);
+		String lexical = literal.getLiteral();
+		switch (d2t) {
+		case XSD_DATE_TIME:
+		case XSD_DATE_TIME_STAMP:
+			queryNsPrefixes.put("xsd", XSD.getURI());
+			NodeValue value = NodeValue.makeNode(lexical, XSDDatatype.XSDdateTime);
+			if (values.size() < 2 || randomBoolean())
+				return generateFilterExpression(exprVar, value);
+			// A range between two sampled values
+			NodeValue other = NodeValue.makeNode(getARandomElementFromList(values).getLiteral(),
+					XSDDatatype.XSDdateTime);
+			boolean ordered = NodeValue.compareAlways(value, other) <= 0;
+			return new E_LogicalAnd(new E_GreaterThanOrEqual(exprVar, ordered ? value : other),
+					new E_LessThanOrEqual(exprVar, ordered ? other : value));
+		case XSD_ANY_URI:
+			if (randomBoolean()) {
+				queryNsPrefixes.put("xsd", XSD.getURI());
+				return new E_Equals(exprVar, NodeValue.makeNode(lexical, XSDDatatype.XSDanyURI));
+			}
+			return new E_StrStartsWith(new E_Str(exprVar), NodeValue.makeString(samplePrefix(lexical)));
+		default:
+			// LANGMATCHES only applies to values with a language tag
+			switch (randomIndex(literal.hasLang() ? 4 : 3)) {
+			case 0:
+				return new E_StrContains(exprVar, NodeValue.makeString(sampleToken(lexical)));
+			case 1:
+				return new E_StrStartsWith(exprVar, NodeValue.makeString(samplePrefix(lexical)));
+			case 2:
+				if (randomBoolean())
+					return new E_Regex(exprVar, NodeValue.makeString("^" + escapeRegex(samplePrefix(lexical))), null);
+				return new E_Regex(exprVar, escapeRegex(sampleToken(lexical)), "i");
+			default:
+				return new E_LangMatches(new E_Lang(exprVar), NodeValue.makeString(literal.getLang()));
+			}
+		}
+	}
+
+	/**
+	 * This function generates a numeric filter expression whose constant is drawn
+	 * from the value distribution of a data property, so that its estimated
+	 * selectivity is within the selectivity band.
+	 * 
+	 * @param var
+	 *            Variable.
+	 * @param dataProperty
+	 *            Data property that binds the variable, which has numeric values in
+	 *            the dataset.
+	 * @param d2t
+	 *            OWL 2 built-in numeric datatype.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return Filter expression.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private Expr generateSelectiveFilterExpression(Var var, OWLDataProperty dataProperty, OWL2Datatype d2t,
+			Map<String, String> queryNsPrefixes) throws Exception {
+		String propertyIRI = dataProperty.getIRI().getIRIString();
+		double equalitySelectivity = 1.0 / Math.max(1, datasetStatistics.getDistinctObjectCount(propertyIRI));
+		// Range comparisons hit any band; equality and inequality only hit one
+		List<Integer> operators = new ArrayList<>(Arrays.asList(1, 2, 3, 4));
+		if (equalitySelectivity >= filterSelectivityBand[0] && equalitySelectivity <= filterSelectivityBand[1])
+			operators.add(0);
+		if (1 - equalitySelectivity >= filterSelectivityBand[0] && 1 - equalitySelectivity <= filterSelectivityBand[1])
+			operators.add(5);
+		int operator = getARandomElementFromList(operators);
 		ExprVar exprVar = new ExprVar(var);
+		if (operator == 0 || operator == 5) {
+			// A value of the property as it is asserted
+			OWLLiteral literal = getARandomElementFromList(datasetStatistics.getDistinctValues(propertyIRI));
+			queryNsPrefixes.put("xsd", XSD.getURI());
+			NodeValue value = NodeValue.makeNode(literal.getLiteral(),
+					TypeMapper.getInstance().getSafeTypeByName(literal.getDatatype().getIRI().getIRIString()));
+			return operator == 0 ? new E_Equals(exprVar, value) : new E_NotEquals(exprVar, value);
+		}
+		if (prefixTrie != null)
+			prefixTrie.drawDataValue();
+		double selectivity = filterSelectivityBand[0]
+				+ ran.nextDouble() * (filterSelectivityBand[1] - filterSelectivityBand[0]);
+		// Greater-than comparisons keep the values above the constant
+		boolean greater = operator == 1 || operator == 2;
+		NodeValue value = makeNumericNodeValue(
+				datasetStatistics.estimateValueAtFraction(propertyIRI, greater ? 1 - selectivity : selectivity), d2t,
+				queryNsPrefixes);
+		switch (operator) {
+		case 1:
+			return new E_GreaterThan(exprVar, value);
+		case 2:
+			return new E_GreaterThanOrEqual(exprVar, value);
+		case 3:
+			return new E_LessThan(exprVar, value);
+		default:
+			return new E_LessThanOrEqual(exprVar, value);
+		}
+	}
+
+	/**
+	 * Make a node value of a numeric datatype, rounded to an integer for integer
+	 * datatypes.
+	 * 
+	 * @param number
+	 *            The number.
+	 * @param d2t
+	 *            OWL 2 built-in numeric datatype.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return The node value.
+	 */
+	private static NodeValue makeNumericNodeValue(double number, OWL2Datatype d2t,
+			Map<String, String> queryNsPrefixes) {
+		switch (d2t) {
+		case XSD_DOUBLE:
+			queryNsPrefixes.put("xsd", XSD.getURI());
+			return NodeValue.makeNodeDouble(String.valueOf(number));
+		case XSD_FLOAT:
+			queryNsPrefixes.put("xsd", XSD.getURI());
+			return NodeValue.makeNodeFloat(String.valueOf((float) number));
+		case XSD_DECIMAL:
+		case OWL_REAL:
+		case OWL_RATIONAL:
+			return NodeValue.makeDecimal(BigDecimal.valueOf(number));
+		default:
+			return NodeValue.makeNodeInteger(String.valueOf(Math.round(number)));
+		}
+	}
+
+	/**
+	 * Sample a token of a string, i.e. a random substring of at most a few
+	 * characters.
+	 * 
+	 * @param lexical
+	 *            The string.
+	 * @return The token; empty if the string is empty.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private String sampleToken(String lexical) throws Exception {
+		if (lexical.isEmpty())
+			return lexical;
+		int begin = randomIndex(lexical.length());
+		int length = randomIndex(Math.min(MAX_TOKEN_LENGTH, lexical.length() - begin)) + 1;
+		return lexical.substring(begin, begin + length);
+	}
+
+	/**
+	 * Sample a prefix of a string of at most a few characters.
+	 * 
+	 * @param lexical
+	 *            The string.
+	 * @return The prefix; empty if the string is empty.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private String samplePrefix(String lexical) throws Exception {
+		if (lexical.isEmpty())
+			return lexical;
+		return lexical.substring(0, randomIndex(Math.min(MAX_TOKEN_LENGTH, lexical.length())) + 1);
+	}
+
+	/**
+	 * Escape the metacharacters of a string in a regular expression, so that the
+	 * expression matches the string literally.
+	 * 
+	 * @param token
+	 *            The string.
+	 * @return The escaped string.
+	 */
+	private static String escapeRegex(String token) {
+		StringBuilder sb = new StringBuilder();
+		for (char c : token.toCharArray()) {
+			if ("\\^$.|?*+()[]{}".indexOf(c) >= 0)
+				sb.append('\\');
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * This function generates a random data value of a built-in datatype, e.g. the
+	 * constant of a filter expression.
+	 * 
+	 * @param d2t
+	 *            OWL 2 built-in datatype.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return The data value; null if the datatype is not supported.
+	 * @throws Exception
+	 *             If random values cannot be generated.
+	 */
+	private NodeValue generateDataValue(OWL2Datatype d2t, Map<String, String> queryNsPrefixes) throws Exception {
+		if (prefixTrie != null && FILTER_DATATYPES.contains(d2t))
+			prefixTrie.drawDataValue();
 		NodeValue value = null;
 		switch (d2t) {
 		case XSD_BOOLEAN:
@@ -892,7 +3114,120 @@ public class SPARQLQueryGenerator {
 			return null;
 		}
 		queryNsPrefixes.put("xsd", XSD.getURI());
-		return generateFilterExpression(exprVar, value);
+		return value;
+	}
+
+	/**
+	 * Wrap a graph pattern into a subquery that selects a variable of it, with
+	 * DISTINCT half of the time and a LIMIT with the limit probability.
+	 * 
+	 * @param var
+	 *            The variable that the subquery selects.
+	 * @param elg
+	 *            Graph pattern of the subquery.
+	 * @return A graph pattern that holds the subquery.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private ElementGroup generateSubquery(Var var, ElementGroup elg) throws Exception {
+		Query subquery = new Query();
+		subquery.setQuerySelectType();
+		subquery.setDistinct(randomBoolean());
+		subquery.addResultVar(var);
+		subquery.setQueryPattern(elg);
+		if (limitProbability > 0 && randomBoolean(limitProbability))
+			subquery.setLimit(SOLUTION_LIMITS[randomIndex(SOLUTION_LIMITS.length)]);
+		ElementGroup group = new ElementGroup();
+		group.addElement(new ElementSubQuery(subquery));
+		return group;
+	}
+
+	/**
+	 * Generate a VALUES block that binds the variable of a named class to a batch
+	 * of its named individuals, sampled without replacement.
+	 * 
+	 * @param var
+	 *            The variable of the named class.
+	 * @param individuals
+	 *            Named individuals of the class, which are not modified.
+	 * @return The VALUES block.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private ElementData generateValuesBlock(Var var, List<OWLNamedIndividual> individuals) throws Exception {
+		List<OWLNamedIndividual> candidates = new ArrayList<>(individuals);
+		ElementData data = new ElementData();
+		data.add(var);
+		for (int i = 0; i < valuesBatchSize && i < candidates.size(); i++) {
+			Collections.swap(candidates, i, i + randomIndex(candidates.size() - i));
+			data.add(BindingFactory.binding(var, NodeFactory.createURI(candidates.get(i).getIRI().getIRIString())));
+		}
+		return data;
+	}
+
+	/**
+	 * Generate a VALUES block that binds a data value to a batch of values of its
+	 * data property in the dataset, sampled without replacement, so that the
+	 * rows match existing triples. Without dataset statistics, or if the data
+	 * property has no value, the rows are random values of its datatype instead,
+	 * and duplicate values are dropped, so the block may have fewer rows than the
+	 * batch size.
+	 * 
+	 * @param var
+	 *            The variable of the data value.
+	 * @param dataProperty
+	 *            Data property that binds the data value.
+	 * @param d2t
+	 *            OWL 2 built-in datatype of the data value.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return The VALUES block.
+	 * @throws Exception
+	 *             If random values cannot be generated.
+	 */
+	private ElementData generateValuesBlock(Var var, OWLDataProperty dataProperty, OWL2Datatype d2t,
+			Map<String, String> queryNsPrefixes) throws Exception {
+		List<OWLLiteral> assertedValues = datasetStatistics == null ? Collections.emptyList()
+				: datasetStatistics.getDistinctValues(dataProperty.getIRI().getIRIString());
+		Set<Node> values = new LinkedHashSet<>();
+		if (!assertedValues.isEmpty()) {
+			// Fisher-Yates shuffle of the first rows, with the swapped positions kept
+			// sparse since a property may have many values
+			Map<Integer, Integer> swapped = new HashMap<>();
+			for (int i = 0; i < valuesBatchSize && i < assertedValues.size(); i++) {
+				int j = i + randomIndex(assertedValues.size() - i);
+				int chosen = swapped.getOrDefault(j, j);
+				swapped.put(j, swapped.getOrDefault(i, i));
+				values.add(makeLiteralNode(assertedValues.get(chosen), queryNsPrefixes));
+			}
+		} else
+			for (int i = 0; i < valuesBatchSize; i++) {
+				NodeValue value = generateDataValue(d2t, queryNsPrefixes);
+				if (value != null)
+					values.add(value.asNode());
+			}
+		ElementData data = new ElementData();
+		data.add(var);
+		for (Node value : values)
+			data.add(BindingFactory.binding(var, value));
+		return data;
+	}
+
+	/**
+	 * Make a node of a literal as it is asserted in the dataset.
+	 * 
+	 * @param literal
+	 *            OWL literal.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return The node.
+	 */
+	private Node makeLiteralNode(OWLLiteral literal, Map<String, String> queryNsPrefixes) {
+		if (literal.hasLang())
+			return NodeFactory.createLiteral(literal.getLiteral(), literal.getLang());
+		queryNsPrefixes.put("xsd", XSD.getURI());
+		return NodeFactory.createLiteral(literal.getLiteral(),
+				TypeMapper.getInstance().getSafeTypeByName(literal.getDatatype().getIRI().getIRIString()));
 	}
 
 	/**
@@ -903,9 +3238,11 @@ public class SPARQLQueryGenerator {
 	 * @param value
 	 *            Node value that denotes a particular data value.
 	 * @return Filter expression.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
 	 */
-	private Expr generateFilterExpression(ExprVar expr, NodeValue value) {
-		int ranInt = ran.nextInt(6);
+	private Expr generateFilterExpression(ExprVar expr, NodeValue value) throws Exception {
+		int ranInt = randomIndex(6);
 		if (ranInt == 0)
 			return new E_Equals(expr, value);
 		else if (ranInt == 1)
@@ -1007,30 +3344,6 @@ public class SPARQLQueryGenerator {
 		}
 	}
 
-	/**
-	 * This function processes the given OWL object property expression so as to get
-	 * its semantically equivalent OWL object property.
-	 * 
-	 * @param objectPropertyExp
-	 *            OWL object property expression.
-	 * @return OWL Object property.
-	 */
-	private OWLObjectProperty processObjectPropertyExpression(OWLObjectPropertyExpression objectPropertyExp) {
-		if (objectPropertyExp == null)
-			return null;
-		OWLObjectProperty objectProperty;
-		if (!objectPropertyExp.isAnonymous())
-			objectProperty = objectPropertyExp.asOWLObjectProperty();
-		else {
-			OWLObjectPropertyExpression simplified = objectPropertyExp.getSimplified();
-			if (simplified.isAnonymous())
-				objectProperty = simplified.getInverseProperty().asOWLObjectProperty();
-			else
-				objectProperty = simplified.asOWLObjectProperty();
-		}
-		return objectProperty;
-	}
-
 	/**
 	 * This function aims to generate a class assertion triple pattern.
 	 * 
@@ -1075,7 +3388,7 @@ public class SPARQLQueryGenerator {
 		if (var1 == null || dataProperty == null || var2 == null || queryNsPrefixes == null)
 			throw new NullPointerException("null arguments.");
 		COWLDataPropertyImpl odpImpl = dataPropertyMap.get(dataProperty);
-		odpImpl = (COWLDataPropertyImpl) CollectionUtil.getARandomElementFromSet(odpImpl.getRelevantProperties(), ran);
+		odpImpl = (COWLDataPropertyImpl) getARandomElementFromSet(odpImpl.getRelevantProperties());
 		prefixCheck(prefixName2PrefixMap, queryNsPrefixes, odpImpl.getIRI());
 		return new Triple(var1, odpImpl.getNode(), var2);
 	}
@@ -1091,35 +3404,202 @@ public class SPARQLQueryGenerator {
 	 *            Variable.
 	 * @param queryNsPrefixes
 	 *            A map that maps prefix names to prefixes used by the query.
-	 * @return Triple.
+	 * @return Triple pattern, or property path with the property path
+	 *         probability.
 	 * @throws Exception
 	 *             If input arguments are invalid or sub-functions throws exception.
 	 */
-	private <T> Triple generateObjectPropertyAssertionTriplePattern(Var var1, OWLObjectProperty objectProperty, T var2,
-			Map<String, String> queryNsPrefixes) throws Exception {
+	private <T> TriplePath generateObjectPropertyAssertionTriplePattern(Var var1, OWLObjectProperty objectProperty,
+			T var2, Map<String, String> queryNsPrefixes) throws Exception {
+		return generateObjectPropertyAssertionTriplePattern(var1, objectProperty, null, var2, queryNsPrefixes);
+	}
+
+	/**
+	 * This function generates an object property assertion triple pattern, or a
+	 * sequence path that follows a second object property linked to the range of
+	 * the property.
+	 * 
+	 * @param var1
+	 *            Variable.
+	 * @param objectProperty
+	 *            OWL object property.
+	 * @param chainStep
+	 *            Step from the range of the property to the class of var2, which
+	 *            the sequence path follows; null if var2 is in the range of the
+	 *            property.
+	 * @param var2
+	 *            Variable.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return Triple pattern, or property path.
+	 * @throws Exception
+	 *             If input arguments are invalid or sub-functions throws exception.
+	 */
+	private <T> TriplePath generateObjectPropertyAssertionTriplePattern(Var var1, OWLObjectProperty objectProperty,
+			JoinGraphIndex.Step chainStep, T var2, Map<String, String> queryNsPrefixes) throws Exception {
 		if (var1 == null || objectProperty == null || var2 == null || queryNsPrefixes == null)
 			throw new NullPointerException("null arguments.");
 		COWLObjectPropertyImpl oopImpl = objectPropertyMap.get(objectProperty);
-		oopImpl = (COWLObjectPropertyImpl) CollectionUtil.getARandomElementFromSet(oopImpl.getRelevantProperties(),
-				ran);
+		oopImpl = (COWLObjectPropertyImpl) getARandomElementFromSet(oopImpl.getRelevantProperties());
 		prefixCheck(prefixName2PrefixMap, queryNsPrefixes, oopImpl.getIRI());
-		if (ran.nextDouble() < inverseObjectPropertySelectionProbability) {
-			if (var2 instanceof OWLNamedIndividual) {
-				prefixCheck(prefixName2PrefixMap, queryNsPrefixes, ((OWLNamedIndividual) var2).getIRI());
-				return new Triple(NodeFactory.createURI(((OWLNamedIndividual) var2).getIRI().getIRIString()),
-						oopImpl.getNode(), var1);
-			} else if (var2 instanceof Var)
-				return new Triple((Var) var2, oopImpl.getNode(), var1);
-		} else {
-			if (var2 instanceof OWLNamedIndividual) {
-				prefixCheck(prefixName2PrefixMap, queryNsPrefixes, ((OWLNamedIndividual) var2).getIRI());
-				return new Triple(var1, oopImpl.getNode(),
-						NodeFactory.createURI(((OWLNamedIndividual) var2).getIRI().getIRIString()));
-			} else if (var2 instanceof Var)
-				return new Triple(var1, oopImpl.getNode(), (Var) var2);
+		Path path;
+		if (chainStep != null) {
+			prefixCheck(prefixName2PrefixMap, queryNsPrefixes, chainStep.property.getIRI());
+			Path next = PathFactory.pathLink(chainStep.property.getNode());
+			path = PathFactory.pathSeq(PathFactory.pathLink(oopImpl.getNode()),
+					chainStep.forward ? next : PathFactory.pathInverse(next));
+		} else
+			path = generatePropertyPath(oopImpl, queryNsPrefixes);
+		// Both directions of a property that links a variable to itself are the same
+		boolean inverse = randomBoolean(
+				enumerator != null && var1.equals(var2) ? 0 : inverseObjectPropertySelectionProbability);
+		Node node2;
+		if (var2 instanceof OWLNamedIndividual) {
+			prefixCheck(prefixName2PrefixMap, queryNsPrefixes, ((OWLNamedIndividual) var2).getIRI());
+			node2 = NodeFactory.createURI(((OWLNamedIndividual) var2).getIRI().getIRIString());
+		} else if (var2 instanceof Var)
+			node2 = (Var) var2;
+		else
+			throw new Exception("Object type of " + var2 + "is invalid!");
+		// The other direction of a property path is its inverse path
+		if (path != null)
+			return new TriplePath(var1, inverse ? invertPath(path) : path, node2);
+		return new TriplePath(
+				inverse ? new Triple(node2, oopImpl.getNode(), var1) : new Triple(var1, oopImpl.getNode(), node2));
+	}
+
+	/**
+	 * Generate a property path from the characteristics and the hierarchy of an
+	 * object property with the property path probability: p+ or p* if the
+	 * property is transitive, ^p if it is symmetric, ^q for an inverse property q,
+	 * or (p|p1|p2) over the property and its direct subproperties. Each path
+	 * matches the links of the property, as far as they are entailed.
+	 * 
+	 * @param oopImpl
+	 *            Object property.
+	 * @param queryNsPrefixes
+	 *            A map that maps prefix names to prefixes used by the query.
+	 * @return The property path; null if the property is linked by a triple
+	 *         pattern.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private Path generatePropertyPath(COWLObjectPropertyImpl oopImpl, Map<String, String> queryNsPrefixes)
+			throws Exception {
+		if (propertyPathProbability <= 0)
+			return null;
+		Path link = PathFactory.pathLink(oopImpl.getNode());
+		List<Path> paths = new ArrayList<>();
+		Set<AxiomType<? extends OWLAxiom>> attributes = oopImpl.getPropertyAttributes();
+		if (attributes.contains(AxiomType.TRANSITIVE_OBJECT_PROPERTY)) {
+			paths.add(PathFactory.pathOneOrMore1(link));
+			paths.add(PathFactory.pathZeroOrMore1(link));
+		}
+		if (attributes.contains(AxiomType.SYMMETRIC_OBJECT_PROPERTY))
+			paths.add(PathFactory.pathInverse(link));
+		for (COWLObjectPropertyImpl inverseProperty : sortByIRI(oopImpl.getInverseProperties()))
+			paths.add(PathFactory.pathInverse(PathFactory.pathLink(inverseProperty.getNode())));
+		List<COWLPropertyImpl> subProperties = sortByIRI(oopImpl.getDirectSubOWLProperties());
+		if (!subProperties.isEmpty()) {
+			Path alternative = link;
+			for (COWLPropertyImpl subProperty : subProperties)
+				alternative = PathFactory.pathAlt(alternative, PathFactory.pathLink(subProperty.getNode()));
+			paths.add(alternative);
+		}
+		if (!choosePropertyPath(!paths.isEmpty()))
+			return null;
+		Path path = getARandomElementFromList(paths);
+		List<Node> links = new ArrayList<>();
+		collectPathLinks(path, links);
+		for (Node node : links)
+			prefixCheck(prefixName2PrefixMap, queryNsPrefixes, IRI.create(node.getURI()));
+		return path;
+	}
+
+	/**
+	 * Make a random choice of generating a property path with the property path
+	 * probability. No choice is made unless property paths are generated, so
+	 * queries are not affected otherwise.
+	 * 
+	 * @param applicable
+	 *            True if a property path can be generated, false otherwise.
+	 * @return True if a property path is generated, false otherwise.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
+	 */
+	private boolean choosePropertyPath(boolean applicable) throws Exception {
+		return propertyPathProbability > 0 && applicable && randomBoolean(propertyPathProbability);
+	}
+
+	/**
+	 * Get the inverse of a property path, without a double inverse.
+	 * 
+	 * @param path
+	 *            Property path.
+	 * @return The inverse path.
+	 */
+	private static Path invertPath(Path path) {
+		if (path instanceof P_Inverse)
+			return ((P_Inverse) path).getSubPath();
+		return PathFactory.pathInverse(path);
+	}
+
+	/**
+	 * Collect the properties that a property path links.
+	 * 
+	 * @param path
+	 *            Property path.
+	 * @param links
+	 *            A list that the nodes of the properties are added to.
+	 */
+	private static void collectPathLinks(Path path, List<Node> links) {
+		if (path instanceof P_Link)
+			links.add(((P_Link) path).getNode());
+		else if (path instanceof P_Path1)
+			collectPathLinks(((P_Path1) path).getSubPath(), links);
+		else if (path instanceof P_Path2) {
+			collectPathLinks(((P_Path2) path).getLeft(), links);
+			collectPathLinks(((P_Path2) path).getRight(), links);
 		}
+	}
+
+	/**
+	 * Sort properties by their IRIs, so that generation does not depend on hash
+	 * orders.
+	 * 
+	 * @param <T>
+	 *            The class of the properties.
+	 * @param properties
+	 *            Properties.
+	 * @return The sorted properties.
+	 */
+	private static <T extends HasIRI> List<T> sortByIRI(Collection<T> properties) {
+		List<T> sorted = new ArrayList<>(properties);
+		sorted.sort((p1, p2) -> p1.getIRI().compareTo(p2.getIRI()));
+		return sorted;
+	}
 
-		throw new Exception("Object type of " + var2 + "is invalid!");
+	/**
+	 * Add a triple pattern or a property path to a graph pattern. Triple patterns
+	 * are added to a basic graph pattern, and property paths to a path block.
+	 * 
+	 * @param elg
+	 *            Graph pattern.
+	 * @param triplePath
+	 *            Triple pattern or property path.
+	 */
+	private static void addTriplePattern(ElementGroup elg, TriplePath triplePath) {
+		if (triplePath.isTriple()) {
+			elg.addTriplePattern(triplePath.asTriple());
+			return;
+		}
+		List<Element> elements = elg.getElements();
+		Element last = elements.isEmpty() ? null : elements.get(elements.size() - 1);
+		if (!(last instanceof ElementPathBlock)) {
+			last = new ElementPathBlock();
+			elg.addElement(last);
+		}
+		((ElementPathBlock) last).addTriplePath(triplePath);
 	}
 
 	/**
@@ -1132,8 +3612,10 @@ public class SPARQLQueryGenerator {
 	 *            True if support UNION key word, False otherwise.
 	 * @return A graph pattern that randomly joins all the specified graph patterns
 	 *         with the specified key words.
+	 * @throws Exception
+	 *             If the generation choices are not deterministic.
 	 */
-	private ElementGroup joinGraphPatterns(LinkedList<ElementGroup> list, boolean supportUnion) {
+	private ElementGroup joinGraphPatterns(LinkedList<ElementGroup> list, boolean supportUnion) throws Exception {
 		if (list == null)
 			return null;
 		if (list.isEmpty())
@@ -1150,36 +3632,36 @@ public class SPARQLQueryGenerator {
 
 		// list = list \ subList
 		LinkedList<ElementGroup> subList = new LinkedList<>();
-		int count = ran.nextInt(list.size() - 1) + 1;
+		int count = randomIndex(list.size() - 1) + 1;
 		while (count > 0) {
 			subList.offer(list.poll());
 			count--;
 		}
 		ElementGroup left = joinGraphPatterns(subList, supportUnion);
 		ElementGroup right = joinGraphPatterns(list, supportUnion);
-		double ranDouble = ran.nextDouble();
-		if (ranDouble < conjunctionGraphPatternProbability) {
+		// Without UNION, two graph patterns are joined with conjunction instead, and
+		// so are they once the nesting budget is spent
+		int joinType = 0;
+		if (budget.allowsNesting(left, right))
+			joinType = randomIndex(
+					conjunctionGraphPatternProbability + (supportUnion ? 0 : unionGraphPatternProbability),
+					supportUnion ? unionGraphPatternProbability : 0, optionalGraphPatternProbability);
+		if (joinType == 0) {
 			left.addElement(right);
 			return left;
-		} else if (ranDouble < conjunctionGraphPatternProbability + unionGraphPatternProbability) {
-			if (supportUnion) {
-				ElementGroup group = new ElementGroup();
-				ElementUnion union = new ElementUnion(left);
-				union.addElement(right);
-				group.addElement(union);
-				return group;
-			} else {
-				left.addElement(right);
-				return left;
-			}
-		} else if (ranDouble < conjunctionGraphPatternProbability + unionGraphPatternProbability
-				+ optionalGraphPatternProbability) {
+		} else if (joinType == 1) {
+			ElementGroup group = new ElementGroup();
+			ElementUnion union = new ElementUnion(left);
+			union.addElement(right);
+			group.addElement(union);
+			return group;
+		} else if (joinType == 2) {
 			left.addElement(new ElementOptional(right));
 			return left;
 		} else {
 			// Join two graph patterns (left, right) with negation with random type (FILTER
 			// EXISTS, FILTER NOT EXISTS or MINUS)
-			count = ran.nextInt(3);
+			count = randomIndex(3);
 			switch (count) {
 			case 0:
 				// left.addElement(new ElementNotExists(right));
@@ -1242,22 +3724,39 @@ public class SPARQLQueryGenerator {
 	 *            Directory of the output queries
 	 * @param queryID
 	 *            Query number.
+	 * @throws IOException
+	 *             If the query cannot be written.
 	 */
-	public void dumpIntoFile(Query query, File outputDirectory, int queryID) {
+	public void dumpIntoFile(Query query, File outputDirectory, int queryID) throws IOException {
 		/*
 		 * try { query.serialize(new IndentedWriter(new
 		 * FileOutputStream(sparqlQueryFile), false), Syntax.syntaxSPARQL_11); } catch
 		 * (FileNotFoundException e) { e.printStackTrace(); }
 		 */
-		try {
-			if (query == null || outputDirectory == null)
-				throw new IOException();
-			File sparqlQueryFile = new File(outputDirectory, "query" + queryID + ".rq");
-			FileUtils.writeStringToFile(sparqlQueryFile, query.serialize(Syntax.syntaxSPARQL_11),
-					StandardCharsets.UTF_8);
-		} catch (IOException e) {
-			logger.error("There was an error while dumping into file.", e);
-		}
+		dumpIntoFile(query == null ? null : query.serialize(Syntax.syntaxSPARQL_11), outputDirectory, queryID);
+	}
+
+	/**
+	 * This function dumps a serialized SPARQL query with specified query ID and
+	 * directory into file.
+	 * 
+	 * @param queryString
+	 *            Serialized SPARQL query.
+	 * @param outputDirectory
+	 *            Directory of the output queries
+	 * @param queryID
+	 *            Query number.
+	 * @throws IOException
+	 *             If the query cannot be written, which stops query generation
+	 *             instead of leaving a gap in the output.
+	 */
+	private void dumpIntoFile(String queryString, File outputDirectory, int queryID) throws IOException {
+		if (queryString == null || outputDirectory == null)
+			throw new IOException("No query or output directory for query " + queryID);
+		File sparqlQueryFile = new File(outputDirectory, "query" + queryID + ".rq");
+		FileUtils.writeStringToFile(sparqlQueryFile, queryString, StandardCharsets.UTF_8);
+		if (checkpointInterval > 0)
+			unsyncedQueryFiles.add(sparqlQueryFile);
 	}
 
 	/**
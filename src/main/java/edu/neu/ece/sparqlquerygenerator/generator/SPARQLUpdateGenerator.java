@@ -0,0 +1,494 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.modify.request.QuadAcc;
+import org.apache.jena.sparql.modify.request.QuadDataAcc;
+import org.apache.jena.sparql.modify.request.UpdateDataDelete;
+import org.apache.jena.sparql.modify.request.UpdateDataInsert;
+import org.apache.jena.sparql.modify.request.UpdateDeleteWhere;
+import org.apache.jena.sparql.modify.request.UpdateModify;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.update.Update;
+import org.apache.jena.update.UpdateRequest;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.XSD;
+import org.semanticweb.owlapi.model.HasIRI;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.neu.ece.sparqlquerygenerator.entity.COWLClassImpl;
+import edu.neu.ece.sparqlquerygenerator.utility.MathUtil;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSource;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSourceType;
+
+/**
+ * This class generates SPARQL updates from the same class and property model as
+ * the SPARQL query generator, e.g. for write-path benchmarking. Updates are
+ * schema-valid: INSERT DATA registers a new individual of a named class with a
+ * value for each data property and a link to a named individual for each object
+ * property of the class, DELETE DATA removes the individual registered by an
+ * earlier update, DELETE WHERE removes the values of a property of a named
+ * individual, and DELETE/INSERT WHERE replaces them with a new value. The update
+ * with update ID i only depends on the base seed and i, so updates can be
+ * regenerated independently of each other.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class SPARQLUpdateGenerator {
+
+	/**
+	 * Kinds of the generated updates.
+	 */
+	private enum Kind {
+
+		/**
+		 * INSERT DATA of a new individual.
+		 */
+		INSERT_DATA("insert data"),
+
+		/**
+		 * DELETE DATA of an individual inserted by an earlier update.
+		 */
+		DELETE_DATA("delete data"),
+
+		/**
+		 * DELETE WHERE over a property of a named individual.
+		 */
+		DELETE_WHERE("delete where"),
+
+		/**
+		 * DELETE/INSERT WHERE that replaces the values of a property.
+		 */
+		MODIFY("delete/insert where");
+
+		/**
+		 * Name of the kind in logs.
+		 */
+		private final String name;
+
+		/**
+		 * Constructor
+		 *
+		 * @param name
+		 *            Name of the kind in logs.
+		 */
+		Kind(String name) {
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Logger class, used for generating log file and debugging info on console.
+	 */
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	/**
+	 * The maximum length of generated string values.
+	 */
+	private static final int MAX_STRING_LENGTH = 16;
+
+	/**
+	 * Base seed that the random stream of each update is derived from.
+	 */
+	private final long seed;
+
+	/**
+	 * Random source, re-seeded for each update.
+	 */
+	private final RandomSource ran;
+
+	/**
+	 * A map that maps OWL classes to their customized classes.
+	 */
+	private final Map<OWLClass, COWLClassImpl> classMap;
+
+	/**
+	 * Named classes under the root class that individuals are inserted into,
+	 * ordered by IRI.
+	 */
+	private final List<COWLClassImpl> classes = new ArrayList<>();
+
+	/**
+	 * Named classes under the root class that have named individuals and
+	 * properties, ordered by IRI.
+	 */
+	private final List<COWLClassImpl> classesWithIndividuals = new ArrayList<>();
+
+	/**
+	 * Namespace of the ontology, used as prefix of the updates; null if the
+	 * ontology has no default prefix.
+	 */
+	private final String namespace;
+
+	/**
+	 * The number of generated updates of each kind.
+	 */
+	private final int[] kindCounts = new int[Kind.values().length];
+
+	/**
+	 * Constructor
+	 *
+	 * @param rootClass
+	 *            The root class, under which updates are generated.
+	 * @param classMap
+	 *            A map that maps OWL classes to their customized classes.
+	 * @param seed
+	 *            Base random seed.
+	 * @param randomSourceType
+	 *            Type of the random source.
+	 * @param namespace
+	 *            Namespace of the ontology; null if the ontology has no default
+	 *            prefix.
+	 */
+	public SPARQLUpdateGenerator(COWLClassImpl rootClass, Map<OWLClass, COWLClassImpl> classMap, long seed,
+			RandomSourceType randomSourceType, String namespace) {
+		this.classMap = classMap;
+		// The stream of the updates is separate from the streams of the queries
+		this.seed = MathUtil.deriveSeed(seed, -2);
+		this.ran = randomSourceType.create(this.seed);
+		this.namespace = namespace;
+		for (COWLClassImpl cls : rootClass.getSubClassesAndItself()) {
+			IRI iri = cls.getIRI();
+			if (iri.isThing() || iri.isNothing())
+				continue;
+			classes.add(cls);
+			if (!cls.getNamedIndividuals().isEmpty()
+					&& (!cls.getDataPropertyRangesPairs().isEmpty() || !cls.getObjectPropertyRangesPairs().isEmpty()))
+				classesWithIndividuals.add(cls);
+		}
+		classes.sort((c1, c2) -> c1.getIRI().compareTo(c2.getIRI()));
+		classesWithIndividuals.sort((c1, c2) -> c1.getIRI().compareTo(c2.getIRI()));
+	}
+
+	/**
+	 * Generate the SPARQL update with the specified update ID. Updates that do not
+	 * apply, e.g. DELETE DATA before any INSERT DATA, are generated as INSERT DATA
+	 * instead.
+	 *
+	 * @param updateID
+	 *            Update ID.
+	 * @return The SPARQL update; null if the root class has no named subclass.
+	 * @throws Exception
+	 *             If update generation fails.
+	 */
+	public UpdateRequest generateSPARQLUpdate(int updateID) throws Exception {
+		if (classes.isEmpty())
+			return null;
+		Update update = null;
+		Kind kind = drawKind(updateID);
+		switch (kind) {
+		case DELETE_DATA:
+			update = generateDeleteData(updateID);
+			break;
+		case DELETE_WHERE:
+			update = generateDeleteWhere();
+			break;
+		case MODIFY:
+			update = generateModify();
+			break;
+		default:
+			break;
+		}
+		if (update == null) {
+			kind = Kind.INSERT_DATA;
+			update = new UpdateDataInsert(generateInsertedTriples(updateID));
+		}
+		kindCounts[kind.ordinal()]++;
+		UpdateRequest request = new UpdateRequest();
+		if (namespace != null)
+			request.setPrefix("ObjectDescription", namespace);
+		request.setPrefix("xsd", XSD.getURI());
+		request.add(update);
+		return request;
+	}
+
+	/**
+	 * Log the number of generated updates of each kind.
+	 */
+	public void logSummary() {
+		StringBuilder sb = new StringBuilder("SPARQL updates per kind are ");
+		for (Kind kind : Kind.values())
+			sb.append(kind.name + ": " + kindCounts[kind.ordinal()] + (kind.ordinal() + 1 < kindCounts.length ? ", " : "."));
+		logger.info(sb.toString());
+	}
+
+	/**
+	 * Draw the kind of an update, which is the first choice of its random stream.
+	 *
+	 * @param updateID
+	 *            Update ID.
+	 * @return The kind of the update, before updates that do not apply fall back
+	 *         to INSERT DATA.
+	 */
+	private Kind drawKind(int updateID) {
+		ran.setSeed(MathUtil.deriveSeed(seed, updateID));
+		return Kind.values()[ran.nextInt(Kind.values().length)];
+	}
+
+	/**
+	 * Generate the triples of the individual inserted by an INSERT DATA update:
+	 * its class assertion, a value for each data property of the class whose
+	 * range is a supported datatype, and a link to a random named individual for
+	 * each object property of the class whose range is a named class with named
+	 * individuals. The triples are drawn from a random stream of their own, so
+	 * that a later DELETE DATA update regenerates them.
+	 *
+	 * @param updateID
+	 *            ID of the INSERT DATA update.
+	 * @return The inserted triples.
+	 * @throws Exception
+	 *             If random values cannot be generated.
+	 */
+	private QuadDataAcc generateInsertedTriples(int updateID) throws Exception {
+		ran.setSeed(MathUtil.deriveSeed(seed, -1 - (long) updateID));
+		COWLClassImpl cls = classes.get(ran.nextInt(classes.size()));
+		Node individual = NodeFactory
+				.createURI(cls.getIRI().getNamespace() + cls.getIRI().getShortForm() + "_update" + updateID);
+		QuadDataAcc triples = new QuadDataAcc();
+		triples.addTriple(new Triple(individual, RDF.Nodes.type, cls.getNode()));
+		for (Entry<OWLDataProperty, OWLDataRange> entry : getSortedDataPropertyRangesPairs(cls)) {
+			Node value = generateDataValue(entry.getValue());
+			if (value != null)
+				triples.addTriple(new Triple(individual, getNode(entry.getKey()), value));
+		}
+		for (Entry<OWLObjectProperty, OWLClassExpression> entry : getSortedObjectPropertyRangesPairs(cls)) {
+			List<OWLNamedIndividual> individuals = getRangeIndividuals(entry.getValue());
+			if (!individuals.isEmpty())
+				triples.addTriple(new Triple(individual, getNode(entry.getKey()),
+						getNode(individuals.get(ran.nextInt(individuals.size())))));
+		}
+		return triples;
+	}
+
+	/**
+	 * Generate a DELETE DATA update that removes the individual inserted by the
+	 * nearest INSERT DATA update at or before a random earlier update.
+	 *
+	 * @param updateID
+	 *            Update ID.
+	 * @return The update; null if no earlier update is an INSERT DATA update.
+	 * @throws Exception
+	 *             If random values cannot be generated.
+	 */
+	private Update generateDeleteData(int updateID) throws Exception {
+		if (updateID == 0)
+			return null;
+		int insertID = ran.nextInt(updateID);
+		while (insertID >= 0 && drawKind(insertID) != Kind.INSERT_DATA)
+			insertID--;
+		if (insertID < 0)
+			return null;
+		return new UpdateDataDelete(generateInsertedTriples(insertID));
+	}
+
+	/**
+	 * Generate a DELETE WHERE update that removes the values of a random property
+	 * of a random named individual.
+	 *
+	 * @return The update; null if no class has named individuals and properties.
+	 * @throws Exception
+	 *             If random values cannot be generated.
+	 */
+	private Update generateDeleteWhere() throws Exception {
+		if (classesWithIndividuals.isEmpty())
+			return null;
+		COWLClassImpl cls = classesWithIndividuals.get(ran.nextInt(classesWithIndividuals.size()));
+		LinkedList<OWLNamedIndividual> individuals = cls.getNamedIndividuals();
+		Node individual = getNode(individuals.get(ran.nextInt(individuals.size())));
+		List<Node> properties = new ArrayList<>();
+		for (Entry<OWLDataProperty, OWLDataRange> entry : getSortedDataPropertyRangesPairs(cls))
+			properties.add(getNode(entry.getKey()));
+		for (Entry<OWLObjectProperty, OWLClassExpression> entry : getSortedObjectPropertyRangesPairs(cls))
+			properties.add(getNode(entry.getKey()));
+		QuadAcc pattern = new QuadAcc();
+		pattern.addTriple(
+				new Triple(individual, properties.get(ran.nextInt(properties.size())), Var.alloc("value")));
+		return new UpdateDeleteWhere(pattern);
+	}
+
+	/**
+	 * Generate a DELETE/INSERT WHERE update that replaces the values of a random
+	 * property of a random named class with a new value: a data value, or a link
+	 * to a named individual of the range. The values of a random named individual
+	 * of the class are replaced if it has any, and the values of all the
+	 * instances of the class otherwise.
+	 *
+	 * @return The update; null if no property of the selected class gets a new
+	 *         value.
+	 * @throws Exception
+	 *             If random values cannot be generated.
+	 */
+	private Update generateModify() throws Exception {
+		COWLClassImpl cls = classes.get(ran.nextInt(classes.size()));
+		List<Node> properties = new ArrayList<>();
+		List<Node> values = new ArrayList<>();
+		for (Entry<OWLDataProperty, OWLDataRange> entry : getSortedDataPropertyRangesPairs(cls)) {
+			Node value = generateDataValue(entry.getValue());
+			if (value != null) {
+				properties.add(getNode(entry.getKey()));
+				values.add(value);
+			}
+		}
+		for (Entry<OWLObjectProperty, OWLClassExpression> entry : getSortedObjectPropertyRangesPairs(cls)) {
+			List<OWLNamedIndividual> individuals = getRangeIndividuals(entry.getValue());
+			if (!individuals.isEmpty()) {
+				properties.add(getNode(entry.getKey()));
+				values.add(getNode(individuals.get(ran.nextInt(individuals.size()))));
+			}
+		}
+		if (properties.isEmpty())
+			return null;
+		int index = ran.nextInt(properties.size());
+		Node property = properties.get(index);
+		Var oldValue = Var.alloc("oldValue");
+		LinkedList<OWLNamedIndividual> individuals = cls.getNamedIndividuals();
+		ElementGroup where = new ElementGroup();
+		Node subject;
+		if (!individuals.isEmpty() && ran.nextBoolean())
+			subject = getNode(individuals.get(ran.nextInt(individuals.size())));
+		else {
+			// Characters such as "-" and "." of the short form are not allowed in variable names
+			subject = Var.alloc(cls.getIRI().getShortForm().replaceAll("[^A-Za-z0-9_]", "_"));
+			where.addTriplePattern(new Triple(subject, RDF.Nodes.type, cls.getNode()));
+		}
+		where.addTriplePattern(new Triple(subject, property, oldValue));
+		UpdateModify modify = new UpdateModify();
+		modify.getDeleteAcc().addTriple(new Triple(subject, property, oldValue));
+		modify.getInsertAcc().addTriple(new Triple(subject, property, values.get(index)));
+		modify.setHasDeleteClause(true);
+		modify.setHasInsertClause(true);
+		modify.setElement(where);
+		return modify;
+	}
+
+	/**
+	 * Generate a random value of a data range.
+	 *
+	 * @param range
+	 *            Data range.
+	 * @return The value as a literal node; null if the data range is not a
+	 *         supported built-in datatype.
+	 * @throws Exception
+	 *             If random values cannot be generated.
+	 */
+	private Node generateDataValue(OWLDataRange range) throws Exception {
+		if (!range.isOWLDatatype() || !range.asOWLDatatype().isBuiltIn())
+			return null;
+		OWL2Datatype d2t = range.asOWLDatatype().getBuiltInDatatype();
+		switch (d2t) {
+		case XSD_BOOLEAN:
+			return NodeFactory.createLiteral(String.valueOf(ran.nextBoolean()), XSDDatatype.XSDboolean);
+		case XSD_DECIMAL:
+			return NodeFactory.createLiteral(MathUtil.getRandomDecimalInString(-100, 100, ran),
+					XSDDatatype.XSDdecimal);
+		case XSD_DOUBLE:
+			return NodeFactory.createLiteral(String.valueOf(MathUtil.getRandomDoubleInRange(-100, 100, ran)),
+					XSDDatatype.XSDdouble);
+		case XSD_FLOAT:
+			return NodeFactory.createLiteral(String.valueOf(MathUtil.getRandomFloatInRange(-100, 100, ran)),
+					XSDDatatype.XSDfloat);
+		case XSD_INT:
+			return NodeFactory.createLiteral(String.valueOf(MathUtil.getRandomIntegerInRange(-100, 100, ran)),
+					XSDDatatype.XSDint);
+		case XSD_INTEGER:
+			return NodeFactory.createLiteral(String.valueOf(MathUtil.getRandomIntegerInRange(-100, 100, ran)),
+					XSDDatatype.XSDinteger);
+		case XSD_NON_NEGATIVE_INTEGER:
+			return NodeFactory.createLiteral(String.valueOf(MathUtil.getRandomIntegerInRange(0, 100, ran)),
+					XSDDatatype.XSDnonNegativeInteger);
+		case XSD_POSITIVE_INTEGER:
+			return NodeFactory.createLiteral(String.valueOf(MathUtil.getRandomIntegerInRange(1, 100, ran)),
+					XSDDatatype.XSDpositiveInteger);
+		case XSD_STRING:
+			return NodeFactory.createLiteral(MathUtil.getRandomString(1, MAX_STRING_LENGTH, ran),
+					XSDDatatype.XSDstring);
+		case RDF_LANG_STRING:
+			return NodeFactory.createLiteral(MathUtil.getRandomString(1, MAX_STRING_LENGTH, ran), "en");
+		case XSD_DATE_TIME:
+			// A time in 2000-2030 in UTC, to the second
+			return NodeFactory.createLiteral(
+					Instant.ofEpochSecond(MathUtil.getRandomLongInRange(946684800L, 1893456000L, ran))
+							.toString(),
+					XSDDatatype.XSDdateTime);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Get the named individuals of the range of an object property.
+	 *
+	 * @param range
+	 *            Range of the object property.
+	 * @return The named individuals; empty if the range is not a named class.
+	 */
+	private List<OWLNamedIndividual> getRangeIndividuals(OWLClassExpression range) {
+		if (range.isAnonymous() || range.isOWLThing() || range.isOWLNothing())
+			return new ArrayList<>();
+		COWLClassImpl rangeImpl = classMap.get(range.asOWLClass());
+		return rangeImpl == null ? new ArrayList<>() : rangeImpl.getNamedIndividuals();
+	}
+
+	/**
+	 * Get the data property-range pairs of a named class, ordered by property, so
+	 * that generation does not depend on hash orders.
+	 *
+	 * @param cls
+	 *            Named class.
+	 * @return The ordered pairs.
+	 */
+	private static List<Entry<OWLDataProperty, OWLDataRange>> getSortedDataPropertyRangesPairs(COWLClassImpl cls) {
+		List<Entry<OWLDataProperty, OWLDataRange>> pairs = new ArrayList<>(
+				cls.getDataPropertyRangesPairs().entrySet());
+		pairs.sort((p1, p2) -> p1.getKey().compareTo(p2.getKey()));
+		return pairs;
+	}
+
+	/**
+	 * Get the object property-range pairs of a named class, ordered by property,
+	 * so that generation does not depend on hash orders.
+	 *
+	 * @param cls
+	 *            Named class.
+	 * @return The ordered pairs.
+	 */
+	private static List<Entry<OWLObjectProperty, OWLClassExpression>> getSortedObjectPropertyRangesPairs(
+			COWLClassImpl cls) {
+		List<Entry<OWLObjectProperty, OWLClassExpression>> pairs = new ArrayList<>(
+				cls.getObjectPropertyRangesPairs().entrySet());
+		pairs.sort((p1, p2) -> p1.getKey().compareTo(p2.getKey()));
+		return pairs;
+	}
+
+	/**
+	 * Get node representation of an OWL entity.
+	 *
+	 * @param entity
+	 *            OWL entity with an IRI.
+	 * @return The node.
+	 */
+	private static Node getNode(HasIRI entity) {
+		return NodeFactory.createURI(entity.getIRI().getIRIString());
+	}
+}
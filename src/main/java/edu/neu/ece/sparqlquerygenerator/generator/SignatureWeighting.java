@@ -0,0 +1,26 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * This interface defines a weighting of the random choices of the SPARQL query
+ * generator. A choice of class, property or class restriction is weighted by
+ * its signature, i.e. the named classes and properties it refers to.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public interface SignatureWeighting {
+
+	/**
+	 * Get the weight of a choice.
+	 *
+	 * @param signature
+	 *            IRIs of the named classes and properties the choice refers to.
+	 * @return A positive weight of the choice.
+	 */
+	double getWeight(Set<IRI> signature);
+}
@@ -0,0 +1,339 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.sparql.core.TriplePath;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.core.VarExprList;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.binding.BindingMap;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprFunctionOp;
+import org.apache.jena.sparql.expr.ExprVar;
+import org.apache.jena.sparql.graph.NodeTransform;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementData;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementMinus;
+import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementSubQuery;
+import org.apache.jena.sparql.syntax.ElementTriplesBlock;
+import org.apache.jena.sparql.syntax.ElementUnion;
+import org.apache.jena.sparql.syntax.syntaxtransform.ElementTransform;
+import org.apache.jena.sparql.syntax.syntaxtransform.ElementTransformSubst;
+import org.apache.jena.sparql.syntax.syntaxtransform.ElementTransformer;
+import org.apache.jena.sparql.syntax.syntaxtransform.ExprTransformNodeElement;
+
+import edu.neu.ece.sparqlquerygenerator.entity.COWLClassImpl;
+
+/**
+ * This class keeps a pool of pre-generated graph patterns per named class, from
+ * which queries are composed in pool mode instead of being generated from
+ * scratch. The variables of a pooled graph pattern are re-bound whenever it is
+ * reused, so that several graph patterns of the pool can be joined in the same
+ * query. Diversity is traded for throughput: the pool size and the rate at
+ * which used graph patterns are replaced with freshly generated ones control
+ * how much the composed queries vary.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class SubPatternPool {
+
+	/**
+	 * A pre-generated graph pattern of a named class.
+	 */
+	static final class Entry {
+
+		/**
+		 * The graph pattern, which must not be modified.
+		 */
+		final ElementGroup pattern;
+
+		/**
+		 * The variable that binds to individuals of the named class.
+		 */
+		final Var rootVariable;
+
+		/**
+		 * Variables of the graph pattern other than the root variable.
+		 */
+		final Set<Var> variables = new HashSet<>();
+
+		/**
+		 * A map that maps prefix names to prefixes used by the graph pattern.
+		 */
+		final Map<String, String> queryNsPrefixes;
+
+		/**
+		 * Constructor
+		 *
+		 * @param pattern
+		 *            The graph pattern.
+		 * @param rootVariable
+		 *            The variable that binds to individuals of the named class.
+		 * @param queryNsPrefixes
+		 *            A map that maps prefix names to prefixes used by the graph
+		 *            pattern.
+		 */
+		Entry(ElementGroup pattern, Var rootVariable, Map<String, String> queryNsPrefixes) {
+			this.pattern = pattern;
+			this.rootVariable = rootVariable;
+			this.queryNsPrefixes = queryNsPrefixes;
+			collectVariables(pattern, variables);
+			variables.remove(rootVariable);
+		}
+	}
+
+	/**
+	 * The number of graph patterns per named class.
+	 */
+	private final int poolSize;
+
+	/**
+	 * The probability that a used graph pattern is replaced with a freshly
+	 * generated one.
+	 */
+	private final double refreshRate;
+
+	/**
+	 * Container that maps named classes to their pooled graph patterns.
+	 */
+	private final Map<COWLClassImpl, List<Entry>> entries = new HashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param poolSize
+	 *            The number of graph patterns per named class.
+	 * @param refreshRate
+	 *            The probability that a used graph pattern is replaced with a
+	 *            freshly generated one.
+	 */
+	SubPatternPool(int poolSize, double refreshRate) {
+		this.poolSize = poolSize;
+		this.refreshRate = refreshRate;
+	}
+
+	/**
+	 * Get the number of graph patterns per named class.
+	 *
+	 * @return The pool size.
+	 */
+	int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * Get the probability that a used graph pattern is replaced with a freshly
+	 * generated one.
+	 *
+	 * @return The refresh rate.
+	 */
+	double getRefreshRate() {
+		return refreshRate;
+	}
+
+	/**
+	 * Get the pooled graph patterns of a named class.
+	 *
+	 * @param cls
+	 *            Named class.
+	 * @return The graph patterns, which can be replaced in place; null if the
+	 *         pool of the class is not filled yet.
+	 */
+	List<Entry> getEntries(COWLClassImpl cls) {
+		return entries.get(cls);
+	}
+
+	/**
+	 * Set the pooled graph patterns of a named class.
+	 *
+	 * @param cls
+	 *            Named class.
+	 * @param classEntries
+	 *            The graph patterns.
+	 */
+	void putEntries(COWLClassImpl cls, List<Entry> classEntries) {
+		entries.put(cls, classEntries);
+	}
+
+	/**
+	 * Re-bind the variables of a pooled graph pattern: the root variable is bound
+	 * to the given variable, and the other variables are renamed with the given
+	 * suffix so that they do not clash with those of other graph patterns of the
+	 * same query. The pooled graph pattern is not modified.
+	 *
+	 * @param entry
+	 *            The pooled graph pattern.
+	 * @param variable
+	 *            The variable that the root variable is bound to.
+	 * @param suffix
+	 *            Suffix of the renamed variables; 0 if they are not renamed.
+	 * @return A graph pattern whose top level can be modified.
+	 */
+	static ElementGroup rebind(Entry entry, Var variable, int suffix) {
+		Map<Var, Node> substitution = new HashMap<>();
+		if (!variable.equals(entry.rootVariable))
+			substitution.put(entry.rootVariable, variable);
+		if (suffix > 0)
+			for (Var var : entry.variables)
+				substitution.put(var, Var.alloc(var.getVarName() + "_" + suffix));
+		Element element = entry.pattern;
+		if (!substitution.isEmpty()) {
+			NodeTransform nodeTransform = node -> substitution.getOrDefault(node, node);
+			ElementTransform elementTransform = new RebindTransform(substitution);
+			element = ElementTransformer.transform(element, elementTransform,
+					new ExprTransformNodeElement(nodeTransform, elementTransform));
+		}
+		// Joining graph patterns adds to the top level, which must not be shared
+		ElementGroup elg = new ElementGroup();
+		for (Element sub : ((ElementGroup) element).getElements())
+			elg.addElement(sub);
+		return elg;
+	}
+
+	/**
+	 * Element transform that also renames the variables of VALUES blocks and the
+	 * variables projected by subqueries, which {@link ElementTransformSubst}
+	 * leaves as they are, or binds back to the old names.
+	 */
+	private static final class RebindTransform extends ElementTransformSubst {
+
+		/**
+		 * Container that maps variables to their new names.
+		 */
+		private final Map<Var, Node> substitution;
+
+		/**
+		 * Constructor
+		 *
+		 * @param substitution
+		 *            Container that maps variables to their new names.
+		 */
+		RebindTransform(Map<Var, Node> substitution) {
+			super(substitution);
+			this.substitution = substitution;
+		}
+
+		/**
+		 * Get the new name of a variable.
+		 *
+		 * @param var
+		 *            Variable.
+		 * @return The renamed variable, or the variable if it is not renamed.
+		 */
+		private Var rename(Var var) {
+			return (Var) substitution.getOrDefault(var, var);
+		}
+
+		@Override
+		public Element transform(ElementData el) {
+			ElementData data = new ElementData();
+			for (Var var : el.getVars())
+				data.add(rename(var));
+			for (Binding row : el.getRows()) {
+				BindingMap binding = BindingFactory.create();
+				for (Iterator<Var> it = row.vars(); it.hasNext();) {
+					Var var = it.next();
+					binding.add(rename(var), row.get(var));
+				}
+				data.add(binding);
+			}
+			return data;
+		}
+
+		@Override
+		public Element transform(ElementGroup el, List<Element> members) {
+			// Subqueries are transformed without calling the element transform: their
+			// patterns are renamed, but their projections bind the renamed variables
+			// back to the old names, e.g. (?x_1 AS ?x)
+			for (Element member : members)
+				if (member instanceof ElementSubQuery)
+					renameProjection(((ElementSubQuery) member).getQuery().getProject());
+			return super.transform(el, members);
+		}
+
+		/**
+		 * Rename the projected variables of a transformed subquery.
+		 *
+		 * @param project
+		 *            The projection of the transformed subquery, which is not
+		 *            shared with the pooled graph pattern.
+		 */
+		private void renameProjection(VarExprList project) {
+			List<Var> vars = new ArrayList<>(project.getVars());
+			Map<Var, Expr> exprs = new HashMap<>(project.getExprs());
+			project.clear();
+			for (Var var : vars) {
+				Expr expr = exprs.get(var);
+				if (expr == null || expr instanceof ExprVar && ((ExprVar) expr).asVar().equals(rename(var)))
+					project.add(rename(var));
+				else
+					project.add(rename(var), expr);
+			}
+		}
+	}
+
+	/**
+	 * Collect the variables of the triple patterns, VALUES blocks and subqueries
+	 * of a graph pattern.
+	 *
+	 * @param element
+	 *            Graph pattern.
+	 * @param variables
+	 *            Set that the variables are added to.
+	 */
+	private static void collectVariables(Element element, Set<Var> variables) {
+		if (element instanceof ElementTriplesBlock) {
+			for (Triple triple : ((ElementTriplesBlock) element).getPattern()) {
+				if (triple.getSubject().isVariable())
+					variables.add(Var.alloc(triple.getSubject()));
+				if (triple.getObject().isVariable())
+					variables.add(Var.alloc(triple.getObject()));
+			}
+		} else if (element instanceof ElementPathBlock) {
+			for (TriplePath triplePath : ((ElementPathBlock) element).getPattern()) {
+				if (triplePath.getSubject().isVariable())
+					variables.add(Var.alloc(triplePath.getSubject()));
+				if (triplePath.getObject().isVariable())
+					variables.add(Var.alloc(triplePath.getObject()));
+			}
+		} else if (element instanceof ElementGroup) {
+			for (Element sub : ((ElementGroup) element).getElements())
+				collectVariables(sub, variables);
+		} else if (element instanceof ElementUnion) {
+			for (Element sub : ((ElementUnion) element).getElements())
+				collectVariables(sub, variables);
+		} else if (element instanceof ElementOptional)
+			collectVariables(((ElementOptional) element).getOptionalElement(), variables);
+		else if (element instanceof ElementMinus)
+			collectVariables(((ElementMinus) element).getMinusElement(), variables);
+		else if (element instanceof ElementData)
+			variables.addAll(((ElementData) element).getVars());
+		else if (element instanceof ElementSubQuery) {
+			Query subquery = ((ElementSubQuery) element).getQuery();
+			variables.addAll(subquery.getProjectVars());
+			collectVariables(subquery.getQueryPattern(), variables);
+		}
+		else if (element instanceof ElementFilter) {
+			// FILTER EXISTS and FILTER NOT EXISTS
+			Expr expr = ((ElementFilter) element).getExpr();
+			if (expr instanceof ExprFunctionOp)
+				collectVariables(((ExprFunctionOp) expr).getElement(), variables);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+/**
+ * Orders of the triple patterns inside each basic graph pattern of the
+ * generated queries, e.g. to measure how much the join-order optimizer of a
+ * SPARQL engine recovers from a bad syntactic order. Only the order inside a
+ * basic graph pattern changes, so the semantics of the queries are preserved.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public enum TriplePatternOrder {
+
+	/**
+	 * The order in which the triple patterns are generated.
+	 */
+	GENERATED("generated"),
+
+	/**
+	 * Least selective triple patterns first, by their estimated matches in the
+	 * dataset.
+	 */
+	WORST("worst"),
+
+	/**
+	 * Most selective triple patterns first, by their estimated matches in the
+	 * dataset.
+	 */
+	BEST("best"),
+
+	/**
+	 * A random order per basic graph pattern, drawn from the random stream of the
+	 * query.
+	 */
+	RANDOM("random");
+
+	/**
+	 * Name of the order on console.
+	 */
+	private final String name;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name
+	 *            Name of the order on console.
+	 */
+	TriplePatternOrder(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get name of the order on console.
+	 *
+	 * @return Name of the order.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Check if the order is estimated from dataset statistics.
+	 *
+	 * @return True if the order is worst-case or best-case, false otherwise.
+	 */
+	public boolean requiresStatistics() {
+		return this == WORST || this == BEST;
+	}
+
+	/**
+	 * Get the order with the specified name.
+	 *
+	 * @param name
+	 *            Name of the order on console.
+	 * @return The order.
+	 * @throws IllegalArgumentException
+	 *             If there is no order with the name.
+	 */
+	public static TriplePatternOrder fromName(String name) {
+		for (TriplePatternOrder order : values())
+			if (order.name.equalsIgnoreCase(name))
+				return order;
+		throw new IllegalArgumentException("Unknown triple pattern order: " + name);
+	}
+}
@@ -0,0 +1,153 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.core.TriplePath;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementTriplesBlock;
+import org.apache.jena.sparql.syntax.syntaxtransform.ElementTransformCopyBase;
+import org.apache.jena.sparql.syntax.syntaxtransform.ElementTransformer;
+import org.apache.jena.sparql.syntax.syntaxtransform.ExprTransformApplyElementTransform;
+
+import edu.neu.ece.sparqlquerygenerator.statistics.DatasetStatistics;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSource;
+
+/**
+ * This class reorders the triple patterns inside each basic graph pattern of a
+ * graph pattern, including those of nested groups and of FILTER EXISTS and
+ * FILTER NOT EXISTS. Reordered blocks and the groups that contain them are
+ * copied, so graph patterns shared with other queries, e.g. pooled graph
+ * patterns or the parents of mutants, are not modified. Sorts are stable, so
+ * triple patterns with the same estimate keep the order in which they are
+ * generated.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class TriplePatternReorderer extends ElementTransformCopyBase {
+
+	/**
+	 * The order of the triple patterns.
+	 */
+	private final TriplePatternOrder order;
+
+	/**
+	 * Statistics that the selectivity of triple patterns is estimated from; null
+	 * unless the order requires them.
+	 */
+	private final DatasetStatistics statistics;
+
+	/**
+	 * Random source of the query, used for random orders.
+	 */
+	private final RandomSource ran;
+
+	/**
+	 * True if a random order of two or more triple patterns has been drawn.
+	 */
+	private boolean randomOrderDrawn = false;
+
+	/**
+	 * Constructor
+	 *
+	 * @param order
+	 *            The order of the triple patterns.
+	 * @param statistics
+	 *            Statistics that the selectivity of triple patterns is estimated
+	 *            from.
+	 * @param ran
+	 *            Random source of the query.
+	 */
+	TriplePatternReorderer(TriplePatternOrder order, DatasetStatistics statistics, RandomSource ran) {
+		this.order = order;
+		this.statistics = statistics;
+		this.ran = ran;
+	}
+
+	/**
+	 * Reorder the triple patterns of a graph pattern.
+	 *
+	 * @param element
+	 *            Graph pattern, which is not modified.
+	 * @return The reordered graph pattern.
+	 */
+	Element reorder(Element element) {
+		if (order == TriplePatternOrder.GENERATED)
+			return element;
+		return ElementTransformer.transform(element, this, new ExprTransformApplyElementTransform(this));
+	}
+
+	/**
+	 * Check whether a random order of two or more triple patterns has been drawn,
+	 * in which case the reordered graph pattern is not determined by the
+	 * generation choices of the query.
+	 *
+	 * @return True if a random order has been drawn, false otherwise.
+	 */
+	boolean isRandomOrderDrawn() {
+		return randomOrderDrawn;
+	}
+
+	@Override
+	public Element transform(ElementTriplesBlock el) {
+		List<Triple> triples = reorder(el.getPattern().getList(), triple -> statistics.estimateMatches(triple));
+		ElementTriplesBlock block = new ElementTriplesBlock();
+		for (Triple triple : triples)
+			block.addTriple(triple);
+		return block;
+	}
+
+	@Override
+	public Element transform(ElementPathBlock el) {
+		// A property path is estimated to match as many triples as a variable
+		// predicate
+		List<TriplePath> triplePaths = reorder(el.getPattern().getList(),
+				triplePath -> triplePath.isTriple() ? statistics.estimateMatches(triplePath.asTriple())
+						: statistics.getTripleCount());
+		ElementPathBlock block = new ElementPathBlock();
+		for (TriplePath triplePath : triplePaths)
+			block.addTriplePath(triplePath);
+		return block;
+	}
+
+	/**
+	 * Reorder the triple patterns of a basic graph pattern.
+	 *
+	 * @param <T>
+	 *            Triple or TriplePath.
+	 * @param list
+	 *            Triple patterns in the order in which they are generated, which
+	 *            is not modified.
+	 * @param estimator
+	 *            Estimator of the matches of a triple pattern.
+	 * @return The reordered triple patterns.
+	 */
+	private <T> List<T> reorder(List<T> list, ToDoubleFunction<T> estimator) {
+		List<T> reordered = new ArrayList<>(list);
+		if (reordered.size() < 2)
+			return reordered;
+		switch (order) {
+		case WORST:
+			reordered.sort(Comparator.comparingDouble(estimator).reversed());
+			break;
+		case BEST:
+			reordered.sort(Comparator.comparingDouble(estimator));
+			break;
+		case RANDOM:
+			randomOrderDrawn = true;
+			for (int i = reordered.size() - 1; i > 0; i--)
+				Collections.swap(reordered, i, ran.nextInt(i + 1));
+			break;
+		default:
+			break;
+		}
+		return reordered;
+	}
+}
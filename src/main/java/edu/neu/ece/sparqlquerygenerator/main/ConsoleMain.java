@@ -6,6 +6,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
@@ -18,7 +20,12 @@ import org.semanticweb.owlapi.model.IRI;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.neu.ece.sparqlquerygenerator.evaluator.DistributionController;
 import edu.neu.ece.sparqlquerygenerator.main.Controller;
+import edu.neu.ece.sparqlquerygenerator.generator.JoinShape;
+import edu.neu.ece.sparqlquerygenerator.generator.SPARQLQueryGenerator;
+import edu.neu.ece.sparqlquerygenerator.generator.TriplePatternOrder;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSourceType;
 
 /**
  * Main class, entry to the program.
@@ -69,10 +76,135 @@ public class ConsoleMain {
 	 */
 	private static final String RAM_SEED = "ramSeed";
 
+	/**
+	 * Random source option name on console.
+	 */
+	private static final String RANDOM_SOURCE = "rng";
+
+	/**
+	 * Coverage weight option name on console.
+	 */
+	private static final String COVERAGE_WEIGHT = "coverageWeight";
+
+	/**
+	 * Convergence tolerance option name on console.
+	 */
+	private static final String CONVERGENCE_TOLERANCE = "convergenceTolerance";
+
+	/**
+	 * Target keyword rates option name on console.
+	 */
+	private static final String TARGET_KEYWORD_RATES = "targetKeywordRates";
+
+	/**
+	 * Target triple patterns option name on console.
+	 */
+	private static final String TARGET_TRIPLE_PATTERNS = "targetTriplePatterns";
+
+	/**
+	 * Target join type rates option name on console.
+	 */
+	private static final String TARGET_JOIN_TYPE_RATES = "targetJoinTypeRates";
+
+	/**
+	 * Target tolerance option name on console.
+	 */
+	private static final String TARGET_TOLERANCE = "targetTolerance";
+
+	/**
+	 * Query ID option name on console.
+	 */
+	private static final String QUERY_ID = "queryId";
+
 	/**
 	 * Distinct query option name on console.
 	 */
 	private static final String DISTINCT_OPTION_NAME = "d";
+
+	/**
+	 * Maximum retries option name on console.
+	 */
+	private static final String MAX_RETRIES = "maxRetries";
+
+	/**
+	 * Enumeration option name on console.
+	 */
+	private static final String ENUMERATE_OPTION_NAME = "enumerate";
+
+	/**
+	 * Shuffled enumeration option name on console.
+	 */
+	private static final String SHUFFLE_OPTION_NAME = "shuffle";
+
+	/**
+	 * Pool size option name on console.
+	 */
+	private static final String POOL_SIZE = "poolSize";
+
+	/**
+	 * Pool refresh rate option name on console.
+	 */
+	private static final String POOL_REFRESH_RATE = "poolRefreshRate";
+
+	/**
+	 * Join shape option name on console.
+	 */
+	private static final String SHAPE = "shape";
+
+	/**
+	 * Join shape size option name on console.
+	 */
+	private static final String SHAPE_SIZE = "shapeSize";
+
+	/**
+	 * Mutation seed number option name on console.
+	 */
+	private static final String MUTATE = "mutate";
+
+	/**
+	 * Triple pattern order option name on console.
+	 */
+	private static final String TRIPLE_PATTERN_ORDER = "triplePatternOrder";
+
+	/**
+	 * Extend existing queries option name on console.
+	 */
+	private static final String EXTEND_OPTION_NAME = "extend";
+
+	/**
+	 * Evaluation checkpoints option name on console.
+	 */
+	private static final String EVALUATION_CHECKPOINTS = "evaluationCheckpoints";
+
+	/**
+	 * Resume option name on console.
+	 */
+	private static final String RESUME_OPTION_NAME = "resume";
+
+	/**
+	 * Checkpoint interval option name on console.
+	 */
+	private static final String CHECKPOINT_INTERVAL = "checkpointInterval";
+
+	/**
+	 * Maximum depth option name on console.
+	 */
+	private static final String MAX_DEPTH = "maxDepth";
+
+	/**
+	 * Maximum triple patterns option name on console.
+	 */
+	private static final String MAX_TRIPLE_PATTERNS = "maxTriplePatterns";
+
+	/**
+	 * Maximum filters option name on console.
+	 */
+	private static final String MAX_FILTERS = "maxFilters";
+
+	/**
+	 * Maximum nesting option name on console.
+	 */
+	private static final String MAX_NESTING = "maxNesting";
 	
 	/**
 	 * Output directory option name on console.
@@ -139,6 +271,96 @@ public class ConsoleMain {
 	 */
 	private static final String NEGATION_GRAPH_PATTERN_PROBABILITY = "negationGraphPatternProbability";
 
+	/**
+	 * Aggregate probability option name on console.
+	 */
+	private static final String AGGREGATE_PROBABILITY = "aggregateProbability";
+
+	/**
+	 * Group by probability option name on console.
+	 */
+	private static final String GROUP_BY_PROBABILITY = "groupByProbability";
+
+	/**
+	 * Order by probability option name on console.
+	 */
+	private static final String ORDER_BY_PROBABILITY = "orderByProbability";
+
+	/**
+	 * Limit probability option name on console.
+	 */
+	private static final String LIMIT_PROBABILITY = "limitProbability";
+
+	/**
+	 * Offset probability option name on console.
+	 */
+	private static final String OFFSET_PROBABILITY = "offsetProbability";
+
+	/**
+	 * Property path probability option name on console.
+	 */
+	private static final String PROPERTY_PATH_PROBABILITY = "propertyPathProbability";
+
+	/**
+	 * Text filter option name on console.
+	 */
+	private static final String TEXT_FILTERS_OPTION_NAME = "textFilters";
+
+	/**
+	 * Filter selectivity option name on console.
+	 */
+	private static final String FILTER_SELECTIVITY = "filterSelectivity";
+
+	/**
+	 * Minimum estimated results option name on console.
+	 */
+	private static final String MIN_ESTIMATED_RESULTS = "minEstimatedResults";
+
+	/**
+	 * Maximum estimated results option name on console.
+	 */
+	private static final String MAX_ESTIMATED_RESULTS = "maxEstimatedResults";
+
+	/**
+	 * Minimum results option name on console.
+	 */
+	private static final String MIN_RESULTS = "minResults";
+
+	/**
+	 * Maximum results option name on console.
+	 */
+	private static final String MAX_RESULTS = "maxResults";
+
+	/**
+	 * Execution timeout option name on console.
+	 */
+	private static final String EXECUTION_TIMEOUT = "executionTimeout";
+
+	/**
+	 * Maximum executions option name on console.
+	 */
+	private static final String MAX_EXECUTIONS = "maxExecutions";
+
+	/**
+	 * Subquery probability option name on console.
+	 */
+	private static final String SUBQUERY_PROBABILITY = "subqueryProbability";
+
+	/**
+	 * VALUES probability option name on console.
+	 */
+	private static final String VALUES_PROBABILITY = "valuesProbability";
+
+	/**
+	 * VALUES batch size option name on console.
+	 */
+	private static final String VALUES_BATCH_SIZE = "valuesBatchSize";
+
+	/**
+	 * Update ratio option name on console.
+	 */
+	private static final String UPDATE_RATIO = "updateRatio";
+
 	// Static block
 	static {
 		PropertyConfigurator.configure(CONFIG_PATH + "log4j.properties");
@@ -224,7 +446,7 @@ public class ConsoleMain {
 		}
 
 		if (line.hasOption(RAM_SEED)) {
-			int ramSeed = Integer.parseInt(line.getOptionValue(RAM_SEED));
+			long ramSeed = Long.parseLong(line.getOptionValue(RAM_SEED));
 			logger.info(RAM_SEED + " = " + ramSeed);
 			builder.setSeed(ramSeed);
 		}
@@ -233,6 +455,305 @@ public class ConsoleMain {
 			logger.info("Distinct queries supported");
 			builder.supportDistinct();			
 		}
+
+		if (line.hasOption(MAX_RETRIES)) {
+			int maxRetries = Integer.parseInt(line.getOptionValue(MAX_RETRIES));
+			if (maxRetries <= 0) {
+				logger.error("Maximum retries must be a positive number.");
+				System.exit(1);
+			}
+			logger.info(MAX_RETRIES + " = " + maxRetries);
+			builder.setMaxRetries(maxRetries);
+		}
+
+		if (line.hasOption(RANDOM_SOURCE)) {
+			String randomSource = line.getOptionValue(RANDOM_SOURCE);
+			RandomSourceType randomSourceType = null;
+			try {
+				randomSourceType = RandomSourceType.fromName(randomSource);
+			} catch (IllegalArgumentException e) {
+				logger.error("Random source must be one of jdk, splitmix and xoshiro.");
+				System.exit(1);
+			}
+			logger.info(RANDOM_SOURCE + " = " + randomSource);
+			builder.setRandomSourceType(randomSourceType);
+		}
+
+		if (line.hasOption(COVERAGE_WEIGHT)) {
+			double coverageWeight = Double.parseDouble(line.getOptionValue(COVERAGE_WEIGHT));
+			if (coverageWeight < 0.0) {
+				logger.error("Coverage weight must be a non-negative number.");
+				System.exit(1);
+			}
+			logger.info(COVERAGE_WEIGHT + " = " + coverageWeight);
+			builder.coverageGuided(coverageWeight);
+		}
+
+		if (line.hasOption(CONVERGENCE_TOLERANCE)) {
+			double convergenceTolerance = Double.parseDouble(line.getOptionValue(CONVERGENCE_TOLERANCE));
+			if (convergenceTolerance <= 0.0 || convergenceTolerance > 1.0) {
+				logger.error("Convergence tolerance is out of range (0, 1].");
+				System.exit(1);
+			}
+			logger.info(CONVERGENCE_TOLERANCE + " = " + convergenceTolerance);
+			builder.stopOnConvergence(convergenceTolerance);
+		}
+
+		if (line.hasOption(TARGET_KEYWORD_RATES)) {
+			String rates = line.getOptionValue(TARGET_KEYWORD_RATES);
+			Map<DistributionController.Keyword, Double> targetKeywordRates = new HashMap<>();
+			for (String rate : rates.split(",")) {
+				String[] keywordRatePair = rate.split("=");
+				if (keywordRatePair.length != 2) {
+					logger.error("Incorrect format for target keyword rates.");
+					System.exit(1);
+				}
+				DistributionController.Keyword keyword = null;
+				try {
+					keyword = DistributionController.Keyword.valueOf(keywordRatePair[0].trim().toUpperCase());
+				} catch (IllegalArgumentException e) {
+					logger.error("Target keyword must be one of FILTER, OPTIONAL and UNION.");
+					System.exit(1);
+				}
+				double targetRate = Double.parseDouble(keywordRatePair[1].trim());
+				if (targetRate < 0.0 || targetRate > 1.0) {
+					logger.error("Target keyword rate is out of range [0, 1].");
+					System.exit(1);
+				}
+				targetKeywordRates.put(keyword, targetRate);
+			}
+			logger.info(TARGET_KEYWORD_RATES + " = " + rates);
+			builder.setTargetKeywordRates(targetKeywordRates);
+		}
+
+		if (line.hasOption(TARGET_TRIPLE_PATTERNS)) {
+			double targetTriplePatterns = Double.parseDouble(line.getOptionValue(TARGET_TRIPLE_PATTERNS));
+			if (targetTriplePatterns < 1.0) {
+				logger.error("Target number of triple patterns must be at least 1.");
+				System.exit(1);
+			}
+			logger.info(TARGET_TRIPLE_PATTERNS + " = " + targetTriplePatterns);
+			builder.setTargetTriplePatterns(targetTriplePatterns);
+		}
+
+		if (line.hasOption(TARGET_JOIN_TYPE_RATES)) {
+			String rates = line.getOptionValue(TARGET_JOIN_TYPE_RATES);
+			Map<DistributionController.JoinType, Double> targetJoinTypeRates = new HashMap<>();
+			for (String rate : rates.split(",")) {
+				String[] joinTypeRatePair = rate.split("=");
+				if (joinTypeRatePair.length != 2) {
+					logger.error("Incorrect format for target join type rates.");
+					System.exit(1);
+				}
+				DistributionController.JoinType joinType = null;
+				try {
+					joinType = DistributionController.JoinType.valueOf(joinTypeRatePair[0].trim().toUpperCase());
+				} catch (IllegalArgumentException e) {
+					logger.error("Target join type must be one of SS and PP.");
+					System.exit(1);
+				}
+				double targetRate = Double.parseDouble(joinTypeRatePair[1].trim());
+				if (targetRate < 0.0 || targetRate > 1.0) {
+					logger.error("Target join type rate is out of range [0, 1].");
+					System.exit(1);
+				}
+				targetJoinTypeRates.put(joinType, targetRate);
+			}
+			logger.info(TARGET_JOIN_TYPE_RATES + " = " + rates);
+			builder.setTargetJoinTypeRates(targetJoinTypeRates);
+		}
+
+		if (line.hasOption(TARGET_TOLERANCE)) {
+			double targetTolerance = Double.parseDouble(line.getOptionValue(TARGET_TOLERANCE));
+			if (targetTolerance < 0.0 || targetTolerance > 1.0) {
+				logger.error("Target tolerance is out of range [0, 1].");
+				System.exit(1);
+			}
+			logger.info(TARGET_TOLERANCE + " = " + targetTolerance);
+			builder.setTargetTolerance(targetTolerance);
+		}
+
+		if (line.hasOption(QUERY_ID)) {
+			int queryID = Integer.parseInt(line.getOptionValue(QUERY_ID));
+			if (queryID < 0) {
+				logger.error("Query ID must be a non-negative number.");
+				System.exit(1);
+			}
+			logger.info(QUERY_ID + " = " + queryID);
+			if (line.hasOption(COVERAGE_WEIGHT) || line.hasOption(TARGET_KEYWORD_RATES)
+					|| line.hasOption(TARGET_TRIPLE_PATTERNS) || line.hasOption(TARGET_JOIN_TYPE_RATES))
+				logger.warn("Coverage guidance and target distributions are ignored; the regenerated query is the query with the query ID without them.");
+			if (line.hasOption(DISTINCT_OPTION_NAME))
+				logger.warn("Distinct queries are ignored; the regenerated query is the query with the query ID in non-distinct mode.");
+			if (line.hasOption(MIN_RESULTS) || line.hasOption(MAX_RESULTS))
+				logger.warn("The result band is ignored; the regenerated query is the query with the query ID without execution feedback, which may differ from the query generated with the band.");
+			builder.setQueryID(queryID);
+		}
+
+		if (line.hasOption(EXTEND_OPTION_NAME)) {
+			logger.info("Existing queries in the output directory are reused");
+			builder.extendExistingQueries();
+		}
+
+		if (line.hasOption(RESUME_OPTION_NAME)) {
+			logger.info("Query generation is resumed from the generation checkpoint");
+			builder.resume();
+		}
+
+		if (line.hasOption(CHECKPOINT_INTERVAL)) {
+			int checkpointInterval = Integer.parseInt(line.getOptionValue(CHECKPOINT_INTERVAL));
+			if (checkpointInterval < 0) {
+				logger.error("Checkpoint interval must be a non-negative number.");
+				System.exit(1);
+			}
+			logger.info(CHECKPOINT_INTERVAL + " = " + checkpointInterval);
+			builder.setCheckpointInterval(checkpointInterval);
+		}
+
+		if (line.hasOption(ENUMERATE_OPTION_NAME)) {
+			if (line.hasOption(EXTEND_OPTION_NAME) || line.hasOption(RESUME_OPTION_NAME)
+					|| line.hasOption(QUERY_ID)) {
+				logger.error("Enumeration cannot be combined with -extend, -resume or -queryId.");
+				System.exit(1);
+			}
+			if (line.hasOption(CHECKPOINT_INTERVAL))
+				logger.warn("Generation checkpoints are not saved in enumeration mode.");
+			if (line.hasOption(COVERAGE_WEIGHT))
+				logger.warn("Coverage guidance is ignored in enumeration mode.");
+			logger.info("Queries are enumerated" + (line.hasOption(SHUFFLE_OPTION_NAME) ? " in shuffled order" : ""));
+			builder.enumerate(line.hasOption(SHUFFLE_OPTION_NAME));
+		} else if (line.hasOption(SHUFFLE_OPTION_NAME))
+			logger.warn("-shuffle is ignored without -enumerate.");
+
+		if (line.hasOption(POOL_SIZE)) {
+			int poolSize = Integer.parseInt(line.getOptionValue(POOL_SIZE));
+			if (poolSize <= 0) {
+				logger.error("Pool size must be a positive number.");
+				System.exit(1);
+			}
+			if (line.hasOption(ENUMERATE_OPTION_NAME) || line.hasOption(RESUME_OPTION_NAME)
+					|| line.hasOption(QUERY_ID)) {
+				logger.error("Pool mode cannot be combined with -enumerate, -resume or -queryId.");
+				System.exit(1);
+			}
+			double poolRefreshRate = 0;
+			if (line.hasOption(POOL_REFRESH_RATE)) {
+				poolRefreshRate = Double.parseDouble(line.getOptionValue(POOL_REFRESH_RATE));
+				if (poolRefreshRate < 0.0 || poolRefreshRate > 1.0) {
+					logger.error("Pool refresh rate is out of range [0, 1].");
+					System.exit(1);
+				}
+			}
+			logger.info(POOL_SIZE + " = " + poolSize + ", " + POOL_REFRESH_RATE + " = " + poolRefreshRate);
+			builder.usePatternPool(poolSize, poolRefreshRate);
+		} else if (line.hasOption(POOL_REFRESH_RATE))
+			logger.warn("-poolRefreshRate is ignored without -poolSize.");
+
+		if (line.hasOption(MUTATE)) {
+			int mutationSeedNumber = Integer.parseInt(line.getOptionValue(MUTATE));
+			if (mutationSeedNumber <= 0) {
+				logger.error("Number of mutation seed queries must be a positive number.");
+				System.exit(1);
+			}
+			if (line.hasOption(ENUMERATE_OPTION_NAME) || line.hasOption(POOL_SIZE) || line.hasOption(QUERY_ID)) {
+				logger.error("Mutation mode cannot be combined with -enumerate, -poolSize or -queryId.");
+				System.exit(1);
+			}
+			logger.info(MUTATE + " = " + mutationSeedNumber);
+			builder.mutate(mutationSeedNumber);
+		}
+
+		if (line.hasOption(SHAPE)) {
+			String shapeName = line.getOptionValue(SHAPE);
+			JoinShape joinShape = null;
+			try {
+				joinShape = JoinShape.fromName(shapeName);
+			} catch (IllegalArgumentException e) {
+				logger.error(e.getMessage());
+				System.exit(1);
+			}
+			int joinShapeSize = 5;
+			if (line.hasOption(SHAPE_SIZE)) {
+				joinShapeSize = Integer.parseInt(line.getOptionValue(SHAPE_SIZE));
+				if (joinShapeSize <= 0) {
+					logger.error("Join shape size must be a positive number.");
+					System.exit(1);
+				}
+			}
+			if (line.hasOption(ENUMERATE_OPTION_NAME) || line.hasOption(POOL_SIZE) || line.hasOption(MUTATE)) {
+				logger.error("Shape-directed generation cannot be combined with -enumerate, -poolSize or -mutate.");
+				System.exit(1);
+			}
+			logger.info(SHAPE + " = " + shapeName + ", " + SHAPE_SIZE + " = " + joinShapeSize);
+			builder.setJoinShape(joinShape, joinShapeSize);
+		} else if (line.hasOption(SHAPE_SIZE))
+			logger.warn("-shapeSize is ignored without -shape.");
+
+		if (line.hasOption(TRIPLE_PATTERN_ORDER)) {
+			String orderName = line.getOptionValue(TRIPLE_PATTERN_ORDER);
+			TriplePatternOrder triplePatternOrder = null;
+			try {
+				triplePatternOrder = TriplePatternOrder.fromName(orderName);
+			} catch (IllegalArgumentException e) {
+				logger.error(e.getMessage());
+				System.exit(1);
+			}
+			logger.info(TRIPLE_PATTERN_ORDER + " = " + orderName);
+			builder.setTriplePatternOrder(triplePatternOrder);
+		}
+
+		if (line.hasOption(EVALUATION_CHECKPOINTS)) {
+			String checkpoints = line.getOptionValue(EVALUATION_CHECKPOINTS);
+			Set<Integer> evaluationCheckpoints = new TreeSet<>();
+			for (String checkpoint : checkpoints.split(",")) {
+				int queryCount = Integer.parseInt(checkpoint.trim());
+				if (queryCount <= 0) {
+					logger.error("Evaluation checkpoint must be a positive number.");
+					System.exit(1);
+				}
+				if (queryCount > queryNumber)
+					logger.warn("Evaluation checkpoint " + queryCount + " exceeds the number of queries and is ignored.");
+				else
+					evaluationCheckpoints.add(queryCount);
+			}
+			logger.info(EVALUATION_CHECKPOINTS + " = " + evaluationCheckpoints);
+			builder.setEvaluationCheckpoints(evaluationCheckpoints);
+		}
+
+		int maxDepth = SPARQLQueryGenerator.DEFAULT_MAX_DEPTH, maxTriplePatterns = 0, maxFilters = 0, maxNesting = 0;
+		if (line.hasOption(MAX_DEPTH)) {
+			maxDepth = Integer.parseInt(line.getOptionValue(MAX_DEPTH));
+			if (maxDepth < 0) {
+				logger.error("Maximum depth must be a non-negative number.");
+				System.exit(1);
+			}
+			logger.info(MAX_DEPTH + " = " + maxDepth);
+		}
+		if (line.hasOption(MAX_TRIPLE_PATTERNS)) {
+			maxTriplePatterns = Integer.parseInt(line.getOptionValue(MAX_TRIPLE_PATTERNS));
+			if (maxTriplePatterns < 0) {
+				logger.error("Maximum number of triple patterns must be a non-negative number.");
+				System.exit(1);
+			}
+			logger.info(MAX_TRIPLE_PATTERNS + " = " + maxTriplePatterns);
+		}
+		if (line.hasOption(MAX_FILTERS)) {
+			maxFilters = Integer.parseInt(line.getOptionValue(MAX_FILTERS));
+			if (maxFilters < 0) {
+				logger.error("Maximum number of filters must be a non-negative number.");
+				System.exit(1);
+			}
+			logger.info(MAX_FILTERS + " = " + maxFilters);
+		}
+		if (line.hasOption(MAX_NESTING)) {
+			maxNesting = Integer.parseInt(line.getOptionValue(MAX_NESTING));
+			if (maxNesting < 0) {
+				logger.error("Maximum nesting must be a non-negative number.");
+				System.exit(1);
+			}
+			logger.info(MAX_NESTING + " = " + maxNesting);
+		}
+		builder.setBudgets(maxDepth, maxTriplePatterns, maxFilters, maxNesting);
 		
 		if (line.hasOption(OUTPUT_DIRECTORY_PATH)) {
 			File outputDirectory = new File(line.getOptionValue(OUTPUT_DIRECTORY_PATH));
@@ -379,7 +900,170 @@ public class ConsoleMain {
 		builder.setGraphPatternProbability(conjunctionGraphPatternProbablity, optionalGraphPatternProbability,
 				unionGraphPatternProbability);
 
-		builder.build().generateSPARQLQueries();
+		double aggregateProbability = 0;
+		double groupByProbability = 0;
+		double orderByProbability = 0;
+		double limitProbability = 0;
+		double offsetProbability = 0;
+		if (line.hasOption(AGGREGATE_PROBABILITY)) {
+			aggregateProbability = Double.parseDouble(line.getOptionValue(AGGREGATE_PROBABILITY));
+			if (aggregateProbability < 0.0 || aggregateProbability > 1.0) {
+				logger.error("Aggregate probability is out of range [0, 1]");
+				System.exit(1);
+			}
+		}
+		if (line.hasOption(GROUP_BY_PROBABILITY)) {
+			groupByProbability = Double.parseDouble(line.getOptionValue(GROUP_BY_PROBABILITY));
+			if (groupByProbability < 0.0 || groupByProbability > 1.0) {
+				logger.error("Group by probability is out of range [0, 1]");
+				System.exit(1);
+			}
+		}
+		if (line.hasOption(ORDER_BY_PROBABILITY)) {
+			orderByProbability = Double.parseDouble(line.getOptionValue(ORDER_BY_PROBABILITY));
+			if (orderByProbability < 0.0 || orderByProbability > 1.0) {
+				logger.error("Order by probability is out of range [0, 1]");
+				System.exit(1);
+			}
+		}
+		if (line.hasOption(LIMIT_PROBABILITY)) {
+			limitProbability = Double.parseDouble(line.getOptionValue(LIMIT_PROBABILITY));
+			if (limitProbability < 0.0 || limitProbability > 1.0) {
+				logger.error("Limit probability is out of range [0, 1]");
+				System.exit(1);
+			}
+		}
+		if (line.hasOption(OFFSET_PROBABILITY)) {
+			offsetProbability = Double.parseDouble(line.getOptionValue(OFFSET_PROBABILITY));
+			if (offsetProbability < 0.0 || offsetProbability > 1.0) {
+				logger.error("Offset probability is out of range [0, 1]");
+				System.exit(1);
+			}
+		}
+		logger.info(
+				AGGREGATE_PROBABILITY + " = {}; " + GROUP_BY_PROBABILITY + " = {}; " + ORDER_BY_PROBABILITY + " = {}; "
+						+ LIMIT_PROBABILITY + " = {}; " + OFFSET_PROBABILITY + " = {}",
+				aggregateProbability, groupByProbability, orderByProbability, limitProbability, offsetProbability);
+		builder.setSolutionModifierProbability(aggregateProbability, groupByProbability, orderByProbability,
+				limitProbability, offsetProbability);
+
+		if (line.hasOption(PROPERTY_PATH_PROBABILITY)) {
+			double propertyPathProbability = Double.parseDouble(line.getOptionValue(PROPERTY_PATH_PROBABILITY));
+			if (propertyPathProbability < 0.0 || propertyPathProbability > 1.0) {
+				logger.error("Property path probability is out of range [0, 1]");
+				System.exit(1);
+			}
+			logger.info(PROPERTY_PATH_PROBABILITY + " = {}", propertyPathProbability);
+			builder.setPropertyPathProbability(propertyPathProbability);
+		}
+
+		if (line.hasOption(TEXT_FILTERS_OPTION_NAME)) {
+			logger.info("Text and date-time filters are sampled from the dataset");
+			builder.enableTextFilters();
+		}
+
+		if (line.hasOption(FILTER_SELECTIVITY)) {
+			String[] band = line.getOptionValue(FILTER_SELECTIVITY).split(",");
+			double minSelectivity = Double.parseDouble(band[0].trim());
+			double maxSelectivity = band.length > 1 ? Double.parseDouble(band[1].trim()) : minSelectivity;
+			if (band.length > 2 || minSelectivity < 0.0 || maxSelectivity > 1.0 || minSelectivity > maxSelectivity) {
+				logger.error("Filter selectivity must be a band MIN,MAX with 0 <= MIN <= MAX <= 1");
+				System.exit(1);
+			}
+			logger.info(FILTER_SELECTIVITY + " = [{}, {}]", minSelectivity, maxSelectivity);
+			builder.setFilterSelectivity(minSelectivity, maxSelectivity);
+		}
+
+		if (line.hasOption(MIN_ESTIMATED_RESULTS) || line.hasOption(MAX_ESTIMATED_RESULTS)) {
+			double minEstimatedResults = Double.parseDouble(line.getOptionValue(MIN_ESTIMATED_RESULTS, "0"));
+			double maxEstimatedResults = line.hasOption(MAX_ESTIMATED_RESULTS)
+					? Double.parseDouble(line.getOptionValue(MAX_ESTIMATED_RESULTS))
+					: Double.POSITIVE_INFINITY;
+			if (minEstimatedResults < 0.0 || minEstimatedResults > maxEstimatedResults) {
+				logger.error("Estimated results must be a band with 0 <= " + MIN_ESTIMATED_RESULTS + " <= "
+						+ MAX_ESTIMATED_RESULTS);
+				System.exit(1);
+			}
+			logger.info("estimatedResults = [{}, {}]", minEstimatedResults, maxEstimatedResults);
+			builder.setEstimatedResults(minEstimatedResults, maxEstimatedResults);
+		}
+
+		if (line.hasOption(MIN_RESULTS) || line.hasOption(MAX_RESULTS)) {
+			long minResults = Long.parseLong(line.getOptionValue(MIN_RESULTS, "0"));
+			long maxResults = line.hasOption(MAX_RESULTS) ? Long.parseLong(line.getOptionValue(MAX_RESULTS))
+					: Long.MAX_VALUE - 1;
+			if (minResults < 0 || minResults > maxResults) {
+				logger.error("Results must be a band with 0 <= " + MIN_RESULTS + " <= " + MAX_RESULTS);
+				System.exit(1);
+			}
+			logger.info("results = [{}, {}]", minResults, maxResults);
+			builder.setResults(minResults, maxResults);
+		}
+
+		if (line.hasOption(EXECUTION_TIMEOUT)) {
+			long executionTimeout = Long.parseLong(line.getOptionValue(EXECUTION_TIMEOUT));
+			if (executionTimeout <= 0) {
+				logger.error("Execution timeout must be positive");
+				System.exit(1);
+			}
+			logger.info(EXECUTION_TIMEOUT + " = " + executionTimeout);
+			builder.setExecutionTimeout(executionTimeout);
+		}
+
+		if (line.hasOption(MAX_EXECUTIONS)) {
+			int maxExecutions = Integer.parseInt(line.getOptionValue(MAX_EXECUTIONS));
+			if (maxExecutions <= 0) {
+				logger.error("Maximum executions must be positive");
+				System.exit(1);
+			}
+			logger.info(MAX_EXECUTIONS + " = " + maxExecutions);
+			builder.setMaxExecutions(maxExecutions);
+		}
+
+		if (line.hasOption(SUBQUERY_PROBABILITY)) {
+			double subqueryProbability = Double.parseDouble(line.getOptionValue(SUBQUERY_PROBABILITY));
+			if (subqueryProbability < 0.0 || subqueryProbability > 1.0) {
+				logger.error("Subquery probability is out of range [0, 1]");
+				System.exit(1);
+			}
+			logger.info(SUBQUERY_PROBABILITY + " = {}", subqueryProbability);
+			builder.setSubqueryProbability(subqueryProbability);
+		}
+
+		double valuesProbability = 0;
+		int valuesBatchSize = 10;
+		if (line.hasOption(VALUES_PROBABILITY)) {
+			valuesProbability = Double.parseDouble(line.getOptionValue(VALUES_PROBABILITY));
+			if (valuesProbability < 0.0 || valuesProbability > 1.0) {
+				logger.error("VALUES probability is out of range [0, 1]");
+				System.exit(1);
+			}
+		}
+		if (line.hasOption(VALUES_BATCH_SIZE)) {
+			valuesBatchSize = Integer.parseInt(line.getOptionValue(VALUES_BATCH_SIZE));
+			if (valuesBatchSize < 1) {
+				logger.error("VALUES batch size must be positive");
+				System.exit(1);
+			}
+		}
+		if (valuesProbability > 0) {
+			logger.info(VALUES_PROBABILITY + " = {}; " + VALUES_BATCH_SIZE + " = {}", valuesProbability,
+					valuesBatchSize);
+			builder.setValuesProbability(valuesProbability, valuesBatchSize);
+		}
+
+		if (line.hasOption(UPDATE_RATIO)) {
+			double updateRatio = Double.parseDouble(line.getOptionValue(UPDATE_RATIO));
+			if (updateRatio < 0.0 || updateRatio >= 1.0) {
+				logger.error("Update ratio is out of range [0, 1)");
+				System.exit(1);
+			}
+			logger.info(UPDATE_RATIO + " = {}", updateRatio);
+			builder.setUpdateRatio(updateRatio);
+		}
+
+		if (!builder.build().generateSPARQLQueries())
+			System.exit(1);
 	}
 
 	/**
@@ -408,7 +1092,79 @@ public class ConsoleMain {
 				.desc("Directory of the output queries; SPARQLqueries/ by default").build());
 		options.addOption(Option.builder(RAM_SEED).argName("SEED").hasArg()
 				.desc("Random seed used for random query generation; 0 by default").build());
+		options.addOption(Option.builder(RANDOM_SOURCE).argName("jdk|splitmix|xoshiro").hasArg().desc(
+				"Random source used for random query generation: java.util.Random, SplitMix64 or xoshiro256**; jdk by default")
+				.build());
+		options.addOption(Option.builder(COVERAGE_WEIGHT).argName("WEIGHT").hasArg().desc(
+				"Enable coverage-guided generation, where a choice of class, property or class restriction gets this additional weight (relative to 1) per named class or property it refers to that no generated query refers to yet; 0 (uniformly random choices) by default")
+				.build());
+		options.addOption(Option.builder(CONVERGENCE_TOLERANCE).argName("TOLERANCE").hasArg().desc(
+				"Stop generating queries once the half-widths of the 95% confidence intervals of the evaluation metrics are within the tolerance, e.g. 0.005; -queryNumber is the hard cap")
+				.build());
+		options.addOption(Option.builder(TARGET_KEYWORD_RATES).argName("KEYWORD1=RATE1,KEYWORD2=RATE2...").hasArg().desc(
+				"Target rates of queries that contain keywords FILTER, OPTIONAL and UNION, e.g. FILTER=0.5,UNION=0.2; the corresponding probabilities are adjusted online from the generated queries")
+				.build());
+		options.addOption(Option.builder(TARGET_TRIPLE_PATTERNS).argName("NUMBER").hasArg().desc(
+				"Target mean number of triple patterns per query, e.g. 6; the object property assertion probability is adjusted online from the generated queries")
+				.build());
+		options.addOption(Option.builder(TARGET_JOIN_TYPE_RATES).argName("JOINTYPE1=RATE1,JOINTYPE2=RATE2").hasArg().desc(
+				"Target rates of join types SS and PP among all joins, e.g. SS=0.5,PP=0.1; the data property and class assertion probabilities are adjusted online from the generated queries")
+				.build());
+		options.addOption(Option.builder(TARGET_TOLERANCE).argName("TOLERANCE").hasArg().desc(
+				"The tolerance of the difference between a target and the distribution of the generated queries, relative to the target number of triple patterns; 0.05 by default")
+				.build());
+		options.addOption(Option.builder(QUERY_ID).argName("ID").hasArg().desc(
+				"Regenerate only the query with the query ID (generated with the same seed and configuration), without generating the queries before it")
+				.build());
 		options.addOption(Option.builder(DISTINCT_OPTION_NAME).desc("Generate distinct queries").build());
+		options.addOption(Option.builder(MAX_RETRIES).argName("NUMBER").hasArg().desc(
+				"The maximum number of consecutive duplicate candidates of a query in distinct mode, after which the distinct query space is considered exhausted and generation stops; 10000 by default")
+				.build());
+		options.addOption(Option.builder(ENUMERATE_OPTION_NAME).desc(
+				"Enumerate distinct queries by walking the generation choices systematically in depth-first order instead of random choices, for small ontologies")
+				.build());
+		options.addOption(Option.builder(SHUFFLE_OPTION_NAME).desc(
+				"Enumerate the alternatives of each generation choice in a random order seeded by the random seed").build());
+		options.addOption(Option.builder(POOL_SIZE).argName("NUMBER").hasArg().desc(
+				"Compose queries from a pool of this number of pre-generated graph patterns per named class instead of generating them from scratch, for higher throughput at the cost of diversity")
+				.build());
+		options.addOption(Option.builder(POOL_REFRESH_RATE).argName("RATE").hasArg().desc(
+				"The probability that a used pooled graph pattern is replaced with a freshly generated one; 0 by default")
+				.build());
+		options.addOption(Option.builder(SHAPE).argName("star|chain|snowflake|cycle").hasArg().desc(
+				"Plan the join graph of object property assertions of each query in this shape first, and then fill it with schema-valid classes and properties")
+				.build());
+		options.addOption(Option.builder(SHAPE_SIZE).argName("NUMBER").hasArg().desc(
+				"The number of object property assertions of the join shape per query; 5 by default").build());
+		options.addOption(Option.builder(TRIPLE_PATTERN_ORDER).argName("generated|worst|best|random").hasArg().desc(
+				"Order of the triple patterns inside each basic graph pattern: as generated, least or most selective first by dataset statistics, or random; generated by default")
+				.build());
+		options.addOption(Option.builder(MUTATE).argName("NUMBER").hasArg().desc(
+				"Derive the queries after this number of seed queries by mutating random queries before them instead of generating them from scratch")
+				.build());
+		options.addOption(Option.builder(EXTEND_OPTION_NAME).desc(
+				"Reuse queries that already exist in the output directory (generated with the same seed and configuration) as the prefix, and only generate the remaining queries")
+				.build());
+		options.addOption(Option.builder(RESUME_OPTION_NAME).desc(
+				"Resume an interrupted query generation from the last generation checkpoint in the output directory (saved with the same seed and configuration)")
+				.build());
+		options.addOption(Option.builder(CHECKPOINT_INTERVAL).argName("NUMBER").hasArg().desc(
+				"The number of queries between two generation checkpoints saved in the output directory; 0 (no checkpoint) by default")
+				.build());
+		options.addOption(Option.builder(MAX_DEPTH).argName("NUMBER").hasArg().desc(
+				"The maximum depth of navigation through named classes along object properties and class restrictions per query, 0 if unlimited; "
+						+ SPARQLQueryGenerator.DEFAULT_MAX_DEPTH + " by default")
+				.build());
+		options.addOption(Option.builder(MAX_TRIPLE_PATTERNS).argName("NUMBER").hasArg().desc(
+				"The maximum number of triple patterns per query; 0 (unlimited) by default").build());
+		options.addOption(Option.builder(MAX_FILTERS).argName("NUMBER").hasArg()
+				.desc("The maximum number of filters per query; 0 (unlimited) by default").build());
+		options.addOption(Option.builder(MAX_NESTING).argName("NUMBER").hasArg().desc(
+				"The maximum nesting of UNION, OPTIONAL and negation (FILTER EXISTS/FILTER NOT EXISTS/MINUS) graph patterns per query; 0 (unlimited) by default")
+				.build());
+		options.addOption(Option.builder(EVALUATION_CHECKPOINTS).argName("NUMBER1,NUMBER2,NUMBER3...").hasArg().desc(
+				"The numbers of generated queries at which evaluation results are dumped into file, in addition to the end of query generation. Numbers are splitted by comma")
+				.build());
 		options.addOption(Option.builder(CLASS_CONSTRAINT_SELECTION_PROBABILITY).argName("PROBABILITY").hasArg().desc(
 				"The probability of selecting an OWL class constraint (anonymous super class expression/anonymous equivalent class expression/anonymous disjoint class expression) of an OWL named class; 0.9 by default")
 				.build());
@@ -444,6 +1200,48 @@ public class ConsoleMain {
 		options.addOption(Option.builder(NEGATION_GRAPH_PATTERN_PROBABILITY).argName("PROBABILITY").hasArg().desc(
 				"The probability of creating a negation graph pattern; 0.05 by default. Note that the sum of four types of graph patterns (conjunction, optional, union and negation) MUST be 1.")
 				.build());
+		options.addOption(Option.builder(AGGREGATE_PROBABILITY).argName("PROBABILITY").hasArg()
+				.desc("The probability of turning a query into an aggregate query (COUNT, SUM, AVG, MIN or MAX over a bound data value); 0 by default").build());
+		options.addOption(Option.builder(GROUP_BY_PROBABILITY).argName("PROBABILITY").hasArg()
+				.desc("The probability that an aggregate query groups its solutions by the selected variable; 0 by default").build());
+		options.addOption(Option.builder(ORDER_BY_PROBABILITY).argName("PROBABILITY").hasArg()
+				.desc("The probability of ordering the solutions of a query by a bound data value, or of a grouped aggregate query by the aggregate; 0 by default").build());
+		options.addOption(Option.builder(LIMIT_PROBABILITY).argName("PROBABILITY").hasArg()
+				.desc("The probability of limiting the number of solutions of a query; 0 by default").build());
+		options.addOption(Option.builder(OFFSET_PROBABILITY).argName("PROBABILITY").hasArg()
+				.desc("The probability that a query with a limit pages through its solutions with an offset; 0 by default").build());
+		options.addOption(Option.builder(PROPERTY_PATH_PROBABILITY).argName("PROBABILITY").hasArg()
+				.desc("The probability of generating an object property assertion as a property path (p1/p2, p+, p*, ^p or p1|p2) derived from the ontology; 0 by default").build());
+		options.addOption(Option.builder(TEXT_FILTERS_OPTION_NAME).desc(
+				"Generate CONTAINS, STRSTARTS, REGEX and LANGMATCHES filters on string values and range filters on dateTime values, with tokens and bounds sampled from the values in the dataset")
+				.build());
+		options.addOption(Option.builder(FILTER_SELECTIVITY).argName("MIN,MAX").hasArg().desc(
+				"Draw the constants of numeric filters from an equi-depth histogram of the values of their data property, so that each filter keeps an estimated fraction of the values within [MIN, MAX]")
+				.build());
+		options.addOption(Option.builder(MIN_ESTIMATED_RESULTS).argName("NUMBER").hasArg().desc(
+				"Estimate the number of results of each query from the dataset statistics, and keep the queries estimated to return at least NUMBER results; 0 by default")
+				.build());
+		options.addOption(Option.builder(MAX_ESTIMATED_RESULTS).argName("NUMBER").hasArg().desc(
+				"Estimate the number of results of each query from the dataset statistics, and keep the queries estimated to return at most NUMBER results; unbounded by default")
+				.build());
+		options.addOption(Option.builder(MIN_RESULTS).argName("NUMBER").hasArg().desc(
+				"Execute each candidate query against an in-process copy of the dataset, and keep the queries that return at least NUMBER results; 0 by default")
+				.build());
+		options.addOption(Option.builder(MAX_RESULTS).argName("NUMBER").hasArg().desc(
+				"Execute each candidate query against an in-process copy of the dataset, and keep the queries that return at most NUMBER results; unbounded by default")
+				.build());
+		options.addOption(Option.builder(EXECUTION_TIMEOUT).argName("MILLISECONDS").hasArg()
+				.desc("The timeout of the execution of a candidate query, which is rejected once it times out; 1000 by default").build());
+		options.addOption(Option.builder(MAX_EXECUTIONS).argName("NUMBER").hasArg()
+				.desc("The maximum number of executed candidates per query, after which the closest candidate is kept; 20 by default").build());
+		options.addOption(Option.builder(SUBQUERY_PROBABILITY).argName("PROBABILITY").hasArg()
+				.desc("The probability of wrapping the graph pattern generated from the range of an object property into a subquery with its own DISTINCT and LIMIT; 0 by default").build());
+		options.addOption(Option.builder(VALUES_PROBABILITY).argName("PROBABILITY").hasArg()
+				.desc("The probability of binding the variable of a named class to a batch of its named individuals, or a data value to a batch of literal values, with a VALUES block; 0 by default").build());
+		options.addOption(Option.builder(VALUES_BATCH_SIZE).argName("NUMBER").hasArg()
+				.desc("The number of rows of a VALUES block; 10 by default").build());
+		options.addOption(Option.builder(UPDATE_RATIO).argName("RATIO").hasArg()
+				.desc("The fraction of SPARQL updates (INSERT DATA, DELETE DATA, DELETE WHERE, DELETE/INSERT WHERE) interleaved with the queries into the workload stream workload.txt; 0 by default (no updates)").build());
 		return options;
 	}
 
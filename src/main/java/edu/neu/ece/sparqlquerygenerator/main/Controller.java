@@ -4,16 +4,21 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.jena.query.Query;
+import org.apache.jena.query.Syntax;
+import org.apache.jena.update.UpdateRequest;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.formats.PrefixDocumentFormat;
 import org.semanticweb.owlapi.model.IRI;
@@ -29,8 +34,17 @@ import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.neu.ece.sparqlquerygenerator.evaluator.CoverageTracker;
+import edu.neu.ece.sparqlquerygenerator.evaluator.DistributionController;
 import edu.neu.ece.sparqlquerygenerator.evaluator.Evaluator;
+import edu.neu.ece.sparqlquerygenerator.evaluator.ResultSizeController;
+import edu.neu.ece.sparqlquerygenerator.generator.JoinShape;
 import edu.neu.ece.sparqlquerygenerator.generator.SPARQLQueryGenerator;
+import edu.neu.ece.sparqlquerygenerator.generator.SPARQLUpdateGenerator;
+import edu.neu.ece.sparqlquerygenerator.generator.TriplePatternOrder;
+import edu.neu.ece.sparqlquerygenerator.statistics.CardinalityEstimator;
+import edu.neu.ece.sparqlquerygenerator.statistics.DatasetStatistics;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSourceType;
 import uk.ac.manchester.cs.owl.owlapi.OWLOntologyIRIMapperImpl;
 
 /**
@@ -68,15 +82,158 @@ public class Controller {
 	private final int queryNumber;
 
 	/**
-	 * Random seed for query generation; 1 by default.
+	 * Base random seed for query generation; 0 by default.
 	 */
 	private final long seed;
 
+	/**
+	 * ID of the single query to regenerate; -1 if all the queries are generated.
+	 */
+	private final int queryID;
+
+	/**
+	 * Type of the random source used for query generation.
+	 */
+	private final RandomSourceType randomSourceType;
+
+	/**
+	 * The additional weight of a choice per unvisited signature in
+	 * coverage-guided query generation; 0 if query generation is not coverage
+	 * guided.
+	 */
+	private final double unvisitedSignatureWeight;
+
+	/**
+	 * The tolerance of the evaluation metrics at which query generation is
+	 * stopped before the number of queries is reached; 0 if query generation is
+	 * not stopped early.
+	 */
+	private final double convergenceTolerance;
+
+	/**
+	 * Target rates of queries that contain keywords FILTER, OPTIONAL and UNION;
+	 * empty if probabilities are not adjusted.
+	 */
+	private final Map<DistributionController.Keyword, Double> targetKeywordRates;
+
+	/**
+	 * Target mean number of triple patterns per query; 0 if probabilities are not
+	 * adjusted.
+	 */
+	private final double targetTriplePatterns;
+
+	/**
+	 * Target rates of join types among all joins; empty if probabilities are not
+	 * adjusted.
+	 */
+	private final Map<DistributionController.JoinType, Double> targetJoinTypeRates;
+
+	/**
+	 * The tolerance of the difference between a target and the distribution of
+	 * the generated queries.
+	 */
+	private final double targetTolerance;
+
 	/**
 	 * Generate distinct queries.
 	 */
 	private final boolean distinct;
-	
+
+	/**
+	 * Enumerate queries systematically instead of generating random queries.
+	 */
+	private final boolean enumeration;
+
+	/**
+	 * Enumerate the alternatives of each generation choice in a seeded random
+	 * order.
+	 */
+	private final boolean shuffleEnumeration;
+
+	/**
+	 * The number of pooled graph patterns per named class in pool mode; 0 if
+	 * queries are generated from scratch.
+	 */
+	private final int poolSize;
+
+	/**
+	 * The probability that a used pooled graph pattern is replaced with a freshly
+	 * generated one.
+	 */
+	private final double poolRefreshRate;
+
+	/**
+	 * The number of seed queries in mutation mode; 0 if queries are generated
+	 * from scratch.
+	 */
+	private final int mutationSeedNumber;
+
+	/**
+	 * Shape of the join graph of each query; null if queries are generated by
+	 * recursion through the model.
+	 */
+	private final JoinShape joinShape;
+
+	/**
+	 * The number of object property assertions of the join shape per query.
+	 */
+	private final int joinShapeSize;
+
+	/**
+	 * Order of the triple patterns inside each basic graph pattern.
+	 */
+	private final TriplePatternOrder triplePatternOrder;
+
+	/**
+	 * Reuse queries that already exist in the output directory as the prefix of
+	 * the generated queries.
+	 */
+	private final boolean extendExistingQueries;
+
+	/**
+	 * Resume query generation from the generation checkpoint in the output
+	 * directory.
+	 */
+	private final boolean resume;
+
+	/**
+	 * The number of queries between two generation checkpoints.
+	 */
+	private final int checkpointInterval;
+
+	/**
+	 * The maximum number of consecutive duplicate candidates of a query in
+	 * distinct mode.
+	 */
+	private final int maxRetries;
+
+	/**
+	 * The maximum depth of navigation through named classes per query.
+	 */
+	private final int maxDepth;
+
+	/**
+	 * The maximum number of triple patterns per query.
+	 */
+	private final int maxTriplePatterns;
+
+	/**
+	 * The maximum number of filters per query.
+	 */
+	private final int maxFilters;
+
+	/**
+	 * The maximum nesting of UNION, OPTIONAL and negation graph patterns per
+	 * query.
+	 */
+	private final int maxNesting;
+
+	/**
+	 * The numbers of generated queries at which evaluation results are dumped
+	 * into file.
+	 */
+	private final Set<Integer> evaluationCheckpoints;
+
 	/**
 	 * Directory of the output queries; SPARQLqueries by default.
 	 */
@@ -145,6 +302,98 @@ public class Controller {
 	 */
 	private final double unionGraphPatternProbability;
 
+	/**
+	 * The probability of turning a query into an aggregate query; 0 by default.
+	 */
+	private final double aggregateProbability;
+
+	/**
+	 * The probability that an aggregate query groups its solutions by the
+	 * selected variable; 0 by default.
+	 */
+	private final double groupByProbability;
+
+	/**
+	 * The probability of ordering the solutions of a query; 0 by default.
+	 */
+	private final double orderByProbability;
+
+	/**
+	 * The probability of limiting the number of solutions of a query; 0 by
+	 * default.
+	 */
+	private final double limitProbability;
+
+	/**
+	 * The probability that a query with a limit pages through its solutions with
+	 * an offset; 0 by default.
+	 */
+	private final double offsetProbability;
+
+	/**
+	 * The probability of generating an object property assertion as a property
+	 * path; 0 by default.
+	 */
+	private final double propertyPathProbability;
+
+	/**
+	 * True if text and date-time filters are generated from values sampled from
+	 * the dataset; false by default.
+	 */
+	private final boolean textFilters;
+
+	/**
+	 * The band of selectivities, as {minimum, maximum}, that numeric filter
+	 * constants are drawn to hit; null by default (uniform constants).
+	 */
+	private final double[] filterSelectivityBand;
+
+	/**
+	 * The band of estimated numbers of results, as {minimum, maximum}, that the
+	 * generated queries are kept within; null by default (not estimated).
+	 */
+	private final double[] estimatedResultsBand;
+
+	/**
+	 * The band of numbers of results, as {minimum, maximum}, that the generated
+	 * queries return when executed against an in-process copy of the dataset;
+	 * null by default (not executed).
+	 */
+	private final long[] resultBand;
+
+	/**
+	 * The timeout of the execution of a candidate query in milliseconds.
+	 */
+	private final long executionTimeout;
+
+	/**
+	 * The maximum number of executed candidates per query.
+	 */
+	private final int maxExecutions;
+
+	/**
+	 * The probability of wrapping the graph pattern generated from the range of an
+	 * object property into a subquery; 0 by default.
+	 */
+	private final double subqueryProbability;
+
+	/**
+	 * The probability of generating a VALUES block for a named class; 0 by
+	 * default.
+	 */
+	private final double valuesProbability;
+
+	/**
+	 * The number of rows of a VALUES block; 10 by default.
+	 */
+	private final int valuesBatchSize;
+
+	/**
+	 * The fraction of SPARQL updates in the workload stream; 0 by default (no
+	 * updates and no workload stream).
+	 */
+	private final double updateRatio;
+
 	/**
 	 * Hold of an ontology manager.
 	 */
@@ -192,15 +441,161 @@ public class Controller {
 		private int queryNumber = 1;
 
 		/**
-		 * Random seed for query generation; 1 by default.
+		 * Base random seed for query generation; 0 by default.
+		 */
+		private long seed = 0;
+
+		/**
+		 * ID of the single query to regenerate, default -1 (all the queries are
+		 * generated).
+		 */
+		private int queryID = -1;
+
+		/**
+		 * Type of the random source used for query generation, default
+		 * java.util.Random.
+		 */
+		private RandomSourceType randomSourceType = RandomSourceType.JDK;
+
+		/**
+		 * The additional weight of a choice per unvisited signature in
+		 * coverage-guided query generation, default 0 (not coverage guided).
+		 */
+		private double unvisitedSignatureWeight = 0;
+
+		/**
+		 * The tolerance of the evaluation metrics at which query generation is
+		 * stopped, default 0 (not stopped early).
 		 */
-		private long seed = queryNumber;
+		private double convergenceTolerance = 0;
+
+		/**
+		 * Target rates of queries that contain keywords FILTER, OPTIONAL and UNION,
+		 * default empty.
+		 */
+		private Map<DistributionController.Keyword, Double> targetKeywordRates = new HashMap<>();
+
+		/**
+		 * Target mean number of triple patterns per query, default 0 (not
+		 * targeted).
+		 */
+		private double targetTriplePatterns = 0;
+
+		/**
+		 * Target rates of join types among all joins, default empty.
+		 */
+		private Map<DistributionController.JoinType, Double> targetJoinTypeRates = new HashMap<>();
+
+		/**
+		 * The tolerance of the difference between a target and the distribution of
+		 * the generated queries, default 0.05.
+		 */
+		private double targetTolerance = 0.05;
 		
 		/**
 		 * Generate distinct queries.
 		 */
 		private boolean distinct = false;
 
+		/**
+		 * Enumerate queries systematically, default false.
+		 */
+		private boolean enumeration = false;
+
+		/**
+		 * Enumerate the alternatives of each generation choice in a seeded random
+		 * order, default false.
+		 */
+		private boolean shuffleEnumeration = false;
+
+		/**
+		 * The number of pooled graph patterns per named class, default 0 (queries
+		 * are generated from scratch).
+		 */
+		private int poolSize = 0;
+
+		/**
+		 * The probability that a used pooled graph pattern is replaced with a
+		 * freshly generated one, default 0.
+		 */
+		private double poolRefreshRate = 0;
+
+		/**
+		 * The number of seed queries in mutation mode, default 0 (queries are
+		 * generated from scratch).
+		 */
+		private int mutationSeedNumber = 0;
+
+		/**
+		 * Shape of the join graph of each query, default null (queries are
+		 * generated by recursion through the model).
+		 */
+		private JoinShape joinShape = null;
+
+		/**
+		 * The number of object property assertions of the join shape per query,
+		 * default 5.
+		 */
+		private int joinShapeSize = 5;
+
+		/**
+		 * Order of the triple patterns inside each basic graph pattern, default as
+		 * generated.
+		 */
+		private TriplePatternOrder triplePatternOrder = TriplePatternOrder.GENERATED;
+
+		/**
+		 * Reuse queries that already exist in the output directory as the prefix of
+		 * the generated queries.
+		 */
+		private boolean extendExistingQueries = false;
+
+		/**
+		 * Resume query generation from the generation checkpoint in the output
+		 * directory, default false.
+		 */
+		private boolean resume = false;
+
+		/**
+		 * The number of queries between two generation checkpoints, default 0 (no
+		 * checkpoint is saved).
+		 */
+		private int checkpointInterval = 0;
+
+		/**
+		 * The maximum number of consecutive duplicate candidates of a query in
+		 * distinct mode, default 10000.
+		 */
+		private int maxRetries = 10000;
+
+		/**
+		 * The maximum depth of navigation through named classes per query, default
+		 * {@link SPARQLQueryGenerator#DEFAULT_MAX_DEPTH}.
+		 */
+		private int maxDepth = SPARQLQueryGenerator.DEFAULT_MAX_DEPTH;
+
+		/**
+		 * The maximum number of triple patterns per query, default 0 (unlimited).
+		 */
+		private int maxTriplePatterns = 0;
+
+		/**
+		 * The maximum number of filters per query, default 0 (unlimited).
+		 */
+		private int maxFilters = 0;
+
+		/**
+		 * The maximum nesting of UNION, OPTIONAL and negation graph patterns per
+		 * query, default 0 (unlimited).
+		 */
+		private int maxNesting = 0;
+
+		/**
+		 * The numbers of generated queries at which evaluation results are dumped
+		 * into file, default empty.
+		 */
+		private Set<Integer> evaluationCheckpoints = new TreeSet<>();
+
 		/**
 		 * Directory of the output queries; SPARQLqueries by default.
 		 */
@@ -268,6 +663,99 @@ public class Controller {
 		 */
 		private double unionGraphPatternProbability = 0.15;
 
+		/**
+		 * The probability of turning a query into an aggregate query; 0 by default.
+		 */
+		private double aggregateProbability = 0;
+
+		/**
+		 * The probability that an aggregate query groups its solutions by the
+		 * selected variable; 0 by default.
+		 */
+		private double groupByProbability = 0;
+
+		/**
+		 * The probability of ordering the solutions of a query; 0 by default.
+		 */
+		private double orderByProbability = 0;
+
+		/**
+		 * The probability of limiting the number of solutions of a query; 0 by
+		 * default.
+		 */
+		private double limitProbability = 0;
+
+		/**
+		 * The probability that a query with a limit pages through its solutions with
+		 * an offset; 0 by default.
+		 */
+		private double offsetProbability = 0;
+
+		/**
+		 * The probability of generating an object property assertion as a
+		 * property path; 0 by default.
+		 */
+		private double propertyPathProbability = 0;
+
+		/**
+		 * True if text and date-time filters are generated from values sampled from
+		 * the dataset, default false.
+		 */
+		private boolean textFilters = false;
+
+		/**
+		 * The band of selectivities, as {minimum, maximum}, that numeric filter
+		 * constants are drawn to hit, default null (uniform constants).
+		 */
+		private double[] filterSelectivityBand = null;
+
+		/**
+		 * The band of estimated numbers of results, as {minimum, maximum}, that the
+		 * generated queries are kept within, default null (not estimated).
+		 */
+		private double[] estimatedResultsBand = null;
+
+		/**
+		 * The band of numbers of results, as {minimum, maximum}, that the generated
+		 * queries return when executed against an in-process copy of the dataset,
+		 * default null (not executed).
+		 */
+		private long[] resultBand = null;
+
+		/**
+		 * The timeout of the execution of a candidate query in milliseconds, default
+		 * 1000.
+		 */
+		private long executionTimeout = 1000;
+
+		/**
+		 * The maximum number of executed candidates per query, default 20.
+		 */
+		private int maxExecutions = 20;
+
+		/**
+		 * The probability of wrapping the graph pattern generated from the range of
+		 * an object property into a subquery, default 0.
+		 */
+		private double subqueryProbability = 0;
+
+		/**
+		 * The probability of generating a VALUES block for a named class, default
+		 * 0.
+		 */
+		private double valuesProbability = 0;
+
+		/**
+		 * The number of rows of a VALUES block, default 10.
+		 */
+		private int valuesBatchSize = 10;
+
+		/**
+		 * The fraction of SPARQL updates in the workload stream, default 0 (no
+		 * updates and no workload stream).
+		 */
+		private double updateRatio = 0;
+
 		/**
 		 * Constructor.
 		 * 
@@ -307,20 +795,129 @@ public class Controller {
 		 */
 		public Builder setQueryNumber(int queryNumber) {
 			this.queryNumber = queryNumber;
-			this.seed = this.queryNumber;
 			return this;
 		}
 
 		/**
-		 * Set the random seed for query generation.
+		 * Set the base random seed for query generation. The random stream of each
+		 * query is derived from the base seed and the query ID.
 		 * 
 		 * @param baseSeed
 		 *            Random base seed.
 		 * @return Current Builder object.
 		 */
-		public Builder setSeed(int baseSeed) {
-			long seed = baseSeed * (Integer.MAX_VALUE + 1) + queryNumber;
-			this.seed = seed;
+		public Builder setSeed(long baseSeed) {
+			this.seed = baseSeed;
+			return this;
+		}
+
+		/**
+		 * Regenerate only the query with the specified query ID, which only depends
+		 * on the base seed and the query ID.
+		 * 
+		 * @param queryID
+		 *            Query ID.
+		 * @return Current Builder object.
+		 */
+		public Builder setQueryID(int queryID) {
+			this.queryID = queryID;
+			return this;
+		}
+
+		/**
+		 * Set the type of the random source used for query generation.
+		 * 
+		 * @param randomSourceType
+		 *            Type of the random source.
+		 * @return Current Builder object.
+		 */
+		public Builder setRandomSourceType(RandomSourceType randomSourceType) {
+			this.randomSourceType = randomSourceType;
+			return this;
+		}
+
+		/**
+		 * Enable coverage-guided query generation, where the choices of classes,
+		 * properties and class restrictions are weighted toward the named classes and
+		 * properties that the generated queries do not refer to yet.
+		 * 
+		 * @param unvisitedSignatureWeight
+		 *            The additional weight of a choice per unvisited signature it
+		 *            refers to, relative to the weight 1 of every choice.
+		 * @return Current Builder object.
+		 */
+		public Builder coverageGuided(double unvisitedSignatureWeight) {
+			this.unvisitedSignatureWeight = unvisitedSignatureWeight;
+			return this;
+		}
+
+		/**
+		 * Stop query generation once the evaluation metrics converge, i.e. the
+		 * half-widths of their 95% confidence intervals are within the tolerance.
+		 * The number of queries is the hard cap.
+		 * 
+		 * @param convergenceTolerance
+		 *            The tolerance of the evaluation metrics.
+		 * @return Current Builder object.
+		 */
+		public Builder stopOnConvergence(double convergenceTolerance) {
+			this.convergenceTolerance = convergenceTolerance;
+			return this;
+		}
+
+		/**
+		 * Set target rates of queries that contain keywords FILTER, OPTIONAL and
+		 * UNION. The filter, optional and union graph pattern probabilities are
+		 * adjusted online from the generated queries to hit the targets.
+		 * 
+		 * @param targetKeywordRates
+		 *            Target rates of queries that contain the keywords.
+		 * @return Current Builder object.
+		 */
+		public Builder setTargetKeywordRates(Map<DistributionController.Keyword, Double> targetKeywordRates) {
+			this.targetKeywordRates = targetKeywordRates;
+			return this;
+		}
+
+		/**
+		 * Set target mean number of triple patterns per query. The object property
+		 * assertion probability is adjusted online from the generated queries to
+		 * hit the target.
+		 * 
+		 * @param targetTriplePatterns
+		 *            Target mean number of triple patterns per query.
+		 * @return Current Builder object.
+		 */
+		public Builder setTargetTriplePatterns(double targetTriplePatterns) {
+			this.targetTriplePatterns = targetTriplePatterns;
+			return this;
+		}
+
+		/**
+		 * Set target rates of join types among all joins. The data property
+		 * assertion probability (SS) and the class assertion probability (PP) are
+		 * adjusted online from the generated queries to hit the targets.
+		 * 
+		 * @param targetJoinTypeRates
+		 *            Target rates of the join types.
+		 * @return Current Builder object.
+		 */
+		public Builder setTargetJoinTypeRates(Map<DistributionController.JoinType, Double> targetJoinTypeRates) {
+			this.targetJoinTypeRates = targetJoinTypeRates;
+			return this;
+		}
+
+		/**
+		 * Set the tolerance of the difference between a target and the
+		 * distribution of the generated queries, beyond which a warning is logged.
+		 * 
+		 * @param targetTolerance
+		 *            The tolerance, relative to the target for the mean number of
+		 *            triple patterns.
+		 * @return Current Builder object.
+		 */
+		public Builder setTargetTolerance(double targetTolerance) {
+			this.targetTolerance = targetTolerance;
 			return this;
 		}
 
@@ -333,7 +930,171 @@ public class Controller {
 			distinct = true;
 			return this;
 		}
-		
+
+		/**
+		 * Enumerate distinct queries by walking the generation choices
+		 * systematically in depth-first order instead of making random choices.
+		 * 
+		 * @param shuffleEnumeration
+		 *            True if the alternatives of each choice are enumerated in a
+		 *            random order seeded by the random seed, false if in order.
+		 * @return Current Builder object.
+		 */
+		public Builder enumerate(boolean shuffleEnumeration) {
+			enumeration = true;
+			this.shuffleEnumeration = shuffleEnumeration;
+			return this;
+		}
+
+		/**
+		 * Compose queries from a pool of pre-generated graph patterns per named
+		 * class instead of generating them from scratch, for higher throughput at
+		 * the cost of diversity.
+		 * 
+		 * @param poolSize
+		 *            The number of pooled graph patterns per named class.
+		 * @param poolRefreshRate
+		 *            The probability that a used pooled graph pattern is replaced
+		 *            with a freshly generated one.
+		 * @return Current Builder object.
+		 */
+		public Builder usePatternPool(int poolSize, double poolRefreshRate) {
+			this.poolSize = poolSize;
+			this.poolRefreshRate = poolRefreshRate;
+			return this;
+		}
+
+		/**
+		 * Derive the queries after the seed queries by mutating random queries before
+		 * them instead of generating them from scratch, so that a large corpus is
+		 * grown from a seed corpus at a fraction of the cost.
+		 * 
+		 * @param mutationSeedNumber
+		 *            The number of seed queries, which are generated from scratch or
+		 *            reused.
+		 * @return Current Builder object.
+		 */
+		public Builder mutate(int mutationSeedNumber) {
+			this.mutationSeedNumber = mutationSeedNumber;
+			return this;
+		}
+
+		/**
+		 * Plan the join graph of object property assertions of each query in a shape
+		 * first, and then fill it with schema-valid classes and properties, e.g. for
+		 * workloads of join-order optimizers.
+		 * 
+		 * @param joinShape
+		 *            Shape of the join graph.
+		 * @param joinShapeSize
+		 *            The number of object property assertions per query.
+		 * @return Current Builder object.
+		 */
+		public Builder setJoinShape(JoinShape joinShape, int joinShapeSize) {
+			this.joinShape = joinShape;
+			this.joinShapeSize = joinShapeSize;
+			return this;
+		}
+
+		/**
+		 * Reorder the triple patterns inside each basic graph pattern of the
+		 * generated queries, e.g. to measure how much the join-order optimizer of a
+		 * SPARQL engine recovers from a bad syntactic order.
+		 * 
+		 * @param triplePatternOrder
+		 *            Order of the triple patterns.
+		 * @return Current Builder object.
+		 */
+		public Builder setTriplePatternOrder(TriplePatternOrder triplePatternOrder) {
+			this.triplePatternOrder = triplePatternOrder;
+			return this;
+		}
+
+		/**
+		 * Reuse queries that already exist in the output directory as the prefix of
+		 * the generated queries, instead of cleaning up the output directory.
+		 * 
+		 * @return Current Builder object.
+		 */
+		public Builder extendExistingQueries() {
+			extendExistingQueries = true;
+			return this;
+		}
+
+		/**
+		 * Resume query generation from the generation checkpoint in the output
+		 * directory, instead of cleaning up the output directory.
+		 * 
+		 * @return Current Builder object.
+		 */
+		public Builder resume() {
+			resume = true;
+			return this;
+		}
+
+		/**
+		 * Set the number of queries between two generation checkpoints.
+		 * 
+		 * @param checkpointInterval
+		 *            The number of queries; 0 if no checkpoint is saved.
+		 * @return Current Builder object.
+		 */
+		public Builder setCheckpointInterval(int checkpointInterval) {
+			this.checkpointInterval = checkpointInterval;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of consecutive duplicate candidates of a query in
+		 * distinct mode, after which query generation is stopped with the distinct
+		 * queries achieved so far.
+		 * 
+		 * @param maxRetries
+		 *            The maximum number of consecutive duplicate candidates.
+		 * @return Current Builder object.
+		 */
+		public Builder setMaxRetries(int maxRetries) {
+			this.maxRetries = maxRetries;
+			return this;
+		}
+
+		/**
+		 * Set budgets of the size of each query, so that query size and generation
+		 * time are bounded regardless of the input ontology.
+		 * 
+		 * @param maxDepth
+		 *            The maximum depth of navigation through named classes; 0 if
+		 *            unlimited.
+		 * @param maxTriplePatterns
+		 *            The maximum number of triple patterns; 0 if unlimited.
+		 * @param maxFilters
+		 *            The maximum number of filters; 0 if unlimited.
+		 * @param maxNesting
+		 *            The maximum nesting of UNION, OPTIONAL and negation graph
+		 *            patterns; 0 if unlimited.
+		 * @return Current Builder object.
+		 */
+		public Builder setBudgets(int maxDepth, int maxTriplePatterns, int maxFilters, int maxNesting) {
+			this.maxDepth = maxDepth;
+			this.maxTriplePatterns = maxTriplePatterns;
+			this.maxFilters = maxFilters;
+			this.maxNesting = maxNesting;
+			return this;
+		}
+
+		/**
+		 * Set the numbers of generated queries at which evaluation results are dumped
+		 * into file, in addition to the end of query generation.
+		 * 
+		 * @param evaluationCheckpoints
+		 *            The numbers of generated queries.
+		 * @return Current Builder object.
+		 */
+		public Builder setEvaluationCheckpoints(Set<Integer> evaluationCheckpoints) {
+			this.evaluationCheckpoints = evaluationCheckpoints;
+			return this;
+		}
+
 		/**
 		 * Set directory of the generated queries.
 		 * 
@@ -476,6 +1237,182 @@ public class Controller {
 			return this;
 		}
 
+		/**
+		 * Set the probabilities of generating aggregates and solution modifiers,
+		 * e.g. for COUNT/GROUP BY dashboards, top-k ORDER BY ... LIMIT and paged
+		 * OFFSET queries.
+		 * 
+		 * @param aggregateProbability
+		 *            The probability of turning a query into an aggregate query.
+		 * @param groupByProbability
+		 *            The probability that an aggregate query groups its solutions by
+		 *            the selected variable.
+		 * @param orderByProbability
+		 *            The probability of ordering the solutions of a query.
+		 * @param limitProbability
+		 *            The probability of limiting the number of solutions of a query.
+		 * @param offsetProbability
+		 *            The probability that a query with a limit pages through its
+		 *            solutions with an offset.
+		 * @return Current Builder object.
+		 */
+		public Builder setSolutionModifierProbability(double aggregateProbability, double groupByProbability,
+				double orderByProbability, double limitProbability, double offsetProbability) {
+			this.aggregateProbability = aggregateProbability;
+			this.groupByProbability = groupByProbability;
+			this.orderByProbability = orderByProbability;
+			this.limitProbability = limitProbability;
+			this.offsetProbability = offsetProbability;
+			return this;
+		}
+
+		/**
+		 * Set the probability of generating object property assertions as property
+		 * paths, e.g. p+ over transitive properties or alternatives over
+		 * subproperties.
+		 * 
+		 * @param propertyPathProbability
+		 *            The probability of generating an object property assertion as
+		 *            a property path.
+		 * @return Current Builder object.
+		 */
+		public Builder setPropertyPathProbability(double propertyPathProbability) {
+			this.propertyPathProbability = propertyPathProbability;
+			return this;
+		}
+
+		/**
+		 * Generate filters on string, language-tagged string, URI and date-time data
+		 * values, e.g. CONTAINS, STRSTARTS, REGEX, LANGMATCHES and date-time ranges,
+		 * with tokens and bounds sampled from the values in the dataset.
+		 * 
+		 * @return Current Builder object.
+		 */
+		public Builder enableTextFilters() {
+			textFilters = true;
+			return this;
+		}
+
+		/**
+		 * Draw the constants of numeric filters from the value distribution of their
+		 * data property in the dataset, so that the estimated selectivity of each
+		 * filter is within a band.
+		 * 
+		 * @param minSelectivity
+		 *            The minimum selectivity, in [0, 1].
+		 * @param maxSelectivity
+		 *            The maximum selectivity, in [minSelectivity, 1].
+		 * @return Current Builder object.
+		 */
+		public Builder setFilterSelectivity(double minSelectivity, double maxSelectivity) {
+			filterSelectivityBand = new double[] { minSelectivity, maxSelectivity };
+			return this;
+		}
+
+		/**
+		 * Estimate the number of results of each generated query from the dataset
+		 * statistics, and keep the queries within a band of estimates.
+		 * 
+		 * @param minEstimatedResults
+		 *            The minimum estimated number of results.
+		 * @param maxEstimatedResults
+		 *            The maximum estimated number of results, at least
+		 *            minEstimatedResults.
+		 * @return Current Builder object.
+		 */
+		public Builder setEstimatedResults(double minEstimatedResults, double maxEstimatedResults) {
+			estimatedResultsBand = new double[] { minEstimatedResults, maxEstimatedResults };
+			return this;
+		}
+
+		/**
+		 * Execute each candidate query against an in-process copy of the dataset,
+		 * keep the queries within a band of numbers of results, and bias the choices
+		 * of classes and properties toward the ones of accepted candidates.
+		 * 
+		 * @param minResults
+		 *            The minimum number of results.
+		 * @param maxResults
+		 *            The maximum number of results, at least minResults.
+		 * @return Current Builder object.
+		 */
+		public Builder setResults(long minResults, long maxResults) {
+			resultBand = new long[] { minResults, maxResults };
+			return this;
+		}
+
+		/**
+		 * Set the timeout of the execution of a candidate query.
+		 * 
+		 * @param executionTimeout
+		 *            The timeout in milliseconds.
+		 * @return Current Builder object.
+		 */
+		public Builder setExecutionTimeout(long executionTimeout) {
+			this.executionTimeout = executionTimeout;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of executed candidates per query, after which the
+		 * closest candidate is kept.
+		 * 
+		 * @param maxExecutions
+		 *            The maximum number of executed candidates.
+		 * @return Current Builder object.
+		 */
+		public Builder setMaxExecutions(int maxExecutions) {
+			this.maxExecutions = maxExecutions;
+			return this;
+		}
+
+		/**
+		 * Set the probability of wrapping the graph pattern generated from the range
+		 * of an object property into a subquery that selects the variable of the
+		 * range, with its own DISTINCT and LIMIT.
+		 * 
+		 * @param subqueryProbability
+		 *            The probability of generating a subquery.
+		 * @return Current Builder object.
+		 */
+		public Builder setSubqueryProbability(double subqueryProbability) {
+			this.subqueryProbability = subqueryProbability;
+			return this;
+		}
+
+		/**
+		 * Set the probability and the batch size of VALUES blocks, which bind the
+		 * variable of a named class to a batch of its named individuals or a data
+		 * value to a batch of literal values.
+		 * 
+		 * @param valuesProbability
+		 *            The probability of generating a VALUES block for a named class.
+		 * @param valuesBatchSize
+		 *            The number of rows of a VALUES block.
+		 * @return Current Builder object.
+		 */
+		public Builder setValuesProbability(double valuesProbability, int valuesBatchSize) {
+			this.valuesProbability = valuesProbability;
+			this.valuesBatchSize = valuesBatchSize;
+			return this;
+		}
+
+		/**
+		 * Set the fraction of SPARQL updates in the workload stream. If the fraction
+		 * is positive, INSERT DATA, DELETE DATA, DELETE WHERE and DELETE/INSERT
+		 * WHERE updates are generated from the same class model as the queries and
+		 * interleaved with the queries, in order, into a workload stream.
+		 * 
+		 * @param updateRatio
+		 *            The fraction of SPARQL updates in the workload stream, in [0,
+		 *            1).
+		 * @return Current Builder object.
+		 */
+		public Builder setUpdateRatio(double updateRatio) {
+			this.updateRatio = updateRatio;
+			return this;
+		}
+
 		/**
 		 * Create an instance of Controller with Builder.
 		 * 
@@ -503,10 +1440,36 @@ public class Controller {
 		this.queryNumber = builder.queryNumber;
 		this.seed = builder.seed;
 		this.distinct = builder.distinct;
+		this.extendExistingQueries = builder.extendExistingQueries;
+		this.evaluationCheckpoints = builder.evaluationCheckpoints;
+		this.resume = builder.resume;
+		this.checkpointInterval = builder.checkpointInterval;
+		this.enumeration = builder.enumeration;
+		this.shuffleEnumeration = builder.shuffleEnumeration;
+		this.poolSize = builder.poolSize;
+		this.poolRefreshRate = builder.poolRefreshRate;
+		this.mutationSeedNumber = builder.mutationSeedNumber;
+		this.joinShape = builder.joinShape;
+		this.joinShapeSize = builder.joinShapeSize;
+		this.triplePatternOrder = builder.triplePatternOrder;
+		this.maxRetries = builder.maxRetries;
+		this.maxDepth = builder.maxDepth;
+		this.maxTriplePatterns = builder.maxTriplePatterns;
+		this.maxFilters = builder.maxFilters;
+		this.maxNesting = builder.maxNesting;
 		
 		this.outputDirectory = builder.outputDirectory;
 
-		FileUtils.cleanDirectory(outputDirectory);
+		this.queryID = builder.queryID;
+		this.randomSourceType = builder.randomSourceType;
+		this.unvisitedSignatureWeight = builder.unvisitedSignatureWeight;
+		this.convergenceTolerance = builder.convergenceTolerance;
+		this.targetKeywordRates = builder.targetKeywordRates;
+		this.targetTriplePatterns = builder.targetTriplePatterns;
+		this.targetJoinTypeRates = builder.targetJoinTypeRates;
+		this.targetTolerance = builder.targetTolerance;
+		if (!extendExistingQueries && !resume && queryID < 0)
+			FileUtils.cleanDirectory(outputDirectory);
 		this.classConstraintSelectionProbability = builder.classConstraintSelectionProbability;
 		this.classAssertionProbability = builder.classAssertionProbability;
 		this.objectPropertyAssertionProbability = builder.objectPropertyAssertionProbability;
@@ -518,13 +1481,32 @@ public class Controller {
 		this.conjunctionGraphPatternProbability = builder.conjunctionGraphPatternProbability;
 		this.optionalGraphPatternProbability = builder.optionalGraphPatternProbability;
 		this.unionGraphPatternProbability = builder.unionGraphPatternProbability;
+		this.aggregateProbability = builder.aggregateProbability;
+		this.groupByProbability = builder.groupByProbability;
+		this.orderByProbability = builder.orderByProbability;
+		this.limitProbability = builder.limitProbability;
+		this.offsetProbability = builder.offsetProbability;
+		this.propertyPathProbability = builder.propertyPathProbability;
+		this.textFilters = builder.textFilters;
+		this.filterSelectivityBand = builder.filterSelectivityBand;
+		this.estimatedResultsBand = builder.estimatedResultsBand;
+		this.resultBand = builder.resultBand;
+		this.executionTimeout = builder.executionTimeout;
+		this.maxExecutions = builder.maxExecutions;
+		this.subqueryProbability = builder.subqueryProbability;
+		this.valuesProbability = builder.valuesProbability;
+		this.valuesBatchSize = builder.valuesBatchSize;
+		this.updateRatio = builder.updateRatio;
 	}
 
 	/**
 	 * This function defines the whole control flow of SPARQL query generation
 	 * process.
+	 * 
+	 * @return True if query generation succeeds, false if it fails, in which case
+	 *         the reason is logged.
 	 */
-	public void generateSPARQLQueries() {
+	public boolean generateSPARQLQueries() {
 		try {
 			loadOntology();
 			OntologyExtractor extractor = new OntologyExtractor(ont, reasoner);
@@ -536,18 +1518,207 @@ public class Controller {
 					linkToIndividualProbability, filterProbability, conjunctionGraphPatternProbability,
 					optionalGraphPatternProbability, unionGraphPatternProbability, manager.getOWLDataFactory(),
 					extractor, prefixName2PrefixMap);
-			ArrayList<Query> queries = generator.generateRandomSPARQLQueries();
+			generator.setRandomSourceType(randomSourceType);
+			generator.setBudgets(maxDepth, maxTriplePatterns, maxFilters, maxNesting);
+			generator.setJoinShape(joinShape, joinShapeSize);
+			DatasetStatistics datasetStatistics = null;
+			if (triplePatternOrder.requiresStatistics() || textFilters || filterSelectivityBand != null
+					|| estimatedResultsBand != null || valuesProbability > 0) {
+				datasetStatistics = new DatasetStatistics(ont);
+				logger.info("Dataset statistics have been collected from " + datasetStatistics.getTripleCount()
+						+ " assertions of " + datasetStatistics.getPropertyCount() + " properties.");
+			}
+			generator.setTriplePatternOrder(triplePatternOrder, datasetStatistics);
+			generator.setTextFilters(textFilters, datasetStatistics);
+			if (filterSelectivityBand != null)
+				generator.setFilterSelectivity(filterSelectivityBand[0], filterSelectivityBand[1], datasetStatistics);
+			CardinalityEstimator cardinalityEstimator = null;
+			if (estimatedResultsBand != null) {
+				cardinalityEstimator = new CardinalityEstimator(datasetStatistics);
+				generator.setEstimatedResultsBand(estimatedResultsBand[0], estimatedResultsBand[1],
+						cardinalityEstimator);
+			}
+			generator.setSolutionModifierProbability(aggregateProbability, groupByProbability, orderByProbability,
+					limitProbability, offsetProbability);
+			generator.setPropertyPathProbability(propertyPathProbability);
+			generator.setSubqueryProbability(subqueryProbability);
+			generator.setValuesProbability(valuesProbability, valuesBatchSize, datasetStatistics);
+			generator.setMaxRetries(maxRetries);
+			if (queryID >= 0) {
+				generateSPARQLQuery(generator, cardinalityEstimator);
+				return true;
+			}
+			generator.setExtendExistingQueries(extendExistingQueries);
+			generator.setResume(resume);
+			generator.setCheckpointInterval(checkpointInterval);
+			generator.setEnumeration(enumeration, shuffleEnumeration);
+			generator.setPatternPool(poolSize, poolRefreshRate);
+			generator.setMutation(mutationSeedNumber);
+			generator.setGenerationSettings(describeGenerationSettings());
+			Evaluator evaluator = new Evaluator(generator, evaluationCheckpoints);
+			evaluator.setConvergenceTolerance(convergenceTolerance);
+			evaluator.setCardinalityEstimator(cardinalityEstimator);
+			generator.addQueryGenerationListener(evaluator);
+			CoverageTracker coverageTracker = null;
+			if (unvisitedSignatureWeight > 0) {
+				coverageTracker = new CoverageTracker(generator, unvisitedSignatureWeight);
+				generator.setSignatureWeighting(coverageTracker);
+				generator.addQueryGenerationListener(coverageTracker);
+			}
+			ResultSizeController resultSizeController = null;
+			if (resultBand != null) {
+				resultSizeController = new ResultSizeController(ont, resultBand[0], resultBand[1], executionTimeout,
+						maxExecutions);
+				generator.addCandidateFilter(resultSizeController);
+				generator.addQueryGenerationListener(resultSizeController);
+				if (coverageTracker == null)
+					generator.setSignatureWeighting(resultSizeController);
+				else {
+					// Both weightings apply to every choice
+					CoverageTracker tracker = coverageTracker;
+					ResultSizeController controller = resultSizeController;
+					generator.setSignatureWeighting(
+							signature -> tracker.getWeight(signature) * controller.getWeight(signature));
+				}
+			}
+			DistributionController distributionController = null;
+			if (!targetKeywordRates.isEmpty() || targetTriplePatterns > 0 || !targetJoinTypeRates.isEmpty()) {
+				distributionController = new DistributionController(generator, targetKeywordRates,
+						targetTriplePatterns, targetJoinTypeRates, targetTolerance);
+				generator.addQueryGenerationListener(distributionController);
+			}
+			int generatedQueryNumber = generator.generateRandomSPARQLQueries();
+			if (distributionController != null)
+				distributionController.logSummary();
+			if (resultSizeController != null)
+				resultSizeController.logSummary();
+			if (coverageTracker != null)
+				logger.info("The generated queries refer to " + coverageTracker.getVisitedSignatureNumber() + " out of "
+						+ coverageTracker.getSignatureNumber() + " named classes and properties.");
 			long totalTime = System.currentTimeMillis() - timeStart;
-			logger.info("The time for generating " + queryNumber + " SPARQL queries is: " + totalTime + " ms.");
-			Evaluator evaluator = new Evaluator(queries, generator);
+			logger.info("The time for generating and evaluating " + generatedQueryNumber + " SPARQL queries is: "
+					+ totalTime + " ms.");
 			evaluator.evaluate();
+			if (updateRatio > 0)
+				generateWorkload(generator, generatedQueryNumber);
 		} catch (OWLOntologyCreationException e) {
 			logger.error("Error : Parsing ontologies failed. Reason: " + e.getMessage());
 			e.printStackTrace();
+			return false;
 		} catch (Exception e) {
 			logger.error("Error : Generate queries failed. Reason: " + e.getMessage());
 			e.printStackTrace();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Describe the settings that the generated queries depend on, so that query
+	 * generation is not resumed from a checkpoint saved with other settings. The
+	 * number of queries and the checkpoint and evaluation settings are left out,
+	 * since they do not change the queries.
+	 * 
+	 * @return Description of the generation settings.
+	 */
+	private String describeGenerationSettings() {
+		return Stream.of("ontology=" + ontologyIRI, "root=" + rootIRIString, "seed=" + seed,
+				"randomSource=" + randomSourceType.getName(), "distinct=" + distinct,
+				"enumeration=" + enumeration + "," + shuffleEnumeration, "pool=" + poolSize + "," + poolRefreshRate,
+				"mutate=" + mutationSeedNumber, "shape=" + joinShape + "," + joinShapeSize,
+				"triplePatternOrder=" + triplePatternOrder, "maxRetries=" + maxRetries,
+				"budgets=" + maxDepth + "," + maxTriplePatterns + "," + maxFilters + "," + maxNesting,
+				"coverageWeight=" + unvisitedSignatureWeight,
+				"targets=" + new TreeMap<>(targetKeywordRates) + "," + targetTriplePatterns + ","
+						+ new TreeMap<>(targetJoinTypeRates) + "," + targetTolerance,
+				"probabilities=" + classConstraintSelectionProbability + "," + classAssertionProbability + ","
+						+ objectPropertyAssertionProbability + "," + dataPropertyAssertionProbability + ","
+						+ inverseObjectPropertySelectionProbability + "," + newVariableProbability + ","
+						+ linkToIndividualProbability + "," + filterProbability + ","
+						+ conjunctionGraphPatternProbability + "," + optionalGraphPatternProbability + ","
+						+ unionGraphPatternProbability,
+				"solutionModifiers=" + aggregateProbability + "," + groupByProbability + "," + orderByProbability + ","
+						+ limitProbability + "," + offsetProbability,
+				"propertyPath=" + propertyPathProbability, "subquery=" + subqueryProbability,
+				"values=" + valuesProbability + "," + valuesBatchSize, "textFilters=" + textFilters,
+				"filterSelectivity=" + Arrays.toString(filterSelectivityBand),
+				"estimatedResults=" + Arrays.toString(estimatedResultsBand),
+				"results=" + Arrays.toString(resultBand) + "," + executionTimeout + "," + maxExecutions).collect(Collectors.joining(";"));
+	}
+
+	/**
+	 * This function regenerates the query with the specified query ID and dumps it
+	 * into file, without generating the queries before it.
+	 * 
+	 * @param generator
+	 *            Query generator.
+	 * @param cardinalityEstimator
+	 *            Estimator of the number of results of the query; null if the
+	 *            results are not estimated.
+	 * @throws Exception
+	 *             If query generation fails.
+	 */
+	private void generateSPARQLQuery(SPARQLQueryGenerator generator, CardinalityEstimator cardinalityEstimator)
+			throws Exception {
+		long timeStart = System.nanoTime();
+		Query query = generator.generateSPARQLQuery(queryID);
+		long totalTime = (System.nanoTime() - timeStart) / 1000;
+		logger.info("The time for generating SPARQL query with query ID " + queryID + " is: " + totalTime + " us.");
+		generator.dumpIntoFile(query, outputDirectory, queryID);
+		logger.info("Generated query script is shown below:\n" + query.serialize(Syntax.syntaxSPARQL_11));
+		if (cardinalityEstimator != null)
+			logger.info("The query is estimated to return " + Math.round(cardinalityEstimator.estimate(query))
+					+ " results.");
+	}
+
+	/**
+	 * This function generates SPARQL updates and interleaves them with the
+	 * generated queries into a workload stream. Updates are dumped into
+	 * update&lt;i&gt;.ru files, and the stream into workload.txt with one operation
+	 * per line, both in the output directory. The operations are spread evenly:
+	 * the operation at position p of the stream is an update if and only if
+	 * floor((p + 1) * r) &gt; floor(p * r), where r is the update ratio, until all
+	 * the queries are in the stream.
+	 * 
+	 * @param generator
+	 *            Query generator, whose class model the updates are generated from.
+	 * @param generatedQueryNumber
+	 *            The number of queries in the output directory.
+	 * @throws Exception
+	 *             If update generation fails.
+	 */
+	private void generateWorkload(SPARQLQueryGenerator generator, int generatedQueryNumber) throws Exception {
+		long timeStart = System.currentTimeMillis();
+		SPARQLUpdateGenerator updateGenerator = new SPARQLUpdateGenerator(generator.getRootClass(),
+				generator.getClassMap(), seed, randomSourceType, prefixName2PrefixMap.get(":"));
+		StringBuilder workload = new StringBuilder();
+		int readCount = 0;
+		int updateCount = 0;
+		for (long position = 0; readCount < generatedQueryNumber; position++) {
+			String operation;
+			if (Math.floor((position + 1) * updateRatio) > Math.floor(position * updateRatio)) {
+				UpdateRequest update = updateGenerator.generateSPARQLUpdate(updateCount);
+				if (update == null) {
+					logger.error("No SPARQL update can be generated under the root class.");
+					return;
+				}
+				operation = update.toString();
+				FileUtils.writeStringToFile(new File(outputDirectory, "update" + updateCount + ".ru"), operation,
+						StandardCharsets.UTF_8);
+				updateCount++;
+			} else {
+				operation = FileUtils.readFileToString(new File(outputDirectory, "query" + readCount + ".rq"),
+						StandardCharsets.UTF_8);
+				readCount++;
+			}
+			// Line breaks between tokens are flattened, as literals have none
+			workload.append(operation.trim().replaceAll("\\s*\\R\\s*", " ")).append(System.lineSeparator());
 		}
+		FileUtils.writeStringToFile(new File(outputDirectory, "workload.txt"), workload.toString(),
+				StandardCharsets.UTF_8);
+		updateGenerator.logSummary();
+		logger.info("The time for generating a workload stream of " + readCount + " SPARQL queries and "
+				+ updateCount + " SPARQL updates is: " + (System.currentTimeMillis() - timeStart) + " ms.");
 	}
 
 	/**
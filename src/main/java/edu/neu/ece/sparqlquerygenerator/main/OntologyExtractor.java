@@ -401,11 +401,13 @@ public class OntologyExtractor {
 					cowlClassImpl.getDisjointClasses().add(disjointClass);
 			}
 			// Get individuals of each class
+			LinkedList<OWLNamedIndividual> individuals = cowlClassImpl.getNamedIndividuals();
 			for (OWLNamedIndividual ind : reasoner.instances(owlClass).collect(Collectors.toSet())) {
-				LinkedList<OWLNamedIndividual> individuals = cowlClassImpl.getNamedIndividuals();
 				if (!individuals.contains(ind))
 					individuals.add(ind);
 			}
+			// Keep the order of individuals stable across runs for reproducible queries
+			individuals.sort(null);
 
 			/*
 			 * Set<OWLAnonymousClassExpression> anonyClassExpSet = new
@@ -0,0 +1,689 @@
+package edu.neu.ece.sparqlquerygenerator.statistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.sparql.core.TriplePath;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.expr.E_Equals;
+import org.apache.jena.sparql.expr.E_Exists;
+import org.apache.jena.sparql.expr.E_GreaterThan;
+import org.apache.jena.sparql.expr.E_GreaterThanOrEqual;
+import org.apache.jena.sparql.expr.E_LessThan;
+import org.apache.jena.sparql.expr.E_LessThanOrEqual;
+import org.apache.jena.sparql.expr.E_LogicalAnd;
+import org.apache.jena.sparql.expr.E_LogicalNot;
+import org.apache.jena.sparql.expr.E_LogicalOr;
+import org.apache.jena.sparql.expr.E_NotEquals;
+import org.apache.jena.sparql.expr.E_NotExists;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.ExprFunction2;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.path.P_Alt;
+import org.apache.jena.sparql.path.P_Inverse;
+import org.apache.jena.sparql.path.P_Link;
+import org.apache.jena.sparql.path.P_OneOrMore1;
+import org.apache.jena.sparql.path.P_OneOrMoreN;
+import org.apache.jena.sparql.path.P_Seq;
+import org.apache.jena.sparql.path.P_ZeroOrMore1;
+import org.apache.jena.sparql.path.P_ZeroOrMoreN;
+import org.apache.jena.sparql.path.P_ZeroOrOne;
+import org.apache.jena.sparql.path.Path;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementData;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementMinus;
+import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementSubQuery;
+import org.apache.jena.sparql.syntax.ElementTriplesBlock;
+import org.apache.jena.sparql.syntax.ElementUnion;
+import org.apache.jena.sparql.util.ExprUtils;
+import org.apache.jena.vocabulary.RDF;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+/**
+ * This class estimates the number of results of a SPARQL query over the
+ * dataset from its statistics, without executing the query. Graph patterns are
+ * estimated bottom-up as a number of solutions and the number of distinct
+ * values of each variable, in the style of System R: joins divide the product
+ * of their inputs by the larger number of distinct values of each shared
+ * variable; OPTIONAL keeps at least its left side; UNION adds its sides; MINUS,
+ * EXISTS and NOT EXISTS assume that the values of the shared variables on the
+ * smaller side are contained in the larger side. Numeric comparisons with a
+ * constant are estimated from the histogram of the data property that binds
+ * the variable, other filters over such a variable are evaluated on a sample of
+ * its distinct values, and the remaining filters are assumed to keep a third
+ * of the solutions. VALUES rows only count if the values of data properties
+ * are in the dataset. The projection, DISTINCT, aggregates, GROUP BY, LIMIT and
+ * OFFSET are applied last. An instance is not thread-safe.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class CardinalityEstimator {
+
+	/**
+	 * Estimated solutions of a graph pattern.
+	 */
+	private static final class Estimate {
+
+		/**
+		 * The number of solutions.
+		 */
+		double cardinality;
+
+		/**
+		 * Container that maps variables bound by the graph pattern to their numbers
+		 * of distinct values.
+		 */
+		final Map<Var, Double> distinctValues = new HashMap<>();
+
+		/**
+		 * Constructor
+		 *
+		 * @param cardinality
+		 *            The number of solutions.
+		 */
+		Estimate(double cardinality) {
+			this.cardinality = cardinality;
+		}
+
+		/**
+		 * Bind a variable with a number of distinct values, which is capped by the
+		 * number of solutions.
+		 *
+		 * @param var
+		 *            Variable; ignored unless it is a variable.
+		 * @param distinct
+		 *            The number of distinct values.
+		 */
+		void bind(Node var, double distinct) {
+			if (var.isVariable())
+				distinctValues.merge((Var) var, Math.min(distinct, cardinality), Math::min);
+		}
+
+		/**
+		 * Get the number of distinct values of a variable.
+		 *
+		 * @param var
+		 *            Variable.
+		 * @return The number of distinct values; the number of solutions if the
+		 *         variable is not bound.
+		 */
+		double getDistinctValues(Var var) {
+			return distinctValues.getOrDefault(var, cardinality);
+		}
+	}
+
+	/**
+	 * Estimated matches of a property path, with the distinct subjects and
+	 * objects of the matches.
+	 */
+	private static final class PathEstimate {
+
+		/**
+		 * The number of matches.
+		 */
+		final double matches;
+
+		/**
+		 * The number of distinct subjects.
+		 */
+		final double subjects;
+
+		/**
+		 * The number of distinct objects.
+		 */
+		final double objects;
+
+		/**
+		 * Constructor
+		 *
+		 * @param matches
+		 *            The number of matches.
+		 * @param subjects
+		 *            The number of distinct subjects.
+		 * @param objects
+		 *            The number of distinct objects.
+		 */
+		PathEstimate(double matches, double subjects, double objects) {
+			this.matches = matches;
+			this.subjects = subjects;
+			this.objects = objects;
+		}
+	}
+
+	/**
+	 * The fraction of solutions kept by a filter whose selectivity is unknown.
+	 */
+	private static final double DEFAULT_SELECTIVITY = 1.0 / 3;
+
+	/**
+	 * The maximum number of distinct values of a data property that a filter is
+	 * evaluated on.
+	 */
+	private static final int MAX_SAMPLE_SIZE = 1000;
+
+	/**
+	 * Statistics of the dataset.
+	 */
+	private final DatasetStatistics statistics;
+
+	/**
+	 * Container that maps IRIs of data properties to a sample of their distinct
+	 * values as RDF terms.
+	 */
+	private final Map<String, List<Node>> valueSamples = new HashMap<>();
+
+	/**
+	 * Container that maps IRIs of data properties to their distinct values as RDF
+	 * terms.
+	 */
+	private final Map<String, Set<Node>> valueSets = new HashMap<>();
+
+	/**
+	 * Container that maps variables of the current query to the data properties
+	 * that bind them.
+	 */
+	private final Map<Var, String> dataProperties = new HashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param statistics
+	 *            Statistics of the dataset.
+	 */
+	public CardinalityEstimator(DatasetStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Estimate the number of results of a SPARQL query.
+	 *
+	 * @param query
+	 *            The SPARQL query, which is not modified.
+	 * @return The estimated number of results.
+	 */
+	public double estimate(Query query) {
+		dataProperties.clear();
+		return estimateQuery(query).cardinality;
+	}
+
+	/**
+	 * Estimate the solutions of a query, projected on its result variables.
+	 *
+	 * @param query
+	 *            The query or subquery.
+	 * @return The estimated solutions.
+	 */
+	private Estimate estimateQuery(Query query) {
+		Estimate pattern = query.getQueryPattern() == null ? new Estimate(1) : estimateElement(query.getQueryPattern());
+		double cardinality = pattern.cardinality;
+		if (query.hasGroupBy()) {
+			double groups = 1;
+			for (Var var : query.getGroupBy().getVars())
+				groups *= pattern.getDistinctValues(var);
+			cardinality = Math.min(cardinality, groups);
+		} else if (query.hasAggregators())
+			cardinality = 1;
+		else if (query.isDistinct() || query.isReduced()) {
+			double combinations = 1;
+			for (Var var : query.getProjectVars())
+				combinations *= pattern.getDistinctValues(var);
+			cardinality = Math.min(cardinality, combinations);
+		}
+		if (query.hasOffset())
+			cardinality = Math.max(0, cardinality - query.getOffset());
+		if (query.hasLimit())
+			cardinality = Math.min(cardinality, query.getLimit());
+		Estimate estimate = new Estimate(cardinality);
+		for (Var var : query.getProjectVars())
+			estimate.bind(var, pattern.getDistinctValues(var));
+		return estimate;
+	}
+
+	/**
+	 * Estimate the solutions of a graph pattern.
+	 *
+	 * @param element
+	 *            The graph pattern.
+	 * @return The estimated solutions.
+	 */
+	private Estimate estimateElement(Element element) {
+		if (element instanceof ElementGroup) {
+			Estimate estimate = new Estimate(1);
+			List<Expr> filters = new ArrayList<>();
+			List<ElementData> dataBlocks = new ArrayList<>();
+			for (Element el : ((ElementGroup) element).getElements()) {
+				if (el instanceof ElementFilter)
+					filters.add(((ElementFilter) el).getExpr());
+				else if (el instanceof ElementData)
+					dataBlocks.add((ElementData) el);
+				else if (el instanceof ElementOptional) {
+					Estimate joined = join(estimate, estimateElement(((ElementOptional) el).getOptionalElement()));
+					if (joined.cardinality < estimate.cardinality) {
+						joined.cardinality = estimate.cardinality;
+						joined.distinctValues.putAll(estimate.distinctValues);
+					}
+					estimate = joined;
+				} else if (el instanceof ElementMinus)
+					estimate.cardinality *= 1
+							- estimateOverlap(estimate, estimateElement(((ElementMinus) el).getMinusElement()), false);
+				else
+					estimate = join(estimate, estimateElement(el));
+			}
+			// Data blocks are joined once the data properties of the group are known
+			for (ElementData data : dataBlocks)
+				estimate = join(estimate, estimateData(data));
+			// Filters apply to the whole group
+			if (filters.isEmpty())
+				return estimate;
+			double cardinality = estimate.cardinality;
+			for (Expr filter : filters)
+				cardinality *= estimateSelectivity(filter, estimate);
+			Estimate filtered = new Estimate(cardinality);
+			for (Entry<Var, Double> entry : estimate.distinctValues.entrySet())
+				filtered.bind(entry.getKey(), entry.getValue());
+			return filtered;
+		}
+		if (element instanceof ElementTriplesBlock) {
+			Estimate estimate = new Estimate(1);
+			for (Triple triple : ((ElementTriplesBlock) element).getPattern())
+				estimate = join(estimate, estimateTriple(triple));
+			return estimate;
+		}
+		if (element instanceof ElementPathBlock) {
+			Estimate estimate = new Estimate(1);
+			for (TriplePath triplePath : ((ElementPathBlock) element).getPattern())
+				estimate = join(estimate, triplePath.isTriple() ? estimateTriple(triplePath.asTriple())
+						: estimatePath(triplePath));
+			return estimate;
+		}
+		if (element instanceof ElementUnion) {
+			Estimate estimate = new Estimate(0);
+			for (Element el : ((ElementUnion) element).getElements()) {
+				Estimate branch = estimateElement(el);
+				estimate.cardinality += branch.cardinality;
+				for (Entry<Var, Double> entry : branch.distinctValues.entrySet())
+					estimate.distinctValues.merge(entry.getKey(), entry.getValue(), Double::sum);
+			}
+			return estimate;
+		}
+		if (element instanceof ElementSubQuery)
+			return estimateQuery(((ElementSubQuery) element).getQuery());
+		if (element instanceof ElementData)
+			return estimateData((ElementData) element);
+		// Other elements are not generated, and are assumed not to restrict the
+		// solutions
+		return new Estimate(1);
+	}
+
+	/**
+	 * Estimate the solutions of a VALUES block. Rows that bind a variable of a
+	 * data property to a value that the property does not have in the dataset are
+	 * not counted, since they join no solution.
+	 *
+	 * @param data
+	 *            The VALUES block.
+	 * @return The estimated solutions.
+	 */
+	private Estimate estimateData(ElementData data) {
+		List<Binding> rows = new ArrayList<>();
+		for (Binding row : data.getRows()) {
+			boolean matched = true;
+			for (Var var : data.getVars()) {
+				String propertyIRI = dataProperties.get(var);
+				if (propertyIRI != null && row.contains(var)
+						&& !valueSets.computeIfAbsent(propertyIRI, this::collectValues).contains(row.get(var)))
+					matched = false;
+			}
+			if (matched)
+				rows.add(row);
+		}
+		Estimate estimate = new Estimate(rows.size());
+		for (Var var : data.getVars()) {
+			Set<Node> values = new HashSet<>();
+			for (Binding row : rows)
+				if (row.contains(var))
+					values.add(row.get(var));
+			estimate.bind(var, values.size());
+		}
+		return estimate;
+	}
+
+	/**
+	 * Estimate the solutions of a triple pattern.
+	 *
+	 * @param triple
+	 *            The triple pattern.
+	 * @return The estimated solutions.
+	 */
+	private Estimate estimateTriple(Triple triple) {
+		Node subject = triple.getSubject(), predicate = triple.getPredicate(), object = triple.getObject();
+		Estimate estimate = new Estimate(statistics.estimateMatches(triple));
+		if (!predicate.isURI()) {
+			estimate.bind(predicate, statistics.getPropertyCount());
+			estimate.bind(subject, estimate.cardinality);
+			estimate.bind(object, estimate.cardinality);
+			return estimate;
+		}
+		String propertyIRI = predicate.getURI();
+		if (propertyIRI.equals(RDF.type.getURI()) && object.isURI()) {
+			// Every instance of the class is a distinct subject
+			estimate.bind(subject, estimate.cardinality);
+			return estimate;
+		}
+		if (subject.isVariable() && subject.equals(object))
+			estimate.cardinality /= Math.max(1, Math.max(statistics.getDistinctSubjectCount(propertyIRI),
+					statistics.getDistinctObjectCount(propertyIRI)));
+		estimate.bind(subject, statistics.getDistinctSubjectCount(propertyIRI));
+		estimate.bind(object, statistics.getDistinctObjectCount(propertyIRI));
+		if (object.isVariable() && !statistics.getDistinctValues(propertyIRI).isEmpty())
+			dataProperties.put((Var) object, propertyIRI);
+		return estimate;
+	}
+
+	/**
+	 * Estimate the solutions of a triple pattern whose predicate is a property
+	 * path.
+	 *
+	 * @param triplePath
+	 *            The triple pattern.
+	 * @return The estimated solutions.
+	 */
+	private Estimate estimatePath(TriplePath triplePath) {
+		PathEstimate path = estimatePath(triplePath.getPath());
+		double matches = path.matches;
+		if (triplePath.getSubject().isConcrete())
+			matches /= Math.max(1, path.subjects);
+		if (triplePath.getObject().isConcrete())
+			matches /= Math.max(1, path.objects);
+		Estimate estimate = new Estimate(matches);
+		estimate.bind(triplePath.getSubject(), path.subjects);
+		estimate.bind(triplePath.getObject(), path.objects);
+		return estimate;
+	}
+
+	/**
+	 * Estimate the matches of a property path. Sequences join their steps on the
+	 * intermediate nodes, alternatives add their branches, and the transitive
+	 * closure of a path is assumed to match twice as many pairs as the path.
+	 *
+	 * @param path
+	 *            The property path.
+	 * @return The estimated matches.
+	 */
+	private PathEstimate estimatePath(Path path) {
+		if (path instanceof P_Link) {
+			String propertyIRI = ((P_Link) path).getNode().getURI();
+			return new PathEstimate(statistics.getTripleCount(propertyIRI),
+					statistics.getDistinctSubjectCount(propertyIRI), statistics.getDistinctObjectCount(propertyIRI));
+		}
+		if (path instanceof P_Inverse) {
+			PathEstimate inner = estimatePath(((P_Inverse) path).getSubPath());
+			return new PathEstimate(inner.matches, inner.objects, inner.subjects);
+		}
+		if (path instanceof P_Seq) {
+			PathEstimate left = estimatePath(((P_Seq) path).getLeft());
+			PathEstimate right = estimatePath(((P_Seq) path).getRight());
+			double matches = left.matches * right.matches / Math.max(1, Math.max(left.objects, right.subjects));
+			return new PathEstimate(matches, Math.min(left.subjects, matches), Math.min(right.objects, matches));
+		}
+		if (path instanceof P_Alt) {
+			PathEstimate left = estimatePath(((P_Alt) path).getLeft());
+			PathEstimate right = estimatePath(((P_Alt) path).getRight());
+			return new PathEstimate(left.matches + right.matches, left.subjects + right.subjects,
+					left.objects + right.objects);
+		}
+		if (path instanceof P_OneOrMore1 || path instanceof P_OneOrMoreN) {
+			PathEstimate inner = estimatePath(path instanceof P_OneOrMore1 ? ((P_OneOrMore1) path).getSubPath()
+					: ((P_OneOrMoreN) path).getSubPath());
+			return new PathEstimate(Math.min(2 * inner.matches, inner.subjects * inner.objects), inner.subjects,
+					inner.objects);
+		}
+		if (path instanceof P_ZeroOrMore1 || path instanceof P_ZeroOrMoreN || path instanceof P_ZeroOrOne) {
+			Path subPath = path instanceof P_ZeroOrMore1 ? ((P_ZeroOrMore1) path).getSubPath()
+					: path instanceof P_ZeroOrMoreN ? ((P_ZeroOrMoreN) path).getSubPath()
+							: ((P_ZeroOrOne) path).getSubPath();
+			PathEstimate inner = estimatePath(subPath);
+			double closure = path instanceof P_ZeroOrOne ? inner.matches
+					: Math.min(2 * inner.matches, inner.subjects * inner.objects);
+			// The zero-length path matches every node, at least the nodes of the path
+			double nodes = Math.max(inner.subjects, inner.objects);
+			return new PathEstimate(closure + nodes, nodes, nodes);
+		}
+		// Other paths are not generated, and are estimated like a variable predicate
+		double matches = statistics.getTripleCount();
+		return new PathEstimate(matches, matches, matches);
+	}
+
+	/**
+	 * Join the solutions of two graph patterns.
+	 *
+	 * @param left
+	 *            Solutions of the left graph pattern.
+	 * @param right
+	 *            Solutions of the right graph pattern.
+	 * @return The estimated solutions of the join.
+	 */
+	private Estimate join(Estimate left, Estimate right) {
+		double cardinality = left.cardinality * right.cardinality;
+		for (Entry<Var, Double> entry : left.distinctValues.entrySet()) {
+			Double distinct = right.distinctValues.get(entry.getKey());
+			if (distinct != null)
+				cardinality /= Math.max(1, Math.max(entry.getValue(), distinct));
+		}
+		Estimate estimate = new Estimate(cardinality);
+		for (Entry<Var, Double> entry : left.distinctValues.entrySet())
+			estimate.bind(entry.getKey(), entry.getValue());
+		for (Entry<Var, Double> entry : right.distinctValues.entrySet())
+			estimate.bind(entry.getKey(), entry.getValue());
+		return estimate;
+	}
+
+	/**
+	 * Estimate the fraction of the solutions of a graph pattern that are
+	 * compatible with a solution of another graph pattern, assuming that the
+	 * values of each shared variable on the side with fewer distinct values are
+	 * contained in the other side.
+	 *
+	 * @param left
+	 *            Solutions of the graph pattern.
+	 * @param right
+	 *            Solutions of the other graph pattern.
+	 * @param crossProduct
+	 *            True if the graph patterns without a shared variable are
+	 *            compatible as long as the other graph pattern has a solution, as
+	 *            for EXISTS; false if they are never compatible, as for MINUS.
+	 * @return The estimated fraction, in [0, 1].
+	 */
+	private double estimateOverlap(Estimate left, Estimate right, boolean crossProduct) {
+		if (right.cardinality <= 0)
+			return 0;
+		double overlap = 1;
+		boolean shared = false;
+		for (Entry<Var, Double> entry : left.distinctValues.entrySet()) {
+			Double distinct = right.distinctValues.get(entry.getKey());
+			if (distinct != null) {
+				shared = true;
+				overlap *= Math.min(1, distinct / Math.max(1, entry.getValue()));
+			}
+		}
+		if (!shared)
+			return crossProduct ? Math.min(1, right.cardinality) : 0;
+		return overlap;
+	}
+
+	/**
+	 * Estimate the fraction of the solutions of a graph pattern that satisfy a
+	 * filter expression.
+	 *
+	 * @param expr
+	 *            The filter expression.
+	 * @param estimate
+	 *            Solutions of the graph pattern.
+	 * @return The estimated fraction, in [0, 1].
+	 */
+	private double estimateSelectivity(Expr expr, Estimate estimate) {
+		if (expr instanceof E_LogicalAnd)
+			return estimateSelectivity(((E_LogicalAnd) expr).getArg1(), estimate)
+					* estimateSelectivity(((E_LogicalAnd) expr).getArg2(), estimate);
+		if (expr instanceof E_LogicalOr) {
+			double s1 = estimateSelectivity(((E_LogicalOr) expr).getArg1(), estimate);
+			double s2 = estimateSelectivity(((E_LogicalOr) expr).getArg2(), estimate);
+			return s1 + s2 - s1 * s2;
+		}
+		if (expr instanceof E_LogicalNot)
+			return 1 - estimateSelectivity(((E_LogicalNot) expr).getArg(), estimate);
+		if (expr instanceof E_Exists)
+			return estimateOverlap(estimate, estimateElement(((E_Exists) expr).getElement()), true);
+		if (expr instanceof E_NotExists)
+			return 1 - estimateOverlap(estimate, estimateElement(((E_NotExists) expr).getElement()), true);
+		Set<Var> vars = expr.getVarsMentioned();
+		if (vars.size() != 1)
+			return DEFAULT_SELECTIVITY;
+		Var var = vars.iterator().next();
+		String propertyIRI = dataProperties.get(var);
+		double equalitySelectivity = 1 / Math.max(1, estimate.getDistinctValues(var));
+		if (propertyIRI != null && statistics.hasNumericValues(propertyIRI) && expr instanceof ExprFunction2) {
+			Double selectivity = estimateComparison((ExprFunction2) expr, propertyIRI);
+			if (selectivity != null)
+				return selectivity;
+		}
+		if (propertyIRI != null)
+			return evaluateOnSample(expr, var, propertyIRI);
+		if (expr instanceof E_Equals)
+			return equalitySelectivity;
+		if (expr instanceof E_NotEquals)
+			return 1 - equalitySelectivity;
+		return DEFAULT_SELECTIVITY;
+	}
+
+	/**
+	 * Estimate the selectivity of a comparison between a variable bound by a
+	 * numeric data property and a numeric constant from the histogram of the
+	 * data property.
+	 *
+	 * @param expr
+	 *            The comparison.
+	 * @param propertyIRI
+	 *            IRI of the data property, which has numeric values.
+	 * @return The estimated fraction, in [0, 1]; null if the expression is not
+	 *         such a comparison.
+	 */
+	private Double estimateComparison(ExprFunction2 expr, String propertyIRI) {
+		Expr arg1 = expr.getArg1(), arg2 = expr.getArg2();
+		boolean flipped = arg1.isConstant();
+		NodeValue constant = flipped ? arg1.getConstant() : arg2.getConstant();
+		if (constant == null || !constant.isNumber() || !(flipped ? arg2 : arg1).isVariable())
+			return null;
+		double value = constant.getDouble();
+		double below = statistics.estimateFractionBelow(propertyIRI, value);
+		double equal = value < statistics.getMinValue(propertyIRI) || value > statistics.getMaxValue(propertyIRI) ? 0
+				: 1.0 / Math.max(1, statistics.getDistinctObjectCount(propertyIRI));
+		double above = Math.max(0, 1 - below - equal);
+		// The constant on the left reverses the comparison
+		if (expr instanceof E_LessThan)
+			return flipped ? above : below;
+		if (expr instanceof E_LessThanOrEqual)
+			return Math.min(1, flipped ? above + equal : below + equal);
+		if (expr instanceof E_GreaterThan)
+			return flipped ? below : above;
+		if (expr instanceof E_GreaterThanOrEqual)
+			return Math.min(1, flipped ? below + equal : above + equal);
+		if (expr instanceof E_Equals)
+			return equal;
+		if (expr instanceof E_NotEquals)
+			return 1 - equal;
+		return null;
+	}
+
+	/**
+	 * Estimate the selectivity of a filter expression over a variable bound by a
+	 * data property as the fraction of a sample of its distinct values that
+	 * satisfy the expression.
+	 *
+	 * @param expr
+	 *            The filter expression.
+	 * @param var
+	 *            The only variable of the expression.
+	 * @param propertyIRI
+	 *            IRI of the data property that binds the variable.
+	 * @return The estimated fraction, in [0, 1].
+	 */
+	private double evaluateOnSample(Expr expr, Var var, String propertyIRI) {
+		List<Node> sample = valueSamples.computeIfAbsent(propertyIRI, this::sampleValues);
+		int satisfied = 0;
+		for (Node value : sample) {
+			try {
+				if (ExprUtils.eval(expr, BindingFactory.binding(var, value)).getBoolean())
+					satisfied++;
+			} catch (ExprEvalException e) {
+				// An error does not satisfy the filter
+			}
+		}
+		return (double) satisfied / sample.size();
+	}
+
+	/**
+	 * Sample the distinct values of a data property evenly in their natural order.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the data property, which has values.
+	 * @return The sampled values as RDF terms.
+	 */
+	private List<Node> sampleValues(String propertyIRI) {
+		List<OWLLiteral> values = statistics.getDistinctValues(propertyIRI);
+		int size = Math.min(values.size(), MAX_SAMPLE_SIZE);
+		List<Node> sample = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			sample.add(toNode(values.get((int) ((long) i * values.size() / size))));
+		return sample;
+	}
+
+	/**
+	 * Collect the distinct values of a data property.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the data property.
+	 * @return The values as RDF terms.
+	 */
+	private Set<Node> collectValues(String propertyIRI) {
+		Set<Node> values = new HashSet<>();
+		for (OWLLiteral literal : statistics.getDistinctValues(propertyIRI))
+			values.add(toNode(literal));
+		return values;
+	}
+
+	/**
+	 * Convert an OWL literal to an RDF term.
+	 *
+	 * @param literal
+	 *            OWL literal.
+	 * @return The RDF term.
+	 */
+	private static Node toNode(OWLLiteral literal) {
+		if (literal.hasLang())
+			return NodeFactory.createLiteral(literal.getLiteral(), literal.getLang());
+		if (literal.isRDFPlainLiteral())
+			return NodeFactory.createLiteral(literal.getLiteral());
+		return NodeFactory.createLiteral(literal.getLiteral(),
+				TypeMapper.getInstance().getSafeTypeByName(literal.getDatatype().getIRI().getIRIString()));
+	}
+}
@@ -0,0 +1,396 @@
+package edu.neu.ece.sparqlquerygenerator.statistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.vocabulary.RDF;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+/**
+ * This class records statistics of the assertions (ABox) of the input
+ * ontology, collected in one pass over its axioms: the number of instances of
+ * each named class, and the number of triples and of distinct subjects and
+ * objects of each property, including rdf:type. The statistics are used to
+ * estimate how many triples of the dataset match a triple pattern. The
+ * distinct values of each data property are kept as well, so that filter
+ * constants can be sampled from the dataset, and the minimum, the maximum and
+ * an equi-depth histogram of its numeric values, so that numeric filter
+ * constants can be drawn to hit a selectivity.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class DatasetStatistics {
+
+	/**
+	 * Statistics of the triples of a property.
+	 */
+	private static final class PropertyStatistics {
+
+		/**
+		 * The number of triples.
+		 */
+		private long tripleCount = 0;
+
+		/**
+		 * Distinct subjects, only kept while the statistics are collected.
+		 */
+		private Set<Object> subjects = new HashSet<>();
+
+		/**
+		 * Distinct objects, only kept while the statistics are collected.
+		 */
+		private Set<Object> objects = new HashSet<>();
+
+		/**
+		 * The number of distinct subjects.
+		 */
+		private long distinctSubjectCount = 0;
+
+		/**
+		 * The number of distinct objects.
+		 */
+		private long distinctObjectCount = 0;
+
+		/**
+		 * Distinct literal objects in their natural order; empty unless the
+		 * property is a data property.
+		 */
+		private List<OWLLiteral> distinctValues = Collections.emptyList();
+
+		/**
+		 * Numeric objects, duplicates included, only kept while the statistics are
+		 * collected.
+		 */
+		private List<Double> numericValues = new ArrayList<>();
+
+		/**
+		 * Boundaries of the buckets of the equi-depth histogram of the numeric
+		 * objects, from the minimum to the maximum; null if the property has no
+		 * numeric object.
+		 */
+		private double[] histogram;
+
+		/**
+		 * Add a triple of the property.
+		 *
+		 * @param subject
+		 *            Subject of the triple.
+		 * @param object
+		 *            Object of the triple.
+		 */
+		private void add(Object subject, Object object) {
+			tripleCount++;
+			subjects.add(subject);
+			objects.add(object);
+			if (object instanceof OWLLiteral) {
+				OWLLiteral literal = (OWLLiteral) object;
+				OWLDatatype datatype = literal.getDatatype();
+				if (datatype.isBuiltIn() && datatype.getBuiltInDatatype().isNumeric())
+					try {
+						numericValues.add(Double.parseDouble(literal.getLiteral()));
+					} catch (NumberFormatException e) {
+						// Ill-formed values are left out of the histogram
+					}
+			}
+		}
+
+		/**
+		 * Count the distinct subjects and objects and release them.
+		 */
+		private void seal() {
+			distinctSubjectCount = subjects.size();
+			distinctObjectCount = objects.size();
+			List<OWLLiteral> values = new ArrayList<>();
+			for (Object object : objects)
+				if (object instanceof OWLLiteral)
+					values.add((OWLLiteral) object);
+			if (!values.isEmpty()) {
+				Collections.sort(values);
+				distinctValues = Collections.unmodifiableList(values);
+			}
+			if (!numericValues.isEmpty()) {
+				Collections.sort(numericValues);
+				int n = numericValues.size();
+				histogram = new double[HISTOGRAM_BUCKETS + 1];
+				for (int i = 0; i <= HISTOGRAM_BUCKETS; i++)
+					histogram[i] = numericValues.get((int) ((long) i * (n - 1) / HISTOGRAM_BUCKETS));
+			}
+			numericValues = null;
+			subjects = null;
+			objects = null;
+		}
+	}
+
+	/**
+	 * The number of buckets of the equi-depth histogram of each data property.
+	 */
+	private static final int HISTOGRAM_BUCKETS = 32;
+
+	/**
+	 * Container that maps IRIs of named classes to their numbers of asserted
+	 * instances.
+	 */
+	private final Map<String, Long> instanceCounts = new HashMap<>();
+
+	/**
+	 * Container that maps IRIs of properties, including rdf:type, to their
+	 * statistics.
+	 */
+	private final Map<String, PropertyStatistics> propertyStatistics = new HashMap<>();
+
+	/**
+	 * The number of triples of all the properties.
+	 */
+	private long tripleCount = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param ont
+	 *            The input ontology, whose assertions with imports are the
+	 *            dataset.
+	 */
+	public DatasetStatistics(OWLOntology ont) {
+		String typeIRI = RDF.type.getURI();
+		ont.axioms(Imports.INCLUDED).forEach(axiom -> {
+			if (axiom instanceof OWLClassAssertionAxiom) {
+				OWLClassAssertionAxiom ax = (OWLClassAssertionAxiom) axiom;
+				if (ax.getClassExpression().isAnonymous())
+					return;
+				String classIRI = ax.getClassExpression().asOWLClass().getIRI().getIRIString();
+				instanceCounts.merge(classIRI, 1L, Long::sum);
+				addTriple(typeIRI, ax.getIndividual(), classIRI);
+			} else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+				// Assertions of inverse properties are simplified to the named property
+				OWLObjectPropertyAssertionAxiom ax = ((OWLObjectPropertyAssertionAxiom) axiom).getSimplified();
+				addTriple(ax.getProperty().asOWLObjectProperty().getIRI().getIRIString(), ax.getSubject(),
+						ax.getObject());
+			} else if (axiom instanceof OWLDataPropertyAssertionAxiom) {
+				OWLDataPropertyAssertionAxiom ax = (OWLDataPropertyAssertionAxiom) axiom;
+				addTriple(ax.getProperty().asOWLDataProperty().getIRI().getIRIString(), ax.getSubject(),
+						ax.getObject());
+			}
+		});
+		for (PropertyStatistics statistics : propertyStatistics.values())
+			statistics.seal();
+	}
+
+	/**
+	 * Add a triple to the statistics of its property.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the property.
+	 * @param subject
+	 *            Subject of the triple.
+	 * @param object
+	 *            Object of the triple.
+	 */
+	private void addTriple(String propertyIRI, Object subject, Object object) {
+		propertyStatistics.computeIfAbsent(propertyIRI, iri -> new PropertyStatistics()).add(subject, object);
+		tripleCount++;
+	}
+
+	/**
+	 * Get the number of triples of all the properties.
+	 *
+	 * @return The number of triples.
+	 */
+	public long getTripleCount() {
+		return tripleCount;
+	}
+
+	/**
+	 * Get the number of properties, including rdf:type, that have triples.
+	 *
+	 * @return The number of properties.
+	 */
+	public int getPropertyCount() {
+		return propertyStatistics.size();
+	}
+
+	/**
+	 * Get the number of asserted instances of a named class.
+	 *
+	 * @param classIRI
+	 *            IRI of the named class.
+	 * @return The number of instances; 0 if the class has none.
+	 */
+	public long getInstanceCount(String classIRI) {
+		return instanceCounts.getOrDefault(classIRI, 0L);
+	}
+
+	/**
+	 * Get the number of triples of a property.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the property.
+	 * @return The number of triples; 0 if the property has none.
+	 */
+	public long getTripleCount(String propertyIRI) {
+		PropertyStatistics statistics = propertyStatistics.get(propertyIRI);
+		return statistics == null ? 0 : statistics.tripleCount;
+	}
+
+	/**
+	 * Get the number of distinct subjects of a property.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the property.
+	 * @return The number of distinct subjects; 0 if the property has no triple.
+	 */
+	public long getDistinctSubjectCount(String propertyIRI) {
+		PropertyStatistics statistics = propertyStatistics.get(propertyIRI);
+		return statistics == null ? 0 : statistics.distinctSubjectCount;
+	}
+
+	/**
+	 * Get the number of distinct objects of a property.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the property.
+	 * @return The number of distinct objects; 0 if the property has no triple.
+	 */
+	public long getDistinctObjectCount(String propertyIRI) {
+		PropertyStatistics statistics = propertyStatistics.get(propertyIRI);
+		return statistics == null ? 0 : statistics.distinctObjectCount;
+	}
+
+	/**
+	 * Get the distinct values of a data property, e.g. to sample the constants of
+	 * filters from.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the data property.
+	 * @return The distinct values in their natural order, which must not be
+	 *         modified; empty if the property has no triple.
+	 */
+	public List<OWLLiteral> getDistinctValues(String propertyIRI) {
+		PropertyStatistics statistics = propertyStatistics.get(propertyIRI);
+		return statistics == null ? Collections.emptyList() : statistics.distinctValues;
+	}
+
+	/**
+	 * Check if a data property has numeric values, which its value distribution
+	 * is recorded for.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the data property.
+	 * @return True if the property has numeric values, false otherwise.
+	 */
+	public boolean hasNumericValues(String propertyIRI) {
+		PropertyStatistics statistics = propertyStatistics.get(propertyIRI);
+		return statistics != null && statistics.histogram != null;
+	}
+
+	/**
+	 * Get the minimum numeric value of a data property.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the data property, which must have numeric values.
+	 * @return The minimum value.
+	 */
+	public double getMinValue(String propertyIRI) {
+		return propertyStatistics.get(propertyIRI).histogram[0];
+	}
+
+	/**
+	 * Get the maximum numeric value of a data property.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the data property, which must have numeric values.
+	 * @return The maximum value.
+	 */
+	public double getMaxValue(String propertyIRI) {
+		return propertyStatistics.get(propertyIRI).histogram[HISTOGRAM_BUCKETS];
+	}
+
+	/**
+	 * Estimate the numeric value of a data property below which a given fraction
+	 * of its values lie, by linear interpolation inside a bucket of its equi-depth
+	 * histogram.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the data property, which must have numeric values.
+	 * @param fraction
+	 *            The fraction of the values, in [0, 1].
+	 * @return The estimated value.
+	 */
+	public double estimateValueAtFraction(String propertyIRI, double fraction) {
+		double[] histogram = propertyStatistics.get(propertyIRI).histogram;
+		double position = Math.min(Math.max(fraction, 0), 1) * HISTOGRAM_BUCKETS;
+		int bucket = Math.min((int) position, HISTOGRAM_BUCKETS - 1);
+		return histogram[bucket] + (position - bucket) * (histogram[bucket + 1] - histogram[bucket]);
+	}
+
+	/**
+	 * Estimate the fraction of the numeric values of a data property that are
+	 * less than a value, by linear interpolation inside a bucket of its equi-depth
+	 * histogram. This is the inverse of {@link #estimateValueAtFraction}.
+	 *
+	 * @param propertyIRI
+	 *            IRI of the data property, which must have numeric values.
+	 * @param value
+	 *            The value.
+	 * @return The estimated fraction, in [0, 1].
+	 */
+	public double estimateFractionBelow(String propertyIRI, double value) {
+		double[] histogram = propertyStatistics.get(propertyIRI).histogram;
+		if (value <= histogram[0])
+			return 0;
+		if (value > histogram[HISTOGRAM_BUCKETS])
+			return 1;
+		int bucket = 0;
+		while (bucket < HISTOGRAM_BUCKETS - 1 && value > histogram[bucket + 1])
+			bucket++;
+		double width = histogram[bucket + 1] - histogram[bucket];
+		double offset = width > 0 ? (value - histogram[bucket]) / width : 1;
+		return Math.min((bucket + offset) / HISTOGRAM_BUCKETS, 1);
+	}
+
+	/**
+	 * Estimate the number of triples of the dataset that match a triple pattern in
+	 * isolation. A class assertion matches the instances of its class; otherwise
+	 * the triples of the property are divided by its distinct subjects if the
+	 * subject is fixed and by its distinct objects if the object is fixed, i.e.
+	 * values are assumed to be uniformly distributed. A variable predicate
+	 * matches all the triples.
+	 *
+	 * @param triple
+	 *            Triple pattern.
+	 * @return The estimated number of matching triples.
+	 */
+	public double estimateMatches(Triple triple) {
+		Node predicate = triple.getPredicate();
+		if (!predicate.isURI())
+			return tripleCount;
+		String propertyIRI = predicate.getURI();
+		Node object = triple.getObject();
+		double matches;
+		if (propertyIRI.equals(RDF.type.getURI()) && object.isURI())
+			matches = getInstanceCount(object.getURI());
+		else {
+			matches = getTripleCount(propertyIRI);
+			if (object.isConcrete())
+				matches /= Math.max(1, getDistinctObjectCount(propertyIRI));
+		}
+		if (triple.getSubject().isConcrete())
+			matches /= Math.max(1, getDistinctSubjectCount(propertyIRI));
+		return matches;
+	}
+}
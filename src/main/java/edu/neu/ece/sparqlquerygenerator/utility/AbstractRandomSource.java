@@ -0,0 +1,46 @@
+package edu.neu.ece.sparqlquerygenerator.utility;
+
+/**
+ * Skeletal implementation of a non-synchronized random source that derives all
+ * the pseudorandom numbers from a stream of 64-bit values.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2018-10-02
+ */
+public abstract class AbstractRandomSource implements RandomSource {
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive");
+		int r = nextInt();
+		int m = bound - 1;
+		if ((bound & m) == 0)
+			return r & m;
+		// Rejection sampling to avoid modulo bias
+		for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1)
+			;
+		return r;
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	@Override
+	public float nextFloat() {
+		return (nextInt() >>> 8) * 0x1.0p-24f;
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+}
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
-import java.util.Random;
 import java.util.Set;
 
 /**
@@ -30,12 +29,12 @@ public final class CollectionUtil {
 	 * @param typeList
 	 *            List that contains elements of T type.
 	 * @param random
-	 *            Used to generate a stream of pseudorandom numbers.
+	 *            Random source used to generate a stream of pseudorandom numbers.
 	 * @return Element of T type.
 	 * @throws Exception
 	 *             If input arguments are invalid.
 	 */
-	public static <T> T getARandomElementFromList(List<T> typeList, Random random) throws Exception {
+	public static <T> T getARandomElementFromList(List<T> typeList, RandomSource random) throws Exception {
 		if (typeList == null || random == null)
 			throw new Exception("Invalid input arguments!");
 		if (typeList.isEmpty())
@@ -53,12 +52,12 @@ public final class CollectionUtil {
 	 * @param typeSet
 	 *            Set of elements of T type.
 	 * @param random
-	 *            Used to generate a stream of pseudorandom numbers.
+	 *            Random source used to generate a stream of pseudorandom numbers.
 	 * @return Element of T type.
 	 * @throws Exception
 	 *             If input arguments are invalid.
 	 */
-	public static <T> T getARandomElementFromSet(Set<T> typeSet, Random random) throws Exception {
+	public static <T> T getARandomElementFromSet(Set<T> typeSet, RandomSource random) throws Exception {
 		if (typeSet == null || random == null)
 			throw new Exception("Invalid input arguments!");
 		if (typeSet.isEmpty())
@@ -1,6 +1,10 @@
 package edu.neu.ece.sparqlquerygenerator.utility;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * File utility class that contains methods on file operations.
@@ -47,4 +51,33 @@ public final class FileUtil {
 		}
 		return f;
 	}
+
+	/**
+	 * Force the content of a file to disk.
+	 * 
+	 * @param path
+	 *            File path.
+	 * @throws IOException
+	 *             If the file cannot be synced.
+	 */
+	public static void sync(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Force the entries of a directory to disk where the platform supports it,
+	 * so that newly created files survive a crash.
+	 * 
+	 * @param path
+	 *            Directory path.
+	 */
+	public static void syncDirectory(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// Directories cannot be opened or synced on some platforms
+		}
+	}
 }
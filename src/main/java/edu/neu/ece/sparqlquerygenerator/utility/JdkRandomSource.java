@@ -0,0 +1,79 @@
+package edu.neu.ece.sparqlquerygenerator.utility;
+
+import java.util.Random;
+
+/**
+ * Random source backed by {@link java.util.Random}, at the cost of an atomic
+ * update of the seed per pseudorandom number.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2018-10-02
+ */
+public class JdkRandomSource implements RandomSource {
+
+	/**
+	 * Random object.
+	 */
+	private final Random random;
+
+	/**
+	 * Constructor
+	 *
+	 * @param seed
+	 *            Random seed.
+	 */
+	public JdkRandomSource(long seed) {
+		random = new Random(seed);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+
+	@Override
+	public int nextInt() {
+		return random.nextInt();
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+
+	@Override
+	public long nextLong() {
+		return random.nextLong();
+	}
+
+	@Override
+	public double nextDouble() {
+		return random.nextDouble();
+	}
+
+	@Override
+	public float nextFloat() {
+		return random.nextFloat();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return random.nextBoolean();
+	}
+
+	@Override
+	public int nextInt(int origin, int bound) {
+		return random.ints(origin, bound).findFirst().getAsInt();
+	}
+
+	@Override
+	public long nextLong(long origin, long bound) {
+		return random.longs(origin, bound).findFirst().getAsLong();
+	}
+
+	@Override
+	public double nextDouble(double origin, double bound) {
+		return random.doubles(origin, bound).findFirst().getAsDouble();
+	}
+}
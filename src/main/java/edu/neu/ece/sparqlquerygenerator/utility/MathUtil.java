@@ -2,7 +2,6 @@ package edu.neu.ece.sparqlquerygenerator.utility;
 
 import java.text.DecimalFormat;
 import java.util.Collection;
-import java.util.Random;
 
 /**
  * Math utility that contains math function implementations.
@@ -28,12 +27,12 @@ public final class MathUtil {
 	 * @param max
 	 *            The bound (exclusive) of each random integer value.
 	 * @param ran
-	 *            Random object.
+	 *            Random source.
 	 * @return A random integer with the given integer range.
 	 * @throws Exception
 	 *             If the input parameters are invalid.
 	 */
-	public static int getRandomIntegerInRange(int min, int max, Random ran) throws Exception {
+	public static int getRandomIntegerInRange(int min, int max, RandomSource ran) throws Exception {
 		/*
 		 * Not correct, which may cause overflow. return ran.nextInt((max - min) + 1) +
 		 * min;
@@ -43,7 +42,7 @@ public final class MathUtil {
 			return min;
 		if (max < min)
 			throw new Exception();
-		return ran.ints(min, max).findFirst().getAsInt();
+		return ran.nextInt(min, max);
 	}
 
 	/**
@@ -55,17 +54,17 @@ public final class MathUtil {
 	 * @param max
 	 *            The bound (exclusive) of each random long value.
 	 * @param ran
-	 *            Random object.
+	 *            Random source.
 	 * @return A random long with the given long range.
 	 * @throws Exception
 	 *             If the input parameters are invalid.
 	 */
-	public static long getRandomLongInRange(long min, long max, Random ran) throws Exception {
+	public static long getRandomLongInRange(long min, long max, RandomSource ran) throws Exception {
 		if (max == min)
 			return min;
 		if (max < min)
 			throw new Exception();
-		return ran.longs(min, max).findFirst().getAsLong();
+		return ran.nextLong(min, max);
 	}
 
 	/**
@@ -77,28 +76,28 @@ public final class MathUtil {
 	 * @param max
 	 *            The bound (exclusive) of each random double value.
 	 * @param ran
-	 *            Random object.
+	 *            Random source.
 	 * @return A random double with the given double range.
 	 * @throws Exception
 	 *             If the input parameters are invalid.
 	 */
-	public static double getRandomDoubleInRange(double min, double max, Random ran) throws Exception {
+	public static double getRandomDoubleInRange(double min, double max, RandomSource ran) throws Exception {
 		// return ran.nextDouble()*((max - min) + 1) + min;
 		if (max == min)
 			return min;
 		if (max < min)
 			throw new Exception();
-		return ran.doubles(min, max).findFirst().getAsDouble();
+		return ran.nextDouble(min, max);
 	}
 
 	/**
 	 * Get a random boolean value with equal true/false probability.
 	 * 
 	 * @param ran
-	 *            Random object
+	 *            Random source.
 	 * @return A random boolean value.
 	 */
-	public static boolean getRandomBoolean(Random ran) {
+	public static boolean getRandomBoolean(RandomSource ran) {
 		if (ran.nextDouble() < 0.5)
 			return true;
 		else
@@ -114,12 +113,12 @@ public final class MathUtil {
 	 * @param max
 	 *            The bound (exclusive) of each random float value.
 	 * @param ran
-	 *            Random object.
+	 *            Random source.
 	 * @return A random float with the given float range.
 	 * @throws Exception
 	 *             If the input parameters are invalid.
 	 */
-	public static float getRandomFloatInRange(float min, float max, Random ran) throws Exception {
+	public static float getRandomFloatInRange(float min, float max, RandomSource ran) throws Exception {
 		if (max == min)
 			return min;
 		if (max < min)
@@ -136,10 +135,10 @@ public final class MathUtil {
 	 * @param maxStringLength
 	 *            The maximum string length (inclusive).
 	 * @param ran
-	 *            Random object.
+	 *            Random source.
 	 * @return A random String with the given string length range.
 	 */
-	public static String getRandomString(int minStringLength, int maxStringLength, Random ran) {
+	public static String getRandomString(int minStringLength, int maxStringLength, RandomSource ran) {
 		final String SALTCHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890";
 		StringBuilder salt = new StringBuilder();
 		int stringLength;
@@ -168,10 +167,10 @@ public final class MathUtil {
 	 * @param max
 	 *            The bound (exclusive) of each random decimal value.
 	 * @param ran
-	 *            Random object.
+	 *            Random source.
 	 * @return A random decimal with the given decimal range.
 	 */
-	public static String getRandomDecimalInString(double min, double max, Random ran) {
+	public static String getRandomDecimalInString(double min, double max, RandomSource ran) {
 		DecimalFormat df = new DecimalFormat("#.##");
 		try {
 			String result = df.format(getRandomDoubleInRange(min, max, ran));
@@ -183,6 +182,43 @@ public final class MathUtil {
 		return null;
 	}
 
+	/**
+	 * Derive the seed of an independent random stream from a base seed and a
+	 * stream ID, e.g. a query ID. The derived seed only depends on the two input
+	 * values, so that any stream can be reproduced without replaying the streams
+	 * before it. The mixing function is the finalizer of the SplitMix64 generator.
+	 * 
+	 * @param baseSeed
+	 *            Base random seed.
+	 * @param streamID
+	 *            ID of the random stream.
+	 * @return Seed of the random stream.
+	 */
+	public static long deriveSeed(long baseSeed, long streamID) {
+		long z = baseSeed + (streamID + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Calculate a 64-bit fingerprint of a string. The characters are hashed with
+	 * FNV-1a and the result is mixed with the finalizer of the SplitMix64
+	 * generator.
+	 * 
+	 * @param s
+	 *            The string.
+	 * @return Fingerprint of the string.
+	 */
+	public static long fingerprint(String s) {
+		long h = 0xCBF29CE484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= 0x100000001B3L;
+		}
+		return deriveSeed(h, s.length());
+	}
+
 	/**
 	 * Calculate space coverage metric of a collection of booleans. The metric is
 	 * calculated as the ratio of the number boolean values that are true over the
@@ -208,6 +244,29 @@ public final class MathUtil {
 		return results;
 	}
 
+	/**
+	 * Calculate the half-width of the Wilson score confidence interval of a
+	 * proportion. Unlike the normal approximation interval, it does not collapse
+	 * to zero width when the observed proportion is 0 or 1.
+	 * 
+	 * @param successes
+	 *            The number of successes.
+	 * @param trials
+	 *            The number of trials.
+	 * @param z
+	 *            The quantile of the standard normal distribution of the
+	 *            confidence level, e.g. 1.96 for 95%.
+	 * @return The half-width of the confidence interval; 1 if there are no
+	 *         trials.
+	 */
+	public static double calculateWilsonHalfWidth(long successes, long trials, double z) {
+		if (trials <= 0)
+			return 1;
+		double p = (double) successes / trials;
+		double z2 = z * z;
+		return z / (1 + z2 / trials) * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials));
+	}
+
 	/*
 	 * public static void main(String[] args) {
 	 * 
@@ -0,0 +1,155 @@
+package edu.neu.ece.sparqlquerygenerator.utility;
+
+/**
+ * Source of pseudorandom numbers used for random query generation.
+ * Implementations are not thread-safe; each worker owns a random source.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2018-10-02
+ */
+public interface RandomSource {
+
+	/**
+	 * Reset the random source with a seed, so that it generates the same sequence
+	 * of pseudorandom numbers as any random source of the same type with the same
+	 * seed.
+	 *
+	 * @param seed
+	 *            Random seed.
+	 */
+	void setSeed(long seed);
+
+	/**
+	 * Get a pseudorandom integer.
+	 *
+	 * @return A random integer.
+	 */
+	int nextInt();
+
+	/**
+	 * Get a pseudorandom integer between 0 (inclusive) and the bound (exclusive).
+	 *
+	 * @param bound
+	 *            The bound (exclusive), which must be positive.
+	 * @return A random integer.
+	 */
+	int nextInt(int bound);
+
+	/**
+	 * Get a pseudorandom long.
+	 *
+	 * @return A random long.
+	 */
+	long nextLong();
+
+	/**
+	 * Get a pseudorandom double between 0.0 (inclusive) and 1.0 (exclusive).
+	 *
+	 * @return A random double.
+	 */
+	double nextDouble();
+
+	/**
+	 * Get a pseudorandom float between 0.0 (inclusive) and 1.0 (exclusive).
+	 *
+	 * @return A random float.
+	 */
+	float nextFloat();
+
+	/**
+	 * Get a pseudorandom boolean value with equal true/false probability.
+	 *
+	 * @return A random boolean value.
+	 */
+	boolean nextBoolean();
+
+	/**
+	 * Get a pseudorandom integer confirming to the given origin (inclusive) and
+	 * bound (exclusive).
+	 *
+	 * @param origin
+	 *            The origin (inclusive).
+	 * @param bound
+	 *            The bound (exclusive), which must be greater than the origin.
+	 * @return A random integer.
+	 */
+	default int nextInt(int origin, int bound) {
+		int n = bound - origin;
+		if (n > 0)
+			return nextInt(n) + origin;
+		// The range is not representable as a positive integer
+		int r;
+		do {
+			r = nextInt();
+		} while (r < origin || r >= bound);
+		return r;
+	}
+
+	/**
+	 * Get a pseudorandom long confirming to the given origin (inclusive) and bound
+	 * (exclusive).
+	 *
+	 * @param origin
+	 *            The origin (inclusive).
+	 * @param bound
+	 *            The bound (exclusive), which must be greater than the origin.
+	 * @return A random long.
+	 */
+	default long nextLong(long origin, long bound) {
+		long n = bound - origin;
+		long r;
+		if (n > 0) {
+			// Rejection sampling to avoid modulo bias
+			long u = nextLong() >>> 1;
+			while (u + (n - 1) - (r = u % n) < 0)
+				u = nextLong() >>> 1;
+			return r + origin;
+		}
+		do {
+			r = nextLong();
+		} while (r < origin || r >= bound);
+		return r;
+	}
+
+	/**
+	 * Get a pseudorandom double confirming to the given origin (inclusive) and
+	 * bound (exclusive).
+	 *
+	 * @param origin
+	 *            The origin (inclusive).
+	 * @param bound
+	 *            The bound (exclusive), which must be greater than the origin.
+	 * @return A random double.
+	 */
+	default double nextDouble(double origin, double bound) {
+		double r = nextDouble() * (bound - origin) + origin;
+		return r < bound ? r : Math.nextDown(bound);
+	}
+
+	/**
+	 * Get a pseudorandom index of an array of weights, where the probability of
+	 * each index is proportional to its weight.
+	 *
+	 * @param weights
+	 *            Non-negative weights, at least one of which is positive.
+	 * @return A random index.
+	 */
+	default int nextWeightedIndex(double[] weights) {
+		double total = 0;
+		for (double weight : weights)
+			total += weight;
+		double r = nextDouble() * total;
+		int last = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] <= 0)
+				continue;
+			r -= weights[i];
+			if (r < 0)
+				return i;
+			last = i;
+		}
+		// Rounding errors of the total weight
+		return last;
+	}
+}
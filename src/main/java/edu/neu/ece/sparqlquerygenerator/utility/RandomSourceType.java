@@ -0,0 +1,90 @@
+package edu.neu.ece.sparqlquerygenerator.utility;
+
+/**
+ * Types of random sources that can be used for random query generation.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2018-10-02
+ */
+public enum RandomSourceType {
+
+	/**
+	 * Random source backed by java.util.Random.
+	 */
+	JDK("jdk") {
+		@Override
+		public RandomSource create(long seed) {
+			return new JdkRandomSource(seed);
+		}
+	},
+
+	/**
+	 * Random source implementing the SplitMix64 algorithm.
+	 */
+	SPLITMIX("splitmix") {
+		@Override
+		public RandomSource create(long seed) {
+			return new SplitMix64RandomSource(seed);
+		}
+	},
+
+	/**
+	 * Random source implementing the xoshiro256** algorithm.
+	 */
+	XOSHIRO("xoshiro") {
+		@Override
+		public RandomSource create(long seed) {
+			return new Xoshiro256StarStarRandomSource(seed);
+		}
+	};
+
+	/**
+	 * Name of the random source type on console.
+	 */
+	private final String name;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name
+	 *            Name of the random source type on console.
+	 */
+	RandomSourceType(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get name of the random source type on console.
+	 *
+	 * @return Name of the random source type.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Create a random source of this type.
+	 *
+	 * @param seed
+	 *            Random seed.
+	 * @return The random source.
+	 */
+	public abstract RandomSource create(long seed);
+
+	/**
+	 * Get the random source type with the specified name.
+	 *
+	 * @param name
+	 *            Name of the random source type on console.
+	 * @return The random source type.
+	 * @throws IllegalArgumentException
+	 *             If there is no random source type with the name.
+	 */
+	public static RandomSourceType fromName(String name) {
+		for (RandomSourceType type : values())
+			if (type.name.equalsIgnoreCase(name))
+				return type;
+		throw new IllegalArgumentException("Unknown random source type: " + name);
+	}
+}
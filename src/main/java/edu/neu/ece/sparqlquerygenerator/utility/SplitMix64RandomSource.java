@@ -0,0 +1,46 @@
+package edu.neu.ece.sparqlquerygenerator.utility;
+
+/**
+ * Non-synchronized random source implementing the SplitMix64 algorithm of
+ * {@link java.util.SplittableRandom}, with a fixed gamma so that the random
+ * source can be reseeded.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2018-10-02
+ */
+public class SplitMix64RandomSource extends AbstractRandomSource {
+
+	/**
+	 * The increment of the state per pseudorandom number, i.e. the golden gamma.
+	 */
+	private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The state of the random source.
+	 */
+	private long state;
+
+	/**
+	 * Constructor
+	 *
+	 * @param seed
+	 *            Random seed.
+	 */
+	public SplitMix64RandomSource(long seed) {
+		state = seed;
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		state = seed;
+	}
+
+	@Override
+	public long nextLong() {
+		long z = (state += GAMMA);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
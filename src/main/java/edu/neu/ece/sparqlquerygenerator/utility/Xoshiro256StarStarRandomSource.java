@@ -0,0 +1,49 @@
+package edu.neu.ece.sparqlquerygenerator.utility;
+
+/**
+ * Non-synchronized random source implementing the xoshiro256** algorithm of
+ * Blackman and Vigna, whose 256-bit state is initialized from the seed with
+ * SplitMix64 as recommended by the authors.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2018-10-02
+ */
+public class Xoshiro256StarStarRandomSource extends AbstractRandomSource {
+
+	/**
+	 * The state of the random source.
+	 */
+	private long s0, s1, s2, s3;
+
+	/**
+	 * Constructor
+	 *
+	 * @param seed
+	 *            Random seed.
+	 */
+	public Xoshiro256StarStarRandomSource(long seed) {
+		setSeed(seed);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		s0 = MathUtil.deriveSeed(seed, 0);
+		s1 = MathUtil.deriveSeed(seed, 1);
+		s2 = MathUtil.deriveSeed(seed, 2);
+		s3 = MathUtil.deriveSeed(seed, 3);
+	}
+
+	@Override
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+}
@@ -11,6 +11,7 @@ import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 import org.semanticweb.owlapi.model.OWLReflexiveObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
 import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,8 +22,8 @@ import edu.neu.ece.sparqlquerygenerator.main.OntologyExtractor;
  * An instance of this class processes object property axioms that form the
  * definitions/descriptions of the specified object property, including
  * SubObjectPropertyOf axiom, EquivalentObjectProperties axiom,
- * InverseObjectProperties axiom, FunctionalObjectProperty axiom and
- * SymmetricObjectProperty axiom.
+ * InverseObjectProperties axiom, FunctionalObjectProperty axiom,
+ * SymmetricObjectProperty axiom and TransitiveObjectProperty axiom.
  * 
  * @author Yanji Chen
  * @version 1.0
@@ -124,6 +125,11 @@ public class COWLObjectPropertyAxiomVisitor extends COWLPropertyAxiomVisitor {
 		cowlObjectPropertyImpl.getPropertyAttributes().add(axiom.getAxiomType());
 	}
 
+	@Override
+	public void visit(OWLTransitiveObjectPropertyAxiom axiom) {
+		cowlObjectPropertyImpl.getPropertyAttributes().add(axiom.getAxiomType());
+	}
+
 	@Override
 	public void visit(OWLAsymmetricObjectPropertyAxiom axiom) {
 		cowlObjectPropertyImpl.getPropertyAttributes().add(axiom.getAxiomType());
@@ -0,0 +1,99 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests of the depth-first enumeration of generation choices.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class ChoiceEnumeratorTest {
+
+	/**
+	 * Generate a candidate of a small tree of choices: the first choice has 3
+	 * alternatives, the first of which is followed by a choice of 2 alternatives
+	 * and the second by a choice of 1 alternative.
+	 *
+	 * @param enumerator
+	 *            The enumerator.
+	 * @return The taken alternatives.
+	 * @throws Exception
+	 *             If the choices are not deterministic.
+	 */
+	private static List<Integer> generateCandidate(ChoiceEnumerator enumerator) throws Exception {
+		enumerator.beginCandidate();
+		List<Integer> alternatives = new ArrayList<>();
+		int first = enumerator.choose(3);
+		alternatives.add(first);
+		if (first == 0)
+			alternatives.add(enumerator.choose(2));
+		else if (first == 1)
+			alternatives.add(enumerator.choose(1));
+		return alternatives;
+	}
+
+	private static List<List<Integer>> enumerate(ChoiceEnumerator enumerator) throws Exception {
+		List<List<Integer>> candidates = new ArrayList<>();
+		do
+			candidates.add(generateCandidate(enumerator));
+		while (enumerator.nextCandidate());
+		return candidates;
+	}
+
+	@Test
+	public void enumeratesChoicesInOrder() throws Exception {
+		assertEquals(Arrays.asList(Arrays.asList(0, 0), Arrays.asList(0, 1), Arrays.asList(1, 0), Arrays.asList(2)),
+				enumerate(new ChoiceEnumerator(42, false)));
+	}
+
+	@Test
+	public void shuffledEnumerationCoversEveryCandidateOnce() throws Exception {
+		List<List<Integer>> candidates = enumerate(new ChoiceEnumerator(42, true));
+		assertEquals(4, candidates.size());
+		assertEquals(new HashSet<>(enumerate(new ChoiceEnumerator(42, false))), new HashSet<>(candidates));
+		assertEquals(candidates, enumerate(new ChoiceEnumerator(42, true)));
+	}
+
+	@Test
+	public void exhaustedEnumeratorHasNoNextCandidate() throws Exception {
+		ChoiceEnumerator enumerator = new ChoiceEnumerator(42, false);
+		enumerate(enumerator);
+		assertFalse(enumerator.nextCandidate());
+	}
+
+	@Test
+	public void candidateWithoutChoicesExhaustsEnumerator() throws Exception {
+		ChoiceEnumerator enumerator = new ChoiceEnumerator(42, false);
+		enumerator.beginCandidate();
+		assertEquals(0, enumerator.choose(1));
+		assertFalse(enumerator.nextCandidate());
+	}
+
+	@Test
+	public void nondeterministicChoicesAreRejected() throws Exception {
+		ChoiceEnumerator enumerator = new ChoiceEnumerator(42, false);
+		enumerator.beginCandidate();
+		enumerator.choose(3);
+		enumerator.choose(2);
+		assertTrue(enumerator.nextCandidate());
+		enumerator.beginCandidate();
+		try {
+			enumerator.choose(4);
+			fail("Accepted a choice with a different number of alternatives");
+		} catch (Exception e) {
+			assertTrue(e.getMessage().contains("not deterministic"));
+		}
+	}
+}
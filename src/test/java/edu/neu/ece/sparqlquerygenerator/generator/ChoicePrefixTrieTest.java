@@ -0,0 +1,78 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Tests of the recording of exhausted prefixes of generation choices.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class ChoicePrefixTrieTest {
+
+	/**
+	 * Generate a candidate with the given choices, the first of which has 3
+	 * alternatives and the second 2 alternatives.
+	 */
+	private static void generate(ChoicePrefixTrie trie, int... alternatives) throws ExhaustedPrefixException {
+		trie.beginCandidate();
+		trie.choose(alternatives[0], 3);
+		if (alternatives.length > 1)
+			trie.choose(alternatives[1], 2);
+		trie.endCandidate();
+	}
+
+	private static void assertAborted(ChoicePrefixTrie trie, int... alternatives) {
+		try {
+			generate(trie, alternatives);
+			fail("Generated a candidate following an exhausted prefix");
+		} catch (ExhaustedPrefixException e) {
+		}
+	}
+
+	@Test
+	public void generatedCandidateIsAborted() throws Exception {
+		ChoicePrefixTrie trie = new ChoicePrefixTrie();
+		generate(trie, 0, 1);
+		assertAborted(trie, 0, 1);
+		generate(trie, 0, 0);
+		// Both completions of the first alternative are generated
+		assertAborted(trie, 0);
+		assertFalse(trie.isExhausted());
+	}
+
+	@Test
+	public void trieIsExhaustedAfterEveryCandidate() throws Exception {
+		ChoicePrefixTrie trie = new ChoicePrefixTrie();
+		generate(trie, 2);
+		generate(trie, 0, 0);
+		generate(trie, 1);
+		assertFalse(trie.isExhausted());
+		generate(trie, 0, 1);
+		assertTrue(trie.isExhausted());
+	}
+
+	@Test
+	public void candidateWithoutChoicesExhaustsTrie() {
+		ChoicePrefixTrie trie = new ChoicePrefixTrie();
+		trie.beginCandidate();
+		trie.endCandidate();
+		assertTrue(trie.isExhausted());
+	}
+
+	@Test
+	public void candidateWithRandomDataValuesIsNotRecorded() throws Exception {
+		ChoicePrefixTrie trie = new ChoicePrefixTrie();
+		trie.beginCandidate();
+		trie.choose(1, 3);
+		trie.drawDataValue();
+		trie.endCandidate();
+		generate(trie, 1);
+		assertAborted(trie, 1);
+	}
+}
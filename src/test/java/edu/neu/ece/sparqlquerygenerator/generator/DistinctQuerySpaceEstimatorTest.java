@@ -0,0 +1,66 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of the estimation of the distinct query space from duplicate
+ * candidates.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class DistinctQuerySpaceEstimatorTest {
+
+	@Test
+	public void emptyEstimator() {
+		DistinctQuerySpaceEstimator estimator = new DistinctQuerySpaceEstimator(0);
+		assertEquals(1, estimator.getNewQueryProbability(), 0);
+		assertEquals(0, estimator.getEstimatedSpaceSize(), 0);
+	}
+
+	@Test
+	public void onlyNewQueries() {
+		DistinctQuerySpaceEstimator estimator = new DistinctQuerySpaceEstimator(0);
+		for (long fingerprint = 0; fingerprint < 10; fingerprint++)
+			estimator.addCandidate(fingerprint, true);
+		assertEquals(1, estimator.getNewQueryProbability(), 0);
+		// Without doubletons, the bias-corrected Chao1 estimate is n + f1 (f1 - 1) / 2
+		assertEquals(10 + 10 * 9 / 2.0, estimator.getEstimatedSpaceSize(), 0);
+	}
+
+	@Test
+	public void duplicatesGiveChao1AndGoodTuringEstimates() {
+		DistinctQuerySpaceEstimator estimator = new DistinctQuerySpaceEstimator(0);
+		for (long fingerprint = 0; fingerprint < 4; fingerprint++)
+			estimator.addCandidate(fingerprint, true);
+		// Query 0 is drawn twice and query 1 three times
+		estimator.addCandidate(0, false);
+		estimator.addCandidate(1, false);
+		estimator.addCandidate(1, false);
+		// f1 = 2, f2 = 1, n = 7
+		assertEquals(2.0 / 7, estimator.getNewQueryProbability(), 1e-12);
+		assertEquals(4 + 2.0 * 2 / (2 * 1), estimator.getEstimatedSpaceSize(), 1e-12);
+	}
+
+	@Test
+	public void existingQueriesCountAsDrawnOnce() {
+		DistinctQuerySpaceEstimator estimator = new DistinctQuerySpaceEstimator(5);
+		assertEquals(1, estimator.getNewQueryProbability(), 0);
+		assertEquals(5 + 5 * 4 / 2.0, estimator.getEstimatedSpaceSize(), 0);
+	}
+
+	@Test
+	public void abortedCandidatesOnlyLowerNewQueryProbability() {
+		DistinctQuerySpaceEstimator estimator = new DistinctQuerySpaceEstimator(0);
+		for (long fingerprint = 0; fingerprint < 4; fingerprint++)
+			estimator.addCandidate(fingerprint, true);
+		double spaceSize = estimator.getEstimatedSpaceSize();
+		for (int i = 0; i < 4; i++)
+			estimator.addAbortedCandidate();
+		assertEquals(0.5, estimator.getNewQueryProbability(), 0);
+		assertEquals(spaceSize, estimator.getEstimatedSpaceSize(), 0);
+	}
+}
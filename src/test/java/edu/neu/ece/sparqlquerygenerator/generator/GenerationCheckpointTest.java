@@ -0,0 +1,127 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of saving generation checkpoints and resuming query generation from
+ * them.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class GenerationCheckpointTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void saveAndLoadRoundTrip() throws Exception {
+		File checkpointFile = new File(folder.getRoot(), SPARQLQueryGenerator.CHECKPOINT_FILE_NAME);
+		new GenerationCheckpoint("http://example.org/iot#Thing", 42, "splitmix", true, 1234, 100, 250,
+				new long[] { 7, -3 }, Arrays.<Serializable>asList("state", 5)).save(checkpointFile);
+		assertFalse(new File(checkpointFile.getPath() + ".tmp").exists());
+
+		GenerationCheckpoint checkpoint = GenerationCheckpoint.load(checkpointFile);
+		assertEquals("http://example.org/iot#Thing", checkpoint.rootIRIString);
+		assertEquals(42, checkpoint.seed);
+		assertEquals("splitmix", checkpoint.randomSourceType);
+		assertTrue(checkpoint.distinct);
+		assertEquals(1234, checkpoint.settingsFingerprint);
+		assertEquals(100, checkpoint.queryCount);
+		assertEquals(250, checkpoint.attempt);
+		assertArrayEquals(new long[] { 7, -3 }, checkpoint.queryFingerprints);
+		assertEquals(Arrays.asList("state", 5), checkpoint.listenerStates);
+	}
+
+	@Test
+	public void resumedRunMatchesUninterruptedRun() throws Exception {
+		assertResumedRunMatches(false);
+	}
+
+	@Test
+	public void resumedDistinctRunMatchesUninterruptedRun() throws Exception {
+		assertResumedRunMatches(true);
+	}
+
+	@Test
+	public void resumeRejectsDifferentSettings() throws Exception {
+		File outputDirectory = folder.newFolder();
+		SPARQLQueryGenerator generator = new TestOntology().createGenerator(10, 7, false, outputDirectory);
+		generator.setCheckpointInterval(5);
+		generator.setGenerationSettings("filterProbability=0.5");
+		generator.generateRandomSPARQLQueries();
+
+		SPARQLQueryGenerator resumed = new TestOntology().createGenerator(20, 7, false, outputDirectory);
+		resumed.setResume(true);
+		resumed.setGenerationSettings("filterProbability=0.6");
+		try {
+			resumed.generateRandomSPARQLQueries();
+			fail("Resumed with different settings");
+		} catch (Exception e) {
+			assertTrue(e.getMessage().contains("different generation settings"));
+		}
+	}
+
+	@Test
+	public void resumeRejectsMissingQueries() throws Exception {
+		File outputDirectory = folder.newFolder();
+		SPARQLQueryGenerator generator = new TestOntology().createGenerator(10, 7, false, outputDirectory);
+		generator.setCheckpointInterval(5);
+		generator.generateRandomSPARQLQueries();
+		Files.delete(new File(outputDirectory, "query3.rq").toPath());
+
+		SPARQLQueryGenerator resumed = new TestOntology().createGenerator(20, 7, false, outputDirectory);
+		resumed.setResume(true);
+		try {
+			resumed.generateRandomSPARQLQueries();
+			fail("Resumed with a missing query");
+		} catch (Exception e) {
+			assertTrue(e.getMessage().contains("missing or empty"));
+		}
+	}
+
+	/**
+	 * Check that a run stopped after 10 queries and resumed up to 20 queries
+	 * generates the same queries as an uninterrupted run of 20 queries.
+	 *
+	 * @param distinct
+	 *            Generate distinct queries.
+	 * @throws Exception
+	 *             If query generation fails.
+	 */
+	private void assertResumedRunMatches(boolean distinct) throws Exception {
+		File expectedDirectory = folder.newFolder();
+		SPARQLQueryGenerator uninterrupted = new TestOntology().createGenerator(20, 7, distinct, expectedDirectory);
+		uninterrupted.setCheckpointInterval(5);
+		assertEquals(20, uninterrupted.generateRandomSPARQLQueries());
+
+		File outputDirectory = folder.newFolder();
+		SPARQLQueryGenerator stopped = new TestOntology().createGenerator(10, 7, distinct, outputDirectory);
+		stopped.setCheckpointInterval(5);
+		assertEquals(10, stopped.generateRandomSPARQLQueries());
+		SPARQLQueryGenerator resumed = new TestOntology().createGenerator(20, 7, distinct, outputDirectory);
+		resumed.setCheckpointInterval(5);
+		resumed.setResume(true);
+		assertEquals(20, resumed.generateRandomSPARQLQueries());
+
+		for (int queryID = 0; queryID < 20; queryID++) {
+			String fileName = "query" + queryID + ".rq";
+			assertArrayEquals(fileName, Files.readAllBytes(new File(expectedDirectory, fileName).toPath()),
+					Files.readAllBytes(new File(outputDirectory, fileName).toPath()));
+		}
+	}
+}
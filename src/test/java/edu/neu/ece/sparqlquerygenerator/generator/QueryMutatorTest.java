@@ -0,0 +1,121 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSource;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSourceType;
+
+/**
+ * Tests of the derivation of mutants from a corpus of queries.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class QueryMutatorTest {
+
+	private static final String PREFIX = "PREFIX : <" + TestOntology.NAMESPACE + ">\n";
+
+	private static final String PARENT = PREFIX + "SELECT ?d WHERE { ?d a :Device . ?d :hasSensor ?s . ?d :partOf ?e ."
+			+ " ?s a :Sensor OPTIONAL { ?s :count ?c FILTER ( ?c > 100 ) } }";
+
+	private static final String DONOR = PREFIX + "SELECT ?s WHERE { ?s a :Sensor . ?s :observes ?p . ?s :weight ?w }";
+
+	private TestOntology ontology;
+
+	@Before
+	public void setUp() throws Exception {
+		ontology = new TestOntology();
+	}
+
+	private QueryMutator createMutator() {
+		QueryMutator mutator = new QueryMutator(ontology.extractor.getClassMap(),
+				ontology.extractor.getObjectPropertyMap(), ontology.extractor.getDataPropertyMap());
+		mutator.addQuery(QueryFactory.create(PARENT));
+		mutator.addQuery(QueryFactory.create(DONOR));
+		return mutator;
+	}
+
+	private static List<String> mutate(QueryMutator mutator, long seed, int number) {
+		RandomSource ran = RandomSourceType.SPLITMIX.create(seed);
+		List<String> mutants = new ArrayList<>();
+		for (int queryID = 0; queryID < number; queryID++) {
+			Query mutant = mutator.mutate(ran, queryID);
+			mutants.add(mutant == null ? null : mutant.serialize());
+		}
+		return mutants;
+	}
+
+	@Test
+	public void emptyCorpusHasNoMutant() {
+		QueryMutator mutator = new QueryMutator(ontology.extractor.getClassMap(),
+				ontology.extractor.getObjectPropertyMap(), ontology.extractor.getDataPropertyMap());
+		assertEquals(0, mutator.getCorpusSize());
+		assertNull(mutator.mutate(RandomSourceType.SPLITMIX.create(42), 0));
+	}
+
+	@Test
+	public void mutantsAreValidQueriesThatDifferFromTheCorpus() {
+		QueryMutator mutator = createMutator();
+		int mutantNumber = 0;
+		for (String mutant : mutate(mutator, 42, 500)) {
+			if (mutant == null)
+				continue;
+			mutantNumber++;
+			String serialized = QueryFactory.create(mutant).serialize();
+			assertNotEquals(QueryFactory.create(PARENT).serialize(), serialized);
+			assertNotEquals(QueryFactory.create(DONOR).serialize(), serialized);
+		}
+		int countedNumber = 0;
+		for (QueryMutator.Operator operator : QueryMutator.Operator.values()) {
+			assertTrue(operator.toString(), mutator.getMutantCount(operator) > 0);
+			countedNumber += mutator.getMutantCount(operator);
+		}
+		assertEquals(mutantNumber, countedNumber);
+	}
+
+	@Test
+	public void corpusIsNotModified() {
+		Query parent = QueryFactory.create(PARENT);
+		Query donor = QueryFactory.create(DONOR);
+		QueryMutator mutator = new QueryMutator(ontology.extractor.getClassMap(),
+				ontology.extractor.getObjectPropertyMap(), ontology.extractor.getDataPropertyMap());
+		mutator.addQuery(parent);
+		mutator.addQuery(donor);
+		mutate(mutator, 42, 500);
+		assertEquals(2, mutator.getCorpusSize());
+		// Mutants share the unchanged parts of the queries they are derived from
+		assertEquals(QueryFactory.create(PARENT).serialize(), parent.serialize());
+		assertEquals(QueryFactory.create(DONOR).serialize(), donor.serialize());
+	}
+
+	@Test
+	public void graftedVariablesAreRenamedWithQueryID() {
+		QueryMutator mutator = createMutator();
+		List<String> mutants = mutate(mutator, 42, 500);
+		boolean grafted = false;
+		for (int queryID = 0; queryID < mutants.size(); queryID++)
+			if (mutants.get(queryID) != null && mutants.get(queryID).contains("?w_" + queryID)) {
+				grafted = true;
+				assertTrue(mutants.get(queryID).contains("?p_" + queryID));
+			}
+		assertTrue(grafted);
+	}
+
+	@Test
+	public void mutantsOnlyDependOnRandomSource() {
+		assertEquals(mutate(createMutator(), 42, 200), mutate(createMutator(), 42, 200));
+		assertNotEquals(mutate(createMutator(), 42, 200), mutate(createMutator(), 43, 200));
+	}
+}
@@ -0,0 +1,72 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.Syntax;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that the query with a query ID only depends on the seed and the query
+ * ID.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class SPARQLQueryGeneratorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestOntology ontology;
+
+	@Before
+	public void setUp() throws Exception {
+		ontology = new TestOntology();
+	}
+
+	@Test
+	public void queryOnlyDependsOnSeedAndQueryID() throws Exception {
+		SPARQLQueryGenerator generator = ontology.createGenerator(20, 7, false, folder.getRoot());
+		Query query13 = generator.generateSPARQLQuery(13);
+		Query query5 = generator.generateSPARQLQuery(5);
+		assertEquals(query13, generator.generateSPARQLQuery(13));
+		assertEquals(query5, generator.generateSPARQLQuery(5));
+
+		SPARQLQueryGenerator other = new TestOntology().createGenerator(20, 7, false, folder.getRoot());
+		assertEquals(query5, other.generateSPARQLQuery(5));
+		assertEquals(query13, other.generateSPARQLQuery(13));
+	}
+
+	@Test
+	public void queryIDReproducesGeneratedQuery() throws Exception {
+		File outputDirectory = folder.newFolder();
+		assertEquals(20, ontology.createGenerator(20, 7, false, outputDirectory).generateRandomSPARQLQueries());
+		SPARQLQueryGenerator generator = new TestOntology().createGenerator(20, 7, false, folder.getRoot());
+		for (int queryID : new int[] { 19, 0, 11 })
+			assertEquals(
+					new String(Files.readAllBytes(new File(outputDirectory, "query" + queryID + ".rq").toPath()),
+							StandardCharsets.UTF_8),
+					generator.generateSPARQLQuery(queryID).serialize(Syntax.syntaxSPARQL_11));
+	}
+
+	@Test
+	public void seedChangesQueries() throws Exception {
+		SPARQLQueryGenerator generator = ontology.createGenerator(20, 7, false, folder.getRoot());
+		SPARQLQueryGenerator other = new TestOntology().createGenerator(20, 8, false, folder.getRoot());
+		int differences = 0;
+		for (int queryID = 0; queryID < 20; queryID++)
+			if (!generator.generateSPARQLQuery(queryID).equals(other.generateSPARQLQuery(queryID)))
+				differences++;
+		assertNotEquals(0, differences);
+	}
+}
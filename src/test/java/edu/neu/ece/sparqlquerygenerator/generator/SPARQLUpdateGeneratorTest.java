@@ -0,0 +1,92 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.update.UpdateFactory;
+import org.apache.jena.update.UpdateRequest;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSourceType;
+
+/**
+ * Tests that generated SPARQL updates parse and only depend on the seed and
+ * the update ID.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class SPARQLUpdateGeneratorTest {
+
+	private static SPARQLUpdateGenerator createGenerator(String resourceName, long seed)
+			throws OWLOntologyCreationException {
+		TestOntology ontology = new TestOntology(resourceName);
+		return new SPARQLUpdateGenerator(
+				ontology.extractor.getClassMap().get(ontology.ont.getOWLOntologyManager().getOWLDataFactory()
+						.getOWLClass(IRI.create(TestOntology.ROOT_IRI))),
+				ontology.extractor.getClassMap(), seed, RandomSourceType.SPLITMIX, TestOntology.NAMESPACE);
+	}
+
+	private static List<String> generate(SPARQLUpdateGenerator generator, int number) throws Exception {
+		List<String> updates = new ArrayList<>();
+		for (int updateID = 0; updateID < number; updateID++)
+			updates.add(generator.generateSPARQLUpdate(updateID).toString());
+		return updates;
+	}
+
+	/**
+	 * Check that generated updates parse and that every kind of update is
+	 * generated.
+	 *
+	 * @param resourceName
+	 *            Name of the resource of the ontology.
+	 * @throws Exception
+	 *             If update generation fails.
+	 */
+	private static void assertUpdatesParse(String resourceName) throws Exception {
+		boolean[] kinds = new boolean[4];
+		for (String update : generate(createGenerator(resourceName, 42), 200)) {
+			UpdateRequest request = UpdateFactory.create(update);
+			assertEquals(1, request.getOperations().size());
+			// The parsed update is serialized as the generated one
+			assertEquals(update, request.toString());
+			if (update.contains("INSERT DATA"))
+				kinds[0] = true;
+			else if (update.contains("DELETE DATA"))
+				kinds[1] = true;
+			else if (update.contains("DELETE WHERE"))
+				kinds[2] = true;
+			else if (update.contains("INSERT"))
+				kinds[3] = true;
+		}
+		for (boolean kind : kinds)
+			assertTrue(kind);
+	}
+
+	@Test
+	public void updatesParse() throws Exception {
+		assertUpdatesParse("/iot.ttl");
+	}
+
+	@Test
+	public void updatesOfClassWithHyphenatedNameParse() throws Exception {
+		// The Sensor class is named Smart-Sensor, which is not a valid variable name
+		assertUpdatesParse("/iot-hyphenated.ttl");
+	}
+
+	@Test
+	public void updateOnlyDependsOnSeedAndUpdateID() throws Exception {
+		SPARQLUpdateGenerator generator = createGenerator("/iot.ttl", 42);
+		List<String> updates = generate(generator, 50);
+		assertEquals(updates, generate(createGenerator("/iot.ttl", 42), 50));
+		assertEquals(updates.get(37), generator.generateSPARQLUpdate(37).toString());
+		assertNotEquals(updates, generate(createGenerator("/iot.ttl", 43), 50));
+	}
+}
@@ -0,0 +1,70 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.junit.Test;
+
+/**
+ * Tests of the re-binding of variables of pooled graph patterns.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class SubPatternPoolTest {
+
+	private static ElementGroup parsePattern(String pattern) {
+		return (ElementGroup) QueryFactory.create("SELECT * WHERE " + pattern).getQueryPattern();
+	}
+
+	private static SubPatternPool.Entry createEntry(String pattern) {
+		return new SubPatternPool.Entry(parsePattern(pattern), Var.alloc("x"), new HashMap<>());
+	}
+
+	@Test
+	public void rootVariableIsBoundAndOtherVariablesAreRenamed() {
+		SubPatternPool.Entry entry = createEntry("{ ?x <http://e/p> ?y . ?y <http://e/q> ?z FILTER ( ?z > 3 ) }");
+		assertEquals(new HashSet<>(Arrays.asList(Var.alloc("y"), Var.alloc("z"))), entry.variables);
+		assertEquals(parsePattern("{ ?w <http://e/p> ?y_2 . ?y_2 <http://e/q> ?z_2 FILTER ( ?z_2 > 3 ) }").toString(),
+				SubPatternPool.rebind(entry, Var.alloc("w"), 2).toString());
+	}
+
+	@Test
+	public void variablesAreNotRenamedWithoutSuffix() {
+		SubPatternPool.Entry entry = createEntry("{ ?x <http://e/p> ?y }");
+		assertEquals(parsePattern("{ ?w <http://e/p> ?y }").toString(),
+				SubPatternPool.rebind(entry, Var.alloc("w"), 0).toString());
+	}
+
+	@Test
+	public void valuesAndSubQueryVariablesAreRenamed() {
+		SubPatternPool.Entry entry = createEntry("{ ?x a ?c { SELECT DISTINCT ?y WHERE { ?y ?p ?z . ?x ?q ?y } LIMIT 5 }"
+				+ " VALUES ?z { <a:b> <a:c> } FILTER NOT EXISTS { ?x ?r ?z } }");
+		assertEquals(new HashSet<>(Arrays.asList(Var.alloc("c"), Var.alloc("y"), Var.alloc("z"))), entry.variables);
+		// Variables that are only in scope inside the subquery or the filter keep
+		// their names
+		assertEquals(
+				parsePattern("{ ?w a ?c_3 { SELECT DISTINCT ?y_3 WHERE { ?y_3 ?p ?z_3 . ?w ?q ?y_3 } LIMIT 5 }"
+						+ " VALUES ?z_3 { <a:b> <a:c> } FILTER NOT EXISTS { ?w ?r ?z_3 } }").toString(),
+				SubPatternPool.rebind(entry, Var.alloc("w"), 3).toString());
+	}
+
+	@Test
+	public void pooledPatternIsNotModified() {
+		String pattern = "{ ?x <http://e/p> ?y { SELECT ?y WHERE { ?y <http://e/q> ?z } } VALUES ?y { <a:b> } }";
+		SubPatternPool.Entry entry = createEntry(pattern);
+		String before = entry.pattern.toString();
+		ElementGroup rebound = SubPatternPool.rebind(entry, Var.alloc("w"), 1);
+		rebound.addTriplePattern(new Triple(Var.alloc("w"), Var.alloc("p"), Var.alloc("o")));
+		assertEquals(before, entry.pattern.toString());
+		assertEquals(parsePattern(pattern).toString(), entry.pattern.toString());
+	}
+}
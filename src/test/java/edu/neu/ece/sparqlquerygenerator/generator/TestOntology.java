@@ -0,0 +1,104 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.PrefixDocumentFormat;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import edu.neu.ece.sparqlquerygenerator.main.OntologyExtractor;
+
+/**
+ * Small IoT ontology with individuals, loaded from the test resources, from
+ * which the tests create query generators with the default probabilities of
+ * the console.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+final class TestOntology {
+
+	/**
+	 * IRI of the root class.
+	 */
+	static final String ROOT_IRI = "http://example.org/iot#Thing";
+
+	/**
+	 * Namespace of the ontology.
+	 */
+	static final String NAMESPACE = "http://example.org/iot#";
+
+	/**
+	 * The loaded ontology.
+	 */
+	final OWLOntology ont;
+
+	/**
+	 * Ontology extractor of the loaded ontology.
+	 */
+	final OntologyExtractor extractor;
+
+	/**
+	 * A map that maps prefix names to prefixes.
+	 */
+	final Map<String, String> prefixName2PrefixMap;
+
+	/**
+	 * Load the ontology and extract its axioms. Each generator needs its own
+	 * extractor, since the generator marks the extracted classes as visited.
+	 *
+	 * @throws OWLOntologyCreationException
+	 *             If the ontology cannot be loaded.
+	 */
+	TestOntology() throws OWLOntologyCreationException {
+		this("/iot.ttl");
+	}
+
+	/**
+	 * Load a variant of the ontology from the test resources and extract its
+	 * axioms.
+	 *
+	 * @param resourceName
+	 *            Name of the resource of the ontology.
+	 * @throws OWLOntologyCreationException
+	 *             If the ontology cannot be loaded.
+	 */
+	TestOntology(String resourceName) throws OWLOntologyCreationException {
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		ont = manager.loadOntology(IRI.create(getClass().getResource(resourceName)));
+		OWLReasoner reasoner = new StructuralReasonerFactory().createReasoner(ont);
+		reasoner.precomputeInferences();
+		extractor = new OntologyExtractor(ont, reasoner);
+		extractor.extract();
+		PrefixDocumentFormat df = (PrefixDocumentFormat) manager.getOntologyFormat(ont);
+		prefixName2PrefixMap = new HashMap<>(df.getPrefixName2PrefixMap());
+	}
+
+	/**
+	 * Create a query generator of the ontology with the default probabilities of
+	 * the console.
+	 *
+	 * @param queryNumber
+	 *            The number of queries.
+	 * @param seed
+	 *            Random seed.
+	 * @param distinct
+	 *            Generate distinct queries.
+	 * @param outputDirectory
+	 *            Directory of the output queries.
+	 * @return The query generator.
+	 */
+	SPARQLQueryGenerator createGenerator(int queryNumber, long seed, boolean distinct, File outputDirectory) {
+		return new SPARQLQueryGenerator(ROOT_IRI, queryNumber, seed, distinct, outputDirectory, 0.9, 1.0, 0.5, 0.5,
+				0.8, 0.5, 0.2, 0.5, 0.7, 0.1, 0.1, ont.getOWLOntologyManager().getOWLDataFactory(), extractor,
+				prefixName2PrefixMap);
+	}
+}
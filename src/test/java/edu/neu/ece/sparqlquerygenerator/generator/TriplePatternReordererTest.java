@@ -0,0 +1,118 @@
+package edu.neu.ece.sparqlquerygenerator.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.TriplePath;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.neu.ece.sparqlquerygenerator.statistics.DatasetStatistics;
+import edu.neu.ece.sparqlquerygenerator.utility.RandomSourceType;
+
+/**
+ * Tests of the reordering of triple patterns by their estimated selectivity.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class TriplePatternReordererTest {
+
+	private static final String PREFIX = "PREFIX : <" + TestOntology.NAMESPACE + ">\n";
+
+	/**
+	 * Triple patterns matching 80 (serial), 40 (hasSensor), 20 (partOf) and 60
+	 * (Sensor) triples of the test ontology.
+	 */
+	private static final String TRIPLE_PATTERNS = "?s :serial ?n . ?d :hasSensor ?s . ?d :partOf ?e . ?s a :Sensor";
+
+	private DatasetStatistics statistics;
+
+	@Before
+	public void setUp() throws Exception {
+		statistics = new DatasetStatistics(new TestOntology().ont);
+	}
+
+	private static Element parsePattern(String pattern) {
+		return QueryFactory.create(PREFIX + "SELECT * WHERE " + pattern).getQueryPattern();
+	}
+
+	private Element reorder(TriplePatternOrder order, Element pattern) {
+		return new TriplePatternReorderer(order, statistics, RandomSourceType.SPLITMIX.create(42)).reorder(pattern);
+	}
+
+	private static List<TriplePath> getTriplePatterns(Element pattern) {
+		return ((ElementPathBlock) ((ElementGroup) pattern).get(0)).getPattern().getList();
+	}
+
+	@Test
+	public void bestOrderStartsWithMostSelectiveTriplePattern() {
+		assertEquals(parsePattern("{ ?d :partOf ?e . ?d :hasSensor ?s . ?s a :Sensor . ?s :serial ?n }").toString(),
+				reorder(TriplePatternOrder.BEST, parsePattern("{ " + TRIPLE_PATTERNS + " }")).toString());
+	}
+
+	@Test
+	public void worstOrderStartsWithLeastSelectiveTriplePattern() {
+		assertEquals(parsePattern("{ ?s :serial ?n . ?s a :Sensor . ?d :hasSensor ?s . ?d :partOf ?e }").toString(),
+				reorder(TriplePatternOrder.WORST, parsePattern("{ " + TRIPLE_PATTERNS + " }")).toString());
+	}
+
+	@Test
+	public void triplePatternsWithSameEstimateKeepGeneratedOrder() {
+		// Both data properties have a triple for every device and sensor
+		String pattern = "{ ?s :weight ?w . ?s :serial ?n . ?d :partOf ?e }";
+		assertEquals(parsePattern("{ ?d :partOf ?e . ?s :weight ?w . ?s :serial ?n }").toString(),
+				reorder(TriplePatternOrder.BEST, parsePattern(pattern)).toString());
+		assertEquals(parsePattern("{ ?s :weight ?w . ?s :serial ?n . ?d :partOf ?e }").toString(),
+				reorder(TriplePatternOrder.WORST, parsePattern(pattern)).toString());
+	}
+
+	@Test
+	public void nestedGraphPatternsAreReorderedWithoutModifyingThePattern() {
+		String pattern = "{ ?x :locatedIn ?l FILTER NOT EXISTS { " + TRIPLE_PATTERNS + " } OPTIONAL { "
+				+ TRIPLE_PATTERNS + " } }";
+		Element element = parsePattern(pattern);
+		String before = element.toString();
+		String best = "?d :partOf ?e . ?d :hasSensor ?s . ?s a :Sensor . ?s :serial ?n";
+		assertEquals(parsePattern("{ ?x :locatedIn ?l FILTER NOT EXISTS { " + best + " } OPTIONAL { " + best
+				+ " } }").toString(), reorder(TriplePatternOrder.BEST, element).toString());
+		assertEquals(before, element.toString());
+	}
+
+	@Test
+	public void generatedOrderKeepsThePattern() {
+		Element element = parsePattern("{ " + TRIPLE_PATTERNS + " }");
+		assertSame(element, reorder(TriplePatternOrder.GENERATED, element));
+	}
+
+	@Test
+	public void randomOrderIsAPermutationDrawnFromRandomSource() {
+		Element element = parsePattern("{ " + TRIPLE_PATTERNS + " }");
+		TriplePatternReorderer reorderer = new TriplePatternReorderer(TriplePatternOrder.RANDOM, statistics,
+				RandomSourceType.SPLITMIX.create(42));
+		Element reordered = reorderer.reorder(element);
+		assertTrue(reorderer.isRandomOrderDrawn());
+		assertEquals(new HashSet<>(getTriplePatterns(element)), new HashSet<>(getTriplePatterns(reordered)));
+		assertEquals(reordered.toString(), reorder(TriplePatternOrder.RANDOM, element).toString());
+	}
+
+	@Test
+	public void singleTriplePatternDrawsNoRandomOrder() {
+		Query query = QueryFactory.create(PREFIX + "SELECT * WHERE { ?s a :Sensor }");
+		TriplePatternReorderer reorderer = new TriplePatternReorderer(TriplePatternOrder.RANDOM, statistics,
+				RandomSourceType.SPLITMIX.create(42));
+		assertEquals(query.getQueryPattern().toString(), reorderer.reorder(query.getQueryPattern()).toString());
+		assertFalse(reorderer.isRandomOrderDrawn());
+	}
+}
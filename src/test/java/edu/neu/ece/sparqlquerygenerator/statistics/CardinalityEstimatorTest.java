@@ -0,0 +1,93 @@
+package edu.neu.ece.sparqlquerygenerator.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.jena.query.QueryFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Tests of the estimation of the number of results of SPARQL queries from the
+ * statistics of the small IoT ontology of the test resources, which has 60
+ * sensors and 20 devices with two sensors each.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class CardinalityEstimatorTest {
+
+	private static final String PREFIX = "PREFIX : <http://example.org/iot#>\n";
+
+	private static DatasetStatistics statistics;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		statistics = new DatasetStatistics(OWLManager.createOWLOntologyManager()
+				.loadOntology(IRI.create(CardinalityEstimatorTest.class.getResource("/iot.ttl"))));
+	}
+
+	private static double estimate(String query) {
+		return new CardinalityEstimator(statistics).estimate(QueryFactory.create(PREFIX + query));
+	}
+
+	@Test
+	public void statisticsCountAssertions() {
+		assertEquals(60, statistics.getInstanceCount("http://example.org/iot#Sensor"));
+		assertEquals(40, statistics.getTripleCount("http://example.org/iot#hasSensor"));
+		assertEquals(20, statistics.getDistinctSubjectCount("http://example.org/iot#hasSensor"));
+		assertEquals(40, statistics.getDistinctObjectCount("http://example.org/iot#hasSensor"));
+	}
+
+	@Test
+	public void triplePatterns() {
+		assertEquals(60, estimate("SELECT * WHERE { ?s a :Sensor }"), 0);
+		assertEquals(40, estimate("SELECT * WHERE { ?d :hasSensor ?s }"), 0);
+		// Each device has 40 / 20 sensors
+		assertEquals(2, estimate("SELECT * WHERE { :d0 :hasSensor ?s }"), 0);
+	}
+
+	@Test
+	public void joinsDivideByDistinctValuesOfSharedVariables() {
+		assertEquals(60 * 40 / 60.0, estimate("SELECT * WHERE { ?s a :Sensor . ?d :hasSensor ?s }"), 1e-9);
+		// Without a shared variable the join is a cross product
+		assertEquals(60 * 20, estimate("SELECT * WHERE { ?s a :Sensor . ?d a :Device }"), 1e-9);
+	}
+
+	@Test
+	public void optionalKeepsLeftSideAndUnionAddsSides() {
+		assertEquals(20, estimate("SELECT * WHERE { ?d a :Device OPTIONAL { ?d :partOf ?e } }"), 1e-9);
+		assertEquals(80, estimate("SELECT * WHERE { { ?x a :Sensor } UNION { ?x a :Device } }"), 1e-9);
+		// MINUS without a shared variable removes nothing
+		assertEquals(60, estimate("SELECT * WHERE { ?s a :Sensor MINUS { ?d a :Device } }"), 1e-9);
+	}
+
+	@Test
+	public void solutionModifiers() {
+		// Sensors observe two properties
+		assertEquals(2, estimate("SELECT DISTINCT ?o WHERE { ?s :observes ?o }"), 1e-9);
+		assertEquals(1, estimate("SELECT (COUNT(?s) AS ?n) WHERE { ?s a :Sensor }"), 0);
+		assertEquals(20, estimate("SELECT ?d (COUNT(?s) AS ?n) WHERE { ?d :hasSensor ?s } GROUP BY ?d"), 1e-9);
+		assertEquals(10, estimate("SELECT * WHERE { ?s a :Sensor } LIMIT 10"), 0);
+		assertEquals(5, estimate("SELECT * WHERE { ?s a :Sensor } OFFSET 55"), 0);
+	}
+
+	@Test
+	public void filters() {
+		// Comparisons outside the range of the values keep all or none of them
+		assertEquals(60, estimate("SELECT * WHERE { ?s :count ?c FILTER ( ?c >= 0 ) }"), 1e-9);
+		assertEquals(0, estimate("SELECT * WHERE { ?s :count ?c FILTER ( 10000 < ?c ) }"), 1e-9);
+		// 19 of the 80 serial numbers start with SN-alpha
+		assertEquals(19, estimate("SELECT * WHERE { ?s :serial ?n FILTER STRSTARTS(?n, \"SN-alpha\") }"), 1e-9);
+		// Filters over variables of no data property keep a third of the solutions
+		assertEquals(20, estimate("SELECT * WHERE { ?s a :Sensor FILTER ( STR(?s) > \"a\" ) }"), 1e-9);
+	}
+
+	@Test
+	public void valuesRowsOnlyCountIfValuesAreInDataset() {
+		assertEquals(1, estimate("SELECT * WHERE { ?s :serial ?n VALUES ?n { \"SN-alpha-0\" \"SN-omega-0\" } }"),
+				1e-9);
+	}
+}
@@ -0,0 +1,54 @@
+package edu.neu.ece.sparqlquerygenerator.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Tests of the derivation of per-query random seeds.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2019-07-29
+ */
+public class MathUtilTest {
+
+	@Test
+	public void deriveSeedOnlyDependsOnBaseSeedAndStreamID() {
+		assertEquals(MathUtil.deriveSeed(42, 1234567), MathUtil.deriveSeed(42, 1234567));
+		assertNotEquals(MathUtil.deriveSeed(42, 0), MathUtil.deriveSeed(42, 1));
+		assertNotEquals(MathUtil.deriveSeed(42, 0), MathUtil.deriveSeed(43, 0));
+	}
+
+	@Test
+	public void deriveSeedMatchesSplitMix64Stream() {
+		// The derived seeds of a base seed are the outputs of SplitMix64 seeded with
+		// it, so the streams of consecutive query IDs are independent
+		SplittableRandom random = new SplittableRandom(42);
+		for (int streamID = 0; streamID < 100; streamID++)
+			assertEquals(random.nextLong(), MathUtil.deriveSeed(42, streamID));
+	}
+
+	@Test
+	public void derivedSeedsDoNotCollide() {
+		Set<Long> seeds = new HashSet<>();
+		for (long baseSeed = 0; baseSeed < 100; baseSeed++)
+			for (int streamID = 0; streamID < 1000; streamID++)
+				seeds.add(MathUtil.deriveSeed(baseSeed, streamID));
+		assertEquals(100 * 1000, seeds.size());
+	}
+
+	@Test
+	public void fingerprintOnlyDependsOnString() {
+		assertEquals(MathUtil.fingerprint("SELECT * WHERE { ?s ?p ?o }"),
+				MathUtil.fingerprint("SELECT * WHERE { ?s ?p ?o }"));
+		assertNotEquals(MathUtil.fingerprint("SELECT * WHERE { ?s ?p ?o }"),
+				MathUtil.fingerprint("SELECT * WHERE { ?o ?p ?s }"));
+		assertNotEquals(MathUtil.fingerprint(""), MathUtil.fingerprint("\0"));
+	}
+}
@@ -0,0 +1,101 @@
+package edu.neu.ece.sparqlquerygenerator.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Tests of the random sources used for random query generation.
+ *
+ * @author Yanji Chen
+ * @version 1.0
+ * @since 2018-10-02
+ */
+public class RandomSourceTest {
+
+	private static long[] draw(RandomSource random, int n) {
+		long[] values = new long[n];
+		for (int i = 0; i < n; i++)
+			values[i] = random.nextLong();
+		return values;
+	}
+
+	@Test
+	public void sameSeedReproducesStream() {
+		for (RandomSourceType type : RandomSourceType.values()) {
+			assertArrayEquals(type.getName(), draw(type.create(42), 100), draw(type.create(42), 100));
+			assertFalse(type.getName(), Arrays.equals(draw(type.create(42), 100), draw(type.create(43), 100)));
+		}
+	}
+
+	@Test
+	public void setSeedRestartsStream() {
+		for (RandomSourceType type : RandomSourceType.values()) {
+			RandomSource random = type.create(42);
+			long[] first = draw(random, 100);
+			random.setSeed(42);
+			assertArrayEquals(type.getName(), first, draw(random, 100));
+		}
+	}
+
+	@Test
+	public void jdkMatchesJavaUtilRandom() {
+		Random expected = new Random(42);
+		RandomSource random = new JdkRandomSource(42);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(expected.nextLong(), random.nextLong());
+			assertEquals(expected.nextInt(17), random.nextInt(17));
+			assertEquals(expected.nextDouble(), random.nextDouble(), 0);
+		}
+	}
+
+	@Test
+	public void splitMixMatchesSplittableRandom() {
+		SplittableRandom expected = new SplittableRandom(42);
+		RandomSource random = new SplitMix64RandomSource(42);
+		for (int i = 0; i < 100; i++)
+			assertEquals(expected.nextLong(), random.nextLong());
+	}
+
+	@Test
+	public void boundedValuesStayInRange() {
+		for (RandomSourceType type : RandomSourceType.values()) {
+			RandomSource random = type.create(42);
+			boolean[] seen = new boolean[7];
+			for (int i = 0; i < 1000; i++) {
+				int n = random.nextInt(7);
+				assertTrue(n >= 0 && n < 7);
+				seen[n] = true;
+				int m = random.nextInt(-3, 4);
+				assertTrue(m >= -3 && m < 4);
+				long l = random.nextLong(Long.MIN_VALUE, 0);
+				assertTrue(l < 0);
+				double d = random.nextDouble(1.5, 2.5);
+				assertTrue(d >= 1.5 && d < 2.5);
+			}
+			for (boolean s : seen)
+				assertTrue(type.getName(), s);
+		}
+	}
+
+	@Test
+	public void weightedIndexSkipsZeroWeights() {
+		for (RandomSourceType type : RandomSourceType.values()) {
+			RandomSource random = type.create(42);
+			int[] counts = new int[4];
+			for (int i = 0; i < 10000; i++)
+				counts[random.nextWeightedIndex(new double[] { 1, 0, 3, 0 })]++;
+			assertEquals(0, counts[1]);
+			assertEquals(0, counts[3]);
+			// The index with weight 3 is drawn about three times as often
+			assertTrue(type.getName(), counts[2] > 2.5 * counts[0] && counts[2] < 3.5 * counts[0]);
+		}
+	}
+}